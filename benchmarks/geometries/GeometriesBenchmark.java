@@ -0,0 +1,121 @@
+package geometries;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import primitives.Double3;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+/**
+ * Benchmarks of the intersection of a ray with a collection of many shapes,
+ * organized as a flat list and as a bounding volume hierarchy, or merged into a single triangle mesh.
+ *
+ * @author Shneor and Emanuel
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometriesBenchmark {
+    /**
+     * Amount of the rays (a power of 2)
+     */
+    private static final int RAYS_COUNT = 1024;
+
+    /**
+     * Amount of the triangles in the collection
+     */
+    @Param({"100", "10000"})
+    public int count;
+
+    /**
+     * Whether the collection is organized as a bounding volume hierarchy
+     */
+    @Param({"true", "false"})
+    public boolean bvh;
+
+    /**
+     * Whether the triangles are merged into a single mesh (with its own hierarchy, so bvh doesn't matter)
+     */
+    @Param({"false", "true"})
+    public boolean mesh;
+
+    /**
+     * The collection of the shapes - small triangles scattered in the cube [-50,50]^3
+     */
+    private Geometries geometries;
+    /**
+     * The rays, from random points of a far plane towards the cube
+     */
+    private Ray[] rays;
+    /**
+     * Index of the next ray
+     */
+    private int next = 0;
+
+    /**
+     * Creates the shapes and the rays.
+     */
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(2024);
+        geometries = new Geometries();
+        double[] positions = new double[9 * count];
+        int[] indices = new int[3 * count];
+        for (int i = 0; i < count; ++i) {
+            Point p = new Point(random.nextDouble(-50, 50), random.nextDouble(-50, 50), random.nextDouble(-50, 50));
+            Point p1 = p.add(new Vector(2, 0, 0.5)), p2 = p.add(new Vector(0, 2, -0.5));
+            if (!mesh)
+                geometries.add(new Triangle(p, p1, p2));
+            int v = 3 * i;
+            for (Point vertex : new Point[]{p, p1, p2}) {
+                positions[3 * v] = vertex.getX();
+                positions[3 * v + 1] = vertex.getY();
+                positions[3 * v + 2] = vertex.getZ();
+                indices[v] = v++;
+            }
+        }
+        if (mesh)
+            geometries.add(new TriangleMesh(positions, indices));
+        else if (bvh)
+            geometries.buildBVH();
+
+        rays = new Ray[RAYS_COUNT];
+        for (int i = 0; i < RAYS_COUNT; ++i) {
+            Point head = new Point(random.nextDouble(-50, 50), random.nextDouble(-50, 50), 200);
+            Point target = new Point(random.nextDouble(-50, 50), random.nextDouble(-50, 50), -50);
+            rays[i] = new Ray(head, target.subtract(head));
+        }
+    }
+
+    /**
+     * Gets the next ray of the set.
+     *
+     * @return the ray
+     */
+    private Ray nextRay() {
+        return rays[next++ & (RAYS_COUNT - 1)];
+    }
+
+    /**
+     * @return the closest intersection of a ray with the collection
+     */
+    @Benchmark
+    public Intersectable.GeoPoint findClosestGeoIntersection() {
+        return geometries.findClosestGeoIntersection(nextRay());
+    }
+
+    /**
+     * @return the transmittance of the collection along a ray
+     */
+    @Benchmark
+    public Double3 findTransmittance() {
+        return geometries.findTransmittance(nextRay(), Double.POSITIVE_INFINITY, 0.001);
+    }
+}
@@ -0,0 +1,122 @@
+package geometries;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+/**
+ * Benchmarks of the intersection calculations of every kind of geometry.
+ * Every invocation intersects the next ray of a fixed set of rays aimed around the shape,
+ * about half of them hitting it, so both the hit and the miss paths of the calculation are measured.
+ *
+ * @author Shneor and Emanuel
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntersectionBenchmark {
+    /**
+     * The kinds of the benchmarked shapes
+     */
+    public enum Shape {
+        /** A sphere of radius 1 at the origin */
+        SPHERE,
+        /** The plane z = 0 */
+        PLANE,
+        /** A triangle in the plane z = 0 */
+        TRIANGLE,
+        /** A square in the plane z = 0 */
+        POLYGON,
+        /** An infinite tube of radius 1 along the y axis */
+        TUBE,
+        /** A cylinder of radius 1 and height 2 along the y axis */
+        CYLINDER
+    }
+
+    /**
+     * Amount of the rays (a power of 2)
+     */
+    private static final int RAYS_COUNT = 1024;
+
+    /**
+     * The kind of the shape
+     */
+    @Param
+    public Shape shape;
+
+    /**
+     * The intersected shape
+     */
+    private Intersectable geometry;
+    /**
+     * The rays, aimed at random points of the square [-2,2]x[-2,2] in the plane z = 0 (or x = 0 for
+     * shapes lying along the y axis) from a distance of 10
+     */
+    private Ray[] rays;
+    /**
+     * Index of the next ray
+     */
+    private int next = 0;
+
+    /**
+     * Creates the shape and the rays.
+     */
+    @Setup
+    public void setup() {
+        geometry = switch (shape) {
+            case SPHERE -> new Sphere(1d, Point.ZERO);
+            case PLANE -> new Plane(Point.ZERO, new Vector(0, 0, 1));
+            case TRIANGLE -> new Triangle(new Point(-1.5, -1.5, 0), new Point(1.5, -1.5, 0), new Point(0, 1.5, 0));
+            case POLYGON -> new Polygon(new Point(-1.4, -1.4, 0), new Point(1.4, -1.4, 0),
+                    new Point(1.4, 1.4, 0), new Point(-1.4, 1.4, 0));
+            case TUBE -> new Tube(1, new Ray(Point.ZERO, Vector.Y));
+            case CYLINDER -> new Cylinder(1, new Ray(new Point(0, -1, 0), Vector.Y), 2);
+        };
+
+        boolean alongY = shape == Shape.TUBE || shape == Shape.CYLINDER;
+        SplittableRandom random = new SplittableRandom(2024);
+        rays = new Ray[RAYS_COUNT];
+        for (int i = 0; i < RAYS_COUNT; ++i) {
+            double a = random.nextDouble(-2, 2), b = random.nextDouble(-2, 2);
+            Point target = alongY ? new Point(0, b, a) : new Point(a, b, 0);
+            Point head = alongY
+                    ? new Point(10, random.nextDouble(-1, 1), random.nextDouble(-1, 1))
+                    : new Point(random.nextDouble(-1, 1), random.nextDouble(-1, 1), 10);
+            rays[i] = new Ray(head, target.subtract(head));
+        }
+    }
+
+    /**
+     * Gets the next ray of the set.
+     *
+     * @return the ray
+     */
+    private Ray nextRay() {
+        return rays[next++ & (RAYS_COUNT - 1)];
+    }
+
+    /**
+     * @return all the intersections of a ray with the shape
+     */
+    @Benchmark
+    public List<Intersectable.GeoPoint> findGeoIntersections() {
+        return geometry.findGeoIntersections(nextRay());
+    }
+
+    /**
+     * @return the closest intersection of a ray with the shape
+     */
+    @Benchmark
+    public Intersectable.GeoPoint findClosestGeoIntersection() {
+        return geometry.findClosestGeoIntersection(nextRay());
+    }
+}
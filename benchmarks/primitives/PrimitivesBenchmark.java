@@ -0,0 +1,120 @@
+package primitives;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks of the basic operations of points, vectors and triples of numbers,
+ * which are performed several times for every ray of a rendered image.
+ * <p>
+ * Run with the GC profiler ({@code -prof gc}) to see the allocation rate of every operation.
+ * </p>
+ *
+ * @author Shneor and Emanuel
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitivesBenchmark {
+    /**
+     * Points of the operations
+     */
+    private Point p1, p2;
+    /**
+     * Vectors of the operations
+     */
+    private Vector v1, v2;
+    /**
+     * Triples of the operations
+     */
+    private Double3 d1, d2;
+
+    /**
+     * Creates the operands. They are kept in fields (rather than constants), so the JIT can't fold the operations.
+     */
+    @Setup
+    public void setup() {
+        p1 = new Point(1.5, -2.25, 3.125);
+        p2 = new Point(-4.5, 0.75, 9.5);
+        v1 = new Vector(0.3, -1.7, 2.9);
+        v2 = new Vector(-2.2, 0.4, 1.1);
+        d1 = new Double3(0.2, 0.5, 0.8);
+        d2 = new Double3(0.9, 0.6, 0.3);
+    }
+
+    /**
+     * @return the sum of a point and a vector
+     */
+    @Benchmark
+    public Point pointAdd() {
+        return p1.add(v1);
+    }
+
+    /**
+     * @return the vector between two points
+     */
+    @Benchmark
+    public Vector pointSubtract() {
+        return p1.subtract(p2);
+    }
+
+    /**
+     * @return the distance between two points
+     */
+    @Benchmark
+    public double pointDistance() {
+        return p1.distance(p2);
+    }
+
+    /**
+     * @return the scaled vector
+     */
+    @Benchmark
+    public Vector vectorScale() {
+        return v1.scale(1.75);
+    }
+
+    /**
+     * @return the dot product of two vectors
+     */
+    @Benchmark
+    public double vectorDotProduct() {
+        return v1.dotProduct(v2);
+    }
+
+    /**
+     * @return the cross product of two vectors
+     */
+    @Benchmark
+    public Vector vectorCrossProduct() {
+        return v1.crossProduct(v2);
+    }
+
+    /**
+     * @return the normalized vector
+     */
+    @Benchmark
+    public Vector vectorNormalize() {
+        return v1.normalize();
+    }
+
+    /**
+     * @return the sum of two triples
+     */
+    @Benchmark
+    public Double3 double3Add() {
+        return d1.add(d2);
+    }
+
+    /**
+     * @return the product of two triples
+     */
+    @Benchmark
+    public Double3 double3Product() {
+        return d1.product(d2);
+    }
+}
@@ -0,0 +1,37 @@
+package renderer;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler, so next to the time of every benchmark its allocation rate
+ * (bytes allocated per operation) and the garbage collections it caused are reported.
+ * The arguments are the usual JMH command line arguments - for example {@code RenderBenchmark -p threads=0,4}
+ * runs only the whole image renders, rendered serially and with 4 threads.
+ *
+ * @author Shneor and Emanuel
+ */
+public class BenchmarkRunner {
+    /**
+     * Don't let anyone instantiate this class.
+     */
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Runs the benchmarks.
+     *
+     * @param args the JMH command line arguments
+     * @throws CommandLineOptionException if the arguments are invalid
+     * @throws RunnerException            if a benchmark fails
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        new org.openjdk.jmh.runner.Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,183 @@
+package renderer;
+
+import geometries.Plane;
+import geometries.Sphere;
+import geometries.Triangle;
+import lighting.AmbientLight;
+import lighting.PointLight;
+import lighting.SpotLight;
+import primitives.*;
+import scene.Scene;
+
+import static java.awt.Color.*;
+
+/**
+ * The scenes rendered by the benchmarks - copies of the scenes of the render tests, plus a scene
+ * of many shapes for measuring the bounding volume hierarchy.
+ *
+ * @author Shneor and Emanuel
+ */
+public enum BenchmarkScene {
+    /**
+     * The two triangles and a sphere of the soft shadows tests, with 9x9 shadow rays per light
+     */
+    SOFT_SHADOWS {
+        @Override
+        Scene createScene() {
+            Scene scene = new Scene("soft shadows");
+            Material material = new Material().setKS(0.8).setNShininess(60);
+            scene.geometries.add(
+                    new Triangle(new Point(-150, -150, -115), new Point(150, -150, -135), new Point(75, 75, -150))
+                            .setMaterial(material),
+                    new Triangle(new Point(-150, -150, -115), new Point(-70, 70, -140), new Point(75, 75, -150))
+                            .setMaterial(material),
+                    new Sphere(30d, new Point(0, 0, -11)).setEmission(new Color(BLUE))
+                            .setMaterial(new Material().setKD(0.5).setKS(0.5).setNShininess(30)));
+            scene.setAmbientLight(new AmbientLight(new Color(WHITE), 0.15));
+            scene.lights.add(new SpotLight(new Color(700, 400, 400), new Point(40, 40, 115), new Vector(-1, -1, -4))
+                    .setKL(4E-4).setKQ(2E-5).setRadius(10));
+            return scene;
+        }
+
+        @Override
+        Camera.Builder setCamera(Camera.Builder builder) {
+            return builder.setLocation(new Point(0, 0, 1000)).setVpDistance(1000).setVpSize(200, 200);
+        }
+
+        @Override
+        int numberOfSamples() {
+            return 9;
+        }
+    },
+    /**
+     * The transparent and reflecting spheres and mirrors of the reflection and refraction tests
+     */
+    REFLECTION_REFRACTION {
+        @Override
+        Scene createScene() {
+            Scene scene = new Scene("reflection refraction");
+            scene.geometries.add(
+                    new Sphere(400d, new Point(-950, -900, -1000)).setEmission(new Color(0, 50, 100))
+                            .setMaterial(new Material().setKD(0.25).setKS(0.25).setNShininess(20)
+                                    .setKT(new Double3(0.5, 0, 0))),
+                    new Sphere(200d, new Point(-950, -900, -1000)).setEmission(new Color(100, 50, 20))
+                            .setMaterial(new Material().setKD(0.25).setKS(0.25).setNShininess(20)),
+                    new Triangle(new Point(1500, -1500, -1500), new Point(-1500, 1500, -1500),
+                            new Point(670, 670, 3000))
+                            .setEmission(new Color(20, 20, 20))
+                            .setMaterial(new Material().setKR(1)),
+                    new Triangle(new Point(1500, -1500, -1500), new Point(-1500, 1500, -1500),
+                            new Point(-1500, -1500, -2000))
+                            .setEmission(new Color(20, 20, 20))
+                            .setMaterial(new Material().setKR(new Double3(0.5, 0, 0.4))));
+            scene.setAmbientLight(new AmbientLight(new Color(255, 255, 255), 0.1));
+            scene.lights.add(new SpotLight(new Color(1020, 400, 400), new Point(-750, -750, -150),
+                    new Vector(-1, -1, -4)).setKL(0.00001).setKQ(0.000005));
+            return scene;
+        }
+
+        @Override
+        Camera.Builder setCamera(Camera.Builder builder) {
+            return builder.setLocation(new Point(0, 0, 10000)).setVpDistance(10000).setVpSize(2500, 2500);
+        }
+    },
+    /**
+     * A grid of 20x20 reflecting spheres over a plane, organized as a bounding volume hierarchy
+     */
+    MANY_SPHERES {
+        @Override
+        Scene createScene() {
+            Scene scene = new Scene("many spheres");
+            Material material = new Material().setKD(0.5).setKS(0.3).setNShininess(40).setKR(0.2);
+            for (int i = 0; i < 20; ++i)
+                for (int j = 0; j < 20; ++j)
+                    scene.geometries.add(new Sphere(4d, new Point(i * 10 - 95, j * 10 - 95, -100))
+                            .setEmission(new Color(10 * i, 40, 10 * j)).setMaterial(material));
+            scene.geometries.buildBVH();
+            scene.geometries.add(new Plane(new Point(0, 0, -110), new Vector(0, 0, 1))
+                    .setEmission(new Color(30, 30, 30)).setMaterial(new Material().setKD(0.5)));
+            scene.setAmbientLight(new AmbientLight(new Color(WHITE), 0.1));
+            scene.lights.add(new PointLight(new Color(600, 600, 600), new Point(50, 50, 100))
+                    .setKL(1E-4).setKQ(1E-6));
+            return scene;
+        }
+
+        @Override
+        Camera.Builder setCamera(Camera.Builder builder) {
+            return builder.setLocation(new Point(0, -300, 200)).setVpDistance(400).setVpSize(250, 250);
+        }
+
+        @Override
+        Vector[] direction() {
+            return new Vector[]{new Vector(0, 300, -300), new Vector(0, 300, 300)};
+        }
+    };
+
+    /**
+     * Creates the scene.
+     *
+     * @return the scene
+     */
+    abstract Scene createScene();
+
+    /**
+     * Sets the location, the view plane distance and the view plane size of the camera of the scene.
+     *
+     * @param builder the camera builder
+     * @return the camera builder
+     */
+    abstract Camera.Builder setCamera(Camera.Builder builder);
+
+    /**
+     * Gets the direction of the camera of the scene.
+     *
+     * @return the "to" and the "up" vectors of the camera
+     */
+    Vector[] direction() {
+        return new Vector[]{new Vector(0, 0, -1), Vector.Y};
+    }
+
+    /**
+     * Gets the amount of samples (in a row) of the soft shadows of the scene.
+     *
+     * @return the amount of samples, 1 for hard shadows
+     */
+    int numberOfSamples() {
+        return 1;
+    }
+
+    /**
+     * Creates a camera rendering the scene.
+     *
+     * @param resolution the amount of pixels in a row and in a column of the image
+     * @param threads    the amount of rendering threads, as in {@link Camera.Builder#setMultithreading(int)}
+     * @return the camera
+     * @throws CloneNotSupportedException if the camera can't be built
+     */
+    Camera createCamera(int resolution, int threads) throws CloneNotSupportedException {
+        return createCamera(resolution, threads, Camera.Scheduling.PLATFORM, 16);
+    }
+
+    /**
+     * Creates a camera rendering the scene with a given scheduling of its tiles.
+     *
+     * @param resolution the amount of pixels in a row and in a column of the image
+     * @param threads    the amount of rendering threads, as in {@link Camera.Builder#setMultithreading(int)}
+     * @param scheduling the scheduling of the tiles on the threads
+     * @param tileSize   the side length of a tile in pixels
+     * @return the camera
+     * @throws CloneNotSupportedException if the camera can't be built
+     */
+    Camera createCamera(int resolution, int threads, Camera.Scheduling scheduling, int tileSize)
+            throws CloneNotSupportedException {
+        Vector[] direction = direction();
+        return setCamera(Camera.getBuilder())
+                .setDirection(direction[0], direction[1])
+                .setRayTracer(new SimpleRayTracer(createScene()))
+                .setImageWriter(new ImageWriter(name(), resolution, resolution).setNumberOfSamples(numberOfSamples()))
+                .setMultithreading(threads)
+                .setScheduling(scheduling)
+                .setTileSize(tileSize)
+                .build();
+    }
+}
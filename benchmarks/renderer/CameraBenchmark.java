@@ -0,0 +1,82 @@
+package renderer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import primitives.Color;
+import primitives.Ray;
+
+/**
+ * Benchmarks of the work done for a single pixel - constructing its ray and tracing it through a scene.
+ * Every invocation handles the next pixel of the image, so the whole image is covered over and over.
+ *
+ * @author Shneor and Emanuel
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CameraBenchmark {
+    /**
+     * Amount of pixels in a row and in a column of the image
+     */
+    private static final int RESOLUTION = 256;
+
+    /**
+     * The traced scene
+     */
+    @Param
+    public BenchmarkScene scene;
+
+    /**
+     * The camera of the scene
+     */
+    private Camera camera;
+    /**
+     * The ray tracer of the scene
+     */
+    private RayTracerBase rayTracer;
+    /**
+     * The rays of all the pixels, for tracing
+     */
+    private Ray[] rays;
+    /**
+     * Index of the next pixel
+     */
+    private int next = 0;
+
+    /**
+     * Creates the camera and the rays of all the pixels.
+     *
+     * @throws CloneNotSupportedException if the camera can't be built
+     */
+    @Setup
+    public void setup() throws CloneNotSupportedException {
+        camera = scene.createCamera(RESOLUTION, 0);
+        rayTracer = new SimpleRayTracer(scene.createScene());
+        rays = new Ray[RESOLUTION * RESOLUTION];
+        for (int i = 0; i < RESOLUTION; ++i)
+            for (int j = 0; j < RESOLUTION; ++j)
+                rays[i * RESOLUTION + j] = camera.constructRay(RESOLUTION, RESOLUTION, j, i);
+    }
+
+    /**
+     * @return the ray through the next pixel
+     */
+    @Benchmark
+    public Ray constructRay() {
+        int pixel = next++ & (RESOLUTION * RESOLUTION - 1);
+        return camera.constructRay(RESOLUTION, RESOLUTION, pixel % RESOLUTION, pixel / RESOLUTION);
+    }
+
+    /**
+     * @return the color of the next pixel
+     */
+    @Benchmark
+    public Color traceRay() {
+        return rayTracer.traceRay(rays[next++ & (RESOLUTION * RESOLUTION - 1)], scene.numberOfSamples());
+    }
+}
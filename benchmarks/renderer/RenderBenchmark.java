@@ -0,0 +1,60 @@
+package renderer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks of rendering whole images of the benchmark scenes with different amounts of threads,
+ * showing how the rendering scales. The images are only rendered, not written to files.
+ *
+ * @author Shneor and Emanuel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RenderBenchmark {
+    /**
+     * The rendered scene
+     */
+    @Param
+    public BenchmarkScene scene;
+
+    /**
+     * Amount of rendering threads - 0 for rendering in the calling thread, -1 for all the processors
+     */
+    @Param({"0", "1", "2", "4", "-1"})
+    public int threads;
+
+    /**
+     * Amount of pixels in a row and in a column of the image
+     */
+    @Param({"400"})
+    public int resolution;
+
+    /**
+     * The camera rendering the scene
+     */
+    private Camera camera;
+
+    /**
+     * Creates the camera. The scene is built once per trial, so its construction isn't measured.
+     *
+     * @throws CloneNotSupportedException if the camera can't be built
+     */
+    @Setup(Level.Trial)
+    public void setup() throws CloneNotSupportedException {
+        camera = scene.createCamera(resolution, threads);
+    }
+
+    /**
+     * Renders the image.
+     */
+    @Benchmark
+    public void renderImage() {
+        camera.renderImage();
+    }
+}
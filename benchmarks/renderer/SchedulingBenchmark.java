@@ -0,0 +1,73 @@
+package renderer;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks of rendering whole images with the different schedulings of the tiles on the rendering
+ * threads, from very small tiles (where the cost of scheduling a tile shows) to large ones (where the
+ * balance of the work between the threads shows). The images are only rendered, not written to files.
+ *
+ * @author Shneor and Emanuel
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SchedulingBenchmark {
+    /**
+     * The rendered scene
+     */
+    @Param({"SOFT_SHADOWS"})
+    public BenchmarkScene scene;
+
+    /**
+     * The scheduling of the tiles
+     */
+    @Param
+    public Camera.Scheduling scheduling;
+
+    /**
+     * The side length of a tile in pixels
+     */
+    @Param({"2", "16", "64"})
+    public int tileSize;
+
+    /**
+     * Amount of rendering threads - -1 for all the processors
+     */
+    @Param({"-1"})
+    public int threads;
+
+    /**
+     * Amount of pixels in a row and in a column of the image
+     */
+    @Param({"256"})
+    public int resolution;
+
+    /**
+     * The camera rendering the scene
+     */
+    private Camera camera;
+
+    /**
+     * Creates the camera. The scene is built once per trial, so its construction isn't measured.
+     *
+     * @throws CloneNotSupportedException if the camera can't be built
+     */
+    @Setup(Level.Trial)
+    public void setup() throws CloneNotSupportedException {
+        camera = scene.createCamera(resolution, threads, scheduling, tileSize);
+    }
+
+    /**
+     * Renders the image.
+     */
+    @Benchmark
+    public void renderImage() {
+        camera.renderImage();
+    }
+}
@@ -0,0 +1,191 @@
+package geometries;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+/**
+ * BoundingBox represents an axis aligned box in a 3-Dimensional Cartesian coordinate system.
+ * It bounds intersectable objects so a ray missing the box is known to miss the objects
+ * inside it without computing the exact intersections.
+ *
+ * @author Shneor and Emanuel
+ */
+public class BoundingBox {
+    /**
+     * Padding added around boxes built from points, so flat objects (like a polygon lying in an
+     * axis aligned plane) don't get a zero thickness box that rounding errors could miss
+     */
+    private static final double PADDING = 1e-7;
+
+    /**
+     * The lower corner coordinates of the box
+     */
+    private final double minX, minY, minZ;
+    /**
+     * The upper corner coordinates of the box
+     */
+    private final double maxX, maxY, maxZ;
+
+    /**
+     * Constructs a box from its lower and upper corners coordinates.
+     *
+     * @param minX the lower x coordinate
+     * @param minY the lower y coordinate
+     * @param minZ the lower z coordinate
+     * @param maxX the upper x coordinate
+     * @param maxY the upper y coordinate
+     * @param maxZ the upper z coordinate
+     * @throws IllegalArgumentException if a lower coordinate is bigger than the matching upper coordinate
+     */
+    public BoundingBox(double minX, double minY, double minZ, double maxX, double maxY, double maxZ)
+            throws IllegalArgumentException {
+        if (minX > maxX || minY > maxY || minZ > maxZ)
+            throw new IllegalArgumentException("the lower corner of a box must be below its upper corner");
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+    }
+
+    /**
+     * Constructs the smallest box containing all the given points (slightly padded).
+     *
+     * @param points the points to bound
+     * @return the box containing the points
+     */
+    public static BoundingBox of(Point... points) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+        for (Point p : points) {
+            minX = Math.min(minX, p.getX());
+            minY = Math.min(minY, p.getY());
+            minZ = Math.min(minZ, p.getZ());
+            maxX = Math.max(maxX, p.getX());
+            maxY = Math.max(maxY, p.getY());
+            maxZ = Math.max(maxZ, p.getZ());
+        }
+        return new BoundingBox(minX - PADDING, minY - PADDING, minZ - PADDING,
+                maxX + PADDING, maxY + PADDING, maxZ + PADDING);
+    }
+
+    /**
+     * Constructs the smallest box containing this box and another box.
+     *
+     * @param other the other box
+     * @return the box containing both boxes
+     */
+    public BoundingBox union(BoundingBox other) {
+        return new BoundingBox(Math.min(minX, other.minX), Math.min(minY, other.minY), Math.min(minZ, other.minZ),
+                Math.max(maxX, other.maxX), Math.max(maxY, other.maxY), Math.max(maxZ, other.maxZ));
+    }
+
+    /**
+     * Calculates the surface area of the box, which is proportional to the probability
+     * of a random ray hitting it.
+     *
+     * @return the surface area of the box
+     */
+    public double surfaceArea() {
+        double dx = maxX - minX, dy = maxY - minY, dz = maxZ - minZ;
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * Gets the lower coordinate of the box along an axis.
+     *
+     * @param axis the axis - 0 for x, 1 for y and 2 for z
+     * @return the lower coordinate along the axis
+     */
+    public double getMin(int axis) {
+        return axis == 0 ? minX : axis == 1 ? minY : minZ;
+    }
+
+    /**
+     * Gets the upper coordinate of the box along an axis.
+     *
+     * @param axis the axis - 0 for x, 1 for y and 2 for z
+     * @return the upper coordinate along the axis
+     */
+    public double getMax(int axis) {
+        return axis == 0 ? maxX : axis == 1 ? maxY : maxZ;
+    }
+
+    /**
+     * Gets the center coordinate of the box along an axis.
+     *
+     * @param axis the axis - 0 for x, 1 for y and 2 for z
+     * @return the center coordinate along the axis
+     */
+    public double getCenter(int axis) {
+        return (getMin(axis) + getMax(axis)) / 2;
+    }
+
+    /**
+     * Checks whether a ray passes through the box before a maximal distance (the slab test).
+     * The test is conservative - it may accept a ray grazing the box, but never rejects
+     * a ray hitting an object inside the box.
+     *
+     * @param ray         the ray to check
+     * @param maxDistance the maximal distance from the head of the ray
+     * @return true if the ray may hit the box, false if it surely misses it
+     */
+    public boolean intersects(Ray ray, double maxDistance) {
+        return entryDistance(ray, maxDistance) != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Calculates the distance along a ray to the point where it enters the box (the slab test).
+     * An object inside the box can't be hit by the ray closer than this distance.
+     *
+     * @param ray         the ray to check
+     * @param maxDistance the maximal distance from the head of the ray
+     * @return the distance to the entry point (0 if the ray starts inside the box),
+     * or {@code Double.POSITIVE_INFINITY} if the ray misses the box before the maximal distance
+     */
+    public double entryDistance(Ray ray, double maxDistance) {
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+        double tNear = 0, tFar = maxDistance;
+
+        double o = head.getX(), d = direction.getX();
+        if (d == 0) {
+            if (o < minX || o > maxX) return Double.POSITIVE_INFINITY;
+        } else {
+            double t1 = (minX - o) / d, t2 = (maxX - o) / d;
+            tNear = Math.max(tNear, Math.min(t1, t2));
+            tFar = Math.min(tFar, Math.max(t1, t2));
+            if (tNear > tFar) return Double.POSITIVE_INFINITY;
+        }
+
+        o = head.getY();
+        d = direction.getY();
+        if (d == 0) {
+            if (o < minY || o > maxY) return Double.POSITIVE_INFINITY;
+        } else {
+            double t1 = (minY - o) / d, t2 = (maxY - o) / d;
+            tNear = Math.max(tNear, Math.min(t1, t2));
+            tFar = Math.min(tFar, Math.max(t1, t2));
+            if (tNear > tFar) return Double.POSITIVE_INFINITY;
+        }
+
+        o = head.getZ();
+        d = direction.getZ();
+        if (d == 0) {
+            if (o < minZ || o > maxZ) return Double.POSITIVE_INFINITY;
+        } else {
+            double t1 = (minZ - o) / d, t2 = (maxZ - o) / d;
+            tNear = Math.max(tNear, Math.min(t1, t2));
+            tFar = Math.min(tFar, Math.max(t1, t2));
+            if (tNear > tFar) return Double.POSITIVE_INFINITY;
+        }
+        return tNear;
+    }
+
+    @Override
+    public String toString() {
+        return "BoundingBox{(" + minX + "," + minY + "," + minZ + ") - (" + maxX + "," + maxY + "," + maxZ + ")}";
+    }
+}
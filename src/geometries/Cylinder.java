@@ -4,8 +4,10 @@ import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import static primitives.Util.alignZero;
 import static primitives.Util.isZero;
 
 /**
@@ -31,6 +33,20 @@ public class Cylinder extends Tube {
         super(radius, axis);
         if (height < 0) throw new IllegalArgumentException("the height can't be negative");
         this.height = height;
+
+        // the bases are discs orthogonal to the axis - along each coordinate axis a base reaches
+        // radius * sqrt(1 - d^2) beyond its center, where d is the matching axis direction coordinate
+        Vector d = axis.getDirection();
+        Point base = axis.getHead();
+        Point top = isZero(height) ? base : axis.getPoint(height);
+        double eX = radius * Math.sqrt(Math.max(0, 1 - d.getX() * d.getX()));
+        double eY = radius * Math.sqrt(Math.max(0, 1 - d.getY() * d.getY()));
+        double eZ = radius * Math.sqrt(Math.max(0, 1 - d.getZ() * d.getZ()));
+        boundingBox = new BoundingBox(
+                Math.min(base.getX(), top.getX()) - eX, Math.min(base.getY(), top.getY()) - eY,
+                Math.min(base.getZ(), top.getZ()) - eZ,
+                Math.max(base.getX(), top.getX()) + eX, Math.max(base.getY(), top.getY()) + eY,
+                Math.max(base.getZ(), top.getZ()) + eZ);
     }
 
     @Override
@@ -56,8 +72,92 @@ public class Cylinder extends Tube {
         else
             return super.getNormal(point);
     }
+    /**
+     * Calculates the parameters along a ray of its intersections with the cylinder, in the order:
+     * the two intersections with the side (the smaller first), then the intersections with the base
+     * at the head of the axis and with the other base.
+     * Intersections which are out of the range of the ray (or on the rims of the bases) are {@code Double.NaN}.
+     *
+     * @param ray         the ray
+     * @param maxDistance the maximal distance
+     * @return the four parameters
+     */
+    private double[] intersections(Ray ray, double maxDistance) {
+        double[] ts = {Double.NaN, Double.NaN, Double.NaN, Double.NaN};
+        Point head = ray.getHead(), axisHead = axis.getHead();
+        Vector d = ray.getDirection(), v = axis.getDirection();
+        double dv = d.dotProduct(v);
+        // the height of the head of the ray along the axis
+        double hv = (head.getX() - axisHead.getX()) * v.getX() + (head.getY() - axisHead.getY()) * v.getY()
+                + (head.getZ() - axisHead.getZ()) * v.getZ();
+
+        // the side - only the part between the bases
+        double[] side = surfaceIntersections(ray);
+        if (side != null)
+            for (int i = 0; i < 2; ++i) {
+                double h = alignZero(hv + side[i] * dv);
+                if (h > 0 && alignZero(h - height) < 0 && inRange(ray, side[i], maxDistance))
+                    ts[i] = side[i];
+            }
+
+        // the bases - only inside the discs
+        if (!isZero(dv))
+            for (int i = 0; i < (isZero(height) ? 1 : 2); ++i) {
+                double t = ((i == 0 ? 0 : height) - hv) / dv;
+                if (!inRange(ray, t, maxDistance))
+                    continue;
+                // the squared distance of the hit from the axis
+                double px = head.getX() + t * d.getX() - axisHead.getX();
+                double py = head.getY() + t * d.getY() - axisHead.getY();
+                double pz = head.getZ() + t * d.getZ() - axisHead.getZ();
+                double pv = px * v.getX() + py * v.getY() + pz * v.getZ();
+                if (alignZero(px * px + py * py + pz * pz - pv * pv - radius * radius) < 0)
+                    ts[2 + i] = t;
+            }
+        return ts;
+    }
+
+    /**
+     * Creates the intersection point of a parameter found by {@link #intersections(Ray, double)}.
+     * The normal of a point on a base is known - the axis direction.
+     *
+     * @param ray   the ray
+     * @param ts    the parameters
+     * @param index the index of the parameter
+     * @return the intersection point
+     */
+    private GeoPoint geoPoint(Ray ray, double[] ts, int index) {
+        return index < 2
+                ? new GeoPoint(this, ray.getPoint(ts[index]), ts[index])
+                : new GeoPoint(this, ray.getPoint(ts[index]), ts[index], axis.getDirection());
+    }
+
     @Override
     public List<GeoPoint> findGeoIntersectionsHelper(Ray ray,double maxDistance) {
-        return null;
+        double[] ts = intersections(ray, maxDistance);
+        List<GeoPoint> result = null;
+        for (int i = 0; i < ts.length; ++i) {
+            if (Double.isNaN(ts[i]))
+                continue;
+            if (result == null)
+                result = new ArrayList<>(2);
+            GeoPoint geoPoint = geoPoint(ray, ts, i);
+            // keep the intersections ordered along the ray
+            int position = result.size();
+            while (position > 0 && result.get(position - 1).t > geoPoint.t)
+                --position;
+            result.add(position, geoPoint);
+        }
+        return result;
+    }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        double[] ts = intersections(ray, maxDistance);
+        int closest = -1;
+        for (int i = 0; i < ts.length; ++i)
+            if (!Double.isNaN(ts[i]) && (closest == -1 || ts[i] < ts[closest]))
+                closest = i;
+        return closest == -1 ? null : geoPoint(ray, ts, closest);
     }
 }
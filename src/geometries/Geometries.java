@@ -1,9 +1,13 @@
 package geometries;
 
+import primitives.Double3;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -12,14 +16,30 @@ import java.util.List;
  * It implements the Intersectable interface, allowing it to find intersections with a given ray.
  * This class supports adding multiple geometric shapes and finding their intersections collectively.
  * <p>
+ * The collection may be organized as a bounding volume hierarchy (see {@link #buildBVH()}),
+ * in which case every node of the hierarchy is a Geometries object holding the box bounding its shapes.
+ * <p>
  * Author: Shneor and Emanuel
  */
 public class Geometries extends Intersectable {
 
+    /**
+     * Maximal amount of shapes in a leaf of the bounding volume hierarchy
+     */
+    private static final int MAX_LEAF_SIZE = 4;
+    /**
+     * Amount of bins the centroids are sorted into when looking for the best split of a node
+     */
+    private static final int SAH_BINS = 16;
+    /**
+     * Cost of traversing a node relative to the cost of intersecting a shape
+     */
+    private static final double TRAVERSAL_COST = 1;
+
     /**
      * A list to hold all the geometric shapes that can be intersected.
      */
-    private final List<Intersectable> intersectableList = new LinkedList<>();
+    private final List<Intersectable> intersectableList = new ArrayList<>();
 
     /**
      * Default constructor for creating an empty collection of geometries.
@@ -36,6 +56,48 @@ public class Geometries extends Intersectable {
         add(geometries);
     }
 
+    /**
+     * Constructs a node of a bounding volume hierarchy.
+     * Unlike a general collection, a node is never changed after its construction,
+     * so it keeps its bounding box and rays missing the box skip all the shapes of the node.
+     *
+     * @param geometries  the shapes of the node
+     * @param boundingBox the box bounding all the shapes
+     */
+    private Geometries(List<Intersectable> geometries, BoundingBox boundingBox) {
+        intersectableList.addAll(geometries);
+        this.boundingBox = boundingBox;
+    }
+
+    /**
+     * Restores a node of a bounding volume hierarchy from its shapes and its box, as they were taken
+     * from a node built before (see {@link #isNode()}). The box is trusted to bound the shapes.
+     *
+     * @param boundingBox the box bounding all the shapes
+     * @param shapes      the shapes of the node - bounded shapes or other nodes
+     * @return the node
+     * @throws IllegalArgumentException if the node has no shapes or a shape which can't be in a hierarchy
+     */
+    public static Geometries node(BoundingBox boundingBox, List<Intersectable> shapes)
+            throws IllegalArgumentException {
+        if (boundingBox == null || shapes.isEmpty())
+            throw new IllegalArgumentException("a hierarchy node must have a box and shapes");
+        for (Intersectable shape : shapes)
+            if (shape.boundingBox == null)
+                throw new IllegalArgumentException("a hierarchy node can hold bounded shapes and nodes only");
+        return new Geometries(shapes, boundingBox);
+    }
+
+    /**
+     * Checks whether the collection is a node of a bounding volume hierarchy (see {@link #buildBVH()}),
+     * rather than a general collection.
+     *
+     * @return true if the collection is a hierarchy node
+     */
+    public boolean isNode() {
+        return boundingBox != null;
+    }
+
     /**
      * Adds one or more geometric shapes to the collection.
      *
@@ -45,12 +107,229 @@ public class Geometries extends Intersectable {
         intersectableList.addAll(List.of(geometries));
     }
 
+    /**
+     * Gets the shapes of the collection - after building the hierarchy, its nodes at the top level.
+     *
+     * @return an unmodifiable view of the shapes
+     */
+    public List<Intersectable> getIntersectables() {
+        return Collections.unmodifiableList(intersectableList);
+    }
+
+    /**
+     * {@inheritDoc}
+     * A general collection may still be changed, so its box is calculated on every call.
+     */
+    @Override
+    public BoundingBox getBoundingBox() {
+        if (boundingBox != null || intersectableList.isEmpty())
+            return boundingBox;
+        BoundingBox box = null;
+        for (var shape : intersectableList) {
+            BoundingBox shapeBox = shape.getBoundingBox();
+            if (shapeBox == null)
+                return null;
+            box = box == null ? shapeBox : box.union(shapeBox);
+        }
+        return box;
+    }
+
+    /**
+     * Organizes the shapes of the collection as a bounding volume hierarchy, so a ray is tested only
+     * against the shapes whose bounding boxes it passes through.
+     * The hierarchy is built according to the surface area heuristic. Unbounded shapes (like planes)
+     * can't be placed in the hierarchy and stay at the top level of the collection, next to its root.
+     * Shapes added after the call are kept out of the hierarchy until it is rebuilt.
+     *
+     * @return the collection itself, for chaining
+     */
+    public Geometries buildBVH() {
+        List<Intersectable> bounded = new ArrayList<>();
+        List<Intersectable> unbounded = new ArrayList<>();
+        flatten(intersectableList, bounded, unbounded, false);
+        build(bounded, unbounded);
+        return this;
+    }
+
+    /**
+     * Organizes the shapes of the collection as a bounding volume hierarchy like {@link #buildBVH()},
+     * except that the hierarchies of nested collections are not opened - the new hierarchy is built over
+     * their nodes as they are, so hierarchies built before for parts of the scene (possibly concurrently)
+     * become whole subtrees of the new hierarchy instead of being built again.
+     *
+     * @return the collection itself, for chaining
+     */
+    public Geometries joinBVH() {
+        List<Intersectable> bounded = new ArrayList<>();
+        List<Intersectable> unbounded = new ArrayList<>();
+        flatten(intersectableList, bounded, unbounded, true);
+        build(bounded, unbounded);
+        return this;
+    }
+
+    /**
+     * Replaces the shapes of the collection by the unbounded shapes and the root of a hierarchy over
+     * the bounded shapes.
+     *
+     * @param bounded   the shapes which have a bounding box
+     * @param unbounded the shapes which have no bounding box
+     */
+    private void build(List<Intersectable> bounded, List<Intersectable> unbounded) {
+        intersectableList.clear();
+        intersectableList.addAll(unbounded);
+        if (!bounded.isEmpty()) {
+            int n = bounded.size();
+            Intersectable[] shapes = bounded.toArray(new Intersectable[0]);
+            BoundingBox[] boxes = new BoundingBox[n];
+            for (int i = 0; i < n; ++i)
+                boxes[i] = shapes[i].getBoundingBox();
+            intersectableList.add(buildNode(shapes, boxes, 0, n));
+        }
+    }
+
+    /**
+     * Collects the shapes of nested collections, sorting them into bounded and unbounded shapes.
+     *
+     * @param shapes    the shapes to collect
+     * @param bounded   the list collecting the shapes which have a bounding box
+     * @param unbounded the list collecting the shapes which have no bounding box
+     * @param keepNodes true to collect the hierarchy nodes as they are, false to collect their shapes
+     */
+    private static void flatten(List<Intersectable> shapes, List<Intersectable> bounded,
+                                List<Intersectable> unbounded, boolean keepNodes) {
+        for (var shape : shapes) {
+            if (shape instanceof Geometries geometries && !(keepNodes && geometries.boundingBox != null))
+                flatten(geometries.intersectableList, bounded, unbounded, keepNodes);
+            else if (shape.getBoundingBox() == null)
+                unbounded.add(shape);
+            else
+                bounded.add(shape);
+        }
+    }
+
+    /**
+     * Builds a bounding volume hierarchy node over a range of shapes, splitting it recursively
+     * in the position of the lowest surface area heuristic cost among the binned centroids.
+     *
+     * @param shapes the shapes (reordered in place)
+     * @param boxes  the bounding boxes of the shapes (reordered with the shapes)
+     * @param from   the first index of the range (inclusive)
+     * @param to     the last index of the range (exclusive)
+     * @return the node bounding the range, or the shape itself if the range holds a single shape
+     */
+    private static Intersectable buildNode(Intersectable[] shapes, BoundingBox[] boxes, int from, int to) {
+        int n = to - from;
+        if (n == 1)
+            return shapes[from];
+
+        BoundingBox box = boxes[from];
+        double[] cMin = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY};
+        double[] cMax = {Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (int i = from; i < to; ++i) {
+            box = box.union(boxes[i]);
+            for (int axis = 0; axis < 3; ++axis) {
+                double c = boxes[i].getCenter(axis);
+                cMin[axis] = Math.min(cMin[axis], c);
+                cMax[axis] = Math.max(cMax[axis], c);
+            }
+        }
+
+        // find the cheapest split among the bins borders of all axes
+        int bestAxis = -1, bestBin = -1;
+        double bestCost = Double.POSITIVE_INFINITY;
+        for (int axis = 0; axis < 3; ++axis) {
+            double extent = cMax[axis] - cMin[axis];
+            if (extent <= 0) continue;
+
+            int[] counts = new int[SAH_BINS];
+            BoundingBox[] binBoxes = new BoundingBox[SAH_BINS];
+            for (int i = from; i < to; ++i) {
+                int bin = binIndex(boxes[i].getCenter(axis), cMin[axis], extent);
+                ++counts[bin];
+                binBoxes[bin] = binBoxes[bin] == null ? boxes[i] : binBoxes[bin].union(boxes[i]);
+            }
+
+            // areas of the boxes to the right of each border, swept from the right
+            double[] rightAreas = new double[SAH_BINS];
+            int[] rightCounts = new int[SAH_BINS];
+            BoundingBox right = null;
+            int count = 0;
+            for (int bin = SAH_BINS - 1; bin > 0; --bin) {
+                if (binBoxes[bin] != null) right = right == null ? binBoxes[bin] : right.union(binBoxes[bin]);
+                count += counts[bin];
+                rightAreas[bin] = right == null ? 0 : right.surfaceArea();
+                rightCounts[bin] = count;
+            }
+
+            BoundingBox left = null;
+            count = 0;
+            for (int bin = 1; bin < SAH_BINS; ++bin) {
+                if (binBoxes[bin - 1] != null) left = left == null ? binBoxes[bin - 1] : left.union(binBoxes[bin - 1]);
+                count += counts[bin - 1];
+                if (count == 0 || rightCounts[bin] == 0) continue;
+                double cost = left.surfaceArea() * count + rightAreas[bin] * rightCounts[bin];
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    bestAxis = axis;
+                    bestBin = bin;
+                }
+            }
+        }
+
+        double area = box.surfaceArea();
+        boolean worthSplitting = bestAxis != -1 && (area <= 0 || TRAVERSAL_COST + bestCost / area < n);
+        if (n <= MAX_LEAF_SIZE && !worthSplitting)
+            return new Geometries(Arrays.asList(shapes).subList(from, to), box);
+
+        int mid;
+        if (bestAxis == -1) {
+            // all the centroids coincide - there is nothing to gain, just halve the range
+            mid = from + n / 2;
+        } else {
+            mid = from;
+            double extent = cMax[bestAxis] - cMin[bestAxis];
+            for (int i = from; i < to; ++i) {
+                if (binIndex(boxes[i].getCenter(bestAxis), cMin[bestAxis], extent) < bestBin) {
+                    swap(shapes, i, mid);
+                    swap(boxes, i, mid);
+                    ++mid;
+                }
+            }
+        }
+        return new Geometries(List.of(buildNode(shapes, boxes, from, mid), buildNode(shapes, boxes, mid, to)), box);
+    }
+
+    /**
+     * Calculates the bin of a centroid coordinate.
+     *
+     * @param center the centroid coordinate
+     * @param min    the lowest centroid coordinate
+     * @param extent the range of the centroid coordinates
+     * @return the index of the bin
+     */
+    private static int binIndex(double center, double min, double extent) {
+        return Math.min(SAH_BINS - 1, (int) ((center - min) / extent * SAH_BINS));
+    }
+
+    /**
+     * Swaps two items of an array.
+     *
+     * @param array the array
+     * @param i     index of the first item
+     * @param j     index of the second item
+     * @param <T>   type of the items
+     */
+    private static <T> void swap(T[] array, int i, int j) {
+        T temp = array[i];
+        array[i] = array[j];
+        array[j] = temp;
+    }
 
     @Override
     public List<GeoPoint> findGeoIntersectionsHelper(Ray ray,double maxDistance) {
         List<GeoPoint> res = null, shapeGeoPoints;
         for (var shape : intersectableList) {
-            shapeGeoPoints = shape.findGeoIntersectionsHelper(ray,maxDistance);
+            shapeGeoPoints = shape.findGeoIntersections(ray,maxDistance);
             if (shapeGeoPoints != null) {
                 if (res == null)
                     res = new LinkedList<>();
@@ -60,6 +339,64 @@ public class Geometries extends Intersectable {
         return res;
     }
 
+    /**
+     * {@inheritDoc}
+     * The shapes are checked one after the other, until the light is blocked by one of them.
+     */
+    @Override
+    protected Double3 findTransmittanceHelper(Ray ray, double maxDistance, Double3 k, double minK) {
+        for (var shape : intersectableList) {
+            k = shape.findTransmittance(ray, maxDistance, k, minK);
+            if (k.lowerThan(minK))
+                return Double3.ZERO;
+        }
+        return k;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Every found intersection shrinks the distance the following shapes are searched up to, so shapes
+     * (and hierarchy nodes) which are farther than the closest intersection found so far are rejected
+     * by their bounding box. The two children of a hierarchy node are visited nearer first.
+     */
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        if (boundingBox != null && intersectableList.size() == 2) {
+            Intersectable near = intersectableList.get(0), far = intersectableList.get(1);
+            double nearDistance = near.boundingBox.entryDistance(ray, maxDistance);
+            double farDistance = far.boundingBox.entryDistance(ray, maxDistance);
+            if (farDistance < nearDistance) {
+                Intersectable shape = near;
+                near = far;
+                far = shape;
+                double distance = nearDistance;
+                nearDistance = farDistance;
+                farDistance = distance;
+            }
+            if (nearDistance == Double.POSITIVE_INFINITY)
+                return null;
+            GeoPoint closest = near.findClosestGeoIntersectionHelper(ray, maxDistance);
+            if (closest != null)
+                maxDistance = closest.t;
+            if (farDistance <= maxDistance) {
+                GeoPoint geoPoint = far.findClosestGeoIntersectionHelper(ray, maxDistance);
+                if (geoPoint != null)
+                    closest = geoPoint;
+            }
+            return closest;
+        }
+
+        GeoPoint closest = null, geoPoint;
+        for (var shape : intersectableList) {
+            geoPoint = shape.findClosestGeoIntersection(ray, maxDistance);
+            if (geoPoint != null) {
+                closest = geoPoint;
+                maxDistance = geoPoint.t;
+            }
+        }
+        return closest;
+    }
+
 
 
 
@@ -1,8 +1,10 @@
 package geometries;
 
 import primitives.Color;
+import primitives.Double3;
 import primitives.Material;
 import primitives.Point;
+import primitives.Ray;
 import primitives.Vector;
 
 /**
@@ -72,6 +74,18 @@ public abstract class Geometry extends Intersectable {
         return material;
     }
 
+    /**
+     * {@inheritDoc}
+     * If a single intersection with the geometry already blocks the light (e.g. an opaque material),
+     * only the existence of an intersection is checked.
+     */
+    @Override
+    protected Double3 findTransmittanceHelper(Ray ray, double maxDistance, Double3 k, double minK) {
+        if (k.productLowerThan(material.kT, minK))
+            return findClosestGeoIntersectionHelper(ray, maxDistance) == null ? k : Double3.ZERO;
+        return super.findTransmittanceHelper(ray, maxDistance, k, minK);
+    }
+
     /**
      * Calculates the normal vector to the geometry at a given point.
      *
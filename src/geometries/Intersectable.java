@@ -1,5 +1,6 @@
 package geometries;
 
+import primitives.Double3;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
@@ -27,6 +28,26 @@ public abstract class Intersectable {
          * The point of intersection.
          */
         public Point point;
+        /**
+         * The parameter of the point along the intersecting ray - its distance from the head of the ray
+         * (the directions of the rays are normalized), {@code Double.POSITIVE_INFINITY} if it wasn't calculated.
+         */
+        public double t = Double.POSITIVE_INFINITY;
+        /**
+         * The first surface coordinate of the point - for a triangle, the barycentric weight of its second vertex.
+         * {@code Double.NaN} if the geometry doesn't define surface coordinates.
+         */
+        public double u = Double.NaN;
+        /**
+         * The second surface coordinate of the point - for a triangle, the barycentric weight of its third vertex.
+         * {@code Double.NaN} if the geometry doesn't define surface coordinates.
+         */
+        public double v = Double.NaN;
+        /**
+         * The normal of the geometry at the point, calculated on the first request
+         * unless the geometry provided it when the point was found.
+         */
+        private Vector normal = null;
 
         /**
          * Constructs a GeoPoint with the given geometry and point.
@@ -39,13 +60,43 @@ public abstract class Intersectable {
             this.point = point;
         }
 
+        /**
+         * Constructs a GeoPoint with the given geometry, point and parameter along the intersecting ray.
+         *
+         * @param geometry the geometry to which the point of intersection belongs
+         * @param point    the point of intersection
+         * @param t        the parameter of the point along the ray (its distance from the head of the ray)
+         */
+        public GeoPoint(Geometry geometry, Point point, double t) {
+            this.geometry = geometry;
+            this.point = point;
+            this.t = t;
+        }
+
+        /**
+         * Constructs a GeoPoint with the given geometry, point, parameter along the intersecting ray and normal,
+         * for geometries which know their normal at the point without calculating it (like a plane).
+         *
+         * @param geometry the geometry to which the point of intersection belongs
+         * @param point    the point of intersection
+         * @param t        the parameter of the point along the ray (its distance from the head of the ray)
+         * @param normal   the normal of the geometry at the point
+         */
+        public GeoPoint(Geometry geometry, Point point, double t, Vector normal) {
+            this(geometry, point, t);
+            this.normal = normal;
+        }
+
         /**
          * Retrieves the normal vector at the current point on the geometry.
+         * The normal is calculated once, later calls return the same vector.
          *
          * @return the normal vector at the current point.
          */
         public Vector getNormal() {
-            return geometry.getNormal(point);
+            if (normal == null)
+                normal = geometry.getNormal(point);
+            return normal;
         }
 
         @Override
@@ -62,6 +113,22 @@ public abstract class Intersectable {
         }
     }
 
+    /**
+     * The axis aligned box bounding this object, calculated once when the object is constructed.
+     * Unbounded objects (like an infinite plane) have no bounding box and keep it null.
+     */
+    protected BoundingBox boundingBox = null;
+
+    /**
+     * Gets the axis aligned box bounding this object.
+     * Unbounded objects (like an infinite plane) have no bounding box.
+     *
+     * @return the bounding box of the object, or null if the object is unbounded
+     */
+    public BoundingBox getBoundingBox() {
+        return boundingBox;
+    }
+
     /**
      * Finds the intersections of this object with the given ray.
      *
@@ -97,15 +164,118 @@ public abstract class Intersectable {
 
     /**
      * Finds intersections of the ray with geometries up to a specified maximum distance.
+     * A ray missing the bounding box of the object is rejected before calculating the exact intersections.
      *
      * @param ray         the ray to find intersections with.
      * @param maxDistance the maximum distance to consider for intersections.
      * @return a list of geometric points representing intersections, or an empty list if no intersections are found.
      */
     public final List<GeoPoint> findGeoIntersections(Ray ray, double maxDistance) {
+        if (boundingBox != null && !boundingBox.intersects(ray, maxDistance))
+            return null;
         return findGeoIntersectionsHelper(ray, maxDistance);
     }
 
+    /**
+     * Finds the closest intersection of the ray with the object.
+     *
+     * @param ray the ray to find the intersection with.
+     * @return the closest intersection (with its distance from the head of the ray), or {@code null} if there is none.
+     */
+    public final GeoPoint findClosestGeoIntersection(Ray ray) {
+        return findClosestGeoIntersection(ray, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Finds the closest intersection of the ray with the object, closer than a specified maximum distance.
+     * Unlike {@link #findGeoIntersections(Ray, double)}, no list of all the intersections is built.
+     *
+     * @param ray         the ray to find the intersection with.
+     * @param maxDistance the maximum distance to consider for the intersection.
+     * @return the closest intersection (with its distance from the head of the ray), or {@code null} if there is none.
+     */
+    public final GeoPoint findClosestGeoIntersection(Ray ray, double maxDistance) {
+        if (boundingBox != null && !boundingBox.intersects(ray, maxDistance))
+            return null;
+        return findClosestGeoIntersectionHelper(ray, maxDistance);
+    }
+
+    /**
+     * Helper method finding the closest intersection of the ray with the object.
+     * The default implementation picks the closest of all the intersections; subclasses
+     * are expected to override it with a calculation that doesn't collect all of them.
+     *
+     * @param ray         the ray to find the intersection with.
+     * @param maxDistance the maximum distance to consider for the intersection.
+     * @return the closest intersection (with its distance from the head of the ray), or {@code null} if there is none.
+     */
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        List<GeoPoint> geoPoints = findGeoIntersectionsHelper(ray, maxDistance);
+        if (geoPoints == null)
+            return null;
+        GeoPoint closest = null;
+        for (GeoPoint geoPoint : geoPoints) {
+            if (geoPoint.t == Double.POSITIVE_INFINITY)
+                geoPoint.t = geoPoint.point.distance(ray.getHead());
+            if (closest == null || geoPoint.t < closest.t)
+                closest = geoPoint;
+        }
+        return closest;
+    }
+
+    /**
+     * Calculates the part of the light passing along the ray up to a maximum distance (e.g. from a point
+     * towards a light source) - the product of the transparency coefficients of all the intersections.
+     * Unlike collecting all the intersections, the calculation stops as soon as the light is blocked:
+     * at the first opaque intersection, or when the transmittance drops below a minimal value.
+     *
+     * @param ray         the ray to check.
+     * @param maxDistance the maximum distance to consider for intersections.
+     * @param minK        the minimal transmittance which is still considered as passing light.
+     * @return the transmittance along the ray, {@link Double3#ZERO} if the light is blocked.
+     */
+    public final Double3 findTransmittance(Ray ray, double maxDistance, double minK) {
+        return findTransmittance(ray, maxDistance, Double3.ONE, minK);
+    }
+
+    /**
+     * Attenuates a transmittance by the intersections of the ray with the object up to a maximum distance.
+     * A ray missing the bounding box of the object passes the transmittance unchanged.
+     *
+     * @param ray         the ray to check.
+     * @param maxDistance the maximum distance to consider for intersections.
+     * @param k           the transmittance accumulated before reaching the object.
+     * @param minK        the minimal transmittance which is still considered as passing light.
+     * @return the attenuated transmittance, {@link Double3#ZERO} if the light is blocked.
+     */
+    protected final Double3 findTransmittance(Ray ray, double maxDistance, Double3 k, double minK) {
+        if (boundingBox != null && !boundingBox.intersects(ray, maxDistance))
+            return k;
+        return findTransmittanceHelper(ray, maxDistance, k, minK);
+    }
+
+    /**
+     * Helper method attenuating a transmittance by the intersections of the ray with the object.
+     * The default implementation multiplies the transparency coefficients of all the intersections.
+     *
+     * @param ray         the ray to check.
+     * @param maxDistance the maximum distance to consider for intersections.
+     * @param k           the transmittance accumulated before reaching the object.
+     * @param minK        the minimal transmittance which is still considered as passing light.
+     * @return the attenuated transmittance, {@link Double3#ZERO} if the light is blocked.
+     */
+    protected Double3 findTransmittanceHelper(Ray ray, double maxDistance, Double3 k, double minK) {
+        List<GeoPoint> geoPoints = findGeoIntersectionsHelper(ray, maxDistance);
+        if (geoPoints == null)
+            return k;
+        for (GeoPoint geoPoint : geoPoints) {
+            k = k.product(geoPoint.geometry.getMaterial().kT);
+            if (k.lowerThan(minK))
+                return Double3.ZERO;
+        }
+        return k;
+    }
+
     /**
      * Helper method to be implemented by subclasses to find intersections of the ray with geometries.
      *
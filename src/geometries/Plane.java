@@ -55,6 +55,15 @@ public class Plane extends Geometry {
         return normal;
     }
 
+    /**
+     * get the point the plane was constructed through
+     *
+     * @return the point
+     */
+    public Point getQ() {
+        return q;
+    }
+
     /**
      * get the normal of the plane
      *
@@ -66,18 +75,39 @@ public class Plane extends Geometry {
 
     @Override
     public List<GeoPoint> findGeoIntersectionsHelper(Ray ray,double maxDistance) {
+        GeoPoint geoPoint = findClosestGeoIntersectionHelper(ray, maxDistance);
+        return geoPoint == null ? null : List.of(geoPoint);
+    }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        double t = intersectionDistance(ray, maxDistance);
+        return t == Double.POSITIVE_INFINITY ? null : new GeoPoint(this, ray.getPoint(t), t, normal);
+    }
+
+    /**
+     * Calculates the distance along the ray to its intersection with the plane.
+     *
+     * @param ray         the ray to intersect with
+     * @param maxDistance the maximum distance to consider for the intersection
+     * @return the distance from the head of the ray to the intersection,
+     * or {@code Double.POSITIVE_INFINITY} if there is no intersection closer than the maximum distance
+     */
+    double intersectionDistance(Ray ray, double maxDistance) {
         //Check if the Q-P0 is the ZERO Vector
         if (q.equals(ray.getHead()))
-            return null;
+            return Double.POSITIVE_INFINITY;
         //Check if the ray is parallel to the plane
-        if (isZero(normal.dotProduct(ray.getDirection())))
-            return null;
+        double nv = normal.dotProduct(ray.getDirection());
+        if (isZero(nv))
+            return Double.POSITIVE_INFINITY;
         //Calculate the Scalar t that will give us the point of Intersection with the plane
-        double t = normal.dotProduct(q.subtract(ray.getHead())) / normal.dotProduct(ray.getDirection());
+        Point head = ray.getHead();
+        double t = ((q.getX() - head.getX()) * normal.getX() + (q.getY() - head.getY()) * normal.getY()
+                + (q.getZ() - head.getZ()) * normal.getZ()) / nv;
         if (t <= 0 || isZero(ray,t)||alignZero(t-maxDistance)>=0)
-            return null;
-
-        return List.of(new GeoPoint(this,ray.getPoint(t)));
+            return Double.POSITIVE_INFINITY;
+        return t;
     }
 
 
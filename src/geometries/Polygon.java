@@ -1,6 +1,5 @@
 package geometries;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import static primitives.Util.isZero;
@@ -30,6 +29,20 @@ public class Polygon extends Geometry {
      * The size of the polygon - the amount of the vertices in the polygon
      */
     private final int size;
+    /**
+     * The axis dropped when projecting the polygon onto an axis aligned plane - the axis along which
+     * the normal is the longest, so the projection keeps the polygon as large as possible.
+     * The projection is not built for subclasses with their own hit test (see {@link #Polygon(boolean, Point...)})
+     */
+    private final int droppedAxis;
+    /**
+     * The 2D coordinates of the projected vertices
+     */
+    private final double[] projectedU, projectedV;
+    /**
+     * The 2D directions (normalized) of the projected edges, the edge i going from vertex i to vertex i+1
+     */
+    private final double[] edgeU, edgeV;
 
     /**
      * Polygon constructor based on vertices list. The list must be ordered by edge
@@ -54,18 +67,56 @@ public class Polygon extends Geometry {
      *                                  </ul>
      */
     public Polygon(Point... vertices) {
+        this(true, vertices);
+    }
+
+    /**
+     * Polygon constructor based on vertices list, for subclasses which may have their own hit test
+     * (like {@link Triangle}) and don't need the projection of the polygon built for the hit test of the polygon.
+     *
+     * @param projected whether the projection of the polygon onto an axis aligned plane is built
+     * @param vertices  list of vertices according to their order by edge path
+     * @throws IllegalArgumentException in any case of illegal combination of vertices
+     *                                  (see {@link #Polygon(Point...)})
+     */
+    protected Polygon(boolean projected, Point... vertices) {
         if (vertices.length < 3)
             throw new IllegalArgumentException("A polygon can't have less than 3 vertices");
         this.vertices = List.of(vertices);
         size = vertices.length;
+        boundingBox = BoundingBox.of(vertices);
 
         // Generate the plane according to the first three vertices and associate the
         // polygon with this plane.
         // The plane holds the invariant normal (orthogonal unit) vector to the polygon
         plane = new Plane(vertices[0], vertices[1], vertices[2]);
+        Vector n = plane.getNormal();
+
+        if (projected) {
+            double nx = Math.abs(n.getX()), ny = Math.abs(n.getY()), nz = Math.abs(n.getZ());
+            droppedAxis = nx >= ny && nx >= nz ? 0 : ny >= nz ? 1 : 2;
+            projectedU = new double[size];
+            projectedV = new double[size];
+            for (int i = 0; i < size; ++i) {
+                projectedU[i] = projectU(vertices[i].getX(), vertices[i].getY(), vertices[i].getZ());
+                projectedV[i] = projectV(vertices[i].getX(), vertices[i].getY(), vertices[i].getZ());
+            }
+            edgeU = new double[size];
+            edgeV = new double[size];
+            for (int i = 0; i < size; ++i) {
+                double du = projectedU[(i + 1) % size] - projectedU[i];
+                double dv = projectedV[(i + 1) % size] - projectedV[i];
+                double length = Math.sqrt(du * du + dv * dv);
+                edgeU[i] = du / length;
+                edgeV[i] = dv / length;
+            }
+        } else {
+            droppedAxis = 0;
+            projectedU = projectedV = edgeU = edgeV = null;
+        }
+
         if (size == 3) return; // no need for more tests for a Triangle
 
-        Vector n = plane.getNormal();
         // Subtracting any subsequent points will throw an IllegalArgumentException
         // because of Zero Vector if they are in the same point
         Vector edge1 = vertices[vertices.length - 1].subtract(vertices[vertices.length - 2]);
@@ -100,6 +151,15 @@ public class Polygon extends Geometry {
     public Polygon(List<Point> vertices) {
         this(vertices.toArray(new Point[0]));
     }
+
+    /**
+     * Gets the vertices of the polygon.
+     *
+     * @return the vertices, ordered by edge path
+     */
+    public List<Point> getVertices() {
+        return vertices;
+    }
     @Override
     public Vector getNormal(Point point) {
         return plane.getNormal();
@@ -108,47 +168,68 @@ public class Polygon extends Geometry {
 
     @Override
     public List<GeoPoint> findGeoIntersectionsHelper(Ray ray,double maxDistance) {
-        // Finds intersections between the ray and the plane containing this polygon.
-        var list = plane.findIntersections(ray,maxDistance);
-        if (list==null)
-            return null;
-        // Calculates the vectors from the ray's head to each vertex of the polygon.
-        List<Vector> vs = new ArrayList<>(size);
-        for (Point vertex : vertices) {
-            vs.add(vertex.subtract(ray.getHead()));
-        }
-        // Initializes a list to store the calculated 't' values for each edge.
-        List<Double> ts = new ArrayList<>(size);
+        // A convex polygon is intersected by a ray at most once
+        GeoPoint geoPoint = findClosestGeoIntersectionHelper(ray, maxDistance);
+        return geoPoint == null ? null : List.of(geoPoint);
+    }
 
-        // Calculates the cross products of consecutive edges to get the normal vectors of each polygon edge.
-        List<Vector> ns = new ArrayList<>(size);
-        for (int i = 0; i < size; ++i) {
-            ns.add(vs.get(i).crossProduct(vs.get((i + 1) % size)));
-        }
+    /**
+     * Calculates the first coordinate of the projection of a point onto the axis aligned plane of the polygon.
+     *
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @param z the z coordinate of the point
+     * @return the first coordinate of the projection
+     */
+    private double projectU(double x, double y, double z) {
+        return droppedAxis == 0 ? y : droppedAxis == 1 ? z : x;
+    }
 
-        // Calculates the 't' values by taking the dot product of each normal vector and the ray direction.
-        for (Vector n : ns) {
-            ts.add(n.dotProduct(ray.getDirection()));
-        }
+    /**
+     * Calculates the second coordinate of the projection of a point onto the axis aligned plane of the polygon.
+     *
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @param z the z coordinate of the point
+     * @return the second coordinate of the projection
+     */
+    private double projectV(double x, double y, double z) {
+        return droppedAxis == 0 ? z : droppedAxis == 1 ? x : y;
+    }
 
-        // Determines the direction of the first 't' value and assigns a flag accordingly.
-        int flag;
-        if (isZero(ts.getFirst()))
+    /**
+     * {@inheritDoc}
+     * After the ray hits the plane of the polygon, the hit is projected (with the polygon) onto an axis aligned
+     * plane, where it is inside the convex polygon if it is on the same side of all the edges.
+     * Points on the edges (or on their continuations) are not considered intersections.
+     */
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        // Finds the intersection between the ray and the plane containing this polygon.
+        double distance = plane.intersectionDistance(ray, maxDistance);
+        if (distance == Double.POSITIVE_INFINITY)
             return null;
-        else if (ts.getFirst() > 0)
-            flag = 1;
-        else
-            flag = -1;
-
-        // Checks if there are any invalid 't' values that violate the direction determined by the first 't' value.
-        for (Double t : ts) {
-            if (isZero(t))
+
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+        double x = head.getX() + direction.getX() * distance;
+        double y = head.getY() + direction.getY() * distance;
+        double z = head.getZ() + direction.getZ() * distance;
+        double u = projectU(x, y, z), v = projectV(x, y, z);
+
+        // The point is inside if its distances from all the edges lines have the same sign (none of them zero).
+        boolean positive = false;
+        for (int i = 0; i < size; ++i) {
+            double side = edgeU[i] * (v - projectedV[i]) - edgeV[i] * (u - projectedU[i]);
+            if (isZero(side))
                 return null;
-            if ((t > 0 && flag == -1) || (t < 0 && flag == 1))
+            if (i == 0)
+                positive = side > 0;
+            else if (positive != side > 0)
                 return null;
         }
 
-        // Returns the list of intersection points.
-        return List.of(new GeoPoint(this, list.getFirst()));
+        // Returns the intersection point.
+        return new GeoPoint(this, ray.getPoint(distance), distance, plane.getNormal());
     }
 }
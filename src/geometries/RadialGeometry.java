@@ -21,4 +21,13 @@ abstract public class RadialGeometry extends Geometry {
         if (radius < 0) throw new IllegalArgumentException("radius " + radius + " can't be negative");
         this.radius = radius;
     }
+
+    /**
+     * Gets the radius of the body.
+     *
+     * @return the radius
+     */
+    public double getRadius() {
+        return radius;
+    }
 }
@@ -29,6 +29,17 @@ public class Sphere extends RadialGeometry {
     public Sphere(double radius, Point center) throws IllegalArgumentException {
         super(radius);
         this.center = center;
+        boundingBox = new BoundingBox(center.getX() - radius, center.getY() - radius, center.getZ() - radius,
+                center.getX() + radius, center.getY() + radius, center.getZ() + radius);
+    }
+
+    /**
+     * Gets the center point of the sphere.
+     *
+     * @return the center point
+     */
+    public Point getCenter() {
+        return center;
     }
 
     @Override
@@ -43,7 +54,7 @@ public class Sphere extends RadialGeometry {
         // If the ray's head coincides with the center of the sphere,
         // then the intersection point is at a distance of the radius.
         if (center.equals(ray.getHead())) {
-            return List.of(new GeoPoint(this, ray.getPoint(radius)));
+            return List.of(new GeoPoint(this, ray.getPoint(radius), radius));
         }
 
         Vector u = center.subtract(ray.getHead());
@@ -64,21 +75,43 @@ public class Sphere extends RadialGeometry {
             return null;
         }
         if ((tm - th < 0 || isZero(ray, tm - th)) && alignZero(tm + th - maxDistance) < 0) {
-            return List.of(new GeoPoint(this, ray.getPoint(tm + th)));
+            return List.of(new GeoPoint(this, ray.getPoint(tm + th), tm + th));
         }
         if ((tm - th < 0 || isZero(ray, tm - th))) {//tm+th-maxDistance>=0
             return null;
         }
         //from here tm-th>0
         if (alignZero(tm + th - maxDistance) < 0) {
-            return List.of(new GeoPoint(this, ray.getPoint(tm - th)), new GeoPoint(this, ray.getPoint(tm + th)));
+            return List.of(new GeoPoint(this, ray.getPoint(tm - th), tm - th),
+                    new GeoPoint(this, ray.getPoint(tm + th), tm + th));
         }
         if (alignZero(tm - th - maxDistance) < 0) {//tm+th>=maxDistance
-            return List.of(new GeoPoint(this, ray.getPoint(tm - th)));
+            return List.of(new GeoPoint(this, ray.getPoint(tm - th), tm - th));
         }
         //tm+th>=maxDistance,tm-th>=maxDistance
         return null;
     }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        if (center.equals(ray.getHead())) {
+            return new GeoPoint(this, ray.getPoint(radius), radius);
+        }
+
+        Vector u = center.subtract(ray.getHead());
+        double tm = u.dotProduct(ray.getDirection());
+        double d = Math.sqrt(u.lengthSquared() - tm * tm);
+        if (d >= radius || isZero(d - radius))
+            return null;
+        double th = Math.sqrt(radius * radius - d * d);
+
+        //the farther intersection is behind the head of the ray - so is the closer one
+        if (tm + th < 0 || isZero(ray, tm + th))
+            return null;
+        //the head of the ray is inside the sphere - only the farther intersection is in front of it
+        double t = tm - th < 0 || isZero(ray, tm - th) ? tm + th : tm - th;
+        return alignZero(t - maxDistance) < 0 ? new GeoPoint(this, ray.getPoint(t), t) : null;
+    }
 }
 
 
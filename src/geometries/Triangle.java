@@ -4,8 +4,7 @@ import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
 
-import java.util.List;
-
+import static primitives.Util.alignZero;
 import static primitives.Util.isZero;
 
 /**
@@ -15,6 +14,24 @@ import static primitives.Util.isZero;
  * @author Shneor and Emanuel
  */
 public class Triangle extends Polygon {
+    /**
+     * The coordinates of the first vertex
+     */
+    private final double ax, ay, az;
+    /**
+     * The coordinates of the edge from the first vertex to the second one
+     */
+    private final double e1x, e1y, e1z;
+    /**
+     * The coordinates of the edge from the first vertex to the third one
+     */
+    private final double e2x, e2y, e2z;
+    /**
+     * The length of the cross product of the edges (twice the area of the triangle),
+     * scaling the determinant of the intersection to the cosine between the ray and the plane
+     */
+    private final double crossLength;
+
     /**
      * Constructs a triangle with the specified points.
      *
@@ -23,51 +40,60 @@ public class Triangle extends Polygon {
      * @param p3 the third vertex of the triangle
      */
     public Triangle(Point p1, Point p2, Point p3) {
-        super(p1, p2, p3);
+        // the triangle has its own hit test, so the projection of the polygon isn't needed
+        super(false, p1, p2, p3);
+        ax = p1.getX();
+        ay = p1.getY();
+        az = p1.getZ();
+        e1x = p2.getX() - ax;
+        e1y = p2.getY() - ay;
+        e1z = p2.getZ() - az;
+        e2x = p3.getX() - ax;
+        e2y = p3.getY() - ay;
+        e2z = p3.getZ() - az;
+        double cx = e1y * e2z - e1z * e2y, cy = e1z * e2x - e1x * e2z, cz = e1x * e2y - e1y * e2x;
+        crossLength = Math.sqrt(cx * cx + cy * cy + cz * cz);
     }
 
-
+    /**
+     * {@inheritDoc}
+     * The intersection is calculated by the Moller-Trumbore algorithm, which finds the ray parameter
+     * and the barycentric coordinates of the intersection at once, from the edges of the triangle.
+     * Points on the edges or the vertices of the triangle are not considered intersections.
+     */
     @Override
-    public List<GeoPoint> findGeoIntersectionsHelper(Ray ray,double maxDistance) {
-        // Step 1: Find intersection with the plane
-        List<Point> planeIntersections = plane.findIntersections(ray,maxDistance);
-        if (planeIntersections == null) {
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        Point head = ray.getHead();
+        Vector direction = ray.getDirection();
+        double dx = direction.getX(), dy = direction.getY(), dz = direction.getZ();
+
+        // p = d x e2, det = e1 . p
+        double px = dy * e2z - dz * e2y, py = dz * e2x - dx * e2z, pz = dx * e2y - dy * e2x;
+        double det = e1x * px + e1y * py + e1z * pz;
+        // the ray is parallel to the plane of the triangle
+        if (isZero(det / crossLength))
             return null;
-        }
-
-        // Step 2: Check if the intersection point is inside the triangle using barycentric coordinates
-        Point P = planeIntersections.getFirst();
+        double invDet = 1 / det;
 
-
-        // Handle case where P coincides with one of the vertices
-        if (P.equals(vertices.get(0)) || P.equals(vertices.get(1)) || P.equals(vertices.get(2))) {
+        // the weight of the second vertex
+        double sx = head.getX() - ax, sy = head.getY() - ay, sz = head.getZ() - az;
+        double u = (sx * px + sy * py + sz * pz) * invDet;
+        if (u < 0 || isZero(u))
             return null;
-        }
-
-        // Vectors from triangle vertices to the point
-        Vector v0v1 = vertices.get(1).subtract(vertices.get(0)); //AB
-        Vector v0v2 = vertices.get(2).subtract(vertices.get(0)); //AC
-        Vector v0P = P.subtract(vertices.get(0)); //AP
 
-        // Dot products
-        double dot00 = v0v2.dotProduct(v0v2);
-        double dot01 = v0v2.dotProduct(v0v1);
-        double dot02 = v0v2.dotProduct(v0P);
-        double dot11 = v0v1.dotProduct(v0v1);
-        double dot12 = v0v1.dotProduct(v0P);
+        // the weight of the third vertex, q = s x e1
+        double qx = sy * e1z - sz * e1y, qy = sz * e1x - sx * e1z, qz = sx * e1y - sy * e1x;
+        double v = (dx * qx + dy * qy + dz * qz) * invDet;
+        if (v < 0 || isZero(v) || u + v > 1 || isZero(u + v - 1))
+            return null;
 
-        // Barycentric coordinates
-        double invDenom = 1 / (dot00 * dot11 - dot01 * dot01);
-        double u = (dot11 * dot02 - dot01 * dot12) * invDenom;
-        double v = (dot00 * dot12 - dot01 * dot02) * invDenom;
+        double t = (e2x * qx + e2y * qy + e2z * qz) * invDet;
+        if (t <= 0 || isZero(ray, t) || alignZero(t - maxDistance) >= 0)
+            return null;
 
-        // Check if point is in triangle (excluding the boundaries)
-        if (!isZero(u) && u > 0 && !isZero(v) && v > 0 && !isZero(u + v - 1) && u + v < 1) {
-            return List.of(new GeoPoint(this,P));
-        }
-        return null;
+        GeoPoint geoPoint = new GeoPoint(this, ray.getPoint(t), t, plane.getNormal());
+        geoPoint.u = u;
+        geoPoint.v = v;
+        return geoPoint;
     }
-
-
-
 }
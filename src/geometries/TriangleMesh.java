@@ -0,0 +1,914 @@
+package geometries;
+
+import primitives.Double3;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+import static primitives.Util.alignZero;
+import static primitives.Util.isZero;
+
+/**
+ * TriangleMesh represents a surface made of many triangles sharing their vertices, with a single material
+ * and emission. The vertices and the triangles are kept in primitive arrays (rather than a Triangle object
+ * for each triangle), and the mesh has its own bounding volume hierarchy over its triangles, flattened into
+ * arrays as well, so even a model of millions of triangles takes a few tens of bytes per triangle.
+ * <p>
+ * Unlike a single {@link Triangle}, points on the edges of the triangles are intersections,
+ * so rays can't pass between neighboring triangles through their shared edge. Such a point is reported
+ * once, although the ray hits every triangle sharing the edge there.
+ * </p>
+ *
+ * @author Shneor and Emanuel
+ */
+public class TriangleMesh extends Geometry {
+    /**
+     * Maximal amount of triangles in a leaf of the hierarchy
+     */
+    private static final int MAX_LEAF_SIZE = 4;
+    /**
+     * Amount of bins the centroids are sorted into when looking for the best split of a node
+     */
+    private static final int SAH_BINS = 16;
+    /**
+     * Cost of traversing a node relative to the cost of intersecting a triangle
+     */
+    private static final double TRAVERSAL_COST = 1;
+    /**
+     * Padding added around the boxes of the triangles, so triangles lying in an axis aligned plane
+     * don't get a zero thickness box that rounding errors could miss
+     */
+    private static final double PADDING = 1e-7;
+    /**
+     * The squared sine of the angle between a ray and the plane of a triangle below which
+     * the ray is considered parallel to the triangle
+     */
+    private static final double PARALLEL_SINE_SQUARED = 1e-20;
+    /**
+     * The relative difference between the ray parameters of two intersections below which they are
+     * the same point, hit through an edge or a vertex shared by several triangles
+     */
+    private static final double SAME_POINT_DISTANCE = 1e-9;
+
+    /**
+     * The coordinates of the vertices - x, y and z of every vertex in turn
+     */
+    private final double[] positions;
+    /**
+     * The coordinates of the normals of the vertices (like the positions), or null for flat triangles
+     */
+    private final double[] normals;
+    /**
+     * The indices of the vertices of the triangles - three for every triangle, ordered by the hierarchy leaves
+     */
+    private final int[] indices;
+
+    /**
+     * The boxes of the hierarchy nodes - the lower x, y, z and the upper x, y, z coordinates of every node in turn
+     */
+    private double[] nodeBounds;
+    /**
+     * For a leaf - its first triangle, for an inner node - the index of its second child
+     * (the first child always follows its parent)
+     */
+    private int[] nodeStart;
+    /**
+     * The amount of triangles in every leaf, 0 for inner nodes
+     */
+    private int[] nodeCount;
+    /**
+     * The amount of nodes in the hierarchy
+     */
+    private int nodesCount = 0;
+
+    /**
+     * Constructs a mesh of flat triangles.
+     *
+     * @param positions the coordinates of the vertices - x, y and z of every vertex in turn.
+     *                  The array is kept by the mesh and must not be changed later
+     * @param indices   the indices of the vertices of the triangles, three for every triangle, in the order
+     *                  of their edges path (as the vertices of a {@link Triangle})
+     * @throws IllegalArgumentException if the arrays lengths are not multiples of 3, or an index is not
+     *                                  of a vertex
+     */
+    public TriangleMesh(double[] positions, int[] indices) throws IllegalArgumentException {
+        this(positions, null, indices);
+    }
+
+    /**
+     * Constructs a mesh of triangles with normals at their vertices - the normal of a point
+     * inside a triangle is interpolated from the normals of its vertices, for a smooth surface.
+     * Degenerate triangles (with vertices on a single line) are dropped.
+     *
+     * @param positions the coordinates of the vertices - x, y and z of every vertex in turn.
+     *                  The array is kept by the mesh and must not be changed later
+     * @param normals   the coordinates of the normals of the vertices, like the positions (null for flat triangles).
+     *                  The array is kept by the mesh and must not be changed later
+     * @param indices   the indices of the vertices of the triangles, three for every triangle, in the order
+     *                  of their edges path (as the vertices of a {@link Triangle})
+     * @throws IllegalArgumentException if the arrays lengths are not multiples of 3 or not matching,
+     *                                  or an index is not of a vertex
+     */
+    public TriangleMesh(double[] positions, double[] normals, int[] indices) throws IllegalArgumentException {
+        if (positions.length % 3 != 0 || indices.length % 3 != 0)
+            throw new IllegalArgumentException("the positions and the indices must come in triples");
+        if (normals != null && normals.length != positions.length)
+            throw new IllegalArgumentException("every vertex must have a single normal");
+        int verticesCount = positions.length / 3;
+        for (int index : indices)
+            if (index < 0 || index >= verticesCount)
+                throw new IllegalArgumentException("index " + index + " is not of a vertex");
+
+        this.positions = positions;
+        this.normals = normals;
+
+        // drop the degenerate triangles
+        int[] triangles = new int[indices.length / 3];
+        int count = 0;
+        for (int triangle = 0; triangle < triangles.length; ++triangle)
+            if (!isDegenerate(indices, triangle))
+                triangles[count++] = triangle;
+
+        this.indices = new int[count * 3];
+        if (count == 0)
+            return;
+        buildHierarchy(indices, Arrays.copyOf(triangles, count));
+        boundingBox = new BoundingBox(nodeBounds[0], nodeBounds[1], nodeBounds[2],
+                nodeBounds[3], nodeBounds[4], nodeBounds[5]);
+    }
+
+    /**
+     * Constructs a mesh again from the data of another mesh (see {@link #getData()}), using its hierarchy
+     * as is instead of building it again - for loading a mesh saved before in a file.
+     * The arrays of the data are kept by the mesh and must not be changed later.
+     *
+     * @param data the data of the mesh
+     * @throws IllegalArgumentException if the arrays of the data don't make a valid mesh and hierarchy
+     */
+    public TriangleMesh(Data data) throws IllegalArgumentException {
+        positions = data.positions;
+        normals = data.normals;
+        indices = data.indices;
+        nodeBounds = data.nodeBounds;
+        nodeStart = data.nodeStart;
+        nodeCount = data.nodeCount;
+        nodesCount = nodeStart.length;
+
+        if (positions.length % 3 != 0 || indices.length % 3 != 0)
+            throw new IllegalArgumentException("the positions and the indices must come in triples");
+        if (normals != null && normals.length != positions.length)
+            throw new IllegalArgumentException("every vertex must have a single normal");
+        if (nodeBounds.length != 6 * nodesCount || nodeCount.length != nodesCount)
+            throw new IllegalArgumentException("every node must have a single box and a single count");
+        if ((nodesCount == 0) != (indices.length == 0))
+            throw new IllegalArgumentException("a mesh of triangles must have a hierarchy");
+        int verticesCount = positions.length / 3;
+        for (int index : indices)
+            if (index < 0 || index >= verticesCount)
+                throw new IllegalArgumentException("index " + index + " is not of a vertex");
+        int trianglesCount = indices.length / 3;
+        for (int node = 0; node < nodesCount; ++node) {
+            int start = nodeStart[node], count = nodeCount[node];
+            if (count == 0 ? start <= node + 1 || start >= nodesCount
+                    : count < 0 || start < 0 || start > trianglesCount - count)
+                throw new IllegalArgumentException("node " + node + " is not a valid node of the hierarchy");
+        }
+
+        if (nodesCount != 0)
+            boundingBox = new BoundingBox(nodeBounds[0], nodeBounds[1], nodeBounds[2],
+                    nodeBounds[3], nodeBounds[4], nodeBounds[5]);
+    }
+
+    /**
+     * The arrays of a mesh and of its hierarchy, for saving a mesh with its hierarchy and constructing it again
+     * without building the hierarchy again.
+     */
+    public static final class Data {
+        /**
+         * The coordinates of the vertices - x, y and z of every vertex in turn
+         */
+        public final double[] positions;
+        /**
+         * The coordinates of the normals of the vertices (like the positions), or null for flat triangles
+         */
+        public final double[] normals;
+        /**
+         * The indices of the vertices of the triangles - three for every triangle, ordered by the hierarchy leaves
+         */
+        public final int[] indices;
+        /**
+         * The boxes of the hierarchy nodes - the lower x, y, z and the upper x, y, z coordinates of every node
+         */
+        public final double[] nodeBounds;
+        /**
+         * For a leaf - its first triangle, for an inner node - the index of its second child
+         * (the first child always follows its parent)
+         */
+        public final int[] nodeStart;
+        /**
+         * The amount of triangles in every leaf, 0 for inner nodes
+         */
+        public final int[] nodeCount;
+
+        /**
+         * Constructs the data of a mesh.
+         *
+         * @param positions  the coordinates of the vertices
+         * @param normals    the coordinates of the normals of the vertices, or null
+         * @param indices    the indices of the vertices of the triangles, ordered by the hierarchy leaves
+         * @param nodeBounds the boxes of the hierarchy nodes
+         * @param nodeStart  the first triangle of every leaf and the second child of every inner node
+         * @param nodeCount  the amount of triangles in every leaf, 0 for inner nodes
+         */
+        public Data(double[] positions, double[] normals, int[] indices,
+                    double[] nodeBounds, int[] nodeStart, int[] nodeCount) {
+            this.positions = positions;
+            this.normals = normals;
+            this.indices = indices;
+            this.nodeBounds = nodeBounds;
+            this.nodeStart = nodeStart;
+            this.nodeCount = nodeCount;
+        }
+    }
+
+    /**
+     * Gets the data of the mesh, including its hierarchy.
+     * The arrays of the data are the arrays of the mesh itself and must not be changed.
+     *
+     * @return the data of the mesh
+     */
+    public Data getData() {
+        return nodesCount == 0
+                ? new Data(positions, normals, indices, new double[0], new int[0], new int[0])
+                : new Data(positions, normals, indices, nodeBounds, nodeStart, nodeCount);
+    }
+
+    /**
+     * Gets the amount of the vertices of the mesh.
+     *
+     * @return the amount of the vertices
+     */
+    public int getVerticesCount() {
+        return positions.length / 3;
+    }
+
+    /**
+     * Gets the amount of the (non degenerate) triangles of the mesh.
+     *
+     * @return the amount of the triangles
+     */
+    public int getTrianglesCount() {
+        return indices.length / 3;
+    }
+
+    /**
+     * Checks whether a triangle is degenerate - its vertices are on a single line, so it has no normal.
+     *
+     * @param indices  the indices of the vertices of the triangles
+     * @param triangle the triangle
+     * @return true if the triangle is degenerate
+     */
+    private boolean isDegenerate(int[] indices, int triangle) {
+        int a = indices[3 * triangle] * 3, b = indices[3 * triangle + 1] * 3, c = indices[3 * triangle + 2] * 3;
+        double e1x = positions[b] - positions[a], e1y = positions[b + 1] - positions[a + 1];
+        double e1z = positions[b + 2] - positions[a + 2];
+        double e2x = positions[c] - positions[a], e2y = positions[c + 1] - positions[a + 1];
+        double e2z = positions[c + 2] - positions[a + 2];
+        return isZero(e1y * e2z - e1z * e2y) && isZero(e1z * e2x - e1x * e2z) && isZero(e1x * e2y - e1y * e2x);
+    }
+
+    // ====================== the hierarchy building ======================
+
+    /**
+     * Builds the bounding volume hierarchy over the triangles, according to the surface area heuristic,
+     * and stores the triangles in the order of the leaves.
+     *
+     * @param sourceIndices the indices of the vertices of all the triangles
+     * @param triangles     the triangles to place in the hierarchy
+     */
+    private void buildHierarchy(int[] sourceIndices, int[] triangles) {
+        int n = triangles.length;
+        double[] bounds = new double[6 * n];
+        double[] centers = new double[3 * n];
+        for (int i = 0; i < n; ++i) {
+            int t = triangles[i];
+            for (int axis = 0; axis < 3; ++axis) {
+                double a = positions[sourceIndices[3 * t] * 3 + axis];
+                double b = positions[sourceIndices[3 * t + 1] * 3 + axis];
+                double c = positions[sourceIndices[3 * t + 2] * 3 + axis];
+                bounds[6 * i + axis] = Math.min(a, Math.min(b, c)) - PADDING;
+                bounds[6 * i + 3 + axis] = Math.max(a, Math.max(b, c)) + PADDING;
+                centers[3 * i + axis] = (bounds[6 * i + axis] + bounds[6 * i + 3 + axis]) / 2;
+            }
+        }
+
+        int capacity = Math.max(1, 2 * n / MAX_LEAF_SIZE);
+        nodeBounds = new double[6 * capacity];
+        nodeStart = new int[capacity];
+        nodeCount = new int[capacity];
+        buildNode(triangles, bounds, centers, new Bins(), 0, n);
+        nodeBounds = Arrays.copyOf(nodeBounds, 6 * nodesCount);
+        nodeStart = Arrays.copyOf(nodeStart, nodesCount);
+        nodeCount = Arrays.copyOf(nodeCount, nodesCount);
+
+        for (int i = 0; i < n; ++i)
+            System.arraycopy(sourceIndices, 3 * triangles[i], indices, 3 * i, 3);
+    }
+
+    /**
+     * Builds a hierarchy node over a range of triangles, splitting it recursively in the position
+     * of the lowest surface area heuristic cost among the binned centroids.
+     *
+     * @param triangles the triangles (reordered in place)
+     * @param bounds    the boxes of the triangles (reordered with the triangles)
+     * @param centers   the centroids of the boxes of the triangles (reordered with the triangles)
+     * @param bins      the working space of the split search, shared by all the nodes
+     * @param from      the first index of the range (inclusive)
+     * @param to        the last index of the range (exclusive)
+     */
+    private void buildNode(int[] triangles, double[] bounds, double[] centers, Bins bins, int from, int to) {
+        int node = addNode();
+        int n = to - from;
+        emptyBox(nodeBounds, 6 * node);
+        double[] cMin = bins.cMin, cMax = bins.cMax, scales = bins.scales;
+        for (int axis = 0; axis < 3; ++axis) {
+            cMin[axis] = Double.POSITIVE_INFINITY;
+            cMax[axis] = Double.NEGATIVE_INFINITY;
+        }
+        for (int i = from; i < to; ++i) {
+            include(nodeBounds, 6 * node, bounds, 6 * i);
+            for (int axis = 0; axis < 3; ++axis) {
+                double center = centers[3 * i + axis];
+                if (center < cMin[axis]) cMin[axis] = center;
+                if (center > cMax[axis]) cMax[axis] = center;
+            }
+        }
+
+        // find the cheapest split among the bins borders of all axes
+        int bestAxis = -1, bestBin = -1;
+        double bestCost = Double.POSITIVE_INFINITY;
+        if (n > 1) {
+            double[] binBoxes = bins.boxes, sweep = bins.sweep, rightAreas = bins.rightAreas;
+            int[] counts = bins.counts, rightCounts = bins.rightCounts;
+            Arrays.fill(counts, 0);
+            for (int bin = 0; bin < 3 * SAH_BINS; ++bin)
+                emptyBox(binBoxes, 6 * bin);
+            for (int axis = 0; axis < 3; ++axis) {
+                double extent = cMax[axis] - cMin[axis];
+                scales[axis] = extent > 0 ? SAH_BINS / extent : 0;
+            }
+            // bin the triangles along all the axes in a single pass over them
+            for (int i = from; i < to; ++i)
+                for (int axis = 0; axis < 3; ++axis) {
+                    int bin = axis * SAH_BINS + binIndex(centers[3 * i + axis], cMin[axis], scales[axis]);
+                    ++counts[bin];
+                    include(binBoxes, 6 * bin, bounds, 6 * i);
+                }
+
+            for (int axis = 0; axis < 3; ++axis) {
+                if (scales[axis] == 0) continue;
+                int first = axis * SAH_BINS;
+
+                // areas of the boxes to the right of each border, swept from the right
+                emptyBox(sweep, 0);
+                int count = 0;
+                for (int bin = SAH_BINS - 1; bin > 0; --bin) {
+                    include(sweep, 0, binBoxes, 6 * (first + bin));
+                    count += counts[first + bin];
+                    rightAreas[bin] = surfaceArea(sweep, 0);
+                    rightCounts[bin] = count;
+                }
+
+                emptyBox(sweep, 0);
+                count = 0;
+                for (int bin = 1; bin < SAH_BINS; ++bin) {
+                    include(sweep, 0, binBoxes, 6 * (first + bin - 1));
+                    count += counts[first + bin - 1];
+                    if (count == 0 || rightCounts[bin] == 0) continue;
+                    double cost = surfaceArea(sweep, 0) * count + rightAreas[bin] * rightCounts[bin];
+                    if (cost < bestCost) {
+                        bestCost = cost;
+                        bestAxis = axis;
+                        bestBin = bin;
+                    }
+                }
+            }
+        }
+
+        double area = surfaceArea(nodeBounds, 6 * node);
+        boolean worthSplitting = bestAxis != -1 && (area <= 0 || TRAVERSAL_COST + bestCost / area < n);
+        if (n == 1 || (n <= MAX_LEAF_SIZE && !worthSplitting)) {
+            nodeStart[node] = from;
+            nodeCount[node] = n;
+            return;
+        }
+
+        int mid;
+        if (bestAxis == -1) {
+            // all the centroids coincide - there is nothing to gain, just halve the range
+            mid = from + n / 2;
+        } else {
+            // move the triangles of the right side found on the left with those of the left side found on the right
+            double min = cMin[bestAxis], scale = scales[bestAxis];
+            int i = from, j = to - 1;
+            while (true) {
+                while (i <= j && binIndex(centers[3 * i + bestAxis], min, scale) < bestBin)
+                    ++i;
+                while (i < j && binIndex(centers[3 * j + bestAxis], min, scale) >= bestBin)
+                    --j;
+                if (i >= j)
+                    break;
+                swap(triangles, bounds, centers, i++, j--);
+            }
+            mid = i;
+        }
+        buildNode(triangles, bounds, centers, bins, from, mid);
+        nodeStart[node] = nodesCount;
+        buildNode(triangles, bounds, centers, bins, mid, to);
+    }
+
+    /**
+     * The working space of the search for the best split of a hierarchy node, allocated once for
+     * the whole hierarchy since a node is done with it before its children are built.
+     */
+    private static final class Bins {
+        /**
+         * The lowest centroid coordinates of the triangles of the node
+         */
+        final double[] cMin = new double[3];
+        /**
+         * The highest centroid coordinates of the triangles of the node
+         */
+        final double[] cMax = new double[3];
+        /**
+         * The amount of the bins divided by the range of the centroid coordinates, for every axis
+         * (0 if all the centroids have the same coordinate)
+         */
+        final double[] scales = new double[3];
+        /**
+         * The boxes bounding the triangles of every bin of every axis
+         */
+        final double[] boxes = new double[6 * 3 * SAH_BINS];
+        /**
+         * The amount of the triangles of every bin of every axis
+         */
+        final int[] counts = new int[3 * SAH_BINS];
+        /**
+         * The box swept over the bins of an axis
+         */
+        final double[] sweep = new double[6];
+        /**
+         * The areas of the boxes to the right of each border of the bins of an axis
+         */
+        final double[] rightAreas = new double[SAH_BINS];
+        /**
+         * The amount of the triangles to the right of each border of the bins of an axis
+         */
+        final int[] rightCounts = new int[SAH_BINS];
+    }
+
+    /**
+     * Adds a node to the hierarchy arrays, growing them if needed.
+     *
+     * @return the index of the new node
+     */
+    private int addNode() {
+        if (nodesCount == nodeStart.length) {
+            int capacity = nodesCount * 2;
+            nodeBounds = Arrays.copyOf(nodeBounds, 6 * capacity);
+            nodeStart = Arrays.copyOf(nodeStart, capacity);
+            nodeCount = Arrays.copyOf(nodeCount, capacity);
+        }
+        return nodesCount++;
+    }
+
+    /**
+     * Empties a box stored in an array - a box that any box included in it replaces.
+     *
+     * @param boxes  the array of the box
+     * @param offset the offset of the box in the array
+     */
+    private static void emptyBox(double[] boxes, int offset) {
+        for (int axis = 0; axis < 3; ++axis) {
+            boxes[offset + axis] = Double.POSITIVE_INFINITY;
+            boxes[offset + 3 + axis] = Double.NEGATIVE_INFINITY;
+        }
+    }
+
+    /**
+     * Extends a box stored in an array to contain another box.
+     *
+     * @param boxes       the array of the box to extend
+     * @param offset      the offset of the box to extend in the array
+     * @param other       the array of the other box
+     * @param otherOffset the offset of the other box in its array
+     */
+    private static void include(double[] boxes, int offset, double[] other, int otherOffset) {
+        for (int axis = 0; axis < 3; ++axis) {
+            // plain comparisons rather than Math.min and Math.max, which also order zeros and NaNs
+            if (other[otherOffset + axis] < boxes[offset + axis])
+                boxes[offset + axis] = other[otherOffset + axis];
+            if (other[otherOffset + 3 + axis] > boxes[offset + 3 + axis])
+                boxes[offset + 3 + axis] = other[otherOffset + 3 + axis];
+        }
+    }
+
+    /**
+     * Calculates the surface area of a box stored in an array.
+     *
+     * @param boxes  the array of the box
+     * @param offset the offset of the box in the array
+     * @return the surface area, 0 for an empty box
+     */
+    private static double surfaceArea(double[] boxes, int offset) {
+        double dx = boxes[offset + 3] - boxes[offset];
+        double dy = boxes[offset + 4] - boxes[offset + 1], dz = boxes[offset + 5] - boxes[offset + 2];
+        return dx < 0 ? 0 : 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * Calculates the bin of a centroid coordinate.
+     *
+     * @param center the centroid coordinate
+     * @param min    the lowest centroid coordinate
+     * @param scale  the amount of the bins divided by the range of the centroid coordinates
+     * @return the index of the bin
+     */
+    private static int binIndex(double center, double min, double scale) {
+        return Math.min(SAH_BINS - 1, (int) ((center - min) * scale));
+    }
+
+    /**
+     * Swaps two triangles with their boxes and centroids.
+     *
+     * @param triangles the triangles
+     * @param bounds    the boxes of the triangles
+     * @param centers   the centroids of the boxes of the triangles
+     * @param i         index of the first triangle
+     * @param j         index of the second triangle
+     */
+    private static void swap(int[] triangles, double[] bounds, double[] centers, int i, int j) {
+        int triangle = triangles[i];
+        triangles[i] = triangles[j];
+        triangles[j] = triangle;
+        for (int k = 0; k < 6; ++k) {
+            double temp = bounds[6 * i + k];
+            bounds[6 * i + k] = bounds[6 * j + k];
+            bounds[6 * j + k] = temp;
+        }
+        for (int k = 0; k < 3; ++k) {
+            double temp = centers[3 * i + k];
+            centers[3 * i + k] = centers[3 * j + k];
+            centers[3 * j + k] = temp;
+        }
+    }
+
+    // ====================== the intersections ======================
+
+    /**
+     * The state of a single query of the mesh - the ray and the closest intersection found so far.
+     */
+    private static final class Query {
+        /**
+         * The ray
+         */
+        final Ray ray;
+        /**
+         * The coordinates of the head of the ray
+         */
+        final double ox, oy, oz;
+        /**
+         * The coordinates of the direction of the ray
+         */
+        final double dx, dy, dz;
+        /**
+         * The inverses of the coordinates of the direction of the ray, for the slab test
+         */
+        final double invDx, invDy, invDz;
+        /**
+         * The parameter of the closest intersection found so far - the maximal distance until one is found
+         */
+        double t;
+        /**
+         * The barycentric coordinates of the closest intersection
+         */
+        double u, v;
+        /**
+         * The triangle of the closest intersection, -1 if none was found
+         */
+        int triangle = -1;
+
+        /**
+         * Constructs a query of a ray.
+         *
+         * @param ray         the ray
+         * @param maxDistance the maximal distance of the intersections
+         */
+        Query(Ray ray, double maxDistance) {
+            this.ray = ray;
+            Point head = ray.getHead();
+            Vector direction = ray.getDirection();
+            ox = head.getX();
+            oy = head.getY();
+            oz = head.getZ();
+            dx = direction.getX();
+            dy = direction.getY();
+            dz = direction.getZ();
+            invDx = 1 / dx;
+            invDy = 1 / dy;
+            invDz = 1 / dz;
+            t = maxDistance;
+        }
+    }
+
+    /**
+     * Calculates the distance along the ray of a query to the point where it enters the box of a node,
+     * up to the closest intersection found so far (the slab test, as in {@link BoundingBox}).
+     * The slabs are crossed by multiplying by the inverses of the direction coordinates - a zero coordinate
+     * gives infinite distances, which the comparisons handle as a ray parallel to the slab (and a ray lying
+     * exactly on a side of the padded box, which gives NaN, can't hit the triangles inside it).
+     *
+     * @param node  the node
+     * @param query the query
+     * @return the distance to the entry point, or {@code Double.POSITIVE_INFINITY} if the ray misses the box
+     */
+    private double entryDistance(int node, Query query) {
+        int b = 6 * node;
+        double t1 = (nodeBounds[b] - query.ox) * query.invDx, t2 = (nodeBounds[b + 3] - query.ox) * query.invDx;
+        double tNear = Math.max(0, Math.min(t1, t2)), tFar = Math.min(query.t, Math.max(t1, t2));
+        t1 = (nodeBounds[b + 1] - query.oy) * query.invDy;
+        t2 = (nodeBounds[b + 4] - query.oy) * query.invDy;
+        tNear = Math.max(tNear, Math.min(t1, t2));
+        tFar = Math.min(tFar, Math.max(t1, t2));
+        t1 = (nodeBounds[b + 2] - query.oz) * query.invDz;
+        t2 = (nodeBounds[b + 5] - query.oz) * query.invDz;
+        tNear = Math.max(tNear, Math.min(t1, t2));
+        tFar = Math.min(tFar, Math.max(t1, t2));
+        return tNear <= tFar ? tNear : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Intersects the ray of a query with a triangle (by the Moller-Trumbore algorithm),
+     * and records the intersection in the query if it is closer than the closest one found so far.
+     *
+     * @param triangle the triangle
+     * @param query    the query
+     * @return true if the intersection was recorded
+     */
+    private boolean intersect(int triangle, Query query) {
+        int a = indices[3 * triangle] * 3, b = indices[3 * triangle + 1] * 3, c = indices[3 * triangle + 2] * 3;
+        double ax = positions[a], ay = positions[a + 1], az = positions[a + 2];
+        double e1x = positions[b] - ax, e1y = positions[b + 1] - ay, e1z = positions[b + 2] - az;
+        double e2x = positions[c] - ax, e2y = positions[c + 1] - ay, e2z = positions[c + 2] - az;
+
+        // p = d x e2, det = e1 . p = -d . (e1 x e2)
+        double px = query.dy * e2z - query.dz * e2y, py = query.dz * e2x - query.dx * e2z;
+        double pz = query.dx * e2y - query.dy * e2x;
+        double det = e1x * px + e1y * py + e1z * pz;
+        double nx = e1y * e2z - e1z * e2y, ny = e1z * e2x - e1x * e2z, nz = e1x * e2y - e1y * e2x;
+        if (det * det <= PARALLEL_SINE_SQUARED * (nx * nx + ny * ny + nz * nz))
+            return false; // the ray is parallel to the triangle
+        double invDet = 1 / det;
+
+        double sx = query.ox - ax, sy = query.oy - ay, sz = query.oz - az;
+        double u = (sx * px + sy * py + sz * pz) * invDet;
+        if (u < 0 || u > 1)
+            return false;
+        double qx = sy * e1z - sz * e1y, qy = sz * e1x - sx * e1z, qz = sx * e1y - sy * e1x;
+        double v = (query.dx * qx + query.dy * qy + query.dz * qz) * invDet;
+        if (v < 0 || u + v > 1)
+            return false;
+
+        double t = (e2x * qx + e2y * qy + e2z * qz) * invDet;
+        if (t <= 0 || isZero(query.ray, t) || alignZero(t - query.t) >= 0)
+            return false;
+        query.t = t;
+        query.u = u;
+        query.v = v;
+        query.triangle = triangle;
+        return true;
+    }
+
+    /**
+     * Finds the closest intersection in the subtree of a node whose box the ray enters,
+     * visiting the children nearer first and skipping the children farther than the closest intersection.
+     *
+     * @param node  the node
+     * @param query the query, recording the closest intersection
+     */
+    private void findClosest(int node, Query query) {
+        if (nodeCount[node] > 0) {
+            for (int i = nodeStart[node], end = i + nodeCount[node]; i < end; ++i)
+                intersect(i, query);
+            return;
+        }
+        int near = node + 1, far = nodeStart[node];
+        double nearDistance = entryDistance(near, query), farDistance = entryDistance(far, query);
+        if (farDistance < nearDistance) {
+            int child = near;
+            near = far;
+            far = child;
+            double distance = nearDistance;
+            nearDistance = farDistance;
+            farDistance = distance;
+        }
+        if (nearDistance == Double.POSITIVE_INFINITY)
+            return;
+        findClosest(near, query);
+        if (farDistance <= query.t)
+            findClosest(far, query);
+    }
+
+    /**
+     * Checks whether there is any intersection in the subtree of a node whose box the ray enters.
+     *
+     * @param node  the node
+     * @param query the query
+     * @return true if an intersection was found
+     */
+    private boolean findAny(int node, Query query) {
+        if (nodeCount[node] > 0) {
+            for (int i = nodeStart[node], end = i + nodeCount[node]; i < end; ++i)
+                if (intersect(i, query))
+                    return true;
+            return false;
+        }
+        int near = node + 1, far = nodeStart[node];
+        return entryDistance(near, query) != Double.POSITIVE_INFINITY && findAny(near, query)
+                || entryDistance(far, query) != Double.POSITIVE_INFINITY && findAny(far, query);
+    }
+
+    /**
+     * Collects all the intersections in the subtree of a node whose box the ray enters.
+     *
+     * @param node   the node
+     * @param ray    the ray
+     * @param query  the query, holding the maximal distance
+     * @param result the list collecting the intersections
+     */
+    private void findAll(int node, Ray ray, Query query, List<GeoPoint> result) {
+        if (nodeCount[node] > 0) {
+            double maxDistance = query.t;
+            for (int i = nodeStart[node], end = i + nodeCount[node]; i < end; ++i) {
+                if (intersect(i, query))
+                    result.add(geoPoint(ray, query));
+                query.t = maxDistance;
+            }
+            return;
+        }
+        if (entryDistance(node + 1, query) != Double.POSITIVE_INFINITY)
+            findAll(node + 1, ray, query, result);
+        if (entryDistance(nodeStart[node], query) != Double.POSITIVE_INFINITY)
+            findAll(nodeStart[node], ray, query, result);
+    }
+
+    /**
+     * Creates the intersection point recorded in a query, with its ray parameter, barycentric coordinates
+     * and normal.
+     *
+     * @param ray   the ray
+     * @param query the query
+     * @return the intersection point
+     */
+    private GeoPoint geoPoint(Ray ray, Query query) {
+        GeoPoint geoPoint = new GeoPoint(this, ray.getPoint(query.t), query.t, normal(query.triangle, query.u, query.v));
+        geoPoint.u = query.u;
+        geoPoint.v = query.v;
+        return geoPoint;
+    }
+
+    /**
+     * Calculates the normal of a point of a triangle - the normal of its plane, or the normal interpolated
+     * from the normals of its vertices if the mesh has them. The direction of the normal of the plane is
+     * as of a {@link Triangle} of the same vertices.
+     *
+     * @param triangle the triangle
+     * @param u        the weight of the second vertex of the triangle
+     * @param v        the weight of the third vertex of the triangle
+     * @return the normal
+     */
+    private Vector normal(int triangle, double u, double v) {
+        int a = indices[3 * triangle] * 3, b = indices[3 * triangle + 1] * 3, c = indices[3 * triangle + 2] * 3;
+        if (normals != null) {
+            double w = 1 - u - v;
+            double x = w * normals[a] + u * normals[b] + v * normals[c];
+            double y = w * normals[a + 1] + u * normals[b + 1] + v * normals[c + 1];
+            double z = w * normals[a + 2] + u * normals[b + 2] + v * normals[c + 2];
+            if (!isZero(x) || !isZero(y) || !isZero(z))
+                return new Vector(x, y, z).normalize();
+        }
+        return faceNormal(triangle);
+    }
+
+    /**
+     * Calculates the normal of the plane of a triangle, in the direction of the normal of a {@link Triangle}
+     * of the same vertices.
+     *
+     * @param triangle the triangle
+     * @return the normal
+     */
+    private Vector faceNormal(int triangle) {
+        int a = indices[3 * triangle] * 3, b = indices[3 * triangle + 1] * 3, c = indices[3 * triangle + 2] * 3;
+        double e1x = positions[b] - positions[a], e1y = positions[b + 1] - positions[a + 1];
+        double e1z = positions[b + 2] - positions[a + 2];
+        double e2x = positions[c] - positions[a], e2y = positions[c + 1] - positions[a + 1];
+        double e2z = positions[c + 2] - positions[a + 2];
+        return new Vector(e2y * e1z - e2z * e1y, e2z * e1x - e2x * e1z, e2x * e1y - e2y * e1x).normalize();
+    }
+
+    /**
+     * {@inheritDoc}
+     * The intersections found by the mesh carry their normals, so this method is needed only for points
+     * found otherwise. The triangle of the point is searched by a ray from the point along the normal of
+     * the closest triangle plane, so it is much slower. The search uses the planes of the triangles,
+     * and the normals of the vertices are interpolated only for the found point.
+     */
+    @Override
+    public Vector getNormal(Point point) {
+        // the triangle whose plane is the closest to the point and contains its projection
+        int closest = -1;
+        double closestDistance = Double.POSITIVE_INFINITY, closestU = 0, closestV = 0;
+        for (int triangle = 0; triangle < getTrianglesCount(); ++triangle) {
+            Vector n = faceNormal(triangle);
+            int a = indices[3 * triangle] * 3;
+            double distance = Math.abs((point.getX() - positions[a]) * n.getX()
+                    + (point.getY() - positions[a + 1]) * n.getY() + (point.getZ() - positions[a + 2]) * n.getZ());
+            if (distance >= closestDistance)
+                continue;
+            Query query = new Query(new Ray(point.add(n.scale(distance + 1)), n.scale(-1)), Double.POSITIVE_INFINITY);
+            if (intersect(triangle, query)) {
+                closest = triangle;
+                closestDistance = distance;
+                closestU = query.u;
+                closestV = query.v;
+            }
+        }
+        if (closest == -1)
+            throw new IllegalArgumentException("the point is not on the mesh");
+        return normal(closest, closestU, closestV);
+    }
+
+    @Override
+    public List<GeoPoint> findGeoIntersectionsHelper(Ray ray, double maxDistance) {
+        if (nodesCount == 0)
+            return null;
+        List<GeoPoint> result = new LinkedList<>();
+        Query query = new Query(ray, maxDistance);
+        if (entryDistance(0, query) != Double.POSITIVE_INFINITY)
+            findAll(0, ray, query, result);
+        if (result.isEmpty())
+            return null;
+        removeSamePoints(result);
+        return result;
+    }
+
+    /**
+     * Sorts intersections by their distance along the ray, and removes the repeated hits of a point
+     * on an edge or a vertex shared by several triangles - otherwise a shadow ray through such a point
+     * would be attenuated by the transparency of the mesh more than once.
+     *
+     * @param geoPoints the intersections
+     */
+    private static void removeSamePoints(List<GeoPoint> geoPoints) {
+        geoPoints.sort(Comparator.comparingDouble(geoPoint -> geoPoint.t));
+        double last = Double.NEGATIVE_INFINITY;
+        for (Iterator<GeoPoint> iterator = geoPoints.iterator(); iterator.hasNext(); ) {
+            double t = iterator.next().t;
+            if (t - last <= SAME_POINT_DISTANCE * t)
+                iterator.remove();
+            else
+                last = t;
+        }
+    }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        if (nodesCount == 0)
+            return null;
+        Query query = new Query(ray, maxDistance);
+        if (entryDistance(0, query) != Double.POSITIVE_INFINITY)
+            findClosest(0, query);
+        return query.triangle == -1 ? null : geoPoint(ray, query);
+    }
+
+    /**
+     * {@inheritDoc}
+     * If a single intersection already blocks the light, the hierarchy is searched for any intersection,
+     * stopping at the first one found.
+     */
+    @Override
+    protected Double3 findTransmittanceHelper(Ray ray, double maxDistance, Double3 k, double minK) {
+        if (nodesCount == 0)
+            return k;
+        if (!k.productLowerThan(getMaterial().kT, minK))
+            return super.findTransmittanceHelper(ray, maxDistance, k, minK);
+        Query query = new Query(ray, maxDistance);
+        return entryDistance(0, query) != Double.POSITIVE_INFINITY && findAny(0, query) ? Double3.ZERO : k;
+    }
+}
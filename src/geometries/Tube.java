@@ -6,6 +6,7 @@ import primitives.Vector;
 
 import java.util.List;
 
+import static primitives.Util.alignZero;
 import static primitives.Util.isZero;
 
 /**
@@ -52,8 +53,75 @@ public class Tube extends RadialGeometry {
     }
 
 
+    /**
+     * Calculates the parameters along a ray of its intersections with the infinite surface of the tube -
+     * the roots of |(P - P0)_perp|^2 = r^2 for P = O + t*d, where _perp is the component orthogonal to the axis.
+     * The parameters are not checked against the head of the ray.
+     *
+     * @param ray the ray
+     * @return the two parameters, the smaller first, or null if the ray is parallel to the axis,
+     * tangent to the tube or passes outside it
+     */
+    protected double[] surfaceIntersections(Ray ray) {
+        Point head = ray.getHead(), axisHead = axis.getHead();
+        Vector d = ray.getDirection(), v = axis.getDirection();
+        double dv = d.dotProduct(v);
+        double px = head.getX() - axisHead.getX(), py = head.getY() - axisHead.getY(), pz = head.getZ() - axisHead.getZ();
+        double pv = px * v.getX() + py * v.getY() + pz * v.getZ();
+        // the components of the direction and of the head (relative to the axis) orthogonal to the axis
+        double dx = d.getX() - dv * v.getX(), dy = d.getY() - dv * v.getY(), dz = d.getZ() - dv * v.getZ();
+        px -= pv * v.getX();
+        py -= pv * v.getY();
+        pz -= pv * v.getZ();
+
+        double a = dx * dx + dy * dy + dz * dz;
+        if (isZero(a))
+            return null; // the ray is parallel to the axis
+        double halfB = dx * px + dy * py + dz * pz;
+        double c = px * px + py * py + pz * pz - radius * radius;
+        double discriminant = alignZero(halfB * halfB - a * c);
+        if (discriminant <= 0)
+            return null; // the ray passes outside the tube or is tangent to it
+        double root = Math.sqrt(discriminant);
+        return new double[]{(-halfB - root) / a, (-halfB + root) / a};
+    }
+
+    /**
+     * Checks whether a parameter along a ray is of a point in front of its head and before a maximal distance.
+     *
+     * @param ray         the ray
+     * @param t           the parameter
+     * @param maxDistance the maximal distance
+     * @return true if the point is in the range
+     */
+    protected static boolean inRange(Ray ray, double t, double maxDistance) {
+        return t > 0 && !isZero(ray, t) && alignZero(t - maxDistance) < 0;
+    }
+
     @Override
     public List<GeoPoint> findGeoIntersectionsHelper(Ray ray,double maxDistance) {
+        double[] ts = surfaceIntersections(ray);
+        if (ts == null)
+            return null;
+        boolean first = inRange(ray, ts[0], maxDistance), second = inRange(ray, ts[1], maxDistance);
+        if (first && second)
+            return List.of(new GeoPoint(this, ray.getPoint(ts[0]), ts[0]), new GeoPoint(this, ray.getPoint(ts[1]), ts[1]));
+        if (first || second) {
+            double t = first ? ts[0] : ts[1];
+            return List.of(new GeoPoint(this, ray.getPoint(t), t));
+        }
+        return null;
+    }
+
+    @Override
+    protected GeoPoint findClosestGeoIntersectionHelper(Ray ray, double maxDistance) {
+        double[] ts = surfaceIntersections(ray);
+        if (ts == null)
+            return null;
+        // the smaller parameter is checked first
+        for (double t : ts)
+            if (inRange(ray, t, maxDistance))
+                return new GeoPoint(this, ray.getPoint(t), t);
         return null;
     }
 
@@ -0,0 +1,119 @@
+package parsers;
+
+import java.util.Arrays;
+
+/**
+ * MeshData holds a triangle mesh as it was read from a model file, before its vertices are welded
+ * into the vertices of a {@link geometries.TriangleMesh}.
+ * The corners of the triangles refer to the positions and to the normals separately (as in an OBJ file),
+ * or to vertices holding both (as in a PLY file).
+ *
+ * @author Shneor and Emanuel
+ */
+final class MeshData {
+    /**
+     * The coordinates of the positions - x, y and z of every position in turn
+     */
+    final double[] positions;
+    /**
+     * The coordinates of the normals, like the positions, or null if the model has no normals
+     */
+    final double[] normals;
+    /**
+     * The indices of the positions of the corners of the triangles, three for every triangle
+     */
+    final int[] corners;
+    /**
+     * The indices of the normals of the corners of the triangles, or null if every position has its
+     * own normal (with the same index)
+     */
+    final int[] cornerNormals;
+
+    /**
+     * Constructs the data of a mesh.
+     *
+     * @param positions     the coordinates of the positions
+     * @param normals       the coordinates of the normals, or null
+     * @param corners       the indices of the positions of the corners of the triangles
+     * @param cornerNormals the indices of the normals of the corners of the triangles, or null
+     */
+    MeshData(double[] positions, double[] normals, int[] corners, int[] cornerNormals) {
+        this.positions = positions;
+        this.normals = normals;
+        this.corners = corners;
+        this.cornerNormals = cornerNormals;
+    }
+
+    /**
+     * A growable array of doubles, collecting the values of a model without boxing them.
+     */
+    static final class DoubleArray {
+        /**
+         * The values, followed by unused space
+         */
+        double[] values = new double[64];
+        /**
+         * The amount of the values
+         */
+        int size = 0;
+
+        /**
+         * Adds three values.
+         *
+         * @param x the first value
+         * @param y the second value
+         * @param z the third value
+         */
+        void add(double x, double y, double z) {
+            if (size + 3 > values.length)
+                values = Arrays.copyOf(values, Math.max(2 * values.length, size + 3));
+            values[size] = x;
+            values[size + 1] = y;
+            values[size + 2] = z;
+            size += 3;
+        }
+
+        /**
+         * Gets the values.
+         *
+         * @return an array of exactly the values
+         */
+        double[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * A growable array of integers, collecting the indices of a model without boxing them.
+     */
+    static final class IntArray {
+        /**
+         * The values, followed by unused space
+         */
+        int[] values = new int[64];
+        /**
+         * The amount of the values
+         */
+        int size = 0;
+
+        /**
+         * Adds a value.
+         *
+         * @param value the value
+         */
+        void add(int value) {
+            if (size == values.length)
+                values = Arrays.copyOf(values, 2 * values.length);
+            values[size++] = value;
+        }
+
+        /**
+         * Gets the values.
+         *
+         * @return an array of exactly the values
+         */
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package parsers;
+
+import geometries.TriangleMesh;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * MeshLoader loads triangle meshes from model files - Wavefront OBJ files and binary PLY files.
+ * The file is memory mapped and split into parts which are parsed concurrently, straight into primitive
+ * arrays (no object is created per vertex or per triangle), and then the identical vertices are welded
+ * into shared vertices of a {@link TriangleMesh}. Polygonal faces are split into triangle fans.
+ *
+ * @author Shneor and Emanuel
+ */
+public class MeshLoader {
+    /**
+     * The amount of the threads parsing a file, 0 for parsing in the calling thread
+     */
+    private int threadsCount = Runtime.getRuntime().availableProcessors();
+    /**
+     * Whether vertices with equal coordinates are merged into a single vertex
+     */
+    private boolean welding = true;
+
+    /**
+     * Sets the amount of the threads parsing a file.
+     *
+     * @param threads the amount of the threads - 0 for parsing in the calling thread,
+     *                -1 for a thread for every processor
+     * @return the loader itself, for chaining
+     * @throws IllegalArgumentException if the amount of threads is lower than -1
+     */
+    public MeshLoader setMultithreading(int threads) throws IllegalArgumentException {
+        if (threads < -1)
+            throw new IllegalArgumentException("the amount of threads can't be lower than -1");
+        threadsCount = threads == -1 ? Runtime.getRuntime().availableProcessors() : threads;
+        return this;
+    }
+
+    /**
+     * Sets whether vertices with equal coordinates (and equal normals) are welded into a single vertex.
+     * Without welding, vertices are merged only where the file itself shares them.
+     *
+     * @param welding true to weld the vertices
+     * @return the loader itself, for chaining
+     */
+    public MeshLoader setWelding(boolean welding) {
+        this.welding = welding;
+        return this;
+    }
+
+    /**
+     * Gets the amount of the threads parsing a file.
+     *
+     * @return the amount of the threads, 0 for parsing in the calling thread
+     */
+    int getThreadsCount() {
+        return threadsCount;
+    }
+
+    /**
+     * Loads a mesh from a model file, by the extension of its name (.obj or .ply).
+     *
+     * @param file the model file
+     * @return the mesh
+     * @throws IOException              if the file can't be read
+     * @throws IllegalArgumentException if the format of the file is not supported or the file is malformed
+     */
+    public TriangleMesh load(Path file) throws IOException, IllegalArgumentException {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MeshData data;
+            if (name.endsWith(".obj"))
+                data = ObjReader.read(channel, this);
+            else if (name.endsWith(".ply"))
+                data = PlyReader.read(channel, this);
+            else
+                throw new IllegalArgumentException("unsupported model format: " + file);
+            return weld(data);
+        }
+    }
+
+    /**
+     * Runs parsing tasks - concurrently by the parsing threads, or one after the other in the calling thread.
+     *
+     * @param tasks the tasks
+     * @param <T>   the type of the results of the tasks
+     * @return the results of the tasks, in the order of the tasks
+     * @throws IOException           if a task failed to read the file
+     * @throws IllegalStateException if the parsing was interrupted
+     */
+    <T> List<T> run(List<Callable<T>> tasks) throws IOException {
+        List<T> results = new ArrayList<>(tasks.size());
+        if (threadsCount == 0 || tasks.size() == 1) {
+            for (Callable<T> task : tasks) {
+                try {
+                    results.add(task.call());
+                } catch (Exception e) {
+                    throw failure(e);
+                }
+            }
+            return results;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threadsCount, tasks.size()));
+        try {
+            for (Future<T> future : executor.invokeAll(tasks))
+                results.add(future.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Loading was interrupted", e);
+        } catch (ExecutionException e) {
+            throw failure(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+
+    /**
+     * Rethrows the failure of a parsing task as is, if it may be thrown by {@link #run(List)}.
+     *
+     * @param cause the failure
+     * @return the failure wrapped by an IllegalStateException, if it may not be thrown as is
+     * @throws IOException if the failure is an IOException
+     */
+    private static RuntimeException failure(Throwable cause) throws IOException {
+        if (cause instanceof IOException ioException)
+            throw ioException;
+        if (cause instanceof RuntimeException runtimeException)
+            return runtimeException;
+        if (cause instanceof Error error)
+            throw error;
+        return new IllegalStateException("Loading failed", cause);
+    }
+
+    /**
+     * Creates the mesh of the data read from a file, merging corners which refer to the same vertex -
+     * to equal coordinates when welding, or to the same position and normal indices otherwise.
+     *
+     * @param data the data read from the file
+     * @return the mesh
+     */
+    private TriangleMesh weld(MeshData data) {
+        double[] positions = data.positions, normals = data.normals;
+        int[] corners = data.corners, cornerNormals = data.cornerNormals;
+        if (!welding && (normals == null || cornerNormals == null))
+            return new TriangleMesh(positions, normals, corners);
+
+        int n = corners.length;
+        int maxVertices = normals == null || cornerNormals == null ? Math.min(n, positions.length / 3) : n;
+        // an open addressing table of the output vertices, kept at most half full
+        int capacity = Integer.highestOneBit(Math.max(1, maxVertices)) << 2;
+        int[] table = new int[capacity];
+        Arrays.fill(table, -1);
+        // the position and normal indices of every output vertex
+        int[] vertexPositions = new int[maxVertices];
+        int[] vertexNormals = normals == null ? null : new int[maxVertices];
+        int[] indices = new int[n];
+        int count = 0;
+        for (int c = 0; c < n; ++c) {
+            int p = corners[c];
+            int q = normals == null ? -1 : cornerNormals == null ? p : cornerNormals[c];
+            int slot = hash(positions, normals, p, q) & (capacity - 1);
+            int vertex;
+            while ((vertex = table[slot]) != -1 && !sameVertex(positions, normals,
+                    vertexPositions[vertex], vertexNormals == null ? -1 : vertexNormals[vertex], p, q))
+                slot = (slot + 1) & (capacity - 1);
+            if (vertex == -1) {
+                vertex = count++;
+                table[slot] = vertex;
+                vertexPositions[vertex] = p;
+                if (vertexNormals != null)
+                    vertexNormals[vertex] = q;
+            }
+            indices[c] = vertex;
+        }
+
+        double[] weldedPositions = new double[3 * count];
+        double[] weldedNormals = normals == null ? null : new double[3 * count];
+        for (int vertex = 0; vertex < count; ++vertex) {
+            System.arraycopy(positions, 3 * vertexPositions[vertex], weldedPositions, 3 * vertex, 3);
+            if (weldedNormals != null)
+                System.arraycopy(normals, 3 * vertexNormals[vertex], weldedNormals, 3 * vertex, 3);
+        }
+        return new TriangleMesh(weldedPositions, weldedNormals, indices);
+    }
+
+    /**
+     * Calculates the hash of a vertex - of its coordinates when welding, or of its indices otherwise.
+     *
+     * @param positions the coordinates of the positions
+     * @param normals   the coordinates of the normals, or null
+     * @param p         the index of the position of the vertex
+     * @param q         the index of the normal of the vertex, -1 without normals
+     * @return the hash
+     */
+    private int hash(double[] positions, double[] normals, int p, int q) {
+        long h;
+        if (welding) {
+            h = coordinatesHash(positions, p);
+            if (q != -1)
+                h = h * 0x9E3779B97F4A7C15L + coordinatesHash(normals, q);
+        } else
+            h = ((long) p << 32) ^ q;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    /**
+     * Calculates the hash of the coordinates of a position or a normal.
+     * Both zeros (0.0 and -0.0) give the same hash, as they are equal coordinates.
+     *
+     * @param coordinates the coordinates of the positions or the normals
+     * @param index       the index of the position or the normal
+     * @return the hash
+     */
+    private static long coordinatesHash(double[] coordinates, int index) {
+        long h = Double.doubleToLongBits(coordinates[3 * index] + 0.0);
+        h = h * 31 + Double.doubleToLongBits(coordinates[3 * index + 1] + 0.0);
+        return h * 31 + Double.doubleToLongBits(coordinates[3 * index + 2] + 0.0);
+    }
+
+    /**
+     * Checks whether two corners refer to the same vertex - to equal coordinates when welding,
+     * or to the same indices otherwise.
+     *
+     * @param positions the coordinates of the positions
+     * @param normals   the coordinates of the normals, or null
+     * @param p1        the index of the position of the first corner
+     * @param q1        the index of the normal of the first corner, -1 without normals
+     * @param p2        the index of the position of the second corner
+     * @param q2        the index of the normal of the second corner, -1 without normals
+     * @return true if the corners refer to the same vertex
+     */
+    private boolean sameVertex(double[] positions, double[] normals, int p1, int q1, int p2, int q2) {
+        if (!welding || (p1 == p2 && q1 == q2))
+            return p1 == p2 && q1 == q2;
+        return sameCoordinates(positions, p1, p2) && (q1 == -1 || sameCoordinates(normals, q1, q2));
+    }
+
+    /**
+     * Checks whether two positions (or normals) have equal coordinates.
+     *
+     * @param coordinates the coordinates of the positions or the normals
+     * @param i           the index of the first position
+     * @param j           the index of the second position
+     * @return true if the coordinates are equal
+     */
+    private static boolean sameCoordinates(double[] coordinates, int i, int j) {
+        return coordinates[3 * i] == coordinates[3 * j] && coordinates[3 * i + 1] == coordinates[3 * j + 1]
+                && coordinates[3 * i + 2] == coordinates[3 * j + 2];
+    }
+}
@@ -0,0 +1,478 @@
+package parsers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * ObjReader reads the triangles of a Wavefront OBJ file - its positions ("v"), normals ("vn")
+ * and faces ("f"); all other statements (texture coordinates, groups, materials) are skipped.
+ * The file is split at line ends into chunks which are memory mapped and parsed concurrently, each into its
+ * own arrays. Face indices are global (or relative to the preceding vertices), so a chunk keeps relative
+ * indices of its own vertices, and the chunks are resolved and merged once the vertex counts of all the
+ * chunks before them are known.
+ *
+ * @author Shneor and Emanuel
+ */
+final class ObjReader {
+    /**
+     * Minimal size of a chunk in bytes - smaller files are parsed as a single chunk
+     */
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+    /**
+     * Maximal size of a chunk in bytes - a single mapping can't exceed 2GB
+     */
+    private static final int MAX_CHUNK_SIZE = 1 << 30;
+    /**
+     * Amount of chunks per parsing thread, so threads finishing early take the remaining chunks
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+    /**
+     * The powers of 10 which are exactly representable as doubles
+     */
+    private static final double[] POWERS_OF_10 = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    /**
+     * Private constructor to prevent instantiation of the utility class.
+     */
+    private ObjReader() {
+    }
+
+    /**
+     * Reads the triangles of an OBJ file.
+     *
+     * @param channel the channel of the file
+     * @param loader  the loader, running the parsing tasks
+     * @return the data of the mesh
+     * @throws IOException              if the file can't be read
+     * @throws IllegalArgumentException if the file is malformed
+     */
+    static MeshData read(FileChannel channel, MeshLoader loader) throws IOException, IllegalArgumentException {
+        long size = channel.size();
+        int chunks = (int) Math.max(1, Math.min(
+                Math.max(1, loader.getThreadsCount()) * CHUNKS_PER_THREAD, size / MIN_CHUNK_SIZE));
+        long chunkSize = Math.min(MAX_CHUNK_SIZE / 2, (size + chunks - 1) / chunks);
+
+        // split the file at line ends
+        List<Callable<Chunk>> tasks = new ArrayList<>();
+        long start = 0;
+        while (start < size) {
+            long end = start + chunkSize >= size ? size : lineEnd(channel, start + chunkSize);
+            if (end - start > MAX_CHUNK_SIZE)
+                throw new IllegalArgumentException("line too long at offset " + start);
+            long from = start;
+            tasks.add(() -> new Chunk(channel.map(FileChannel.MapMode.READ_ONLY, from, end - from)).parse());
+            start = end;
+        }
+        List<Chunk> parsed = loader.run(tasks);
+
+        // the offsets of the vertices of every chunk among the vertices of the file
+        int positionsCount = 0, normalsCount = 0, cornersCount = 0, cornersWithNormals = 0;
+        int[] positionsOffsets = new int[parsed.size()], normalsOffsets = new int[parsed.size()];
+        int[] cornersOffsets = new int[parsed.size()];
+        for (int i = 0; i < parsed.size(); ++i) {
+            Chunk chunk = parsed.get(i);
+            positionsOffsets[i] = positionsCount;
+            normalsOffsets[i] = normalsCount;
+            cornersOffsets[i] = cornersCount;
+            positionsCount += chunk.positions.size / 3;
+            normalsCount += chunk.normals.size / 3;
+            cornersCount += chunk.corners.size;
+            cornersWithNormals += chunk.cornersWithNormals;
+        }
+        boolean withNormals = cornersCount > 0 && cornersWithNormals == cornersCount;
+
+        double[] positions = new double[3 * positionsCount];
+        double[] normals = withNormals ? new double[3 * normalsCount] : null;
+        int[] corners = new int[cornersCount];
+        int[] cornerNormals = withNormals ? new int[cornersCount] : null;
+        List<Callable<Object>> merges = new ArrayList<>(parsed.size());
+        for (int i = 0; i < parsed.size(); ++i) {
+            Chunk chunk = parsed.get(i);
+            int index = i, totalPositions = positionsCount, totalNormals = normalsCount;
+            merges.add(() -> {
+                System.arraycopy(chunk.positions.values, 0, positions, 3 * positionsOffsets[index], chunk.positions.size);
+                chunk.resolve(chunk.corners, chunk.relativeCorners, positionsOffsets[index], totalPositions,
+                        corners, cornersOffsets[index]);
+                if (withNormals) {
+                    System.arraycopy(chunk.normals.values, 0, normals, 3 * normalsOffsets[index], chunk.normals.size);
+                    chunk.resolve(chunk.cornerNormals, chunk.relativeCornerNormals, normalsOffsets[index],
+                            totalNormals, cornerNormals, cornersOffsets[index]);
+                }
+                return null;
+            });
+        }
+        loader.run(merges);
+        return new MeshData(positions, normals, corners, cornerNormals);
+    }
+
+    /**
+     * Finds the end of the line containing a position in the file.
+     *
+     * @param channel  the channel of the file
+     * @param position the position
+     * @return the position following the end of the line, or the size of the file if the line is the last one
+     * @throws IOException if the file can't be read
+     */
+    private static long lineEnd(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0)
+                return channel.size();
+            for (int i = 0; i < read; ++i)
+                if (buffer.get(i) == '\n')
+                    return position + i + 1;
+            position += read;
+        }
+    }
+
+    /**
+     * A chunk of the file, holding the statements of whole lines, with the vertices and the faces parsed from it.
+     */
+    private static final class Chunk {
+        /**
+         * The mapped bytes of the chunk
+         */
+        private final MappedByteBuffer buffer;
+        /**
+         * The amount of the bytes of the chunk
+         */
+        private final int limit;
+        /**
+         * The position of the next byte to parse
+         */
+        private int position = 0;
+        /**
+         * The coordinates of the positions of the chunk
+         */
+        final MeshData.DoubleArray positions = new MeshData.DoubleArray();
+        /**
+         * The coordinates of the normals of the chunk
+         */
+        final MeshData.DoubleArray normals = new MeshData.DoubleArray();
+        /**
+         * The position indices of the corners of the triangles of the chunk -
+         * global indices, or indices relative to the first position of the chunk
+         */
+        final MeshData.IntArray corners = new MeshData.IntArray();
+        /**
+         * The corners whose position indices are relative to the first position of the chunk
+         */
+        final BitSet relativeCorners = new BitSet();
+        /**
+         * The normal indices of the corners of the triangles of the chunk (as the position indices)
+         */
+        final MeshData.IntArray cornerNormals = new MeshData.IntArray();
+        /**
+         * The corners whose normal indices are relative to the first normal of the chunk
+         */
+        final BitSet relativeCornerNormals = new BitSet();
+        /**
+         * The amount of the corners which have normals
+         */
+        int cornersWithNormals = 0;
+
+        /**
+         * Constructs a chunk over mapped bytes.
+         *
+         * @param buffer the mapped bytes of whole lines of the file
+         */
+        Chunk(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+            this.limit = buffer.limit();
+        }
+
+        /**
+         * Parses the lines of the chunk.
+         *
+         * @return the chunk itself
+         * @throws IllegalArgumentException if a statement is malformed
+         */
+        Chunk parse() throws IllegalArgumentException {
+            while (position < limit) {
+                skipSpaces();
+                if (position >= limit)
+                    break;
+                byte first = buffer.get(position);
+                byte second = position + 1 < limit ? buffer.get(position + 1) : (byte) '\n';
+                if (first == 'v' && isSpace(second)) {
+                    ++position;
+                    positions.add(parseDouble(), parseDouble(), parseDouble());
+                } else if (first == 'v' && second == 'n' && position + 2 < limit && isSpace(buffer.get(position + 2))) {
+                    position += 2;
+                    normals.add(parseDouble(), parseDouble(), parseDouble());
+                } else if (first == 'f' && isSpace(second)) {
+                    ++position;
+                    parseFace();
+                }
+                skipLine();
+            }
+            return this;
+        }
+
+        /**
+         * Parses the corners of a face, splitting it into a fan of triangles.
+         *
+         * @throws IllegalArgumentException if the face is malformed
+         */
+        private void parseFace() throws IllegalArgumentException {
+            int count = 0;
+            // the first and the previous corners of the fan - position index, relative flag, normal index, flag
+            int firstP = 0, firstN = 0, previousP = 0, previousN = 0;
+            boolean firstRelP = false, firstRelN = false, previousRelP = false, previousRelN = false;
+            boolean withNormals = true;
+            while (true) {
+                skipSpaces();
+                if (position >= limit || isLineEnd(buffer.get(position)))
+                    break;
+                int p = parseInt();
+                boolean relP = p < 0;
+                int n = 0;
+                boolean relN = false, hasNormal = false;
+                if (position < limit && buffer.get(position) == '/') {
+                    ++position;
+                    if (position < limit && buffer.get(position) != '/' && !isSeparator(buffer.get(position)))
+                        parseInt(); // the texture coordinates index
+                    if (position < limit && buffer.get(position) == '/') {
+                        ++position;
+                        n = parseInt();
+                        relN = n < 0;
+                        hasNormal = true;
+                    }
+                }
+                withNormals &= hasNormal;
+                p = relP ? positions.size / 3 + p : p - 1;
+                n = relN ? normals.size / 3 + n : n - 1;
+
+                if (count == 0) {
+                    firstP = p;
+                    firstRelP = relP;
+                    firstN = n;
+                    firstRelN = relN;
+                } else if (count >= 2) {
+                    addCorner(firstP, firstRelP, firstN, firstRelN);
+                    addCorner(previousP, previousRelP, previousN, previousRelN);
+                    addCorner(p, relP, n, relN);
+                }
+                previousP = p;
+                previousRelP = relP;
+                previousN = n;
+                previousRelN = relN;
+                ++count;
+            }
+            if (count < 3)
+                throw new IllegalArgumentException("a face must have at least 3 vertices");
+            if (withNormals)
+                cornersWithNormals += 3 * (count - 2);
+        }
+
+        /**
+         * Adds a corner of a triangle.
+         *
+         * @param p    the position index
+         * @param relP whether the position index is relative to the first position of the chunk
+         * @param n    the normal index
+         * @param relN whether the normal index is relative to the first normal of the chunk
+         */
+        private void addCorner(int p, boolean relP, int n, boolean relN) {
+            if (relP)
+                relativeCorners.set(corners.size);
+            corners.add(p);
+            if (relN)
+                relativeCornerNormals.set(cornerNormals.size);
+            cornerNormals.add(n);
+        }
+
+        /**
+         * Writes the global indices of the corners of the chunk.
+         *
+         * @param indices  the indices of the chunk
+         * @param relative the indices which are relative to the chunk
+         * @param offset   the global index of the first vertex of the chunk
+         * @param count    the amount of the vertices of the file
+         * @param target   the global indices of all the corners
+         * @param from     the global index of the first corner of the chunk
+         * @throws IllegalArgumentException if an index is not of a vertex of the file
+         */
+        void resolve(MeshData.IntArray indices, BitSet relative, int offset, int count, int[] target, int from)
+                throws IllegalArgumentException {
+            for (int i = 0; i < indices.size; ++i) {
+                int index = relative.get(i) ? offset + indices.values[i] : indices.values[i];
+                if (index < 0 || index >= count)
+                    throw new IllegalArgumentException("a face refers to a missing vertex " + (index + 1));
+                target[from + i] = index;
+            }
+        }
+
+        /**
+         * Parses an integer at the current position.
+         *
+         * @return the integer
+         * @throws IllegalArgumentException if there is no integer at the current position
+         */
+        private int parseInt() throws IllegalArgumentException {
+            boolean negative = position < limit && buffer.get(position) == '-';
+            if (negative || position < limit && buffer.get(position) == '+')
+                ++position;
+            int start = position;
+            long value = 0;
+            byte b;
+            while (position < limit && (b = buffer.get(position)) >= '0' && b <= '9' && value <= Integer.MAX_VALUE) {
+                value = value * 10 + (b - '0');
+                ++position;
+            }
+            if (position == start || value > Integer.MAX_VALUE || value == 0)
+                throw new IllegalArgumentException("invalid index: " + token(start));
+            return negative ? (int) -value : (int) value;
+        }
+
+        /**
+         * Parses a decimal number at the current position. Numbers whose digits fit in the mantissa of a double
+         * and with small exponents (nearly all the numbers in model files) are calculated exactly from their
+         * digits, by a single rounded operation; other numbers are parsed by {@link Double#parseDouble(String)}.
+         *
+         * @return the number
+         * @throws IllegalArgumentException if there is no number at the current position
+         */
+        private double parseDouble() throws IllegalArgumentException {
+            skipSpaces();
+            int start = position;
+            boolean negative = position < limit && buffer.get(position) == '-';
+            if (negative || position < limit && buffer.get(position) == '+')
+                ++position;
+
+            long mantissa = 0;
+            int digits = 0, exponent = 0;
+            boolean any = false;
+            byte b = 0;
+            while (position < limit && (b = buffer.get(position)) >= '0' && b <= '9') {
+                any = true;
+                if (mantissa != 0 || b != '0') {
+                    if (digits < 18) {
+                        mantissa = mantissa * 10 + (b - '0');
+                        ++digits;
+                    } else
+                        ++exponent;
+                }
+                ++position;
+            }
+            if (position < limit && b == '.') {
+                ++position;
+                while (position < limit && (b = buffer.get(position)) >= '0' && b <= '9') {
+                    any = true;
+                    if (mantissa != 0 || b != '0') {
+                        if (digits < 18) {
+                            mantissa = mantissa * 10 + (b - '0');
+                            ++digits;
+                            --exponent;
+                        }
+                    } else
+                        --exponent;
+                    ++position;
+                }
+            }
+            if (any && position < limit && (b == 'e' || b == 'E')) {
+                ++position;
+                boolean negativeExponent = position < limit && buffer.get(position) == '-';
+                if (negativeExponent || position < limit && buffer.get(position) == '+')
+                    ++position;
+                int value = 0, exponentStart = position;
+                while (position < limit && (b = buffer.get(position)) >= '0' && b <= '9') {
+                    value = Math.min(value * 10 + (b - '0'), 100000);
+                    ++position;
+                }
+                if (position == exponentStart)
+                    any = false;
+                exponent += negativeExponent ? -value : value;
+            }
+
+            if (!any || position < limit && !isSeparator(buffer.get(position))) {
+                // not a plain decimal number (e.g. "nan" or "inf") - leave it to the library
+                while (position < limit && !isSeparator(buffer.get(position)))
+                    ++position;
+                try {
+                    return Double.parseDouble(token(start));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("invalid number: " + token(start), e);
+                }
+            }
+            double value;
+            if (mantissa == 0)
+                value = 0;
+            else if (mantissa <= 1L << 53 && exponent >= -22 && exponent <= 22)
+                value = exponent < 0 ? mantissa / POWERS_OF_10[-exponent] : mantissa * POWERS_OF_10[exponent];
+            else
+                value = Double.parseDouble(token(start));
+            return negative ? -value : value;
+        }
+
+        /**
+         * Gets the text from a position up to the current position.
+         *
+         * @param start the position of the text
+         * @return the text
+         */
+        private String token(int start) {
+            int end = Math.max(position, Math.min(limit, start + 1));
+            byte[] bytes = new byte[end - start];
+            buffer.get(start, bytes);
+            return new String(bytes, StandardCharsets.US_ASCII);
+        }
+
+        /**
+         * Skips the spaces and tabs at the current position.
+         */
+        private void skipSpaces() {
+            while (position < limit && isSpace(buffer.get(position)))
+                ++position;
+        }
+
+        /**
+         * Skips the rest of the current line, including its end.
+         */
+        private void skipLine() {
+            while (position < limit && buffer.get(position) != '\n')
+                ++position;
+            ++position;
+        }
+
+        /**
+         * Checks whether a byte is a space or a tab.
+         *
+         * @param b the byte
+         * @return true for a space or a tab
+         */
+        private static boolean isSpace(byte b) {
+            return b == ' ' || b == '\t';
+        }
+
+        /**
+         * Checks whether a byte ends a line.
+         *
+         * @param b the byte
+         * @return true for a line end or the start of a comment
+         */
+        private static boolean isLineEnd(byte b) {
+            return b == '\n' || b == '\r' || b == '#';
+        }
+
+        /**
+         * Checks whether a byte ends a number.
+         *
+         * @param b the byte
+         * @return true for a space, a line end or a slash
+         */
+        private static boolean isSeparator(byte b) {
+            return isSpace(b) || isLineEnd(b) || b == '/';
+        }
+    }
+}
@@ -0,0 +1,600 @@
+package parsers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * PlyReader reads the triangles of a binary (little or big endian) PLY file - the positions and the optional
+ * normals of its "vertex" element and the vertex lists of its "face" element; other elements and properties
+ * are skipped.
+ * The vertices have a fixed size, so their ranges are memory mapped and parsed concurrently. The faces are
+ * parsed the same way assuming they are all triangles (so they have a fixed size too), and if a face turns
+ * out to be a polygon they are parsed again one after the other, splitting the polygons into triangle fans.
+ *
+ * @author Shneor and Emanuel
+ */
+final class PlyReader {
+    /**
+     * Maximal size of a mapped range in bytes - a single mapping can't exceed 2GB
+     */
+    private static final int MAX_RANGE_SIZE = 1 << 30;
+    /**
+     * Minimal amount of items (vertices or faces) in a range parsed by a single task
+     */
+    private static final int MIN_RANGE_ITEMS = 1 << 16;
+    /**
+     * Amount of ranges per parsing thread, so threads finishing early take the remaining ranges
+     */
+    private static final int RANGES_PER_THREAD = 4;
+
+    /**
+     * The types of the properties of a PLY file.
+     */
+    private enum Type {
+        /** A signed byte */
+        CHAR(1),
+        /** An unsigned byte */
+        UCHAR(1),
+        /** A signed 16 bit integer */
+        SHORT(2),
+        /** An unsigned 16 bit integer */
+        USHORT(2),
+        /** A signed 32 bit integer */
+        INT(4),
+        /** An unsigned 32 bit integer */
+        UINT(4),
+        /** A 32 bit floating point number */
+        FLOAT(4),
+        /** A 64 bit floating point number */
+        DOUBLE(8);
+
+        /**
+         * The size of a value of the type in bytes
+         */
+        final int size;
+
+        /**
+         * Constructs a type.
+         *
+         * @param size the size of a value of the type in bytes
+         */
+        Type(int size) {
+            this.size = size;
+        }
+
+        /**
+         * Finds a type by its name in the header of the file (both the old and the sized names).
+         *
+         * @param name the name of the type
+         * @return the type
+         * @throws IllegalArgumentException if there is no such type
+         */
+        static Type of(String name) throws IllegalArgumentException {
+            return switch (name) {
+                case "char", "int8" -> CHAR;
+                case "uchar", "uint8" -> UCHAR;
+                case "short", "int16" -> SHORT;
+                case "ushort", "uint16" -> USHORT;
+                case "int", "int32" -> INT;
+                case "uint", "uint32" -> UINT;
+                case "float", "float32" -> FLOAT;
+                case "double", "float64" -> DOUBLE;
+                default -> throw new IllegalArgumentException("unknown PLY type: " + name);
+            };
+        }
+
+        /**
+         * Reads a value of the type.
+         *
+         * @param buffer the buffer
+         * @param offset the offset of the value in the buffer
+         * @return the value
+         */
+        double read(ByteBuffer buffer, int offset) {
+            return switch (this) {
+                case CHAR -> buffer.get(offset);
+                case UCHAR -> buffer.get(offset) & 0xFF;
+                case SHORT -> buffer.getShort(offset);
+                case USHORT -> buffer.getShort(offset) & 0xFFFF;
+                case INT -> buffer.getInt(offset);
+                case UINT -> buffer.getInt(offset) & 0xFFFFFFFFL;
+                case FLOAT -> buffer.getFloat(offset);
+                case DOUBLE -> buffer.getDouble(offset);
+            };
+        }
+
+        /**
+         * Reads an integer value of the type (a count or an index).
+         *
+         * @param buffer the buffer
+         * @param offset the offset of the value in the buffer
+         * @return the value
+         * @throws IllegalArgumentException if the value is not an integer in the range of int
+         */
+        int readInt(ByteBuffer buffer, int offset) throws IllegalArgumentException {
+            double value = read(buffer, offset);
+            if (value != (int) value)
+                throw new IllegalArgumentException("invalid PLY index: " + value);
+            return (int) value;
+        }
+    }
+
+    /**
+     * A property of an element of a PLY file.
+     */
+    private static final class Property {
+        /**
+         * The name of the property
+         */
+        final String name;
+        /**
+         * The type of the property, or of the items of a list
+         */
+        final Type type;
+        /**
+         * The type of the count of the items of a list, or null if the property is not a list
+         */
+        final Type countType;
+
+        /**
+         * Constructs a property.
+         *
+         * @param name      the name of the property
+         * @param type      the type of the property, or of the items of a list
+         * @param countType the type of the count of the items of a list, or null if the property is not a list
+         */
+        Property(String name, Type type, Type countType) {
+            this.name = name;
+            this.type = type;
+            this.countType = countType;
+        }
+    }
+
+    /**
+     * An element of a PLY file.
+     */
+    private static final class Element {
+        /**
+         * The name of the element
+         */
+        final String name;
+        /**
+         * The amount of the items of the element
+         */
+        final long count;
+        /**
+         * The properties of every item
+         */
+        final List<Property> properties = new ArrayList<>();
+
+        /**
+         * Constructs an element, with no properties yet.
+         *
+         * @param name  the name of the element
+         * @param count the amount of the items of the element
+         */
+        Element(String name, long count) {
+            this.name = name;
+            this.count = count;
+        }
+
+        /**
+         * Calculates the size of an item whose lists (if any) have a given length.
+         *
+         * @param listLength the length of the lists
+         * @return the size in bytes
+         */
+        int itemSize(int listLength) {
+            int size = 0;
+            for (Property property : properties)
+                size += property.countType == null ? property.type.size
+                        : property.countType.size + listLength * property.type.size;
+            return size;
+        }
+
+        /**
+         * Checks whether all the items have the same size - the element has no lists.
+         *
+         * @return true if the element has no lists
+         */
+        boolean fixedSize() {
+            for (Property property : properties)
+                if (property.countType != null)
+                    return false;
+            return true;
+        }
+
+        /**
+         * Calculates the offset of a property in an item, all of whose lists have a given length.
+         *
+         * @param name       the name of the property
+         * @param listLength the length of the lists
+         * @return the offset of the property, or -1 if the element has no such property
+         */
+        int offset(String name, int listLength) {
+            int offset = 0;
+            for (Property property : properties) {
+                if (property.name.equals(name))
+                    return offset;
+                offset += property.countType == null ? property.type.size
+                        : property.countType.size + listLength * property.type.size;
+            }
+            return -1;
+        }
+
+        /**
+         * Finds a property by its name.
+         *
+         * @param name the name of the property
+         * @return the property, or null if the element has no such property
+         */
+        Property property(String name) {
+            for (Property property : properties)
+                if (property.name.equals(name))
+                    return property;
+            return null;
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation of the utility class.
+     */
+    private PlyReader() {
+    }
+
+    /**
+     * Reads the triangles of a binary PLY file.
+     *
+     * @param channel the channel of the file
+     * @param loader  the loader, running the parsing tasks
+     * @return the data of the mesh
+     * @throws IOException              if the file can't be read
+     * @throws IllegalArgumentException if the file is malformed or not binary
+     */
+    static MeshData read(FileChannel channel, MeshLoader loader) throws IOException, IllegalArgumentException {
+        List<Element> elements = new ArrayList<>();
+        ByteOrder[] order = new ByteOrder[1];
+        long offset = readHeader(channel, elements, order);
+
+        double[] positions = null, normals = null;
+        int[] corners = null;
+        for (Element element : elements) {
+            if (element.name.equals("vertex")) {
+                double[][] vertices = readVertices(channel, loader, element, offset, order[0]);
+                positions = vertices[0];
+                normals = vertices[1];
+                offset += element.count * element.itemSize(0);
+            } else if (element.name.equals("face")) {
+                MeshData.IntArray triangles = readTriangles(channel, loader, element, offset, order[0]);
+                if (triangles == null) {
+                    triangles = new MeshData.IntArray();
+                    offset = readPolygons(channel, element, offset, order[0], triangles);
+                } else
+                    offset += element.count * element.itemSize(3);
+                corners = triangles.toArray();
+            } else if (element.fixedSize())
+                offset += element.count * element.itemSize(0);
+            else
+                offset = readPolygons(channel, element, offset, order[0], null);
+        }
+        if (positions == null || corners == null)
+            throw new IllegalArgumentException("a PLY mesh must have vertex and face elements");
+        for (int corner : corners)
+            if (corner < 0 || corner >= positions.length / 3)
+                throw new IllegalArgumentException("a face refers to a missing vertex " + corner);
+        return new MeshData(positions, normals, corners, null);
+    }
+
+    /**
+     * Reads the header of the file.
+     *
+     * @param channel  the channel of the file
+     * @param elements the list collecting the elements of the file
+     * @param order    an array receiving the byte order of the file
+     * @return the offset of the data following the header
+     * @throws IOException              if the file can't be read
+     * @throws IllegalArgumentException if the header is malformed or the file is not binary
+     */
+    private static long readHeader(FileChannel channel, List<Element> elements, ByteOrder[] order)
+            throws IOException, IllegalArgumentException {
+        // read whole lines until the end of the header
+        StringBuilder header = new StringBuilder();
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long offset = 0;
+        int end;
+        while ((end = headerEnd(header)) == -1) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0)
+                throw new IllegalArgumentException("the PLY header has no end");
+            header.append(new String(buffer.array(), 0, read, StandardCharsets.ISO_8859_1));
+            offset += read;
+        }
+
+        String[] lines = header.substring(0, end).split("\r?\n");
+        if (!lines[0].trim().equals("ply"))
+            throw new IllegalArgumentException("not a PLY file");
+        Element element = null;
+        for (String line : lines) {
+            String[] words = line.trim().split("\\s+");
+            switch (words[0]) {
+                case "format" -> order[0] = switch (words[1]) {
+                    case "binary_little_endian" -> ByteOrder.LITTLE_ENDIAN;
+                    case "binary_big_endian" -> ByteOrder.BIG_ENDIAN;
+                    default -> throw new IllegalArgumentException("unsupported PLY format: " + words[1]);
+                };
+                case "element" -> {
+                    element = new Element(words[1], Long.parseLong(words[2]));
+                    elements.add(element);
+                }
+                case "property" -> {
+                    if (element == null)
+                        throw new IllegalArgumentException("a PLY property out of an element");
+                    element.properties.add(words[1].equals("list")
+                            ? new Property(words[4], Type.of(words[3]), Type.of(words[2]))
+                            : new Property(words[2], Type.of(words[1]), null));
+                }
+                default -> {
+                    // comments and other information lines
+                }
+            }
+        }
+        if (order[0] == null)
+            throw new IllegalArgumentException("the PLY header has no format");
+        return end + "end_header\n".length() + (header.charAt(end + "end_header".length()) == '\r' ? 1 : 0);
+    }
+
+    /**
+     * Finds the end of the header in the text read so far.
+     *
+     * @param header the text read so far
+     * @return the offset of the "end_header" line, or -1 if it wasn't read yet
+     */
+    private static int headerEnd(StringBuilder header) {
+        int from = 0, index;
+        while ((index = header.indexOf("end_header", from)) != -1) {
+            boolean lineStart = index == 0 || header.charAt(index - 1) == '\n';
+            int after = index + "end_header".length();
+            if (lineStart && after < header.length() && header.charAt(after) == '\n')
+                return index;
+            if (lineStart && after + 1 < header.length() && header.charAt(after) == '\r' && header.charAt(after + 1) == '\n')
+                return index;
+            if (after + 1 >= header.length())
+                return -1; // the line end wasn't read yet
+            from = after;
+        }
+        return -1;
+    }
+
+    /**
+     * Splits a range of items of a fixed size into parts of up to a mapped range each,
+     * a few parts for every parsing thread.
+     *
+     * @param count    the amount of the items
+     * @param itemSize the size of an item in bytes
+     * @param threads  the amount of the parsing threads
+     * @return the amount of the items in a part
+     */
+    private static int partItems(long count, int itemSize, int threads) {
+        long parts = Math.max(1, Math.min(Math.max(1, threads) * RANGES_PER_THREAD, count / MIN_RANGE_ITEMS));
+        return (int) Math.min((count + parts - 1) / parts, MAX_RANGE_SIZE / itemSize);
+    }
+
+    /**
+     * Reads the positions and the normals of the vertices concurrently.
+     *
+     * @param channel the channel of the file
+     * @param loader  the loader, running the parsing tasks
+     * @param element the vertex element
+     * @param offset  the offset of the element in the file
+     * @param order   the byte order of the file
+     * @return the coordinates of the positions and of the normals (null if the vertices have no normals)
+     * @throws IOException              if the file can't be read
+     * @throws IllegalArgumentException if the vertices have lists or no positions
+     */
+    private static double[][] readVertices(FileChannel channel, MeshLoader loader, Element element, long offset,
+                                           ByteOrder order) throws IOException, IllegalArgumentException {
+        if (!element.fixedSize())
+            throw new IllegalArgumentException("PLY vertices with lists are not supported");
+        if (element.count > Integer.MAX_VALUE / 3)
+            throw new IllegalArgumentException("too many PLY vertices: " + element.count);
+        String[] names = {"x", "y", "z", "nx", "ny", "nz"};
+        Property[] properties = new Property[names.length];
+        int[] offsets = new int[names.length];
+        for (int i = 0; i < names.length; ++i) {
+            properties[i] = element.property(names[i]);
+            offsets[i] = element.offset(names[i], 0);
+        }
+        if (properties[0] == null || properties[1] == null || properties[2] == null)
+            throw new IllegalArgumentException("PLY vertices must have x, y and z properties");
+        boolean withNormals = properties[3] != null && properties[4] != null && properties[5] != null;
+
+        int count = (int) element.count, itemSize = element.itemSize(0);
+        double[] positions = new double[3 * count];
+        double[] normals = withNormals ? new double[3 * count] : null;
+        int part = partItems(count, itemSize, loader.getThreadsCount());
+        List<Callable<Object>> tasks = new ArrayList<>();
+        for (int first = 0; first < count; first += part) {
+            int from = first, to = Math.min(count, first + part);
+            tasks.add(() -> {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                        offset + (long) from * itemSize, (long) (to - from) * itemSize).order(order);
+                for (int vertex = from, item = 0; vertex < to; ++vertex, item += itemSize)
+                    for (int axis = 0; axis < 3; ++axis) {
+                        positions[3 * vertex + axis] = properties[axis].type.read(buffer, item + offsets[axis]);
+                        if (withNormals)
+                            normals[3 * vertex + axis] = properties[3 + axis].type.read(buffer, item + offsets[3 + axis]);
+                    }
+                return null;
+            });
+        }
+        loader.run(tasks);
+        return new double[][]{positions, normals};
+    }
+
+    /**
+     * Reads the faces concurrently, assuming they are all triangles.
+     *
+     * @param channel the channel of the file
+     * @param loader  the loader, running the parsing tasks
+     * @param element the face element
+     * @param offset  the offset of the element in the file
+     * @param order   the byte order of the file
+     * @return the corners of the triangles, or null if a face is not a triangle (or the faces have other lists,
+     * or don't fit in the file)
+     * @throws IOException              if the file can't be read
+     * @throws IllegalArgumentException if the faces have no vertex list, or are all triangles but have an index
+     *                                  out of the range of int
+     */
+    private static MeshData.IntArray readTriangles(FileChannel channel, MeshLoader loader, Element element,
+                                                   long offset, ByteOrder order)
+            throws IOException, IllegalArgumentException {
+        Property list = vertexList(element);
+        for (Property property : element.properties)
+            if (property.countType != null && property != list)
+                return null; // the length of other lists can't be assumed
+        int itemSize = element.itemSize(3), listOffset = element.offset(list.name, 3);
+        if (element.count > Integer.MAX_VALUE / 3 || offset + element.count * itemSize > channel.size())
+            return null;
+        int count = (int) element.count;
+        int[] corners = new int[3 * count];
+        // the indices are checked only once all the faces are known to be triangles - otherwise the parts
+        // following a polygon are read misaligned, and their garbage indices must not fail the loading
+        AtomicBoolean invalid = new AtomicBoolean();
+        int part = partItems(count, itemSize, loader.getThreadsCount());
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int first = 0; first < count; first += part) {
+            int from = first, to = Math.min(count, first + part);
+            tasks.add(() -> {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                        offset + (long) from * itemSize, (long) (to - from) * itemSize).order(order);
+                int indexSize = list.type.size;
+                boolean valid = true;
+                for (int face = from, item = listOffset; face < to; ++face, item += itemSize) {
+                    if (list.countType.read(buffer, item) != 3)
+                        return false;
+                    int index = item + list.countType.size;
+                    for (int corner = 0; corner < 3; ++corner, index += indexSize) {
+                        double value = list.type.read(buffer, index);
+                        valid &= value == (int) value;
+                        corners[3 * face + corner] = (int) value;
+                    }
+                }
+                if (!valid)
+                    invalid.set(true);
+                return true;
+            });
+        }
+        for (boolean triangles : loader.run(tasks))
+            if (!triangles)
+                return null;
+        if (invalid.get())
+            throw new IllegalArgumentException("invalid PLY index");
+        MeshData.IntArray result = new MeshData.IntArray();
+        result.values = corners;
+        result.size = corners.length;
+        return result;
+    }
+
+    /**
+     * Finds the list of the vertex indices of the faces.
+     *
+     * @param element the face element
+     * @return the list property
+     * @throws IllegalArgumentException if the faces have no vertex list
+     */
+    private static Property vertexList(Element element) throws IllegalArgumentException {
+        Property list = element.property("vertex_indices");
+        if (list == null)
+            list = element.property("vertex_index");
+        if (list == null || list.countType == null)
+            throw new IllegalArgumentException("PLY faces must have a vertex_indices list");
+        return list;
+    }
+
+    /**
+     * Reads the items of an element of a varying size one after the other - splitting the faces into
+     * triangle fans, or just skipping the items of other elements.
+     *
+     * @param channel   the channel of the file
+     * @param element   the element
+     * @param offset    the offset of the element in the file
+     * @param order     the byte order of the file
+     * @param triangles the array collecting the corners of the triangles, or null to skip the items
+     * @return the offset of the data following the element
+     * @throws IOException              if the file can't be read
+     * @throws IllegalArgumentException if the element doesn't fit in the file
+     */
+    private static long readPolygons(FileChannel channel, Element element, long offset, ByteOrder order,
+                                     MeshData.IntArray triangles) throws IOException, IllegalArgumentException {
+        Property list = triangles == null ? null : vertexList(element);
+        long size = channel.size();
+        ByteBuffer buffer = null;
+        long bufferStart = offset;
+        int position = 0;
+        for (long item = 0; item < element.count; ++item) {
+            for (Property property : element.properties) {
+                // make sure the buffer holds the count of the list, or the scalar value
+                int needed = property.countType == null ? property.type.size : property.countType.size;
+                if (buffer == null || position + needed > buffer.limit()) {
+                    bufferStart += position;
+                    buffer = map(channel, bufferStart, size, order);
+                    position = 0;
+                    if (needed > buffer.limit())
+                        throw new IllegalArgumentException("the PLY data is truncated");
+                }
+                if (property.countType == null) {
+                    position += property.type.size;
+                    continue;
+                }
+
+                int length = property.countType.readInt(buffer, position);
+                int listSize = property.countType.size + length * property.type.size;
+                if (position + listSize > buffer.limit()) {
+                    bufferStart += position;
+                    buffer = map(channel, bufferStart, size, order);
+                    position = 0;
+                    if (listSize > buffer.limit())
+                        throw new IllegalArgumentException("the PLY data is truncated");
+                }
+                if (property == list) {
+                    if (length < 3)
+                        throw new IllegalArgumentException("a face must have at least 3 vertices");
+                    int index = position + property.countType.size, indexSize = property.type.size;
+                    int first = property.type.readInt(buffer, index);
+                    int previous = property.type.readInt(buffer, index + indexSize);
+                    for (int i = 2; i < length; ++i) {
+                        int current = property.type.readInt(buffer, index + i * indexSize);
+                        triangles.add(first);
+                        triangles.add(previous);
+                        triangles.add(current);
+                        previous = current;
+                    }
+                }
+                position += listSize;
+            }
+        }
+        return bufferStart + position;
+    }
+
+    /**
+     * Maps a range of the file starting at an offset, up to the maximal mapped range size.
+     *
+     * @param channel the channel of the file
+     * @param start   the offset of the range
+     * @param size    the size of the file
+     * @param order   the byte order of the file
+     * @return the mapped range
+     * @throws IOException if the file can't be mapped
+     */
+    private static ByteBuffer map(FileChannel channel, long start, long size, ByteOrder order) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(MAX_RANGE_SIZE, size - start)).order(order);
+    }
+}
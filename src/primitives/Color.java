@@ -63,6 +63,12 @@ public class Color {
       return new java.awt.Color(ir > 255 ? 255 : ir, ig > 255 ? 255 : ig, ib > 255 ? 255 : ib);
    }
 
+   /**
+    * Getter of the RGB components, without the limit of 255 applied by {@link #getColor()}
+    * @return the triad of Red/Green/Blue components
+    */
+   public Double3 getRgb() { return rgb; }
+
    /**
     * Operation of adding this and one or more other colors (by component)
     * @param  colors one or more other colors to add
@@ -111,6 +117,17 @@ public class Color {
       return new Color(rgb.reduce(k));
    }
 
+   /**
+    * Calculates how different this color is from another color - the biggest difference between
+    * two matching components
+    * @param  other the other color
+    * @return       the biggest absolute difference between the matching RGB components
+    */
+   public double difference(Color other) {
+      return Math.max(Math.abs(rgb.d1 - other.rgb.d1),
+                      Math.max(Math.abs(rgb.d2 - other.rgb.d2), Math.abs(rgb.d3 - other.rgb.d3)));
+   }
+
    @Override
    public String toString() { return "rgb:" + rgb; }
 }
@@ -60,6 +60,24 @@ public class Double3 {
    @Override
    public String toString() { return "(" + d1 + "," + d2 + "," + d3 + ")"; }
 
+   /**
+    * Getter of the first number
+    * @return the first number
+    */
+   public double getD1() { return d1; }
+
+   /**
+    * Getter of the second number
+    * @return the second number
+    */
+   public double getD2() { return d2; }
+
+   /**
+    * Getter of the third number
+    * @return the third number
+    */
+   public double getD3() { return d3; }
+
    /**
     * Sum two floating point triads into a new triad where each couple of numbers
     * is summarized
@@ -118,6 +136,18 @@ public class Double3 {
     */
    public boolean lowerThan(Double3 other) { return d1 < other.d1 && d2 < other.d2 && d3 < other.d3; }
 
+   /**
+    * Checks whether all the numbers of the product with another triad are lower
+    * than a test number, without creating the product triad
+    * @param  rhs right hand side operand for product
+    * @param  k   the test number
+    * @return     true if all the numbers of the product are less than k, false
+    *             otherwise
+    */
+   public boolean productLowerThan(Double3 rhs, double k) {
+      return d1 * rhs.d1 < k && d2 * rhs.d2 < k && d3 * rhs.d3 < k;
+   }
+
    /**
     * Checks whether all the numbers are greater than a test number
     * @param k the test number
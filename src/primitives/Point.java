@@ -1,5 +1,7 @@
 package primitives;
 
+import static primitives.Util.isZero;
+
 /**
  * Class Point is the basic class representing a Point of Euclidean geometry in Cartesian
  * 3-Dimensional coordinate system.
@@ -8,9 +10,11 @@ package primitives;
  */
 public class Point {
     /**
-     * the coordinates that stored in the point
+     * the coordinates that stored in the point.
+     * They are kept directly in the point (rather than in a Double3 object), so reading a coordinate
+     * doesn't chase another reference and every new point or vector is a single allocation
      */
-    protected final Double3 xyz;
+    protected final double x, y, z;
 
     /**
      * get three double coordinates and construct a three-dimensional point (x,y,z)
@@ -20,7 +24,9 @@ public class Point {
      * @param z the value of the z-axis of the point
      */
     public Point(double x, double y, double z) {
-        this.xyz = new Double3(x, y, z);
+        this.x = x;
+        this.y = y;
+        this.z = z;
     }
 
     /**
@@ -29,14 +35,14 @@ public class Point {
      * @param xyz the coordinates
      */
     Point(Double3 xyz) {
-        this.xyz = xyz;
+        this(xyz.d1, xyz.d2, xyz.d3);
     }
 
     /**
      * Zero point (0,0,0)
      */
     //this was added since the main file used this static point, and we weren't allowed to change it
-    public static final Point ZERO = new Point(Double3.ZERO);
+    public static final Point ZERO = new Point(0, 0, 0);
 
     /**
      * @param obj the object we are comparing to the calling object
@@ -47,7 +53,7 @@ public class Point {
     public boolean equals(Object obj) {
         if (this == obj) return true;
         return obj instanceof Point other
-                && this.xyz.equals(other.xyz);
+                && isZero(x - other.x) && isZero(y - other.y) && isZero(z - other.z);
     }
 
     /**
@@ -56,7 +62,7 @@ public class Point {
      */
     @Override
     public String toString() {
-        return xyz.toString();
+        return "(" + x + "," + y + "," + z + ")";
     }
 
     /**
@@ -64,7 +70,7 @@ public class Point {
      * @return the point that will be at the tip of the vector if it starts from the calling point
      */
     public Point add(Vector vector) {
-        return new Point(xyz.add(vector.xyz));
+        return new Point(x + vector.x, y + vector.y, z + vector.z);
     }
 
     /**
@@ -72,7 +78,7 @@ public class Point {
      * @return the vector that goes from the called point to the calling point
      */
     public Vector subtract(Point point) {
-        return new Vector(xyz.subtract(point.xyz));
+        return new Vector(x - point.x, y - point.y, z - point.z);
     }
 
     /**
@@ -88,9 +94,8 @@ public class Point {
      * @return the squared distance between the called point and the calling point
      */
     public double distanceSquared(Point point) {
-        return (xyz.d1 - point.xyz.d1) * (xyz.d1 - point.xyz.d1) +
-                (xyz.d2 - point.xyz.d2) * (xyz.d2 - point.xyz.d2) +
-                (xyz.d3 - point.xyz.d3) * (xyz.d3 - point.xyz.d3);
+        double dx = x - point.x, dy = y - point.y, dz = z - point.z;
+        return dx * dx + dy * dy + dz * dz;
     }
 
     /**
@@ -98,7 +103,7 @@ public class Point {
      * @return The x-coordinate.
      */
     public double getX() {
-        return xyz.d1;
+        return x;
     }
 
     /**
@@ -106,7 +111,7 @@ public class Point {
      * @return The y-coordinate.
      */
     public double getY() {
-        return xyz.d2;
+        return y;
     }
 
     /**
@@ -114,7 +119,7 @@ public class Point {
      * @return The z-coordinate.
      */
     public double getZ() {
-        return xyz.d3;
+        return z;
     }
 
 }
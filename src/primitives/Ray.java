@@ -36,6 +36,30 @@ public class Ray {
         this.direction = direction;
     }
 
+    /**
+     * construct a ray from the head and the coordinates of the direction, normalizing the direction
+     * exactly as {@link #Ray(Point, Vector)} does, but without allocating the vector before normalization
+     *
+     * @param head the head of the ray
+     * @param x    the x coordinate of the direction
+     * @param y    the y coordinate of the direction
+     * @param z    the z coordinate of the direction
+     * @throws IllegalArgumentException if the direction is the zero vector
+     */
+    public Ray(Point head, double x, double y, double z) throws IllegalArgumentException {
+        if (isZero(x) && isZero(y) && isZero(z))
+            throw new IllegalArgumentException("can't create the zero vector");
+        double lengthSquared = x * x + y * y + z * z;
+        if (lengthSquared != 1) {
+            double length = Math.sqrt(lengthSquared);
+            x /= length;
+            y /= length;
+            z /= length;
+        }
+        this.head = head;
+        this.direction = new Vector(x, y, z);
+    }
+
     /**
      * Computes the point on the ray based on the given parameter.
      *
@@ -103,10 +127,41 @@ public class Ray {
         this.direction = direction.normalize();
     }
 
+    /**
+     * Constructs a ray that is slightly offset from the original point in the direction of the normal,
+     * exactly as {@link #Ray(Point, Vector, Vector)} does, from the coordinates of its direction
+     * (without allocating the direction vector before normalization).
+     *
+     * @param original the original point of the ray
+     * @param x        the x coordinate of the direction
+     * @param y        the y coordinate of the direction
+     * @param z        the z coordinate of the direction
+     * @param n        the normal vector at the original point, used to determine the offset direction
+     * @throws IllegalArgumentException if the direction is the zero vector
+     */
+    public Ray(Point original, double x, double y, double z, Vector n) throws IllegalArgumentException {
+        this(offset(original, n, n.getX() * x + n.getY() * y + n.getZ() * z), x, y, z);
+    }
+
+    /**
+     * Offsets a point slightly in the direction of the normal, to the side a ray leaves it to.
+     *
+     * @param original the point
+     * @param n        the normal vector at the point
+     * @param nd       the dot product of the normal and the direction of the ray
+     * @return the offset point
+     */
+    private static Point offset(Point original, Vector n, double nd) {
+        double delta = alignZero(nd) > 0 ? DELTA : -DELTA;
+        return new Point(original.getX() + n.getX() * delta, original.getY() + n.getY() * delta,
+                original.getZ() + n.getZ() * delta);
+    }
+
 
 
     /**
      * Finds the closest GeoPoint to the head of the ray from a list of GeoPoints.
+     * The distances of the points are taken from their ray parameters where they are known.
      *
      * @param geoPoints the list of GeoPoints to search
      * @return the closest GeoPoint to the head of the ray, or null if the list is empty
@@ -115,12 +170,14 @@ public class Ray {
         if ( geoPoints==null || geoPoints.isEmpty()) {
             return null;
         }
-        GeoPoint closest = geoPoints.getFirst();
-        double minDistanceSquared = closest.point.distanceSquared(getHead());
+        GeoPoint closest = null;
+        double minDistance = Double.POSITIVE_INFINITY;
         for (var geoPoint : geoPoints) {
-            if (geoPoint.point.distanceSquared(getHead()) < minDistanceSquared) {
+            // the parameter of the point along the ray is its distance, if the geometry has filled it
+            double distance = geoPoint.t != Double.POSITIVE_INFINITY ? geoPoint.t : geoPoint.point.distance(head);
+            if (distance < minDistance) {
                 closest = geoPoint;
-                minDistanceSquared=geoPoint.point.distanceSquared(getHead());
+                minDistance = distance;
             }
         }
         return closest;
@@ -40,7 +40,7 @@ public final class Util {
     * @return true if the scaled vector is effectively zero, false otherwise.
     */
    public static boolean isZero(Vector v,double mult){
-      return v.xyz.scale(mult).equals(Double3.ZERO);
+      return isZero(v.x * mult) && isZero(v.y * mult) && isZero(v.z * mult);
    }
 
    /**
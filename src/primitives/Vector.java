@@ -17,9 +17,7 @@ public class Vector extends Point {
      * @throws IllegalArgumentException if we try to construct the zero vector
      */
     public Vector(Double3 xyz) throws IllegalArgumentException {
-        super(xyz);
-        if (xyz.equals(Double3.ZERO))
-            throw new IllegalArgumentException("can't create the zero vector");
+        this(xyz.d1, xyz.d2, xyz.d3);
     }
 
     /**
@@ -83,7 +81,7 @@ public class Vector extends Point {
      * @throws IllegalArgumentException if the sum  is of the vector is zero
      */
     public Vector add(Vector vector) throws IllegalArgumentException {
-        return new Vector(vector.xyz.add(this.xyz));
+        return new Vector(vector.x + x, vector.y + y, vector.z + z);
     }
 
     /**
@@ -92,9 +90,10 @@ public class Vector extends Point {
      * @throws IllegalArgumentException if the scalar is zero
      */
     public Vector scale(double mult) throws IllegalArgumentException {
-        if (isZero(mult) || xyz.scale(mult).equals(Double3.ZERO))
+        double sx = x * mult, sy = y * mult, sz = z * mult;
+        if (isZero(mult) || (isZero(sx) && isZero(sy) && isZero(sz)))
             throw new IllegalArgumentException("can't scale by zero");
-        return new Vector(this.xyz.scale(mult));
+        return new Vector(sx, sy, sz);
     }
 
     /**
@@ -102,7 +101,7 @@ public class Vector extends Point {
      * @return the dot-product of the two vectors x1*s2+y1*y2+z1*z2
      */
     public double dotProduct(Vector vector) {
-        return vector.xyz.d1 * this.xyz.d1 + vector.xyz.d2 * this.xyz.d2 + vector.xyz.d3 * this.xyz.d3;
+        return vector.x * x + vector.y * y + vector.z * z;
     }
 
     /**
@@ -111,16 +110,15 @@ public class Vector extends Point {
      * @throws IllegalArgumentException if the two vectors are parallel and the vector is zero
      */
     public Vector crossProduct(Vector vector) throws IllegalArgumentException {
-        return new Vector(new Double3(this.xyz.d2 * vector.xyz.d3 - vector.xyz.d2 * this.xyz.d3, this.xyz.d3 * vector.xyz.d1 - vector.xyz.d3 * this.xyz.d1, this.xyz.d1 * vector.xyz.d2 - vector.xyz.d1 * this.xyz.d2));
+        return new Vector(y * vector.z - vector.y * z, z * vector.x - vector.z * x, x * vector.y - vector.x * y);
     }
 
     /**
      * @return the normalized vector v/|v|
      */
     public Vector normalize() {
-
-        return new Vector(this.xyz.reduce(this.length()));
-
+        double length = length();
+        return new Vector(x / length, y / length, z / length);
     }
 
     /**
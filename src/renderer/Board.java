@@ -8,8 +8,21 @@ import java.util.List;
 
 import static primitives.Util.isZero;
 
+/**
+ * Board represents a square (or a circle) area in space, spread over by sample points -
+ * for example the area of a light source for soft shadows.
+ * The points are placed by a {@link Sampler}, seeded explicitly, so the same board always
+ * gets the same points.
+ *
+ * @author Shneor and Emanuel
+ */
 public class Board {
 
+    /**
+     * The sampler used by boards unless another sampler is set - jittered stratified samples.
+     */
+    private static final Sampler DEFAULT_SAMPLER = new StratifiedSampler();
+
     /**
      * The center point of the board.
      */
@@ -35,6 +48,16 @@ public class Board {
      */
     private boolean circle = false;
 
+    /**
+     * The sampler generating the positions of the points on the board.
+     */
+    private Sampler sampler = DEFAULT_SAMPLER;
+
+    /**
+     * The seed of the sampler.
+     */
+    private long seed = 0;
+
     /**
      * Constructs a Board with the specified center point, up vector, right vector, and size.
      *
@@ -62,49 +85,76 @@ public class Board {
     }
 
     /**
-     * Generates a list of points evenly distributed in a square pattern on the board.
+     * Sets the sampler generating the positions of the points on the board.
      *
-     * @param numberOfSamplesInRow the number of samples per row
-     * @return a list of points in a square pattern
+     * @param sampler the sampler
+     * @return the updated Board object with the sampler set
      */
-    private List<Point> getPointsSquare(int numberOfSamplesInRow) {
-        double subPixelSize = size / numberOfSamplesInRow;
-        List<Point> points = new ArrayList<>(numberOfSamplesInRow * numberOfSamplesInRow);
+    public Board setSampler(Sampler sampler) {
+        this.sampler = sampler;
+        return this;
+    }
+
+    /**
+     * Sets the seed of the sampler - boards with the same seed get the same points.
+     *
+     * @param seed the seed
+     * @return the updated Board object with the seed set
+     */
+    public Board setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Converts sample points to points on the board.
+     *
+     * @param samples the interleaved coordinates of the samples, in [-1,1] relative to the half size of the board
+     * @return the list of the points on the board
+     */
+    private List<Point> toBoard(double[] samples) {
+        double halfSize = size / 2;
+        List<Point> points = new ArrayList<>(samples.length / 2);
         Point point;
         double x, y;
-        for (int i = 0; i < numberOfSamplesInRow; i++) {
-            for (int j = 0; j < numberOfSamplesInRow; j++) {
-                y = (-(i - (numberOfSamplesInRow - 1.0) / 2.0) * subPixelSize) + (Math.random() - 0.5) * subPixelSize;
-                x = ((j - (numberOfSamplesInRow - 1.0) / 2.0) * subPixelSize) + (Math.random() - 0.5) * subPixelSize;
-                point = center;
-
-                if (!isZero(x)) {
-                    point = point.add(VRight.scale(x));
-                }
-                if (!isZero(y)) {
-                    point = point.add(VUp.scale(y));
-                }
-                points.add(point);
+        for (int i = 0; i < samples.length; i += 2) {
+            x = samples[i] * halfSize;
+            y = samples[i + 1] * halfSize;
+            point = center;
+            if (!isZero(x)) {
+                point = point.add(VRight.scale(x));
             }
+            if (!isZero(y)) {
+                point = point.add(VUp.scale(y));
+            }
+            points.add(point);
         }
         return points;
     }
 
+    /**
+     * Generates a list of points evenly distributed in a square pattern on the board.
+     *
+     * @param numberOfSamplesInRow the number of samples per row
+     * @return a list of points in a square pattern
+     */
+    private List<Point> getPointsSquare(int numberOfSamplesInRow) {
+        double[] samples = sampler.generate(numberOfSamplesInRow * numberOfSamplesInRow, seed);
+        for (int i = 0; i < samples.length; ++i)
+            samples[i] = 2 * samples[i] - 1;
+        return toBoard(samples);
+    }
+
     /**
      * Generates a list of points evenly distributed in a circular pattern on the board.
+     * The samples of the square are mapped onto the circle, so all of them are kept.
      *
      * @param numberOfSamplesPerRow the number of samples per row
      * @return a list of points in a circular pattern
      */
     private List<Point> getPointsCircle(int numberOfSamplesPerRow) {
-        List<Point> pointsSquare = getPointsSquare(numberOfSamplesPerRow);
-        List<Point> pointsCircled = new ArrayList<>((int) Math.ceil(numberOfSamplesPerRow * numberOfSamplesPerRow * Math.PI));
-        double radiusSquared = (size / 2) * (size / 2);
-        for (Point point : pointsSquare)
-            if (point.distanceSquared(center) < radiusSquared)
-                pointsCircled.add(point);
-
-        return pointsCircled;
+        return toBoard(Sampler.toConcentricDisc(
+                sampler.generate(numberOfSamplesPerRow * numberOfSamplesPerRow, seed)));
     }
 
     /**
@@ -6,8 +6,19 @@ import primitives.Ray;
 import primitives.Vector;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.MissingResourceException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 import static primitives.Util.isZero;
 
@@ -39,6 +50,47 @@ public class Camera implements Cloneable {
     private ImageWriter imageWriter;
     private RayTracerBase rayTracer;
 
+    /**
+     * Default side length (in pixels) of the tiles the image is split into
+     */
+    private static final int DEFAULT_TILE_SIZE = 16;
+    /**
+     * The amount of rendering threads, 0 means the image is rendered by the calling thread only
+     */
+    private int threadsCount = 0;
+    /**
+     * How the tiles are scheduled on the rendering threads
+     */
+    private Scheduling scheduling = Scheduling.PLATFORM;
+    /**
+     * The side length (in pixels) of the tiles the image is split into
+     */
+    private int tileSize = DEFAULT_TILE_SIZE;
+    /**
+     * The biggest allowed level of the adaptive super sampling (a pixel is split into up to 4^level sub-pixels)
+     */
+    private static final int MAX_SUPER_SAMPLING_LEVEL = 8;
+    /**
+     * Default maximal difference of a color component between similar samples of the adaptive super sampling
+     */
+    private static final double DEFAULT_COLOR_THRESHOLD = 8;
+    /**
+     * Maximal level of recursive pixel subdivision of the adaptive super sampling, 0 means no super sampling
+     */
+    private int superSamplingLevel = 0;
+    /**
+     * Maximal difference of a color component between samples which are considered similar
+     */
+    private double colorThreshold = DEFAULT_COLOR_THRESHOLD;
+    /**
+     * The generators of the rays through the pixels of the requested view plane resolutions, by the resolution
+     */
+    private Map<Long, RayGenerator> rayGenerators = new ConcurrentHashMap<>();
+    /**
+     * The generator of the last requested resolution, checked before looking the resolution up
+     */
+    private RayGenerator rayGenerator = null;
+
     /**
      * Gets the location of the camera.
      *
@@ -102,6 +154,64 @@ public class Camera implements Cloneable {
         return distance;
     }
 
+    /**
+     * Gets the amount of rendering threads.
+     *
+     * @return the amount of rendering threads, 0 if the image is rendered by the calling thread only.
+     */
+    public int getThreadsCount() {
+        return threadsCount;
+    }
+
+    /**
+     * Gets how the tiles are scheduled on the rendering threads.
+     *
+     * @return the scheduling of the tiles.
+     */
+    public Scheduling getScheduling() {
+        return scheduling;
+    }
+
+    /**
+     * Gets the side length of the rendered tiles.
+     *
+     * @return the side length (in pixels) of the tiles the image is split into.
+     */
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * Gets the maximal level of the adaptive super sampling.
+     *
+     * @return the maximal level of recursive pixel subdivision, 0 if there is no super sampling.
+     */
+    public int getSuperSamplingLevel() {
+        return superSamplingLevel;
+    }
+
+    /**
+     * The ways of scheduling the tiles of the image on the rendering threads (when rendering is multithreaded).
+     * The tiles are the same whatever the scheduling, and so is the rendered image.
+     */
+    public enum Scheduling {
+        /**
+         * A fixed pool of platform threads, taking the tiles in order
+         */
+        PLATFORM,
+        /**
+         * A fork join pool of the rendering threads, splitting the tiles recursively in halves,
+         * so idle threads steal halves from busy ones
+         */
+        FORK_JOIN,
+        /**
+         * A virtual thread for every tile, with as many tiles rendered at once as the amount of threads.
+         * Virtual threads are cheap to create and to block, suiting very small tiles, and tiles whose
+         * rendering waits for I/O
+         */
+        VIRTUAL
+    }
+
     /**
      * Private constructor to prevent direct instantiation.
      * Use the Builder to create an instance.
@@ -118,6 +228,25 @@ public class Camera implements Cloneable {
         return new Builder();
     }
 
+    /**
+     * Gets the generator of the rays through the pixels of a view plane of a given resolution.
+     * The generator of every requested resolution is kept (it takes a few arrays of the size of a row and
+     * of a column), so callers alternating between resolutions - like a preview and a final render -
+     * calculate every generator once.
+     *
+     * @param nX the number of horizontal pixels.
+     * @param nY the number of vertical pixels.
+     * @return the ray generator.
+     */
+    public RayGenerator getRayGenerator(int nX, int nY) {
+        RayGenerator generator = rayGenerator;
+        if (generator == null || generator.getNx() != nX || generator.getNy() != nY) {
+            generator = rayGenerators.computeIfAbsent((long) nX << 32 | nY, key -> new RayGenerator(this, nX, nY));
+            rayGenerator = generator;
+        }
+        return generator;
+    }
+
     /**
      * Constructs a ray through a given pixel.
      *
@@ -128,31 +257,7 @@ public class Camera implements Cloneable {
      * @return the constructed ray.
      */
     public Ray constructRay(int nX, int nY, int j, int i) {
-        // Image center
-        Point pointCenter = location.add(vTo.scale(distance));
-
-        // Calculate the size of each pixel
-        double Rx = width / nX;
-        double Ry = height / nY;
-
-        // Calculation of displacement according to i j
-        double Xj = (j - (double) (nX - 1) / 2) * Rx;
-        double Yi = -(i - (double) (nY - 1) / 2) * Ry;
-
-        // Calculating the pixel's position according to i j and gives a point
-        Point Pij = pointCenter;
-        if (!isZero(Xj)) {
-            Pij = Pij.add(vRight.scale(Xj));
-        }
-        if (!isZero(Yi)) {
-            Pij = Pij.add(vUp.scale(Yi));
-        }
-
-        // Calculation of the vector from the point to the screen according to i j
-        Vector viewIJ = Pij.subtract(location);
-
-        // Returns the ray from the point by i j
-        return new Ray(location, viewIJ);
+        return getRayGenerator(nX, nY).constructRay(j, i);
     }
 
     /**
@@ -236,6 +341,74 @@ public class Camera implements Cloneable {
             return this;
         }
 
+        /**
+         * Sets the amount of threads rendering the image.
+         * The image is split into tiles which are traced concurrently by the threads,
+         * scheduled as set by {@link #setScheduling(Scheduling)}.
+         *
+         * @param threads the amount of threads: 0 for rendering on the calling thread only,
+         *                -1 for using all the available processors.
+         * @return the Builder instance.
+         * @throws IllegalArgumentException if the amount of threads is lower than -1.
+         */
+        public Builder setMultithreading(int threads) throws IllegalArgumentException {
+            if (threads < -1)
+                throw new IllegalArgumentException("the amount of threads can't be lower than -1");
+            camera.threadsCount = threads == -1 ? Runtime.getRuntime().availableProcessors() : threads;
+            return this;
+        }
+
+        /**
+         * Sets how the tiles are scheduled on the rendering threads (see {@link #setMultithreading(int)}).
+         *
+         * @param scheduling the scheduling of the tiles, {@link Scheduling#PLATFORM} by default.
+         * @return the Builder instance.
+         * @throws IllegalArgumentException if the scheduling is null.
+         */
+        public Builder setScheduling(Scheduling scheduling) throws IllegalArgumentException {
+            if (scheduling == null)
+                throw new IllegalArgumentException("the scheduling can't be null");
+            camera.scheduling = scheduling;
+            return this;
+        }
+
+        /**
+         * Sets the side length of the square tiles the image is split into while rendering.
+         *
+         * @param tileSize the side length of a tile in pixels.
+         * @return the Builder instance.
+         * @throws IllegalArgumentException if the tile size is not positive.
+         */
+        public Builder setTileSize(int tileSize) throws IllegalArgumentException {
+            if (tileSize <= 0)
+                throw new IllegalArgumentException("the tile size must be positive");
+            camera.tileSize = tileSize;
+            return this;
+        }
+
+        /**
+         * Sets adaptive super sampling (anti-aliasing) of the pixels.
+         * The corners of every pixel are sampled (a corner is shared by four pixels), and a pixel whose corners
+         * see the same geometry in similar colors takes the average color of its corners, so a flat region costs
+         * about one ray per pixel. A pixel whose corners see different geometries or colors differing by more
+         * than the threshold is split into four sub-pixels which are checked the same way, up to the maximal level.
+         *
+         * @param maxLevel       the maximal level of recursive subdivision, 0 turns super sampling off.
+         * @param colorThreshold the maximal difference of a color component between similar samples.
+         * @return the Builder instance.
+         * @throws IllegalArgumentException if the level or the threshold is negative, or the level is too big.
+         */
+        public Builder setAdaptiveSuperSampling(int maxLevel, double colorThreshold) throws IllegalArgumentException {
+            if (maxLevel < 0 || maxLevel > MAX_SUPER_SAMPLING_LEVEL)
+                throw new IllegalArgumentException("the super sampling level must be between 0 and "
+                        + MAX_SUPER_SAMPLING_LEVEL);
+            if (colorThreshold < 0)
+                throw new IllegalArgumentException("the color threshold can't be negative");
+            camera.superSamplingLevel = maxLevel;
+            camera.colorThreshold = colorThreshold;
+            return this;
+        }
+
         /**
          * Builds and returns the Camera instance.
          *
@@ -271,6 +444,8 @@ public class Camera implements Cloneable {
                 throw new MissingResourceException("Missing data to render", "Camera", "imageWriter");
 
             camera.vRight = camera.vTo.crossProduct(camera.vUp);    //since the to and up vectors are normalized, we don't need to normalize the right vector
+            camera.rayGenerators = new ConcurrentHashMap<>();
+            camera.rayGenerator = null;
             return (Camera) camera.clone();
         }
     }
@@ -310,26 +485,232 @@ public class Camera implements Cloneable {
 
     /**
      * Renders the image by casting rays through each pixel and using the ray tracer to determine the color.
+     * The image is split into tiles, which are rendered either by the calling thread or concurrently
+     * by the rendering threads. The resulting image doesn't depend on the amount of threads or their scheduling.
      *
      * @throws MissingResourceException if the {@code imageWriter} or {@code rayTracer} is not initialized.
+     * @throws IllegalStateException    if the rendering was interrupted or failed in one of the threads.
      */
     public void renderImage() {
-        for (int row = 0; row < imageWriter.getNy(); ++row)
-            for (int col = 0; col < imageWriter.getNx(); ++col) {
-                castRay(imageWriter.getNx(), imageWriter.getNy(), col, row);
+        // calculate the pixels grid once, before the tiles are handed to the threads
+        RayGenerator generator = getRayGenerator(imageWriter.getNx(), imageWriter.getNy());
+        List<Tile> tiles = Tile.split(imageWriter.getNx(), imageWriter.getNy(), tileSize);
+        if (threadsCount == 0) {
+            for (Tile tile : tiles)
+                renderTile(generator, tile);
+            return;
+        }
+
+        if (scheduling == Scheduling.FORK_JOIN) {
+            ForkJoinPool pool = new ForkJoinPool(threadsCount);
+            try {
+                pool.invoke(tilesTask(generator, tiles, 0, tiles.size()));
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("Rendering failed", e);
+            } finally {
+                pool.shutdownNow();
             }
+            return;
+        }
+
+        List<Callable<Object>> tasks = new ArrayList<>(tiles.size());
+        if (scheduling == Scheduling.VIRTUAL) {
+            // the virtual threads wait for their turn, so only the amount of threads of tiles is rendered at once
+            Semaphore permits = new Semaphore(threadsCount);
+            for (Tile tile : tiles)
+                tasks.add(() -> {
+                    permits.acquire();
+                    try {
+                        renderTile(generator, tile);
+                    } finally {
+                        permits.release();
+                    }
+                    return null;
+                });
+        } else
+            for (Tile tile : tiles)
+                tasks.add(Executors.callable(() -> renderTile(generator, tile)));
+        ExecutorService executor = scheduling == Scheduling.VIRTUAL
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(threadsCount);
+        try {
+            for (Future<Object> future : executor.invokeAll(tasks))
+                future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rendering was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Rendering failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
     }
 
     /**
-     * Casts a ray through a specific pixel and writes the resulting color to the image.
+     * Creates a fork join task rendering a range of the tiles of the image - split in halves down to single tiles.
+     * The task is adapted from a lambda rather than subclassing {@code RecursiveAction}, which is serializable
+     * while the tiles and the ray generator are not.
      *
-     * @param Nx     the number of horizontal pixels.
-     * @param Ny     the number of vertical pixels.
-     * @param column the column of the pixel.
-     * @param row    the row of the pixel.
+     * @param generator the generator of the rays through the pixels
+     * @param tiles     the tiles of the image
+     * @param start     the index of the first tile of the range
+     * @param end       the index after the last tile of the range
+     * @return the task
      */
-    private void castRay(int Nx, int Ny, int column, int row) {
-        imageWriter.writePixel(column, row, rayTracer.traceRay(constructRay(Nx, Ny, column, row),imageWriter.getNumberOfSamples()));
+    private ForkJoinTask<?> tilesTask(RayGenerator generator, List<Tile> tiles, int start, int end) {
+        return ForkJoinTask.adapt(() -> {
+            if (end - start <= 1) {
+                for (int i = start; i < end; ++i)
+                    renderTile(generator, tiles.get(i));
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            ForkJoinTask.invokeAll(tilesTask(generator, tiles, start, middle), tilesTask(generator, tiles, middle, end));
+        });
+    }
+
+    /**
+     * Renders a single tile of the image.
+     * Every pixel is written to the image as soon as its color is calculated - the pixels of the tile
+     * are written by this thread only, so no synchronization with the other threads is needed.
+     *
+     * @param generator the generator of the rays through the pixels.
+     * @param tile      the tile to render.
+     */
+    private void renderTile(RayGenerator generator, Tile tile) {
+        if (superSamplingLevel == 0) {
+            for (int row = 0; row < tile.height; ++row)
+                for (int col = 0; col < tile.width; ++col)
+                    imageWriter.writePixel(tile.x + col, tile.y + row, castRay(generator, tile.x + col, tile.y + row));
+        } else {
+            SampleGrid grid = new SampleGrid(generator, tile);
+            int size = 1 << superSamplingLevel;
+            for (int row = 0; row < tile.height; ++row) {
+                if (row > 0)
+                    grid.nextRow();
+                for (int col = 0; col < tile.width; ++col)
+                    imageWriter.writePixel(tile.x + col, tile.y + row,
+                            castAdaptiveRay(grid, col * size, row * size, size));
+            }
+        }
+    }
+
+    /**
+     * Casts a ray through a specific pixel and calculates its color.
+     *
+     * @param generator the generator of the rays through the pixels.
+     * @param column    the column of the pixel.
+     * @param row       the row of the pixel.
+     * @return the color of the pixel.
+     */
+    private Color castRay(RayGenerator generator, int column, int row) {
+        return rayTracer.traceRay(generator.constructRay(column, row), imageWriter.getNumberOfSamples());
+    }
+
+    /**
+     * Calculates the color of a square of the view plane by adaptive super sampling - the average color of its
+     * corners if they are similar (or the square can't be split further), otherwise the average color of its
+     * four quarters, calculated the same way.
+     *
+     * @param grid the samples of the tile the square is in
+     * @param x    the column of the upper left corner of the square in the samples grid
+     * @param y    the row of the upper left corner of the square in the samples grid
+     * @param size the side length of the square in the samples grid
+     * @return the color of the square
+     */
+    private Color castAdaptiveRay(SampleGrid grid, int x, int y, int size) {
+        RaySample s00 = grid.get(x, y), s10 = grid.get(x + size, y);
+        RaySample s01 = grid.get(x, y + size), s11 = grid.get(x + size, y + size);
+        if (size == 1 || s00.isSimilar(s10, colorThreshold) && s00.isSimilar(s01, colorThreshold)
+                && s00.isSimilar(s11, colorThreshold))
+            return s00.color.add(s10.color, s01.color, s11.color).reduce(4);
+
+        int half = size / 2;
+        return castAdaptiveRay(grid, x, y, half)
+                .add(castAdaptiveRay(grid, x + half, y, half),
+                        castAdaptiveRay(grid, x, y + half, half),
+                        castAdaptiveRay(grid, x + half, y + half, half))
+                .reduce(4);
+    }
+
+    /**
+     * SampleGrid holds the samples traced through the points of the finest subdivision grid of a tile.
+     * The grid has {@code 2^superSamplingLevel} cells along each pixel side, and its points are traced only
+     * when they are first needed, so samples on the corners and edges shared by pixels (and sub-pixels)
+     * of the tile are traced once. The tiles are rendered independently, so the points on the border
+     * between two tiles are traced by both of them.
+     * <p>
+     * The pixels of the tile are rendered row after row, and the grid keeps only the grid rows of the current
+     * row of pixels, in a flat array - moving to the next row of pixels keeps the shared grid row between them.
+     * </p>
+     */
+    private class SampleGrid {
+        /**
+         * The tile covered by the grid
+         */
+        private final Tile tile;
+        /**
+         * The amount of grid cells along the side of a pixel
+         */
+        private final int size;
+        /**
+         * The amount of grid points in a row of the grid
+         */
+        private final int gridWidth;
+        /**
+         * The samples traced so far through the grid rows of the current row of pixels, row after row
+         */
+        private final RaySample[] samples;
+        /**
+         * The grid row of the first row of the samples
+         */
+        private int firstRow = 0;
+        /**
+         * The generator of the rays through the view plane
+         */
+        private final RayGenerator generator;
+
+        /**
+         * Constructs an empty samples grid of a tile, at its first row of pixels.
+         *
+         * @param generator the generator of the rays through the view plane
+         * @param tile      the tile
+         */
+        SampleGrid(RayGenerator generator, Tile tile) {
+            this.generator = generator;
+            this.tile = tile;
+            size = 1 << superSamplingLevel;
+            gridWidth = Math.addExact(Math.multiplyExact(tile.width, size), 1);
+            samples = new RaySample[Math.multiplyExact(size + 1, gridWidth)];
+        }
+
+        /**
+         * Moves the grid to the next row of pixels - the last grid row becomes the first one.
+         */
+        void nextRow() {
+            System.arraycopy(samples, size * gridWidth, samples, 0, gridWidth);
+            Arrays.fill(samples, gridWidth, samples.length, null);
+            firstRow += size;
+        }
+
+        /**
+         * Gets the sample traced through a grid point, tracing it if it wasn't traced yet.
+         *
+         * @param x the column of the point in the grid
+         * @param y the row of the point in the grid, in the current row of pixels
+         * @return the sample
+         */
+        RaySample get(int x, int y) {
+            int index = (y - firstRow) * gridWidth + x;
+            RaySample sample = samples[index];
+            if (sample == null) {
+                sample = rayTracer.traceSample(
+                        generator.constructRay(tile.x - 0.5 + (double) x / size, tile.y - 0.5 + (double) y / size),
+                        imageWriter.getNumberOfSamples());
+                samples[index] = sample;
+            }
+            return sample;
+        }
     }
 
 
@@ -0,0 +1,260 @@
+package renderer;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * FrameBuffer holds the high dynamic range colors of the pixels of an image - the red, green and blue
+ * components of every pixel in turn, row after row. Every pixel has its own place in the buffer,
+ * so threads writing different pixels need no synchronization.
+ * <p>
+ * The components are kept as floats - 12 bytes per pixel. Every image format is written with 32 bit floats
+ * at most, so doubles would only double the size of the buffer.
+ * </p>
+ * <p>
+ * A frame buffer is either kept in memory, or (for images too large for the heap) in a memory mapped
+ * temporary file, mapped in bands of whole rows, so only the bands being rendered or written to a file
+ * need to be in memory at once.
+ * </p>
+ *
+ * @author Shneor and Emanuel
+ */
+abstract class FrameBuffer {
+    /**
+     * The largest size of a band of rows of a mapped frame buffer
+     */
+    private static final int BAND_SIZE = 1 << 30;
+    /**
+     * The largest amount of components of a frame buffer kept in memory - the largest size of an array
+     */
+    private static final long MAX_COMPONENTS = Integer.MAX_VALUE - 8;
+
+    /**
+     * Horizontal resolution of the image
+     */
+    final int nX;
+    /**
+     * Vertical resolution of the image
+     */
+    final int nY;
+
+    /**
+     * Constructs a frame buffer.
+     *
+     * @param nX the horizontal resolution of the image
+     * @param nY the vertical resolution of the image
+     */
+    private FrameBuffer(int nX, int nY) {
+        this.nX = nX;
+        this.nY = nY;
+    }
+
+    /**
+     * Checks whether a frame buffer of an image fits in memory - in a single array, taking
+     * at most a quarter of the heap.
+     *
+     * @param nX the horizontal resolution of the image
+     * @param nY the vertical resolution of the image
+     * @return true if the frame buffer fits in memory
+     */
+    static boolean fitsInMemory(int nX, int nY) {
+        long components = 3L * nX * nY;
+        return components <= MAX_COMPONENTS
+                && components * Float.BYTES <= Runtime.getRuntime().maxMemory() / 4;
+    }
+
+    /**
+     * Creates a frame buffer kept in memory.
+     *
+     * @param nX the horizontal resolution of the image
+     * @param nY the vertical resolution of the image
+     * @return the frame buffer
+     * @throws IllegalArgumentException if the image has too many pixels for an array
+     */
+    static FrameBuffer inMemory(int nX, int nY) throws IllegalArgumentException {
+        return new Memory(nX, nY);
+    }
+
+    /**
+     * Creates a frame buffer kept in a memory mapped temporary file.
+     * The file is deleted right away - its space is released when the frame buffer is no longer used.
+     *
+     * @param nX the horizontal resolution of the image
+     * @param nY the vertical resolution of the image
+     * @return the frame buffer
+     * @throws IOException              if the temporary file can't be created or mapped
+     * @throws IllegalArgumentException if a row of the image is too large to be mapped
+     */
+    static FrameBuffer mapped(int nX, int nY) throws IOException, IllegalArgumentException {
+        return new Mapped(nX, nY);
+    }
+
+    /**
+     * Sets the color of a pixel.
+     *
+     * @param x the column of the pixel
+     * @param y the row of the pixel
+     * @param r the red component
+     * @param g the green component
+     * @param b the blue component
+     */
+    abstract void set(int x, int y, double r, double g, double b);
+
+    /**
+     * Adds a color to the color of a pixel.
+     *
+     * @param x the column of the pixel
+     * @param y the row of the pixel
+     * @param r the red component
+     * @param g the green component
+     * @param b the blue component
+     */
+    abstract void add(int x, int y, double r, double g, double b);
+
+    /**
+     * Gets a component of the color of a pixel.
+     *
+     * @param x         the column of the pixel
+     * @param y         the row of the pixel
+     * @param component the component - 0 for red, 1 for green and 2 for blue
+     * @return the component
+     */
+    abstract double get(int x, int y, int component);
+
+    /**
+     * Copies the components of the colors of a row of pixels.
+     *
+     * @param y   the row
+     * @param row the array receiving the components, of 3 components for every pixel of the row
+     */
+    abstract void getRow(int y, double[] row);
+
+    /**
+     * A frame buffer kept in an array.
+     */
+    private static final class Memory extends FrameBuffer {
+        /**
+         * The components of the colors of the pixels
+         */
+        private final float[] pixels;
+
+        /**
+         * Constructs a frame buffer kept in an array.
+         *
+         * @param nX the horizontal resolution of the image
+         * @param nY the vertical resolution of the image
+         * @throws IllegalArgumentException if the image has too many pixels for an array
+         */
+        Memory(int nX, int nY) throws IllegalArgumentException {
+            super(nX, nY);
+            long components = 3L * nX * nY;
+            if (components > MAX_COMPONENTS)
+                throw new IllegalArgumentException("the image of " + nX + "x" + nY
+                        + " pixels is too large to be kept in memory");
+            pixels = new float[(int) components];
+        }
+
+        @Override
+        void set(int x, int y, double r, double g, double b) {
+            int index = 3 * (y * nX + x);
+            pixels[index] = (float) r;
+            pixels[index + 1] = (float) g;
+            pixels[index + 2] = (float) b;
+        }
+
+        @Override
+        void add(int x, int y, double r, double g, double b) {
+            int index = 3 * (y * nX + x);
+            pixels[index] = (float) (pixels[index] + r);
+            pixels[index + 1] = (float) (pixels[index + 1] + g);
+            pixels[index + 2] = (float) (pixels[index + 2] + b);
+        }
+
+        @Override
+        double get(int x, int y, int component) {
+            return pixels[3 * (y * nX + x) + component];
+        }
+
+        @Override
+        void getRow(int y, double[] row) {
+            for (int index = 0, offset = 3 * y * nX; index < row.length; ++index)
+                row[index] = pixels[offset + index];
+        }
+    }
+
+    /**
+     * A frame buffer kept in a memory mapped file, in bands of whole rows.
+     */
+    private static final class Mapped extends FrameBuffer {
+        /**
+         * The amount of rows in a band
+         */
+        private final int bandRows;
+        /**
+         * The mappings of the bands
+         */
+        private final FloatBuffer[] bands;
+
+        /**
+         * Constructs a frame buffer kept in a memory mapped temporary file.
+         *
+         * @param nX the horizontal resolution of the image
+         * @param nY the vertical resolution of the image
+         * @throws IOException              if the temporary file can't be created or mapped
+         * @throws IllegalArgumentException if a row of the image is too large to be mapped
+         */
+        Mapped(int nX, int nY) throws IOException, IllegalArgumentException {
+            super(nX, nY);
+            long rowBytes = 3L * Float.BYTES * nX;
+            if (rowBytes > BAND_SIZE)
+                throw new IllegalArgumentException("a row of " + nX + " pixels is too large to be mapped");
+            bandRows = (int) Math.min(nY, BAND_SIZE / rowBytes);
+            bands = new FloatBuffer[(nY + bandRows - 1) / bandRows];
+            Path file = Files.createTempFile("frame", ".buffer");
+            // the mappings stay valid after the channel is closed, and the file is deleted with the channel
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE)) {
+                for (int band = 0; band < bands.length; ++band) {
+                    int rows = Math.min(bandRows, nY - band * bandRows);
+                    bands[band] = channel.map(FileChannel.MapMode.READ_WRITE, band * bandRows * rowBytes,
+                            rows * rowBytes).order(ByteOrder.nativeOrder()).asFloatBuffer();
+                }
+            }
+        }
+
+        @Override
+        void set(int x, int y, double r, double g, double b) {
+            FloatBuffer band = bands[y / bandRows];
+            int index = 3 * ((y % bandRows) * nX + x);
+            band.put(index, (float) r);
+            band.put(index + 1, (float) g);
+            band.put(index + 2, (float) b);
+        }
+
+        @Override
+        void add(int x, int y, double r, double g, double b) {
+            FloatBuffer band = bands[y / bandRows];
+            int index = 3 * ((y % bandRows) * nX + x);
+            band.put(index, (float) (band.get(index) + r));
+            band.put(index + 1, (float) (band.get(index + 1) + g));
+            band.put(index + 2, (float) (band.get(index + 2) + b));
+        }
+
+        @Override
+        double get(int x, int y, int component) {
+            return bands[y / bandRows].get(3 * ((y % bandRows) * nX + x) + component);
+        }
+
+        @Override
+        void getRow(int y, double[] row) {
+            FloatBuffer band = bands[y / bandRows];
+            for (int index = 0, offset = 3 * (y % bandRows) * nX; index < row.length; ++index)
+                row[index] = band.get(offset + index);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package renderer;
+
+import java.util.SplittableRandom;
+
+/**
+ * HaltonSampler generates the points of the two dimensional Halton sequence (radical inverses in the
+ * bases 2 and 3). The sequence is low-discrepancy: any prefix of it covers the unit square evenly,
+ * so the noise of an estimate drops faster with the amount of points than with random points.
+ * Different seeds shift the whole sequence toroidally (Cranley-Patterson rotation), which keeps its
+ * evenness while decorrelating neighboring pixels.
+ *
+ * @author Shneor and Emanuel
+ */
+public class HaltonSampler implements Sampler {
+
+    @Override
+    public double[] generate(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double shiftU = random.nextDouble(), shiftV = random.nextDouble();
+        double[] samples = new double[2 * count];
+        for (int i = 0; i < count; ++i) {
+            samples[2 * i] = wrap(radicalInverse(i, 2) + shiftU);
+            samples[2 * i + 1] = wrap(radicalInverse(i, 3) + shiftV);
+        }
+        return samples;
+    }
+
+    /**
+     * Calculates the radical inverse of an index - its digits in a base mirrored around the decimal point.
+     *
+     * @param index the index
+     * @param base  the base
+     * @return the radical inverse, in [0,1)
+     */
+    static double radicalInverse(int index, int base) {
+        double result = 0, fraction = 1.0 / base;
+        for (int i = index; i > 0; i /= base) {
+            result += (i % base) * fraction;
+            fraction /= base;
+        }
+        return result;
+    }
+
+    /**
+     * Wraps a coordinate shifted beyond 1 back into [0,1).
+     *
+     * @param value the coordinate, in [0,2)
+     * @return the coordinate modulo 1
+     */
+    static double wrap(double value) {
+        return value >= 1 ? value - 1 : value;
+    }
+}
@@ -1,20 +1,46 @@
 package renderer;
 
-import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.ObjIntConsumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.zip.Deflater;
 
-import javax.imageio.ImageIO;
 
 import primitives.Color;
+import primitives.Double3;
 
 /**
  * Image writer class combines accumulation of pixel color matrix and finally
  * producing a non-optimized jpeg image from this matrix. The class although is
  * responsible of holding image related parameters of View Plane - pixel matrix
  * size and resolution
+ * <p>
+ * The pixels are accumulated in a high dynamic range frame buffer of floats, which keeps the colors
+ * as they were calculated (beyond 255 as well) in the precision of the floating point image formats.
+ * The colors are limited and quantized only when the image is written. Every pixel has its own place in the buffer, so threads writing different pixels
+ * (like the threads rendering different tiles) need no synchronization at all.
+ * </p>
+ * <p>
+ * The frame buffer of a very large image (which doesn't fit in the heap) is kept out of core, in a memory
+ * mapped temporary file, and the image file is written from it row after row - so the memory taken by
+ * the image is bounded whatever its resolution.
+ * </p>
+ * <p>
+ * The image is written as PNG by default, or in another {@link Format} - raw 8 bit PPM, or the linear
+ * floating point PFM and OpenEXR formats which keep the high dynamic range colors for compositing.
+ * The raw formats are written straight to a file channel through a direct buffer. PNG files are
+ * encoded row after row by {@link PngEncoder}, in bands deflated concurrently by the encoding threads
+ * (see {@link #setMultithreading(int)}), with a configurable compression level.
+ * </p>
  *
  * @author Dan
  */
@@ -33,15 +59,35 @@ public class ImageWriter {
      * directory
      */
     private static final String FOLDER_PATH = System.getProperty("user.dir") + "/images";
+    /**
+     * The size of the buffer staging the rows of a raw image file
+     */
+    private static final int BUFFER_SIZE = 1 << 20;
+    /**
+     * The value of a color component which is 1.0 in the linear floating point formats
+     */
+    private static final double WHITE = 255;
 
     /**
-     * Image generation buffer (the matrix of the pixels)
+     * The high dynamic range frame buffer of the pixels
      */
-    private BufferedImage image;
+    private final FrameBuffer frame;
     /**
-     * image file name, not including the file extension '.png'
+     * image file name, not including the file extension
      */
     private String imageName;
+    /**
+     * The format of the image file
+     */
+    private Format format = Format.PNG;
+    /**
+     * The compression level of PNG files
+     */
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+    /**
+     * The amount of threads encoding PNG files, 0 means the file is encoded by the calling thread only
+     */
+    private int threadsCount = 0;
     /**
      * logger for reporting I/O failures
      */
@@ -62,11 +108,32 @@ public class ImageWriter {
      * @param nY        amount of pixels by height
      */
     public ImageWriter(String imageName, int nX, int nY) {
+        this(imageName, nX, nY, !FrameBuffer.fitsInMemory(nX, nY));
+    }
+
+    /**
+     * Image Writer constructor accepting image name and View Plane parameters,
+     * and whether the frame buffer is kept out of core (by default, only if it doesn't fit in the heap).
+     *
+     * @param imageName the name of the image file
+     * @param nX        amount of pixels by Width
+     * @param nY        amount of pixels by height
+     * @param outOfCore true to keep the frame buffer in a memory mapped temporary file
+     * @throws IllegalStateException    if the temporary file of the frame buffer can't be created
+     * @throws IllegalArgumentException if the image is too large for the frame buffer - in memory,
+     *                                  if it has more components than an array can hold
+     */
+    public ImageWriter(String imageName, int nX, int nY, boolean outOfCore) {
         this.imageName = imageName;
         this.nX = nX;
         this.nY = nY;
 
-        image = new BufferedImage(nX, nY, BufferedImage.TYPE_INT_RGB);
+        try {
+            frame = outOfCore ? FrameBuffer.mapped(nX, nY) : FrameBuffer.inMemory(nX, nY);
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "I/O error", e);
+            throw new IllegalStateException("I/O error - can't create the frame buffer file", e);
+        }
     }
 
     // ***************** Getters/Setters ********************** //
@@ -97,17 +164,93 @@ public class ImageWriter {
         this.numberOfSamples = numberOfSamples;
         return this;
     }
+
+    /**
+     * Gets the format of the image file.
+     *
+     * @return the format
+     */
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * Sets the format of the image file (PNG by default).
+     *
+     * @param format the format
+     * @return the image writer itself, for chaining
+     */
+    public ImageWriter setFormat(Format format) {
+        this.format = format;
+        return this;
+    }
+
+    /**
+     * Gets the compression level of PNG files.
+     *
+     * @return the compression level
+     */
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * Sets the compression level of PNG files - from 0 (no compression) to 9 (best compression),
+     * or -1 for the default level.
+     *
+     * @param level the compression level
+     * @return the image writer itself, for chaining
+     * @throws IllegalArgumentException if the level is not between -1 and 9
+     */
+    public ImageWriter setCompressionLevel(int level) {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION)
+            throw new IllegalArgumentException("the compression level must be between -1 and 9");
+        compressionLevel = level;
+        return this;
+    }
+
+    /**
+     * Gets the amount of threads encoding PNG files.
+     *
+     * @return the amount of threads, 0 if the files are encoded by the calling thread only
+     */
+    public int getMultithreading() {
+        return threadsCount;
+    }
+
+    /**
+     * Sets the amount of threads encoding PNG files. The rows of the image are split into bands,
+     * which are filtered and deflated concurrently by the threads. The file doesn't depend
+     * on the amount of threads.
+     *
+     * @param threads the amount of threads: 0 for encoding on the calling thread only,
+     *                -1 for all the available processors
+     * @return the image writer itself, for chaining
+     * @throws IllegalArgumentException if the amount of threads is lower than -1
+     */
+    public ImageWriter setMultithreading(int threads) {
+        if (threads < -1)
+            throw new IllegalArgumentException("the amount of threads can't be lower than -1");
+        threadsCount = threads == -1 ? Runtime.getRuntime().availableProcessors() : threads;
+        return this;
+    }
     // ***************** Operations ******************** //
 
     /**
-     * Function writeToImage produces unoptimized png file of the image according
+     * Function writeToImage produces png file of the image according
      * to
-     * pixel color matrix in the directory of the project
+     * pixel color matrix in the directory of the project (or a file of another format,
+     * see {@link #setFormat(Format)}, named with the extension of the format)
      */
     public void writeToImage() {
         try {
-            File file = new File(FOLDER_PATH + '/' + imageName + ".png");
-            ImageIO.write(image, "png", file);
+            File file = new File(FOLDER_PATH + '/' + imageName + '.' + format.getExtension());
+            switch (format) {
+                case PNG -> PngEncoder.write(file.toPath(), nX, nY, compressionLevel, threadsCount, this::quantizeRow);
+                case PPM -> writePpm(file.toPath());
+                case PFM -> writePfm(file.toPath());
+                case EXR -> writeExr(file.toPath());
+            }
         } catch (IOException e) {
             logger.log(Level.SEVERE, "I/O error", e);
             throw new IllegalStateException("I/O error - may be missing directory " + FOLDER_PATH, e);
@@ -123,8 +266,236 @@ public class ImageWriter {
      * @param color  final color of the pixel
      */
     public void writePixel(int xIndex, int yIndex, Color color) {
-        image.setRGB(xIndex, yIndex, color.getColor().getRGB());
+        Double3 rgb = color.getRgb();
+        frame.set(xIndex, yIndex, rgb.getD1(), rgb.getD2(), rgb.getD3());
     }
 
-}
+    /**
+     * Adds a color to the color of a specific pixel - for accumulating the samples of progressive
+     * rendering passes (each scaled by its weight). The pixel must not be written by another thread
+     * at the same time.
+     *
+     * @param xIndex X axis index of the pixel
+     * @param yIndex Y axis index of the pixel
+     * @param color  the color added to the pixel
+     */
+    public void addPixel(int xIndex, int yIndex, Color color) {
+        Double3 rgb = color.getRgb();
+        frame.add(xIndex, yIndex, rgb.getD1(), rgb.getD2(), rgb.getD3());
+    }
+
+    /**
+     * Gets the (unlimited) color of a specific pixel.
+     *
+     * @param xIndex X axis index of the pixel
+     * @param yIndex Y axis index of the pixel
+     * @return the color of the pixel
+     */
+    public Color getPixel(int xIndex, int yIndex) {
+        return new Color(frame.get(xIndex, yIndex, 0), frame.get(xIndex, yIndex, 1), frame.get(xIndex, yIndex, 2));
+    }
 
+    /**
+     * Quantizes a row of the frame buffer into 8 bit components, limiting and truncating every component
+     * as {@link Color#getColor()} does.
+     *
+     * @param bytes the array receiving the red, green and blue bytes of the pixels of the row
+     * @param y     the row
+     */
+    private void quantizeRow(byte[] bytes, int y) {
+        double[] row = new double[3 * nX];
+        frame.getRow(y, row);
+        for (int index = 0; index < row.length; ++index)
+            bytes[index] = (byte) quantize(row[index]);
+    }
+
+    /**
+     * Writes the image as a binary PPM (P6) file - 8 bits per component, quantized like a PNG image.
+     *
+     * @param file the file
+     * @throws IOException if the file can't be written
+     */
+    private void writePpm(Path file) throws IOException {
+        byte[] header = ("P6\n" + nX + " " + nY + "\n255\n").getBytes(StandardCharsets.US_ASCII);
+        byte[] bytes = new byte[3 * nX];
+        writeRaw(file, ByteOrder.BIG_ENDIAN, header, 3 * nX, (buffer, y) -> {
+            quantizeRow(bytes, y);
+            buffer.put(bytes);
+        });
+    }
+
+    /**
+     * Writes the image as a PFM file - little endian 32 bit floats, rows from the bottom up.
+     *
+     * @param file the file
+     * @throws IOException if the file can't be written
+     */
+    private void writePfm(Path file) throws IOException {
+        byte[] header = ("PF\n" + nX + " " + nY + "\n-1.0\n").getBytes(StandardCharsets.US_ASCII);
+        double[] row = new double[3 * nX];
+        writeRaw(file, ByteOrder.LITTLE_ENDIAN, header, 12 * nX, (buffer, y) -> {
+            frame.getRow(nY - 1 - y, row);
+            for (double component : row)
+                buffer.putFloat((float) (component / WHITE));
+        });
+    }
+
+    /**
+     * Writes the image as a single part OpenEXR file of uncompressed scan lines,
+     * with B, G and R channels of 16 bit (half) floats.
+     *
+     * @param file the file
+     * @throws IOException if the file can't be written
+     */
+    private void writeExr(Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(512 + 8 * nY).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(20000630).putInt(2);
+        exrAttribute(header, "channels", "chlist", 3 * 18 + 1);
+        for (String channel : new String[]{"B", "G", "R"})
+            header.put(channel.getBytes(StandardCharsets.US_ASCII)).put((byte) 0)
+                    .putInt(1).putInt(0).putInt(1).putInt(1); // half, not linear and reserved, sampling 1x1
+        header.put((byte) 0);
+        exrAttribute(header, "compression", "compression", 1);
+        header.put((byte) 0);
+        exrAttribute(header, "dataWindow", "box2i", 16);
+        header.putInt(0).putInt(0).putInt(nX - 1).putInt(nY - 1);
+        exrAttribute(header, "displayWindow", "box2i", 16);
+        header.putInt(0).putInt(0).putInt(nX - 1).putInt(nY - 1);
+        exrAttribute(header, "lineOrder", "lineOrder", 1);
+        header.put((byte) 0);
+        exrAttribute(header, "pixelAspectRatio", "float", 4);
+        header.putFloat(1);
+        exrAttribute(header, "screenWindowCenter", "v2f", 8);
+        header.putFloat(0).putFloat(0);
+        exrAttribute(header, "screenWindowWidth", "float", 4);
+        header.putFloat(1);
+        header.put((byte) 0);
+
+        // the offsets table - every scan line is a block of its y, its size and its data
+        int lineBytes = 6 * nX;
+        double[] row = new double[3 * nX];
+        long offset = header.position() + 8L * nY;
+        for (int y = 0; y < nY; ++y, offset += 8 + lineBytes)
+            header.putLong(offset);
+
+        writeRaw(file, ByteOrder.LITTLE_ENDIAN, Arrays.copyOf(header.array(), header.position()),
+                8 + lineBytes, (buffer, y) -> {
+                    frame.getRow(y, row);
+                    buffer.putInt(y).putInt(lineBytes);
+                    for (int channel = 2; channel >= 0; --channel)
+                        for (int index = channel; index < row.length; index += 3)
+                            buffer.putShort(Float.floatToFloat16((float) (row[index] / WHITE)));
+                });
+    }
+
+    /**
+     * Puts the name, the type and the size of an attribute into the header of an OpenEXR file.
+     *
+     * @param header the header
+     * @param name   the name of the attribute
+     * @param type   the type of the attribute
+     * @param size   the size of the value of the attribute
+     */
+    private static void exrAttribute(ByteBuffer header, String name, String type, int size) {
+        header.put(name.getBytes(StandardCharsets.US_ASCII)).put((byte) 0);
+        header.put(type.getBytes(StandardCharsets.US_ASCII)).put((byte) 0);
+        header.putInt(size);
+    }
+
+    /**
+     * Writes a raw image file - a header and then the rows of the image, staged in a direct buffer
+     * and written to the file channel whenever the buffer can't hold another row.
+     *
+     * @param file     the file
+     * @param order    the byte order of the file
+     * @param header   the header of the file
+     * @param rowBytes the size of a row in the file
+     * @param row      puts a row (by its index in the file) into the buffer
+     * @throws IOException if the file can't be written
+     */
+    private void writeRaw(Path file, ByteOrder order, byte[] header, int rowBytes, ObjIntConsumer<ByteBuffer> row)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(BUFFER_SIZE, Math.max(header.length, rowBytes)))
+                    .order(order);
+            buffer.put(header);
+            for (int y = 0; y < nY; ++y) {
+                if (buffer.remaining() < rowBytes)
+                    flush(channel, buffer);
+                row.accept(buffer, y);
+            }
+            flush(channel, buffer);
+        }
+    }
+
+    /**
+     * Writes the content of a buffer to a file channel and clears the buffer.
+     *
+     * @param channel the file channel
+     * @param buffer  the buffer
+     * @throws IOException if the file can't be written
+     */
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Quantizes a color component into 8 bits - truncated, and limited to 255 (and to 0).
+     *
+     * @param component the color component
+     * @return the quantized component
+     */
+    static int quantize(double component) {
+        return component >= 255 ? 255 : component > 0 ? (int) component : 0;
+    }
+
+
+    /**
+     * The formats of the image files
+     */
+    public enum Format {
+        /**
+         * PNG - 8 bits per component, limited to 255 and truncated
+         */
+        PNG("png"),
+        /**
+         * Binary portable pixmap (P6) - 8 bits per component, limited and truncated as PNG
+         */
+        PPM("ppm"),
+        /**
+         * Portable float map - linear 32 bit floats, unlimited, where 1.0 is a component of 255
+         */
+        PFM("pfm"),
+        /**
+         * OpenEXR - uncompressed scan lines of linear 16 bit (half) floats, scaled as PFM
+         */
+        EXR("exr");
+
+        /**
+         * The extension of the names of the files of the format
+         */
+        private final String extension;
+
+        /**
+         * Constructs a format.
+         *
+         * @param extension the extension of the names of the files of the format
+         */
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        /**
+         * Gets the extension of the names of the files of the format.
+         *
+         * @return the extension, without the dot
+         */
+        public String getExtension() {
+            return extension;
+        }
+    }
+}
@@ -0,0 +1,409 @@
+package renderer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.ObjIntConsumer;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * PngEncoder writes an 8 bit RGB PNG file row after row, as the rows are produced, so the whole image
+ * never has to be in memory - unlike {@link javax.imageio.ImageIO}, which encodes a complete image.
+ * Every row is filtered by the filter giving the lowest sum of absolute differences (as most encoders do).
+ * <p>
+ * The rows are split into bands, which are filtered and deflated independently - concurrently by
+ * the encoding threads. Every band but the last ends with a sync flush (so its deflated data ends on
+ * a byte boundary), and is deflated with the end of the filtered rows before it as a preset dictionary,
+ * so the concatenated bands form a single zlib stream, compressed almost as well as a stream deflated
+ * in one go. The Adler-32 checksum of the stream is combined from the checksums of the bands.
+ * The file depends on the compression level only - not on the amount of threads.
+ * </p>
+ *
+ * @author Shneor and Emanuel
+ */
+final class PngEncoder {
+    /**
+     * The signature every PNG file starts with
+     */
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    /**
+     * The largest size of the data of an IDAT chunk
+     */
+    private static final int CHUNK_SIZE = 1 << 18;
+    /**
+     * The amount of the filter types of PNG (none, sub, up, average and Paeth)
+     */
+    private static final int FILTERS = 5;
+    /**
+     * The least size of the filtered rows of a band
+     */
+    private static final int BAND_SIZE = 1 << 19;
+    /**
+     * The size of the window of deflate - the largest useful preset dictionary
+     */
+    private static final int DICTIONARY_SIZE = 1 << 15;
+    /**
+     * The modulus of Adler-32
+     */
+    private static final int ADLER_BASE = 65521;
+
+    /**
+     * No instances - the encoder has static methods only
+     */
+    private PngEncoder() {
+    }
+
+    /**
+     * Writes a PNG file.
+     *
+     * @param file    the file
+     * @param nX      the horizontal resolution of the image
+     * @param nY      the vertical resolution of the image
+     * @param level   the compression level - 0 to 9, or {@link Deflater#DEFAULT_COMPRESSION}
+     * @param threads the amount of encoding threads, 0 for encoding on the calling thread only
+     * @param rows    puts the red, green and blue bytes of a row (by its index) into an array of 3 bytes
+     *                for every pixel - called concurrently by the encoding threads
+     * @throws IOException           if the file can't be written
+     * @throws IllegalStateException if the encoding was interrupted or failed in one of the threads
+     */
+    static void write(Path file, int nX, int nY, int level, int threads, ObjIntConsumer<byte[]> rows)
+            throws IOException {
+        int bandRows = Math.max(1, BAND_SIZE / (3 * nX + 1));
+        int bands = (nY + bandRows - 1) / bandRows;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            write(channel, ByteBuffer.wrap(SIGNATURE));
+            ByteBuffer header = ByteBuffer.allocate(13);
+            header.putInt(nX).putInt(nY).put((byte) 8).put((byte) 2).put((byte) 0).put((byte) 0).put((byte) 0);
+            writeChunk(channel, "IHDR", header.array(), 13);
+
+            Chunks chunks = new Chunks(channel);
+            chunks.put(zlibHeader(level), 2);
+            long adler = 1;
+            ExecutorService executor = threads == 0 ? null : Executors.newFixedThreadPool(threads);
+            try {
+                // at most two bands per thread are encoded ahead of the band being written
+                Deque<Future<Band>> encoding = new ArrayDeque<>();
+                int submitted = 0;
+                for (int index = 0; index < bands; ++index) {
+                    Band band;
+                    if (executor == null)
+                        band = encode(nX, nY, bandRows, index, level, rows);
+                    else {
+                        for (; submitted < bands && submitted <= index + 2 * threads; ++submitted) {
+                            int next = submitted;
+                            encoding.add(executor.submit(() -> encode(nX, nY, bandRows, next, level, rows)));
+                        }
+                        band = encoding.remove().get();
+                    }
+                    chunks.put(band.data, band.length);
+                    adler = combine(adler, band.adler, band.filteredLength);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("PNG encoding was interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("PNG encoding failed", e.getCause());
+            } finally {
+                if (executor != null)
+                    executor.shutdownNow();
+            }
+            chunks.put(ByteBuffer.allocate(4).putInt((int) adler).array(), 4);
+            chunks.flush();
+            writeChunk(channel, "IEND", SIGNATURE, 0);
+        }
+    }
+
+    /**
+     * Filters and deflates a band of rows. The band is deflated with the filtered rows before it
+     * (filtered again by this band) as a preset dictionary, and ends with a sync flush - or,
+     * for the last band, with the end of the deflate stream.
+     *
+     * @param nX       the horizontal resolution of the image
+     * @param nY       the vertical resolution of the image
+     * @param bandRows the amount of rows in a band
+     * @param index    the index of the band
+     * @param level    the compression level
+     * @param rows     puts the bytes of a row into an array
+     * @return the deflated band
+     */
+    private static Band encode(int nX, int nY, int bandRows, int index, int level, ObjIntConsumer<byte[]> rows) {
+        int rowBytes = 3 * nX, stride = rowBytes + 1;
+        int first = index * bandRows, end = Math.min(nY, first + bandRows);
+        int dictionaryRows = Math.min(first, (DICTIONARY_SIZE + stride - 1) / stride);
+        int start = first - dictionaryRows;
+        byte[] previous = new byte[rowBytes], current = new byte[rowBytes];
+        byte[] filtered = new byte[FILTERS * stride];
+        byte[] dictionary = new byte[dictionaryRows * stride];
+        if (start > 0)
+            rows.accept(previous, start - 1);
+
+        Band band = new Band((end - first) * stride / 2 + 64);
+        Adler32 adler = new Adler32();
+        Deflater deflater = new Deflater(level, true);
+        try {
+            if (dictionaryRows > 0) {
+                for (int y = start; y < first; ++y) {
+                    rows.accept(current, y);
+                    int best = filter(current, previous, filtered, rowBytes);
+                    System.arraycopy(filtered, best * stride, dictionary, (y - start) * stride, stride);
+                    byte[] swap = previous;
+                    previous = current;
+                    current = swap;
+                }
+                int size = Math.min(dictionary.length, DICTIONARY_SIZE);
+                deflater.setDictionary(dictionary, dictionary.length - size, size);
+            }
+            for (int y = first; y < end; ++y) {
+                rows.accept(current, y);
+                int best = filter(current, previous, filtered, rowBytes);
+                deflater.setInput(filtered, best * stride, stride);
+                adler.update(filtered, best * stride, stride);
+                while (!deflater.needsInput())
+                    band.deflate(deflater, Deflater.NO_FLUSH);
+                byte[] swap = previous;
+                previous = current;
+                current = swap;
+            }
+            if (end == nY) {
+                deflater.finish();
+                while (!deflater.finished())
+                    band.deflate(deflater, Deflater.NO_FLUSH);
+            } else {
+                // the flush is complete once it leaves room in the output
+                do
+                    band.deflate(deflater, Deflater.SYNC_FLUSH);
+                while (band.length == band.data.length);
+            }
+        } finally {
+            deflater.end();
+        }
+        band.adler = adler.getValue();
+        band.filteredLength = (long) (end - first) * stride;
+        return band;
+    }
+
+    /**
+     * Creates the header of a zlib stream - deflate with a 32K window, and the compression level.
+     *
+     * @param level the compression level
+     * @return the two bytes of the header
+     */
+    private static byte[] zlibHeader(int level) {
+        int cmf = 0x78;
+        int flevel = level == Deflater.DEFAULT_COMPRESSION || level == 6 ? 2 : level < 2 ? 0 : level < 6 ? 1 : 3;
+        int flg = flevel << 6;
+        flg += 31 - (cmf << 8 | flg) % 31;
+        return new byte[]{(byte) cmf, (byte) flg};
+    }
+
+    /**
+     * Combines the Adler-32 checksums of two consecutive sequences of bytes into the checksum of
+     * the whole sequence (as zlib's adler32_combine does).
+     *
+     * @param adler1  the checksum of the first sequence
+     * @param adler2  the checksum of the second sequence
+     * @param length2 the length of the second sequence
+     * @return the checksum of the first sequence followed by the second
+     */
+    static long combine(long adler1, long adler2, long length2) {
+        long remainder = length2 % ADLER_BASE;
+        long sum1 = adler1 & 0xFFFF;
+        long sum2 = remainder * sum1 % ADLER_BASE;
+        sum1 += (adler2 & 0xFFFF) + ADLER_BASE - 1;
+        sum2 += (adler1 >> 16 & 0xFFFF) + (adler2 >> 16 & 0xFFFF) + ADLER_BASE - remainder;
+        if (sum1 >= ADLER_BASE)
+            sum1 -= ADLER_BASE;
+        if (sum1 >= ADLER_BASE)
+            sum1 -= ADLER_BASE;
+        if (sum2 >= 2L * ADLER_BASE)
+            sum2 -= 2L * ADLER_BASE;
+        if (sum2 >= ADLER_BASE)
+            sum2 -= ADLER_BASE;
+        return sum1 | sum2 << 16;
+    }
+
+    /**
+     * Filters a row by all the filter types, and chooses the filter of the lowest sum of absolute values.
+     *
+     * @param current  the bytes of the row
+     * @param previous the bytes of the previous row (zeros for the first row)
+     * @param filtered the filtered rows, each with its filter type byte first
+     * @param rowBytes the size of a row
+     * @return the chosen filter type
+     */
+    static int filter(byte[] current, byte[] previous, byte[] filtered, int rowBytes) {
+        int stride = rowBytes + 1;
+        for (int type = 0; type < FILTERS; ++type)
+            filtered[type * stride] = (byte) type;
+        long[] sums = new long[FILTERS];
+        for (int i = 0; i < rowBytes; ++i) {
+            int x = current[i] & 0xFF;
+            int a = i >= 3 ? current[i - 3] & 0xFF : 0;
+            int b = previous[i] & 0xFF;
+            int c = i >= 3 ? previous[i - 3] & 0xFF : 0;
+            int p = a + b - c, pa = Math.abs(p - a), pb = Math.abs(p - b), pc = Math.abs(p - c);
+            int paeth = pa <= pb && pa <= pc ? a : pb <= pc ? b : c;
+            byte none = (byte) x, sub = (byte) (x - a), up = (byte) (x - b);
+            byte average = (byte) (x - ((a + b) >> 1)), predicted = (byte) (x - paeth);
+            filtered[1 + i] = none;
+            filtered[stride + 1 + i] = sub;
+            filtered[2 * stride + 1 + i] = up;
+            filtered[3 * stride + 1 + i] = average;
+            filtered[4 * stride + 1 + i] = predicted;
+            sums[0] += Math.abs(none);
+            sums[1] += Math.abs(sub);
+            sums[2] += Math.abs(up);
+            sums[3] += Math.abs(average);
+            sums[4] += Math.abs(predicted);
+        }
+        int best = 0;
+        for (int type = 1; type < FILTERS; ++type)
+            if (sums[type] < sums[best])
+                best = type;
+        return best;
+    }
+
+    /**
+     * A deflated band of rows.
+     */
+    private static final class Band {
+        /**
+         * The deflated data of the band
+         */
+        private byte[] data;
+        /**
+         * The length of the deflated data
+         */
+        private int length;
+        /**
+         * The Adler-32 checksum of the filtered rows of the band
+         */
+        private long adler;
+        /**
+         * The length of the filtered rows of the band
+         */
+        private long filteredLength;
+
+        /**
+         * Constructs an empty band.
+         *
+         * @param capacity the initial capacity of the deflated data
+         */
+        Band(int capacity) {
+            data = new byte[capacity];
+        }
+
+        /**
+         * Deflates into the band once, growing its data if it is full.
+         *
+         * @param deflater the deflater
+         * @param flush    the flush mode
+         */
+        void deflate(Deflater deflater, int flush) {
+            if (length == data.length)
+                data = Arrays.copyOf(data, 2 * data.length);
+            length += deflater.deflate(data, length, data.length - length, flush);
+        }
+    }
+
+    /**
+     * The IDAT chunks of a file - collects the deflated data, and writes a chunk whenever it is full.
+     */
+    private static final class Chunks {
+        /**
+         * The channel of the file
+         */
+        private final FileChannel channel;
+        /**
+         * The data of the current chunk
+         */
+        private final byte[] chunk = new byte[CHUNK_SIZE];
+        /**
+         * The size of the data of the current chunk
+         */
+        private int size = 0;
+
+        /**
+         * Constructs the chunks of a file.
+         *
+         * @param channel the channel of the file
+         */
+        Chunks(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Adds data to the chunks.
+         *
+         * @param data   the data
+         * @param length the length of the data
+         * @throws IOException if the file can't be written
+         */
+        void put(byte[] data, int length) throws IOException {
+            for (int offset = 0; offset < length; ) {
+                int count = Math.min(length - offset, CHUNK_SIZE - size);
+                System.arraycopy(data, offset, chunk, size, count);
+                offset += count;
+                size += count;
+                if (size == CHUNK_SIZE)
+                    flush();
+            }
+        }
+
+        /**
+         * Writes the current chunk, if it has any data.
+         *
+         * @throws IOException if the file can't be written
+         */
+        void flush() throws IOException {
+            if (size > 0)
+                writeChunk(channel, "IDAT", chunk, size);
+            size = 0;
+        }
+    }
+
+    /**
+     * Writes a chunk - its length, its type, its data and the CRC of its type and data.
+     *
+     * @param channel the channel of the file
+     * @param type    the type of the chunk
+     * @param data    the data of the chunk
+     * @param length  the length of the data
+     * @throws IOException if the file can't be written
+     */
+    private static void writeChunk(FileChannel channel, String type, byte[] data, int length) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+        ByteBuffer prefix = ByteBuffer.allocate(8).putInt(length).put(typeBytes).flip();
+        write(channel, prefix);
+        write(channel, ByteBuffer.wrap(data, 0, length));
+        write(channel, ByteBuffer.allocate(4).putInt((int) crc.getValue()).flip());
+    }
+
+    /**
+     * Writes the whole content of a buffer to a file channel.
+     *
+     * @param channel the channel of the file
+     * @param buffer  the buffer
+     * @throws IOException if the file can't be written
+     */
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+}
@@ -0,0 +1,199 @@
+package renderer;
+
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import static primitives.Util.isZero;
+
+/**
+ * RayGenerator constructs the rays of a camera through the pixels of its view plane.
+ * The geometry of the pixels grid (view plane center, pixel size and the offset of every pixel column and row)
+ * is calculated once when the generator is created, so constructing a ray only sums a column offset and
+ * a row offset instead of recalculating the view plane and allocating the intermediate points and vectors.
+ * The direction is normalized in place, so a ray costs just the ray and its direction vector.
+ * <p>
+ * The generator is immutable, so a single generator may be shared by several rendering threads.
+ * </p>
+ *
+ * @author Shneor and Emanuel
+ * @see renderer.Camera
+ */
+public class RayGenerator {
+    /**
+     * The location of the camera - the head of all the rays
+     */
+    private final Point location;
+    /**
+     * The coordinates of the camera location
+     */
+    private final double lX, lY, lZ;
+    /**
+     * The coordinates of the view plane center
+     */
+    private final double cX, cY, cZ;
+    /**
+     * The coordinates of the camera "right" vector
+     */
+    private final double rX, rY, rZ;
+    /**
+     * The coordinates of the camera "up" vector
+     */
+    private final double uX, uY, uZ;
+    /**
+     * The amount of pixels in a row and in a column of the view plane
+     */
+    private final int nX, nY;
+    /**
+     * The width and the height of a pixel
+     */
+    private final double pixelWidth, pixelHeight;
+    /**
+     * The coordinates of the center of every pixel column in the horizontal line passing through the view
+     * plane center (the view plane center moved along the "right" vector)
+     */
+    private final double[] columnX, columnY, columnZ;
+    /**
+     * The displacement of every pixel row along the "up" vector
+     */
+    private final double[] rowX, rowY, rowZ;
+    /**
+     * Whether every pixel row is displaced from the view plane center at all
+     */
+    private final boolean[] rowDisplaced;
+
+    /**
+     * Constructs a generator of the rays of a camera through a view plane of a given resolution.
+     *
+     * @param camera the camera
+     * @param nX     the number of horizontal pixels
+     * @param nY     the number of vertical pixels
+     */
+    public RayGenerator(Camera camera, int nX, int nY) {
+        this.nX = nX;
+        this.nY = nY;
+        location = camera.getLocation();
+        lX = location.getX();
+        lY = location.getY();
+        lZ = location.getZ();
+
+        Point center = location.add(camera.getVTo().scale(camera.getDistance()));
+        cX = center.getX();
+        cY = center.getY();
+        cZ = center.getZ();
+
+        Vector vRight = camera.getVRight(), vUp = camera.getVUp();
+        rX = vRight.getX();
+        rY = vRight.getY();
+        rZ = vRight.getZ();
+        uX = vUp.getX();
+        uY = vUp.getY();
+        uZ = vUp.getZ();
+
+        pixelWidth = camera.getWidth() / nX;
+        pixelHeight = camera.getHeight() / nY;
+
+        columnX = new double[nX];
+        columnY = new double[nX];
+        columnZ = new double[nX];
+        for (int j = 0; j < nX; ++j) {
+            double xJ = xDisplacement(j);
+            boolean displaced = !isZero(xJ);
+            columnX[j] = displaced ? cX + rX * xJ : cX;
+            columnY[j] = displaced ? cY + rY * xJ : cY;
+            columnZ[j] = displaced ? cZ + rZ * xJ : cZ;
+        }
+
+        rowX = new double[nY];
+        rowY = new double[nY];
+        rowZ = new double[nY];
+        rowDisplaced = new boolean[nY];
+        for (int i = 0; i < nY; ++i) {
+            double yI = yDisplacement(i);
+            rowDisplaced[i] = !isZero(yI);
+            rowX[i] = uX * yI;
+            rowY[i] = uY * yI;
+            rowZ[i] = uZ * yI;
+        }
+    }
+
+    /**
+     * Gets the number of horizontal pixels.
+     *
+     * @return the number of horizontal pixels
+     */
+    public int getNx() {
+        return nX;
+    }
+
+    /**
+     * Gets the number of vertical pixels.
+     *
+     * @return the number of vertical pixels
+     */
+    public int getNy() {
+        return nY;
+    }
+
+    /**
+     * Calculates the displacement of a (possibly fractional) pixel column from the view plane center.
+     *
+     * @param column the column
+     * @return the displacement along the "right" vector
+     */
+    private double xDisplacement(double column) {
+        return (column - (double) (nX - 1) / 2) * pixelWidth;
+    }
+
+    /**
+     * Calculates the displacement of a (possibly fractional) pixel row from the view plane center.
+     *
+     * @param row the row
+     * @return the displacement along the "up" vector
+     */
+    private double yDisplacement(double row) {
+        return -(row - (double) (nY - 1) / 2) * pixelHeight;
+    }
+
+    /**
+     * Constructs the ray through the center of a pixel.
+     *
+     * @param column the pixel column
+     * @param row    the pixel row
+     * @return the ray from the camera location through the pixel center
+     */
+    public Ray constructRay(int column, int row) {
+        double x = columnX[column], y = columnY[column], z = columnZ[column];
+        if (rowDisplaced[row]) {
+            x += rowX[row];
+            y += rowY[row];
+            z += rowZ[row];
+        }
+        return new Ray(location, x - lX, y - lY, z - lZ);
+    }
+
+    /**
+     * Constructs the ray through any point of the view plane, given in pixel units -
+     * the point (j, i) is the center of the pixel in column j and row i, so for example (j - 0.5, i - 0.5)
+     * is the upper left corner of that pixel.
+     *
+     * @param column the (fractional) column of the point
+     * @param row    the (fractional) row of the point
+     * @return the ray from the camera location through the point
+     */
+    public Ray constructRay(double column, double row) {
+        double xJ = xDisplacement(column), yI = yDisplacement(row);
+        double x = cX, y = cY, z = cZ;
+        if (!isZero(xJ)) {
+            x += rX * xJ;
+            y += rY * xJ;
+            z += rZ * xJ;
+        }
+        if (!isZero(yI)) {
+            x += uX * yI;
+            y += uY * yI;
+            z += uZ * yI;
+        }
+        return new Ray(location, x - lX, y - lY, z - lZ);
+    }
+}
@@ -0,0 +1,45 @@
+package renderer;
+
+import geometries.Geometry;
+import primitives.Color;
+
+/**
+ * RaySample is the result of tracing a single ray - the color seen along the ray together with
+ * the geometry the ray hits first. Comparing the geometries of neighboring samples reveals edges
+ * which the colors alone may hide (e.g. two objects of the same color).
+ *
+ * @author Shneor and Emanuel
+ * @see renderer.RayTracerBase
+ */
+public class RaySample {
+    /**
+     * The color seen along the ray
+     */
+    public final Color color;
+    /**
+     * The geometry hit first by the ray, null if the ray doesn't hit any geometry (or if it is unknown)
+     */
+    public final Geometry geometry;
+
+    /**
+     * Constructs a sample of a traced ray.
+     *
+     * @param color    the color seen along the ray
+     * @param geometry the geometry hit first by the ray, or null
+     */
+    public RaySample(Color color, Geometry geometry) {
+        this.color = color;
+        this.geometry = geometry;
+    }
+
+    /**
+     * Checks whether another sample sees the same geometry in a similar color.
+     *
+     * @param other     the other sample
+     * @param threshold the maximal difference of a color component between similar samples
+     * @return true if the samples are similar, false otherwise
+     */
+    public boolean isSimilar(RaySample other, double threshold) {
+        return geometry == other.geometry && color.difference(other.color) <= threshold;
+    }
+}
@@ -37,4 +37,17 @@ public abstract class RayTracerBase {
      * @return the color seen along the ray.
      */
     public abstract Color traceRay(Ray ray,int numberOfSamples);
+
+    /**
+     * Traces a ray through the scene and determines both the color seen along the ray and the geometry it hits.
+     * The default implementation doesn't know the hit geometry and reports only the color; subclasses
+     * finding the hit geometry anyway should override it.
+     *
+     * @param ray             the ray to be traced.
+     * @param numberOfSamples the number of samples per row used for soft shadows.
+     * @return the sample of the ray.
+     */
+    public RaySample traceSample(Ray ray, int numberOfSamples) {
+        return new RaySample(traceRay(ray, numberOfSamples), null);
+    }
 }
@@ -0,0 +1,53 @@
+package renderer;
+
+/**
+ * The Sampler interface defines generators of sample points in the unit square, used for distributing
+ * rays over an area (e.g. over the disc of a light source for soft shadows).
+ * <p>
+ * A sampler keeps no state between calls: the points depend only on their amount and on a seed,
+ * so a sampler may be shared by several rendering threads, and seeding it by the pixel (or the shaded point)
+ * makes the rendered image reproducible regardless of the order the pixels are rendered in.
+ * </p>
+ *
+ * @author Shneor and Emanuel
+ * @see renderer.Board
+ */
+public interface Sampler {
+    /**
+     * Generates sample points in the unit square [0,1)x[0,1).
+     *
+     * @param count the amount of points
+     * @param seed  the seed of the randomization - the same seed always generates the same points
+     * @return the coordinates of the points, interleaved: u0, v0, u1, v1, ...
+     */
+    double[] generate(int count, long seed);
+
+    /**
+     * Maps sample points from the unit square onto the unit disc (of radius 1 around the origin) by the
+     * concentric mapping of Shirley and Chiu. Unlike rejecting the points outside the disc,
+     * every point is kept, and unlike the polar mapping, the mapping keeps the points well distributed.
+     *
+     * @param samples the interleaved coordinates of the points in the unit square,
+     *                replaced by the coordinates of the mapped points
+     * @return the same array, holding the points on the disc
+     */
+    static double[] toConcentricDisc(double[] samples) {
+        for (int i = 0; i < samples.length; i += 2) {
+            double a = 2 * samples[i] - 1, b = 2 * samples[i + 1] - 1;
+            double r, phi;
+            if (a == 0 && b == 0) {
+                r = 0;
+                phi = 0;
+            } else if (Math.abs(a) > Math.abs(b)) {
+                r = a;
+                phi = Math.PI / 4 * (b / a);
+            } else {
+                r = b;
+                phi = Math.PI / 2 - Math.PI / 4 * (a / b);
+            }
+            samples[i] = r * Math.cos(phi);
+            samples[i + 1] = r * Math.sin(phi);
+        }
+        return samples;
+    }
+}
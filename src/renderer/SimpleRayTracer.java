@@ -5,7 +5,8 @@ import lighting.LightSource;
 import primitives.*;
 import scene.Scene;
 
-import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static primitives.Util.alignZero;
 import static primitives.Util.isZero;
@@ -24,11 +25,6 @@ import static primitives.Util.isZero;
  */
 public class SimpleRayTracer extends RayTracerBase {
 
-    /**
-     * Initial attenuation factor for global effects.
-     */
-    private static final Double3 INITIAL_K = Double3.ONE;
-
     /**
      * Maximum recursion level for color calculations.
      */
@@ -39,6 +35,26 @@ public class SimpleRayTracer extends RayTracerBase {
      */
     private static final double MIN_CALC_COLOR_K = 0.001;
 
+    /**
+     * The sampler spreading the shadow rays over the area of a light source (for soft shadows).
+     */
+    private Sampler sampler = new StratifiedSampler();
+
+    /**
+     * Amount of different sample patterns of each size for soft shadows
+     */
+    private static final int DISC_PATTERN_VARIANTS = 16;
+
+    /**
+     * The sample patterns on the unit disc for soft shadows, by the amount of samples in a row
+     */
+    private final Map<Integer, double[][]> discPatterns = new ConcurrentHashMap<>();
+
+    /**
+     * The scratch space of every thread tracing rays with this tracer
+     */
+    private final ThreadLocal<Scratch> scratches = ThreadLocal.withInitial(Scratch::new);
+
     /**
      * Constructs a SimpleRayTracer with the specified scene.
      *
@@ -48,6 +64,18 @@ public class SimpleRayTracer extends RayTracerBase {
         super(scene);
     }
 
+    /**
+     * Sets the sampler spreading the shadow rays over the area of a light source (for soft shadows).
+     *
+     * @param sampler the sampler
+     * @return the ray tracer itself, for chaining
+     */
+    public SimpleRayTracer setSampler(Sampler sampler) {
+        this.sampler = sampler;
+        discPatterns.clear();
+        return this;
+    }
+
     /**
      * Traces a ray through the scene and determines the color at the point of intersection.
      * If no intersections are found, the background color is returned.
@@ -63,29 +91,49 @@ public class SimpleRayTracer extends RayTracerBase {
                 : calcColor(closestGeoPoint, ray,numberOfSamples);
     }
 
+    @Override
+    public RaySample traceSample(Ray ray, int numberOfSamples) {
+        GeoPoint closestGeoPoint = findClosestIntersection(ray);
+        return closestGeoPoint == null
+                ? new RaySample(scene.background, null)
+                : new RaySample(calcColor(closestGeoPoint, ray, numberOfSamples), closestGeoPoint.geometry);
+    }
+
     /**
      * Calculates the color at a given geometric point considering local and global effects.
+     * The color is summed in the scratch space of the current thread, so the only color created is the result.
      *
      * @param closestGeoPoint the closest geometric point where the ray intersects.
      * @param ray             the ray that caused the intersection.
      * @return the calculated color at the intersection point.
      */
     private Color calcColor(GeoPoint closestGeoPoint, Ray ray,int numberOFSamples) {
-        return calcColor(closestGeoPoint, ray, MAX_CALC_COLOR_LEVEL, INITIAL_K,numberOFSamples).add(scene.ambientLight.getIntensity());
+        Scratch color = scratches.get();
+        color.r = color.g = color.b = 0;
+        calcColor(closestGeoPoint, ray, MAX_CALC_COLOR_LEVEL, 1, 1, 1, numberOFSamples, color);
+        Double3 ambient = scene.ambientLight.getIntensity().getRgb();
+        return new Color(color.r + ambient.getD1(), color.g + ambient.getD2(), color.b + ambient.getD3());
     }
 
     /**
-     * Calculates the color at a given geometric point considering local and global effects.
+     * Calculates the color at a given geometric point considering local and global effects,
+     * and adds it to an accumulated color.
+     * The attenuation factor of a point is the product of the reflection/refraction factors along the path
+     * from the camera to it, so it is also the weight of the color of the point in the color of the pixel.
      *
      * @param gp    the geometric point.
      * @param ray   the ray that caused the intersection.
      * @param level the current recursion level.
-     * @param k     the attenuation factor.
-     * @return the calculated color at the intersection point.
+     * @param k1    the red attenuation factor.
+     * @param k2    the green attenuation factor.
+     * @param k3    the blue attenuation factor.
+     * @param color the accumulated color the weighted color of the point is added to.
      */
-    private Color calcColor(GeoPoint gp, Ray ray, int level, Double3 k,int numberOfSamples) {
-        Color color = calcLocalEffects(gp, ray, k, numberOfSamples);
-        return 1 == level ? color : color.add(calcGlobalEffects(gp, ray, level, k,numberOfSamples));
+    private void calcColor(GeoPoint gp, Ray ray, int level, double k1, double k2, double k3, int numberOfSamples,
+                           Scratch color) {
+        calcLocalEffects(gp, ray, k1, k2, k3, numberOfSamples, color);
+        if (1 != level)
+            calcGlobalEffects(gp, ray, level, k1, k2, k3, numberOfSamples, color);
     }
 
     /**
@@ -94,13 +142,33 @@ public class SimpleRayTracer extends RayTracerBase {
      * @param gp    the geometric point.
      * @param ray   the ray that caused the intersection.
      * @param level the current recursion level.
-     * @param k     the attenuation factor.
-     * @return the calculated color including global effects.
+     * @param k1    the red attenuation factor.
+     * @param k2    the green attenuation factor.
+     * @param k3    the blue attenuation factor.
+     * @param color the accumulated color the global effects are added to.
      */
-    private Color calcGlobalEffects(GeoPoint gp, Ray ray, int level, Double3 k,int numberOfSamples) {
+    private void calcGlobalEffects(GeoPoint gp, Ray ray, int level, double k1, double k2, double k3,
+                                   int numberOfSamples, Scratch color) {
         Material material = gp.geometry.getMaterial();
-        return calcGlobalEffect(constructRefractedRay(gp, ray), material.kT, level, k,numberOfSamples)
-                .add(calcGlobalEffect(constructReflectedRay(gp, ray), material.kR, level, k,numberOfSamples));
+        // the secondary rays are constructed only if their effect is not negligible
+        if (!isNegligible(material.kT, k1, k2, k3))
+            calcGlobalEffect(constructRefractedRay(gp, ray), material.kT, level, k1, k2, k3, numberOfSamples, color);
+        if (!isNegligible(material.kR, k1, k2, k3))
+            calcGlobalEffect(constructReflectedRay(gp, ray), material.kR, level, k1, k2, k3, numberOfSamples, color);
+    }
+
+    /**
+     * Checks whether the effect of a secondary ray is too weak to be calculated.
+     *
+     * @param kx the attenuation factor for the effect.
+     * @param k1 the red combined attenuation factor.
+     * @param k2 the green combined attenuation factor.
+     * @param k3 the blue combined attenuation factor.
+     * @return true if the total attenuation of all the components is below {@link #MIN_CALC_COLOR_K}
+     */
+    private static boolean isNegligible(Double3 kx, double k1, double k2, double k3) {
+        return kx.getD1() * k1 < MIN_CALC_COLOR_K && kx.getD2() * k2 < MIN_CALC_COLOR_K
+                && kx.getD3() * k3 < MIN_CALC_COLOR_K;
     }
 
     /**
@@ -109,15 +177,19 @@ public class SimpleRayTracer extends RayTracerBase {
      * @param ray   the reflected or refracted ray.
      * @param kx    the attenuation factor for the effect.
      * @param level the current recursion level.
-     * @param k     the combined attenuation factor.
-     * @return the calculated color for the global effect.
+     * @param k1    the red combined attenuation factor.
+     * @param k2    the green combined attenuation factor.
+     * @param k3    the blue combined attenuation factor.
+     * @param color the accumulated color the effect is added to.
      */
-    private Color calcGlobalEffect(Ray ray, Double3 kx, int level, Double3 k,int numberOfSamples) {
-        Double3 kkx = kx.product(k);
-        if (kkx.lowerThan(MIN_CALC_COLOR_K)) return Color.BLACK;
+    private void calcGlobalEffect(Ray ray, Double3 kx, int level, double k1, double k2, double k3,
+                                  int numberOfSamples, Scratch color) {
+        double kkx1 = kx.getD1() * k1, kkx2 = kx.getD2() * k2, kkx3 = kx.getD3() * k3;
         GeoPoint gp = findClosestIntersection(ray);
-        return (gp == null ? scene.background : calcColor(gp, ray, level - 1, kkx,numberOfSamples))
-                .scale(kx);
+        if (gp == null)
+            color.add(scene.background, kkx1, kkx2, kkx3);
+        else
+            calcColor(gp, ray, level - 1, kkx1, kkx2, kkx3, numberOfSamples, color);
     }
 
     /**
@@ -147,146 +219,313 @@ public class SimpleRayTracer extends RayTracerBase {
 
     /**
      * Finds the closest intersection point of a ray with the geometries in the scene.
+     * The geometries are queried for their closest intersection directly, without collecting all of them.
      *
      * @param ray the ray to be traced.
      * @return the closest intersection point, or null if no intersections are found.
      */
     private GeoPoint findClosestIntersection(Ray ray) {
-        return ray.findClosestGeoPoint(scene.geometries.findGeoIntersections(ray));
+        return scene.geometries.findClosestGeoIntersection(ray);
     }
 
     /**
-     * Calculates the local effects (diffuse and specular reflections) at a given point.
+     * Calculates the local effects (diffuse and specular reflections) at a given point,
+     * and adds them to an accumulated color.
+     * The direction and the transmittance of every light are kept in the scratch space holding the color,
+     * so the only objects created per light are the shadow rays and the intensity of the light.
      *
-     * @param gp  the geometric point at which the effects are calculated.
-     * @param ray the ray that caused the intersection.
-     * @param k   the attenuation factor.
-     * @return the color including local effects.
+     * @param gp    the geometric point at which the effects are calculated.
+     * @param ray   the ray that caused the intersection.
+     * @param k1    the red attenuation factor.
+     * @param k2    the green attenuation factor.
+     * @param k3    the blue attenuation factor.
+     * @param color the accumulated color the weighted local effects are added to.
      */
-    private Color calcLocalEffects(GeoPoint gp, Ray ray, Double3 k,int numberOfSamples) {
+    private void calcLocalEffects(GeoPoint gp, Ray ray, double k1, double k2, double k3, int numberOfSamples,
+                                  Scratch color) {
         Vector n = gp.getNormal();
         Vector v = ray.getDirection();
         double nv = alignZero(n.dotProduct(v));
         Material mat = gp.geometry.getMaterial();
-        Color color = gp.geometry.getEmission();
-        if (nv == 0) return color;
-        Color iL;
-        Vector l;
-        Double3 ktr;
-        for (LightSource lightSource : scene.lights) {
-            l = lightSource.getL(gp.point);
-            double nl = alignZero(n.dotProduct(l));
-            if (alignZero(nl * nv) > 0) { // sign(nl) == sign(nv)
-                ktr = transparency(gp, lightSource, l, n,numberOfSamples);
-                if (!ktr.product(k).lowerThan(MIN_CALC_COLOR_K)) {
-                    iL = lightSource.getIntensity(gp.point).scale(ktr);
-                    color = color.add(
-                            iL.scale(calcDiffusive(mat, nl)
-                                    .add(calcSpecular(mat, n, l, nl, v))));
+        Double3 emission = gp.geometry.getEmission().getRgb();
+        double r = emission.getD1(), g = emission.getD2(), b = emission.getD3();
+        if (nv != 0) {
+            for (LightSource lightSource : scene.lights) {
+                lightDirection(lightSource, gp.point, color);
+                double nl = alignZero(n.getX() * color.lx + n.getY() * color.ly + n.getZ() * color.lz);
+                if (alignZero(nl * nv) > 0) { // sign(nl) == sign(nv)
+                    transparency(gp, lightSource, n, numberOfSamples, color);
+                    double ktr1 = color.kt1, ktr2 = color.kt2, ktr3 = color.kt3;
+                    if (!(ktr1 * k1 < MIN_CALC_COLOR_K && ktr2 * k2 < MIN_CALC_COLOR_K && ktr3 * k3 < MIN_CALC_COLOR_K)) {
+                        Double3 iL = lightSource.getIntensity(gp.point).getRgb();
+                        double diffusive = Math.abs(nl);
+                        double specular = calcSpecular(mat, n, color.lx, color.ly, color.lz, nl, v);
+                        r += iL.getD1() * ktr1 * (mat.kD.getD1() * diffusive + mat.kS.getD1() * specular);
+                        g += iL.getD2() * ktr2 * (mat.kD.getD2() * diffusive + mat.kS.getD2() * specular);
+                        b += iL.getD3() * ktr3 * (mat.kD.getD3() * diffusive + mat.kS.getD3() * specular);
+                    }
                 }
             }
         }
-        return color;
+        color.r += k1 * r;
+        color.g += k2 * g;
+        color.b += k3 * b;
     }
 
-
+    /**
+     * Calculates the direction of a light source to a point into the scratch space.
+     * The direction of a light with a position is calculated from its position in place,
+     * the direction of other lights is taken from the light.
+     *
+     * @param light   the light source
+     * @param point   the lit point
+     * @param scratch the scratch space the normalized direction is written to
+     */
+    private static void lightDirection(LightSource light, Point point, Scratch scratch) {
+        Point position = light.getPosition();
+        double lx, ly, lz;
+        if (position == null || point.equals(position)) {
+            Vector l = light.getL(point);
+            lx = l.getX();
+            ly = l.getY();
+            lz = l.getZ();
+        } else {
+            lx = point.getX() - position.getX();
+            ly = point.getY() - position.getY();
+            lz = point.getZ() - position.getZ();
+            double length = Math.sqrt(lx * lx + ly * ly + lz * lz);
+            lx /= length;
+            ly /= length;
+            lz /= length;
+        }
+        scratch.lx = lx;
+        scratch.ly = ly;
+        scratch.lz = lz;
+    }
 
     /**
-     * calculates the transparency of a point getting light from a light source
+     * calculates the transparency of a point getting light from a light source, in the direction kept
+     * in the scratch space
      *
-     * @param gp    the point
-     * @param light the light source
-     * @param l     direction vector from light source to point
-     * @param n     normal vector of geometry from point
-     * @return the transparency of the point as Double3 (rgb)
+     * @param gp      the point
+     * @param light   the light source
+     * @param n       normal vector of geometry from point
+     * @param scratch the scratch space holding the direction from the light source to the point,
+     *                the transparency of the point is written to it
      */
-    private Double3 transparency(GeoPoint gp, LightSource light, Vector l, Vector n) {
-        //Vector lightDirection = l.scale(-1); // from point to light source
-        //double lightSourceDistance = light.getDistance(gp.point);
-        return getTransparencyFromPoint(gp.point, n, l.scale(-1), light.getDistance(gp.point));
+    private void transparency(GeoPoint gp, LightSource light, Vector n, Scratch scratch) {
+        scratch.setTransmittance(getTransparencyFromPoint(gp.point, n, -scratch.lx, -scratch.ly, -scratch.lz,
+                light.getDistance(gp.point)));
     }
 
     /**
-     * calculates the transparency and shadow from single point light source
+     * calculates the transparency and shadow from single point light source.
+     * The shadow ray stops at the first opaque blocker, or when the transparency drops below {@link #MIN_CALC_COLOR_K}
      *
      * @param point               the point
-     * @param light               direction vector from point to light source
      * @param n                   normal vector of geometry from point
+     * @param x                   the x coordinate of the direction from point to light source
+     * @param y                   the y coordinate of the direction from point to light source
+     * @param z                   the z coordinate of the direction from point to light source
      * @param lightSourceDistance distance from point to light source
      * @return the transparency of the point as Double3 (rgb)
      */
-    private Double3 getTransparencyFromPoint(Point point, Vector n, Vector light, double lightSourceDistance) {
-        
-        List<GeoPoint> intersections = scene.geometries.findGeoIntersections( new Ray(point, light, n), lightSourceDistance);
-
-        Double3 ktr = Double3.ONE;
-        if (intersections == null)
-            return ktr;
-
-        for (GeoPoint intersection : intersections) {
-            ktr = ktr.product(intersection.geometry.getMaterial().kT);
-        }
-        return ktr;
+    private Double3 getTransparencyFromPoint(Point point, Vector n, double x, double y, double z,
+                                             double lightSourceDistance) {
+        return scene.geometries.findTransmittance(new Ray(point, x, y, z, n), lightSourceDistance, MIN_CALC_COLOR_K);
     }
 
     /**
-     * calculates the transparency of a point getting light from a light source - when using soft shadow
+     * calculates the transparency of a point getting light from a light source - when using soft shadow.
+     * The shadow rays are spread over the disc of the light source (perpendicular to the light direction)
+     * by one of the cached sample patterns, transformed to the disc in place.
      *
      * @param gp              the point
      * @param lightSource     the light source
-     * @param l               direction vector from light source to point
      * @param n               normal vector of geometry from point
      * @param numberOfSamples amount of samples for super-sampling
-     * @return the transparency of the point as Double3 (rgb)
+     * @param scratch         the scratch space holding the direction from the light source to the point,
+     *                        the transparency of the point is written to it
      */
-    private Double3 transparency(GeoPoint gp, LightSource lightSource, Vector l, Vector n, int numberOfSamples) {
-        if (lightSource.getRadius() == 0||lightSource.getPosition()==null||numberOfSamples<=1)
-            return transparency(gp, lightSource, l, n);
-        Vector orthogonalV = l.createOrthogonal();
+    private void transparency(GeoPoint gp, LightSource lightSource, Vector n, int numberOfSamples, Scratch scratch) {
+        if (lightSource.getRadius() == 0||lightSource.getPosition()==null||numberOfSamples<=1) {
+            transparency(gp, lightSource, n, scratch);
+            return;
+        }
+        double[] pattern = discPattern(numberOfSamples, seedOf(gp.point));
+        if (scratch.lightPoints.length < pattern.length / 2 * 3)
+            scratch.lightPoints = new double[pattern.length / 2 * 3];
+        double[] points = scratch.lightPoints;
+        Point position = lightSource.getPosition();
+        lightDiscPoints(pattern, lightSource.getRadius(), scratch.lx, scratch.ly, scratch.lz,
+                position.getX() - gp.point.getX(), position.getY() - gp.point.getY(),
+                position.getZ() - gp.point.getZ(), points);
 
-        Board board = new Board(lightSource.getPosition(), orthogonalV, orthogonalV.crossProduct(l), lightSource.getRadius() * 2).setCircle(true);
         //calculate the average of the ktrs
-        List<Point> points = board.getPoints(numberOfSamples);
-        Double3 ktr = Double3.ZERO;
-        for (Point point : points) {
-           // lightDirection = point.subtract(gp.point).normalize();
-            ktr = ktr.add(getTransparencyFromPoint(gp.point, n, /*lightDirection*/ point.subtract(gp.point).normalize(), gp.point.distance(point)));
+        double ktr1 = 0, ktr2 = 0, ktr3 = 0;
+        for (int i = 0; i < pattern.length / 2 * 3; i += 3) {
+            double dx = points[i], dy = points[i + 1], dz = points[i + 2];
+            double distance = Math.sqrt(dx * dx + dy * dy + dz * dz);
+            Double3 ktr = getTransparencyFromPoint(gp.point, n, dx / distance, dy / distance, dz / distance, distance);
+            ktr1 += ktr.getD1();
+            ktr2 += ktr.getD2();
+            ktr3 += ktr.getD3();
+        }
+        int count = pattern.length / 2;
+        scratch.kt1 = ktr1 / count;
+        scratch.kt2 = ktr2 / count;
+        scratch.kt3 = ktr3 / count;
+    }
+
+    /**
+     * Transforms a pattern of samples on the unit disc to the disc of a light source, perpendicular to the
+     * direction of the light - the samples span the whole radius of the light.
+     *
+     * @param pattern the interleaved coordinates of the samples on the unit disc
+     * @param radius  the radius of the light source
+     * @param lx      the x coordinate of the (normalized) direction of the light
+     * @param ly      the y coordinate of the (normalized) direction of the light
+     * @param lz      the z coordinate of the (normalized) direction of the light
+     * @param cx      the x coordinate of the center of the light, relative to the shaded point
+     * @param cy      the y coordinate of the center of the light, relative to the shaded point
+     * @param cz      the z coordinate of the center of the light, relative to the shaded point
+     * @param points  the array receiving the x, y and z coordinates of the samples on the light,
+     *                relative to the shaded point
+     */
+    static void lightDiscPoints(double[] pattern, double radius, double lx, double ly, double lz,
+                                double cx, double cy, double cz, double[] points) {
+        // orthonormal basis of the light disc: "up" is orthogonal to l and "right" = up x l
+        double ux = 0, uy = 1, uz = 0;
+        if (!isZero(ly) || !isZero(lz)) {
+            double length = Math.sqrt(ly * ly + lz * lz);
+            uy = lz / length;
+            uz = -ly / length;
+        }
+        double rx = uy * lz - uz * ly, ry = uz * lx - ux * lz, rz = ux * ly - uy * lx;
+
+        for (int i = 0, j = 0; i < pattern.length; i += 2, j += 3) {
+            double x = pattern[i] * radius, y = pattern[i + 1] * radius;
+            points[j] = cx + rx * x + ux * y;
+            points[j + 1] = cy + ry * x + uy * y;
+            points[j + 2] = cz + rz * x + uz * y;
         }
-        return ktr.reduce(points.size());
     }
 
     /**
-     * Calculates the diffuse reflection component of the material.
+     * Gets a pattern of samples on the unit disc. The patterns of every amount of samples are generated once
+     * (in several variants, so neighboring points don't share the same pattern and the shadows don't band)
+     * and shared by all the points and all the light sources.
      *
-     * @param mat the material of the geometry.
-     * @param nl  the dot product of the normal and light direction vectors.
-     * @return the diffuse reflection component.
+     * @param numberOfSamples amount of samples in a row of the pattern
+     * @param seed            the seed of the point, choosing the variant
+     * @return the interleaved coordinates of the samples on the unit disc - must not be changed
      */
-    private Double3 calcDiffusive(Material mat, double nl) {
-        return mat.kD.scale(Math.abs(nl));
+    double[] discPattern(int numberOfSamples, long seed) {
+        double[][] variants = discPatterns.computeIfAbsent(numberOfSamples, count -> {
+            double[][] patterns = new double[DISC_PATTERN_VARIANTS][];
+            for (int i = 0; i < DISC_PATTERN_VARIANTS; ++i)
+                patterns[i] = Sampler.toConcentricDisc(sampler.generate(count * count, i));
+            return patterns;
+        });
+        return variants[(int) Math.floorMod(seed, (long) DISC_PATTERN_VARIANTS)];
     }
 
     /**
-     * Calculates the specular reflection component of the material.
+     * Calculates the seed of the shadow samples of a point - a hash of its coordinates, so the samples
+     * depend only on the shaded point and not on the order (or the thread) the pixels are rendered in.
+     *
+     * @param point the shaded point
+     * @return the seed
+     */
+    private static long seedOf(Point point) {
+        long hash = Double.doubleToLongBits(point.getX());
+        hash = hash * 31 + Double.doubleToLongBits(point.getY());
+        hash = hash * 31 + Double.doubleToLongBits(point.getZ());
+        // mix the bits, so all of them affect the low bits
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        return hash ^ (hash >>> 33);
+    }
+
+    /**
+     * Calculates the specular reflection factor of a light - the factor the specular reflection component
+     * of the material ({@code kS}) is scaled by.
+     * The reflected light direction is calculated in place, without creating the intermediate vectors.
      *
      * @param material the material of the geometry.
      * @param n        the normal vector at the point of intersection.
-     * @param l        the direction vector from the light source to the intersection point.
+     * @param lx       the x coordinate of the direction from the light source to the intersection point.
+     * @param ly       the y coordinate of the direction from the light source to the intersection point.
+     * @param lz       the z coordinate of the direction from the light source to the intersection point.
      * @param nl       the dot product of the normal and light direction vectors.
      * @param v        the direction vector of the ray.
-     * @return the specular reflection component.
+     * @return the specular reflection factor.
      */
-    private Double3 calcSpecular(Material material, Vector n, Vector l, double nl, Vector v) {
-        Double3 ks = material.kS;
-        double vr = alignZero(v.scale(-1).dotProduct(l.subtract(n.scale(2 * nl)).normalize()));
-        vr = (vr > 0) ? vr : 0; // Ensure vr is non-negative
-        if (vr <= 0) return Double3.ZERO; // No specular reflection in this case
+    private double calcSpecular(Material material, Vector n, double lx, double ly, double lz, double nl, Vector v) {
+        // r = l - 2 * (n . l) * n
+        double rx = lx - n.getX() * (2 * nl);
+        double ry = ly - n.getY() * (2 * nl);
+        double rz = lz - n.getZ() * (2 * nl);
+        double length = Math.sqrt(rx * rx + ry * ry + rz * rz);
+        double vr = alignZero((rx / length) * -v.getX() + (ry / length) * -v.getY() + (rz / length) * -v.getZ());
+        if (!(vr > 0)) return 0; // No specular reflection in this case
 
         double result = 1.0;
         for (int i = 0; i < material.nShininess; i++) {
             result *= vr;
         }
+        return result;
+    }
 
-        return ks.scale(result);
+    /**
+     * Scratch space of a traced ray: the color summed component by component while the ray is traced,
+     * and the direction and the transmittance of the light being shaded.
+     * Every rendering thread has its own scratch space (see {@link #scratches}).
+     */
+    private static final class Scratch {
+        /**
+         * The red, green and blue components summed so far
+         */
+        double r, g, b;
+
+        /**
+         * The normalized direction from the light being shaded to the shaded point
+         */
+        double lx, ly, lz;
+
+        /**
+         * The red, green and blue transmittance of the light being shaded to the shaded point
+         */
+        double kt1, kt2, kt3;
+
+        /**
+         * The coordinates of the soft shadow samples on the light being shaded, relative to the shaded point
+         */
+        double[] lightPoints = new double[0];
+
+        /**
+         * Sets the transmittance of the light being shaded.
+         *
+         * @param ktr the transmittance
+         */
+        void setTransmittance(Double3 ktr) {
+            kt1 = ktr.getD1();
+            kt2 = ktr.getD2();
+            kt3 = ktr.getD3();
+        }
+
+        /**
+         * Adds a color scaled by an attenuation factor.
+         *
+         * @param color the color
+         * @param k1    the red factor
+         * @param k2    the green factor
+         * @param k3    the blue factor
+         */
+        void add(Color color, double k1, double k2, double k3) {
+            Double3 rgb = color.getRgb();
+            r += k1 * rgb.getD1();
+            g += k2 * rgb.getD2();
+            b += k3 * rgb.getD3();
+        }
     }
 }
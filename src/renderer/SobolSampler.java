@@ -0,0 +1,56 @@
+package renderer;
+
+import java.util.SplittableRandom;
+
+/**
+ * SobolSampler generates the points of the first two dimensions of the Sobol sequence - a (0,2)-sequence
+ * in base 2: every 2^m consecutive aligned points have exactly one point in each of the 2^m equal rectangles
+ * of any shape the unit square can be split into by powers of two. For amounts of points which are powers
+ * of two it is the best distributed of the samplers.
+ * Different seeds scramble the points by a random digital shift (a random bit pattern xor-ed into
+ * every coordinate), which keeps their stratification.
+ *
+ * @author Shneor and Emanuel
+ */
+public class SobolSampler implements Sampler {
+    /**
+     * 2^-32, converts 32 bits fixed point fractions to doubles
+     */
+    private static final double FIXED_POINT_SCALE = 1.0 / (1L << 32);
+
+    @Override
+    public double[] generate(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int shiftU = random.nextInt(), shiftV = random.nextInt();
+        double[] samples = new double[2 * count];
+        for (int i = 0; i < count; ++i) {
+            samples[2 * i] = toUnit(Integer.reverse(i) ^ shiftU);
+            samples[2 * i + 1] = toUnit(sobol2(i) ^ shiftV);
+        }
+        return samples;
+    }
+
+    /**
+     * Calculates the second dimension of the Sobol sequence (its first dimension is the bits reversed index).
+     *
+     * @param index the index of the point
+     * @return the coordinate as 32 bits fixed point fraction
+     */
+    private static int sobol2(int index) {
+        int result = 0;
+        for (int v = 1 << 31; index != 0; index >>>= 1, v ^= v >>> 1)
+            if ((index & 1) != 0)
+                result ^= v;
+        return result;
+    }
+
+    /**
+     * Converts a 32 bits fixed point fraction to a double in [0,1).
+     *
+     * @param bits the fraction bits
+     * @return the fraction
+     */
+    private static double toUnit(int bits) {
+        return (bits & 0xFFFFFFFFL) * FIXED_POINT_SCALE;
+    }
+}
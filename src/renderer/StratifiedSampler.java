@@ -0,0 +1,48 @@
+package renderer;
+
+import java.util.SplittableRandom;
+
+/**
+ * StratifiedSampler generates jittered grid samples - the unit square is split into a grid of cells
+ * (strata) and a single random point is taken in every cell, so the points can't clump together.
+ * If the amount of points is not a square number, the grid gets the smallest amount of columns which
+ * is enough and the last row is partially filled.
+ *
+ * @author Shneor and Emanuel
+ */
+public class StratifiedSampler implements Sampler {
+    /**
+     * Whether the points are jittered inside their cells, or placed at the cells centers
+     */
+    private final boolean jitter;
+
+    /**
+     * Constructs a sampler of jittered stratified points.
+     */
+    public StratifiedSampler() {
+        this(true);
+    }
+
+    /**
+     * Constructs a stratified sampler.
+     *
+     * @param jitter true for a random point in every cell, false for the cells centers (a regular grid)
+     */
+    public StratifiedSampler(boolean jitter) {
+        this.jitter = jitter;
+    }
+
+    @Override
+    public double[] generate(int count, long seed) {
+        int columns = (int) Math.ceil(Math.sqrt(count));
+        int rows = (count + columns - 1) / Math.max(columns, 1);
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] samples = new double[2 * count];
+        for (int i = 0; i < count; ++i) {
+            int row = i / columns, column = i % columns;
+            samples[2 * i] = (column + (jitter ? random.nextDouble() : 0.5)) / columns;
+            samples[2 * i + 1] = (row + (jitter ? random.nextDouble() : 0.5)) / rows;
+        }
+        return samples;
+    }
+}
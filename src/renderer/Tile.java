@@ -0,0 +1,67 @@
+package renderer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tile represents a rectangular block of pixels of the image.
+ * The image is split into tiles so that the rendering work can be handed to several
+ * workers, each tile being rendered as a whole by a single worker.
+ *
+ * @author Shneor and Emanuel
+ */
+final class Tile {
+    /**
+     * The column of the upper left pixel of the tile
+     */
+    final int x;
+    /**
+     * The row of the upper left pixel of the tile
+     */
+    final int y;
+    /**
+     * The amount of pixel columns in the tile
+     */
+    final int width;
+    /**
+     * The amount of pixel rows in the tile
+     */
+    final int height;
+
+    /**
+     * Constructs a tile starting at the given pixel with the given size.
+     *
+     * @param x      the column of the upper left pixel
+     * @param y      the row of the upper left pixel
+     * @param width  the amount of pixel columns
+     * @param height the amount of pixel rows
+     */
+    Tile(int x, int y, int width, int height) {
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Splits an image into square tiles ordered row by row (left to right, top to bottom).
+     * The tiles on the right and bottom borders are cut to the size of the image.
+     *
+     * @param nX       the amount of horizontal pixels of the image
+     * @param nY       the amount of vertical pixels of the image
+     * @param tileSize the side length of a tile in pixels
+     * @return the list of the tiles covering the whole image
+     */
+    static List<Tile> split(int nX, int nY, int tileSize) {
+        List<Tile> tiles = new ArrayList<>(((nX + tileSize - 1) / tileSize) * ((nY + tileSize - 1) / tileSize));
+        for (int y = 0; y < nY; y += tileSize)
+            for (int x = 0; x < nX; x += tileSize)
+                tiles.add(new Tile(x, y, Math.min(tileSize, nX - x), Math.min(tileSize, nY - y)));
+        return tiles;
+    }
+
+    @Override
+    public String toString() {
+        return "Tile{x=" + x + ", y=" + y + ", width=" + width + ", height=" + height + '}';
+    }
+}
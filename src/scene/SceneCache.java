@@ -0,0 +1,786 @@
+package scene;
+
+import geometries.*;
+import lighting.AmbientLight;
+import lighting.DirectionalLight;
+import lighting.LightSource;
+import lighting.PointLight;
+import lighting.SpotLight;
+import primitives.Color;
+import primitives.Double3;
+import primitives.Material;
+import primitives.Point;
+import primitives.Vector;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * SceneCache keeps the scenes built from XML files in a compact binary format, so a scene is built from
+ * its XML file (and its model files) only once, and every later load of the same scene just maps the cache
+ * file into memory and copies its arrays out in bulk.
+ * <p>
+ * A cache file is named by a SHA-256 hash of the content of the XML file together with the path, the size and
+ * the modification time of every file it refers to, so changing the scene or one of its models makes a new
+ * cache file. The cache holds the geometries (with their materials and emissions), the lights, and the bounding
+ * volume hierarchy of the scene node by node, with the meshes and their own prebuilt hierarchies as its leaves -
+ * so a cached scene is ready to render without building any hierarchy again. Scenes with other kinds of
+ * geometries or lights are not cached.
+ * </p>
+ *
+ * @author Shneor and Emanuel
+ */
+public class SceneCache {
+    /**
+     * The first bytes of every cache file ("RTSC" in little endian)
+     */
+    private static final int MAGIC = 0x43535452;
+    /**
+     * The version of the format of the cache files, changed with every change of the format
+     */
+    private static final int VERSION = 3;
+    /**
+     * The extension of the names of the cache files
+     */
+    private static final String EXTENSION = ".scene";
+    /**
+     * The size of the buffer staging the data written to a cache file
+     */
+    private static final int BUFFER_SIZE = 1 << 20;
+    /**
+     * The largest part of a cache file mapped at once
+     */
+    private static final int WINDOW_SIZE = 1 << 30;
+    /**
+     * The attributes of an XML file referring to other files
+     */
+    private static final Pattern FILE_ATTRIBUTE = Pattern.compile("\\bfile\\s*=\\s*\"([^\"]*)\"");
+
+    /**
+     * Kinds of the geometries in a cache file - and of the nodes of the hierarchy holding them
+     */
+    private static final byte SPHERE = 1, TRIANGLE = 2, POLYGON = 3, MESH = 4, PLANE = 5, NODE = 6;
+    /**
+     * Kinds of the lights in a cache file
+     */
+    private static final byte DIRECTIONAL_LIGHT = 1, POINT_LIGHT = 2, SPOT_LIGHT = 3;
+
+    /**
+     * The directory of the cache files
+     */
+    private final Path directory;
+
+    /**
+     * Constructs a cache of scenes kept in a directory. The directory is created when the first scene is cached.
+     *
+     * @param directory the directory of the cache files
+     */
+    public SceneCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Loads a scene - from its cache file if it was cached already, otherwise from its XML file
+     * (see {@link SceneBuilder#buildSceneFromXml(String)}), caching it for the next loads.
+     * A cache file which can't be read (like a file of an older format) is replaced.
+     *
+     * @param fileName the name of the XML file of the scene
+     * @return the scene
+     * @throws IOException if the XML file or the cache can't be read or the cache can't be written
+     */
+    public Scene load(String fileName) throws IOException {
+        Path file = directory.resolve(key(Path.of(fileName)) + EXTENSION);
+        if (Files.isRegularFile(file)) {
+            try {
+                return read(file);
+            } catch (IllegalArgumentException ignored) {
+                // a broken or outdated cache file - build the scene again
+            }
+        }
+
+        Scene scene = SceneBuilder.buildSceneFromXml(fileName);
+        if (!cacheable(scene))
+            return scene;
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, "scene", ".tmp");
+        try {
+            write(scene, temporary);
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return scene;
+    }
+
+    /**
+     * Calculates the key of a scene - the hash its cache file is named by.
+     *
+     * @param xml the XML file of the scene
+     * @return the key, in hexadecimal digits
+     * @throws IOException if the XML file can't be read
+     */
+    static String key(Path xml) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+        ByteBuffer number = ByteBuffer.allocate(Long.BYTES);
+        digest.update(number.putLong(0, VERSION));
+        byte[] content = Files.readAllBytes(xml);
+        digest.update(content);
+
+        Path parent = xml.toAbsolutePath().getParent();
+        Matcher matcher = FILE_ATTRIBUTE.matcher(new String(content, StandardCharsets.UTF_8));
+        while (matcher.find()) {
+            Path file = parent.resolve(matcher.group(1));
+            digest.update(file.toString().getBytes(StandardCharsets.UTF_8));
+            boolean exists = Files.exists(file);
+            digest.update(number.clear().putLong(0, exists ? Files.size(file) : -1));
+            digest.update(number.clear().putLong(0, exists ? Files.getLastModifiedTime(file).toMillis() : -1));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Checks whether a scene can be cached - whether all its geometries and lights are of the cached kinds.
+     *
+     * @param scene the scene
+     * @return true if the scene can be cached
+     */
+    private static boolean cacheable(Scene scene) {
+        for (LightSource light : scene.lights) {
+            Class<?> type = light.getClass();
+            if (type != DirectionalLight.class && type != PointLight.class && type != SpotLight.class)
+                return false;
+        }
+        return cacheable(scene.geometries);
+    }
+
+    /**
+     * Checks whether a geometry (or a collection of geometries, recursively) can be cached.
+     *
+     * @param intersectable the geometry
+     * @return true if the geometry can be cached
+     */
+    private static boolean cacheable(Intersectable intersectable) {
+        Class<?> type = intersectable.getClass();
+        if (type == Geometries.class) {
+            for (Intersectable child : ((Geometries) intersectable).getIntersectables())
+                if (!cacheable(child))
+                    return false;
+            return true;
+        }
+        return type == Sphere.class || type == Triangle.class || type == Polygon.class || type == Plane.class
+                || type == TriangleMesh.class;
+    }
+
+    /**
+     * Collects the items of a collection kept in a cache file - its geometries and hierarchy nodes,
+     * taken out of the general collections nested in it.
+     *
+     * @param collection the collection
+     * @param items      the list the items are added to
+     */
+    private static void collect(Geometries collection, List<Intersectable> items) {
+        for (Intersectable intersectable : collection.getIntersectables()) {
+            if (intersectable instanceof Geometries geometries && !geometries.isNode())
+                collect(geometries, items);
+            else
+                items.add(intersectable);
+        }
+    }
+
+    /**
+     * Writes a scene to a cache file.
+     *
+     * @param scene the scene
+     * @param file  the cache file
+     * @throws IOException if the file can't be written
+     */
+    private static void write(Scene scene, Path file) throws IOException {
+        try (Output output = new Output(file)) {
+            output.putInt(MAGIC);
+            output.putInt(VERSION);
+            output.putString(scene.name);
+            output.putColor(scene.background);
+            output.putColor(scene.ambientLight.getIntensity());
+
+            putItems(output, scene.geometries);
+
+            output.putInt(scene.lights.size());
+            for (LightSource light : scene.lights) {
+                if (light instanceof DirectionalLight directional) {
+                    output.putByte(DIRECTIONAL_LIGHT);
+                    output.putColor(directional.getIntensity());
+                    output.putPoint(directional.getDirection());
+                    continue;
+                }
+                PointLight point = (PointLight) light;
+                output.putByte(point instanceof SpotLight ? SPOT_LIGHT : POINT_LIGHT);
+                output.putColor(point.getIntensity());
+                output.putPoint(point.getPosition());
+                output.putDouble(point.getKC());
+                output.putDouble(point.getKL());
+                output.putDouble(point.getKQ());
+                output.putDouble(point.getRadius());
+                if (point instanceof SpotLight spot) {
+                    output.putPoint(spot.getDirection());
+                    output.putInt(spot.getNarrowBeam());
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the items of a collection - its geometries, and its hierarchy nodes with their items recursively.
+     *
+     * @param output     the cache file
+     * @param collection the collection
+     * @throws IOException if the file can't be written
+     */
+    private static void putItems(Output output, Geometries collection) throws IOException {
+        List<Intersectable> items = new ArrayList<>();
+        collect(collection, items);
+        output.putInt(items.size());
+        for (Intersectable item : items) {
+            if (item instanceof Geometries node) {
+                output.putByte(NODE);
+                BoundingBox box = node.getBoundingBox();
+                for (int axis = 0; axis < 3; ++axis)
+                    output.putDouble(box.getMin(axis));
+                for (int axis = 0; axis < 3; ++axis)
+                    output.putDouble(box.getMax(axis));
+                putItems(output, node);
+                continue;
+            }
+            Geometry geometry = (Geometry) item;
+            if (geometry instanceof Sphere sphere) {
+                output.putByte(SPHERE);
+                output.putDouble(sphere.getRadius());
+                output.putPoint(sphere.getCenter());
+            } else if (geometry instanceof Polygon polygon) {
+                output.putByte(polygon instanceof Triangle ? TRIANGLE : POLYGON);
+                output.putInt(polygon.getVertices().size());
+                for (Point vertex : polygon.getVertices())
+                    output.putPoint(vertex);
+            } else if (geometry instanceof Plane plane) {
+                output.putByte(PLANE);
+                output.putPoint(plane.getQ());
+                output.putPoint(plane.getNormal());
+            } else {
+                TriangleMesh.Data data = ((TriangleMesh) geometry).getData();
+                output.putByte(MESH);
+                output.putDoubles(data.positions);
+                output.putDoubles(data.normals);
+                output.putInts(data.indices);
+                output.putDoubles(data.nodeBounds);
+                output.putInts(data.nodeStart);
+                output.putInts(data.nodeCount);
+            }
+            output.putColor(geometry.getEmission());
+            Material material = geometry.getMaterial();
+            output.putDouble3(material.kD);
+            output.putDouble3(material.kS);
+            output.putDouble3(material.kT);
+            output.putDouble3(material.kR);
+            output.putInt(material.nShininess);
+        }
+    }
+
+    /**
+     * Reads a scene from a cache file.
+     *
+     * @param file the cache file
+     * @return the scene
+     * @throws IOException              if the file can't be read
+     * @throws IllegalArgumentException if the file is not a valid cache file of the current format
+     */
+    static Scene read(Path file) throws IOException, IllegalArgumentException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Input input = new Input(channel);
+            if (input.getInt() != MAGIC || input.getInt() != VERSION)
+                throw new IllegalArgumentException("not a scene cache file of version " + VERSION);
+            Scene scene = new Scene(input.getString());
+            scene.setBackground(input.getColor());
+            scene.setAmbientLight(new AmbientLight(input.getColor(), Double3.ONE));
+
+            scene.setGeometries(new Geometries(getItems(input).toArray(new Intersectable[0])));
+
+            int lightsCount = input.getCount();
+            for (int i = 0; i < lightsCount; ++i) {
+                byte kind = input.getByte();
+                Color intensity = input.getColor();
+                if (kind == DIRECTIONAL_LIGHT) {
+                    scene.lights.add(new DirectionalLight(intensity, input.getVector()));
+                    continue;
+                }
+                if (kind != POINT_LIGHT && kind != SPOT_LIGHT)
+                    throw new IllegalArgumentException("unknown light kind " + kind);
+                Point position = input.getPoint();
+                double kC = input.getDouble(), kL = input.getDouble(), kQ = input.getDouble();
+                double radius = input.getDouble();
+                PointLight light = kind == POINT_LIGHT ? new PointLight(intensity, position)
+                        : new SpotLight(intensity, position, input.getVector()).setNarrowBeam(input.getInt());
+                scene.lights.add(light.setKC(kC).setKL(kL).setKQ(kQ).setRadius(radius));
+            }
+            return scene;
+        }
+    }
+
+    /**
+     * Reads the items of a collection - its geometries, and its hierarchy nodes with their items recursively.
+     *
+     * @param input the cache file
+     * @return the items
+     * @throws IOException              if the file can't be read
+     * @throws IllegalArgumentException if the file has an invalid item
+     */
+    private static List<Intersectable> getItems(Input input) throws IOException, IllegalArgumentException {
+        int count = input.getCount();
+        List<Intersectable> items = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            byte kind = input.getByte();
+            if (kind == NODE) {
+                BoundingBox box = new BoundingBox(input.getDouble(), input.getDouble(), input.getDouble(),
+                        input.getDouble(), input.getDouble(), input.getDouble());
+                items.add(Geometries.node(box, getItems(input)));
+                continue;
+            }
+            Geometry geometry = switch (kind) {
+                case SPHERE -> new Sphere(input.getDouble(), input.getPoint());
+                case TRIANGLE, POLYGON -> {
+                    Point[] vertices = new Point[input.getCount()];
+                    for (int j = 0; j < vertices.length; ++j)
+                        vertices[j] = input.getPoint();
+                    if (kind == POLYGON)
+                        yield new Polygon(vertices);
+                    if (vertices.length != 3)
+                        throw new IllegalArgumentException("a triangle must have 3 vertices");
+                    yield new Triangle(vertices[0], vertices[1], vertices[2]);
+                }
+                case PLANE -> new Plane(input.getPoint(), input.getVector());
+                case MESH -> new TriangleMesh(new TriangleMesh.Data(input.getDoubles(), input.getDoubles(),
+                        input.getInts(), input.getDoubles(), input.getInts(), input.getInts()));
+                default -> throw new IllegalArgumentException("unknown geometry kind " + kind);
+            };
+            geometry.setEmission(input.getColor());
+            geometry.setMaterial(new Material().setKD(input.getDouble3()).setKS(input.getDouble3())
+                    .setKT(input.getDouble3()).setKR(input.getDouble3()).setNShininess(input.getInt()));
+            items.add(geometry);
+        }
+        return items;
+    }
+
+    /**
+     * The writing end of a cache file - the data is staged in a direct buffer, in little endian,
+     * and written to the file channel whenever the buffer fills up.
+     */
+    private static final class Output implements Closeable {
+        /**
+         * The channel of the file
+         */
+        private final FileChannel channel;
+        /**
+         * The buffer staging the data
+         */
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+        /**
+         * Opens a file for writing, replacing its content.
+         *
+         * @param file the file
+         * @throws IOException if the file can't be opened
+         */
+        Output(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        /**
+         * Makes room in the buffer, writing its data to the file if needed.
+         *
+         * @param bytes the amount of bytes needed
+         * @throws IOException if the file can't be written
+         */
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes)
+                flush();
+        }
+
+        /**
+         * Writes the data staged in the buffer to the file.
+         *
+         * @throws IOException if the file can't be written
+         */
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            buffer.clear();
+        }
+
+        /**
+         * Writes a byte.
+         *
+         * @param value the byte
+         * @throws IOException if the file can't be written
+         */
+        void putByte(byte value) throws IOException {
+            ensure(Byte.BYTES);
+            buffer.put(value);
+        }
+
+        /**
+         * Writes an integer.
+         *
+         * @param value the integer
+         * @throws IOException if the file can't be written
+         */
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        /**
+         * Writes a double.
+         *
+         * @param value the double
+         * @throws IOException if the file can't be written
+         */
+        void putDouble(double value) throws IOException {
+            ensure(Double.BYTES);
+            buffer.putDouble(value);
+        }
+
+        /**
+         * Writes a triple of doubles.
+         *
+         * @param value the triple
+         * @throws IOException if the file can't be written
+         */
+        void putDouble3(Double3 value) throws IOException {
+            putDouble(value.getD1());
+            putDouble(value.getD2());
+            putDouble(value.getD3());
+        }
+
+        /**
+         * Writes a color.
+         *
+         * @param color the color
+         * @throws IOException if the file can't be written
+         */
+        void putColor(Color color) throws IOException {
+            putDouble3(color.getRgb());
+        }
+
+        /**
+         * Writes a point (or a vector).
+         *
+         * @param point the point
+         * @throws IOException if the file can't be written
+         */
+        void putPoint(Point point) throws IOException {
+            putDouble(point.getX());
+            putDouble(point.getY());
+            putDouble(point.getZ());
+        }
+
+        /**
+         * Writes a string, in UTF-8 after its length.
+         *
+         * @param value the string, may be null
+         * @throws IOException if the file can't be written
+         */
+        void putString(String value) throws IOException {
+            if (value == null) {
+                putInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            for (byte b : bytes)
+                putByte(b);
+        }
+
+        /**
+         * Writes an array of doubles after its length, in bulk.
+         *
+         * @param values the array, may be null
+         * @throws IOException if the file can't be written
+         */
+        void putDoubles(double[] values) throws IOException {
+            putInt(values == null ? -1 : values.length);
+            for (int i = 0; values != null && i < values.length; ) {
+                ensure(Double.BYTES);
+                int count = Math.min(values.length - i, buffer.remaining() / Double.BYTES);
+                buffer.asDoubleBuffer().put(values, i, count);
+                buffer.position(buffer.position() + count * Double.BYTES);
+                i += count;
+            }
+        }
+
+        /**
+         * Writes an array of integers after its length, in bulk.
+         *
+         * @param values the array
+         * @throws IOException if the file can't be written
+         */
+        void putInts(int[] values) throws IOException {
+            putInt(values.length);
+            for (int i = 0; i < values.length; ) {
+                ensure(Integer.BYTES);
+                int count = Math.min(values.length - i, buffer.remaining() / Integer.BYTES);
+                buffer.asIntBuffer().put(values, i, count);
+                buffer.position(buffer.position() + count * Integer.BYTES);
+                i += count;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (channel) {
+                flush();
+                channel.force(false);
+            }
+        }
+    }
+
+    /**
+     * The reading end of a cache file - the file is mapped into memory in windows of up to
+     * {@link #WINDOW_SIZE} bytes, and the arrays are copied out of the mapping in bulk.
+     */
+    private static final class Input {
+        /**
+         * The channel of the file
+         */
+        private final FileChannel channel;
+        /**
+         * The size of the file
+         */
+        private final long size;
+        /**
+         * The offset in the file of the current window
+         */
+        private long base = 0;
+        /**
+         * The mapping of the current window
+         */
+        private ByteBuffer buffer;
+
+        /**
+         * Maps the beginning of a file.
+         *
+         * @param channel the channel of the file
+         * @throws IOException if the file can't be mapped
+         */
+        Input(FileChannel channel) throws IOException {
+            this.channel = channel;
+            size = channel.size();
+            buffer = map();
+        }
+
+        /**
+         * Maps the window of the file starting at the current base.
+         *
+         * @return the mapping of the window
+         * @throws IOException if the file can't be mapped
+         */
+        private ByteBuffer map() throws IOException {
+            return channel.map(FileChannel.MapMode.READ_ONLY, base, Math.min(WINDOW_SIZE, size - base))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        /**
+         * Makes sure the current window has the next bytes of the file, mapping the next window if needed.
+         *
+         * @param bytes the amount of bytes needed
+         * @throws IOException              if the file can't be mapped
+         * @throws IllegalArgumentException if the file ends before these bytes
+         */
+        private void ensure(long bytes) throws IOException {
+            if (buffer.remaining() >= bytes)
+                return;
+            long position = base + buffer.position();
+            if (size - position < bytes)
+                throw new IllegalArgumentException("the scene cache file is truncated");
+            base = position;
+            buffer = map();
+        }
+
+        /**
+         * Reads a byte.
+         *
+         * @return the byte
+         * @throws IOException if the file can't be mapped
+         */
+        byte getByte() throws IOException {
+            ensure(Byte.BYTES);
+            return buffer.get();
+        }
+
+        /**
+         * Reads an integer.
+         *
+         * @return the integer
+         * @throws IOException if the file can't be mapped
+         */
+        int getInt() throws IOException {
+            ensure(Integer.BYTES);
+            return buffer.getInt();
+        }
+
+        /**
+         * Reads a count of items (which can't be negative).
+         *
+         * @return the count
+         * @throws IOException if the file can't be mapped
+         */
+        int getCount() throws IOException {
+            int count = getInt();
+            if (count < 0)
+                throw new IllegalArgumentException("a negative count in the scene cache file");
+            return count;
+        }
+
+        /**
+         * Reads a double.
+         *
+         * @return the double
+         * @throws IOException if the file can't be mapped
+         */
+        double getDouble() throws IOException {
+            ensure(Double.BYTES);
+            return buffer.getDouble();
+        }
+
+        /**
+         * Reads a triple of doubles.
+         *
+         * @return the triple
+         * @throws IOException if the file can't be mapped
+         */
+        Double3 getDouble3() throws IOException {
+            return new Double3(getDouble(), getDouble(), getDouble());
+        }
+
+        /**
+         * Reads a color.
+         *
+         * @return the color
+         * @throws IOException if the file can't be mapped
+         */
+        Color getColor() throws IOException {
+            return new Color(getDouble(), getDouble(), getDouble());
+        }
+
+        /**
+         * Reads a point.
+         *
+         * @return the point
+         * @throws IOException if the file can't be mapped
+         */
+        Point getPoint() throws IOException {
+            return new Point(getDouble(), getDouble(), getDouble());
+        }
+
+        /**
+         * Reads a vector.
+         *
+         * @return the vector
+         * @throws IOException if the file can't be mapped
+         */
+        Vector getVector() throws IOException {
+            return new Vector(getDouble(), getDouble(), getDouble());
+        }
+
+        /**
+         * Reads a string.
+         *
+         * @return the string, or null
+         * @throws IOException if the file can't be mapped
+         */
+        String getString() throws IOException {
+            int length = getInt();
+            if (length == -1)
+                return null;
+            if (length < 0)
+                throw new IllegalArgumentException("a negative length in the scene cache file");
+            ensure(length);
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Reads an array of doubles, in bulk.
+         *
+         * @return the array, or null
+         * @throws IOException if the file can't be mapped
+         */
+        double[] getDoubles() throws IOException {
+            int length = getInt();
+            if (length == -1)
+                return null;
+            double[] values = new double[checkedLength(length, Double.BYTES)];
+            for (int i = 0; i < length; ) {
+                ensure(Double.BYTES);
+                int count = Math.min(length - i, buffer.remaining() / Double.BYTES);
+                buffer.asDoubleBuffer().get(values, i, count);
+                buffer.position(buffer.position() + count * Double.BYTES);
+                i += count;
+            }
+            return values;
+        }
+
+        /**
+         * Reads an array of integers, in bulk.
+         *
+         * @return the array
+         * @throws IOException if the file can't be mapped
+         */
+        int[] getInts() throws IOException {
+            int length = getInt();
+            int[] values = new int[checkedLength(length, Integer.BYTES)];
+            for (int i = 0; i < length; ) {
+                ensure(Integer.BYTES);
+                int count = Math.min(length - i, buffer.remaining() / Integer.BYTES);
+                buffer.asIntBuffer().get(values, i, count);
+                buffer.position(buffer.position() + count * Integer.BYTES);
+                i += count;
+            }
+            return values;
+        }
+
+        /**
+         * Checks that an array read from the file fits in the rest of the file, before it is allocated.
+         *
+         * @param length the length of the array
+         * @param bytes  the size of an element of the array
+         * @return the length
+         * @throws IllegalArgumentException if the array doesn't fit in the file
+         */
+        private int checkedLength(int length, int bytes) {
+            if (length < 0 || (long) length * bytes > size - base - buffer.position())
+                throw new IllegalArgumentException("an invalid array length in the scene cache file");
+            return length;
+        }
+    }
+}
@@ -0,0 +1,471 @@
+package scene;
+
+import geometries.*;
+import lighting.AmbientLight;
+import lighting.DirectionalLight;
+import lighting.PointLight;
+import lighting.SpotLight;
+import parsers.MeshLoader;
+import primitives.Color;
+import primitives.Double3;
+import primitives.Material;
+import primitives.Point;
+import primitives.Vector;
+import renderer.Camera;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * SceneReader reads a scene from an XML file as a stream (StAX), creating every element as it arrives,
+ * so even a scene of millions of elements is never held in memory as a document.
+ * The geometries are collected in batches, and the bounding volume hierarchy of every full batch is built
+ * by other threads while the reading continues; the hierarchies of the batches are joined into the hierarchy
+ * of the scene at the end.
+ * <p>
+ * The elements of a scene file (all of them optional, except the root):
+ * <pre>
+ * &lt;scene name="..." background-color="r g b"&gt;
+ *     &lt;ambient-light color="r g b" ka="k"/&gt;
+ *     &lt;camera location="x y z" to="x y z" up="x y z" vp-size="width height" vp-distance="d"/&gt;
+ *     &lt;materials&gt;
+ *         &lt;material name="..." kd="k" ks="k" kt="k" kr="k" shininess="n"/&gt;
+ *     &lt;/materials&gt;
+ *     &lt;lights&gt;
+ *         &lt;directional-light intensity="r g b" direction="x y z"/&gt;
+ *         &lt;point-light intensity="r g b" position="x y z" kc="k" kl="k" kq="k" radius="r"/&gt;
+ *         &lt;spot-light (as a point light) direction="x y z" narrow-beam="n"/&gt;
+ *     &lt;/lights&gt;
+ *     &lt;geometries&gt;
+ *         &lt;sphere center="x y z" radius="r"/&gt;
+ *         &lt;triangle p0="x y z" p1="x y z" p2="x y z"/&gt;
+ *         &lt;polygon p0="x y z" p1="x y z" p2="x y z" p3="x y z" .../&gt;
+ *         &lt;plane point="x y z" normal="x y z"/&gt;
+ *         &lt;mesh file="model.obj"/&gt;
+ *     &lt;/geometries&gt;
+ * &lt;/scene&gt;
+ * </pre>
+ * A factor (k) is a single number or three numbers ("k1 k2 k3"). Every geometry may have an emission color
+ * ({@code emission="r g b"}) and a material, by the name of a material defined before it
+ * ({@code material="..."}). The model file of a mesh is relative to the directory of the scene file.
+ * Elements out of the geometries which are not scene elements are ignored.
+ * </p>
+ *
+ * @author Shneor and Emanuel
+ */
+public class SceneReader {
+    /**
+     * The amount of geometries in a batch of the hierarchy building
+     */
+    private static final int BATCH_SIZE = 4096;
+
+    /**
+     * The amount of the threads building the hierarchies of the batches, 0 for building them in the calling thread
+     */
+    private int threadsCount = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Sets the amount of the threads building the hierarchies of the batches of geometries.
+     *
+     * @param threads the amount of the threads - 0 for building them in the calling thread (between reading
+     *                batches), -1 for a thread for every processor
+     * @return the reader itself, for chaining
+     * @throws IllegalArgumentException if the amount of threads is lower than -1
+     */
+    public SceneReader setMultithreading(int threads) throws IllegalArgumentException {
+        if (threads < -1)
+            throw new IllegalArgumentException("the amount of threads can't be lower than -1");
+        threadsCount = threads == -1 ? Runtime.getRuntime().availableProcessors() : threads;
+        return this;
+    }
+
+    /**
+     * Reads a scene from an XML file, ignoring its camera.
+     *
+     * @param file the XML file
+     * @return the scene
+     * @throws IOException              if the file (or a model file of a mesh) can't be read
+     * @throws IllegalArgumentException if the file is not a valid scene file
+     */
+    public Scene read(Path file) throws IOException, IllegalArgumentException {
+        return read(file, null);
+    }
+
+    /**
+     * Reads a scene from an XML file, setting a camera builder by the camera of the scene.
+     *
+     * @param file   the XML file
+     * @param camera the builder of the camera, set by the camera element (if there is one), may be null
+     * @return the scene
+     * @throws IOException              if the file (or a model file of a mesh) can't be read
+     * @throws IllegalArgumentException if the file is not a valid scene file
+     */
+    public Scene read(Path file, Camera.Builder camera) throws IOException, IllegalArgumentException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        ExecutorService executor = threadsCount == 0 ? null : Executors.newFixedThreadPool(threadsCount);
+        try (InputStream input = Files.newInputStream(file)) {
+            XMLStreamReader reader = factory.createXMLStreamReader(input);
+            try {
+                return new Reading(reader, file.toAbsolutePath().getParent(), camera, executor).read();
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IllegalArgumentException("malformed scene file " + file + ": " + e.getMessage(), e);
+        } finally {
+            if (executor != null)
+                executor.shutdownNow();
+        }
+    }
+
+    /**
+     * The state of the reading of a single scene file.
+     */
+    private static final class Reading {
+        /**
+         * The stream of the XML file
+         */
+        private final XMLStreamReader reader;
+        /**
+         * The directory of the XML file
+         */
+        private final Path directory;
+        /**
+         * The builder of the camera, or null
+         */
+        private final Camera.Builder camera;
+        /**
+         * The threads building the hierarchies of the batches, or null for building them in the reading thread
+         */
+        private final ExecutorService executor;
+        /**
+         * The materials defined so far, by their names
+         */
+        private final Map<String, Material> materials = new HashMap<>();
+        /**
+         * The geometries of the current batch
+         */
+        private List<Intersectable> batch = new ArrayList<>(BATCH_SIZE);
+        /**
+         * The hierarchies of the full batches (built or being built)
+         */
+        private final List<Future<Geometries>> hierarchies = new ArrayList<>();
+        /**
+         * The hierarchies of the full batches built in the reading thread
+         */
+        private final List<Geometries> builtHierarchies = new ArrayList<>();
+
+        /**
+         * Prepares the reading of a scene file.
+         *
+         * @param reader    the stream of the XML file
+         * @param directory the directory of the XML file
+         * @param camera    the builder of the camera, or null
+         * @param executor  the threads building the hierarchies, or null
+         */
+        Reading(XMLStreamReader reader, Path directory, Camera.Builder camera, ExecutorService executor) {
+            this.reader = reader;
+            this.directory = directory;
+            this.camera = camera;
+            this.executor = executor;
+        }
+
+        /**
+         * Reads the scene.
+         *
+         * @return the scene
+         * @throws XMLStreamException if the XML is malformed
+         * @throws IOException        if a model file of a mesh can't be read
+         */
+        Scene read() throws XMLStreamException, IOException {
+            reader.nextTag();
+            if (!reader.getLocalName().equals("scene"))
+                throw new IllegalArgumentException("the root element must be a scene element");
+            Scene scene = new Scene(attribute("name"));
+            String background = attribute("background-color");
+            if (background != null)
+                scene.setBackground(parseColor(background));
+
+            int geometriesDepth = -1;
+            int depth = 1;
+            while (depth > 0) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.END_ELEMENT) {
+                    if (--depth == geometriesDepth)
+                        geometriesDepth = -1;
+                    continue;
+                }
+                if (event != XMLStreamConstants.START_ELEMENT)
+                    continue;
+                ++depth;
+                String name = reader.getLocalName();
+                if (geometriesDepth != -1) {
+                    addGeometry(parseGeometry(name));
+                    continue;
+                }
+                switch (name) {
+                    case "geometries" -> geometriesDepth = depth - 1;
+                    case "ambient-light" -> {
+                        String ka = attribute("ka");
+                        scene.setAmbientLight(new AmbientLight(parseColor(required("color")),
+                                ka == null ? Double3.ONE : parseFactor(ka)));
+                    }
+                    case "camera" -> parseCamera();
+                    case "material" -> materials.put(required("name"), parseMaterial());
+                    case "directional-light" -> scene.lights.add(new DirectionalLight(
+                            parseColor(required("intensity")), parseVector(required("direction"))));
+                    case "point-light" -> scene.lights.add(parsePointLight(
+                            new PointLight(parseColor(required("intensity")), parsePoint(required("position")))));
+                    case "spot-light" -> {
+                        SpotLight light = new SpotLight(parseColor(required("intensity")),
+                                parsePoint(required("position")), parseVector(required("direction")));
+                        String beam = attribute("narrow-beam");
+                        if (beam != null)
+                            light.setNarrowBeam(Integer.parseInt(beam.trim()));
+                        scene.lights.add(parsePointLight(light));
+                    }
+                    default -> {
+                        // not a scene element
+                    }
+                }
+            }
+
+            scene.setGeometries(join());
+            return scene;
+        }
+
+        /**
+         * Adds a geometry to the current batch, handing the batch to the hierarchy building when it's full.
+         *
+         * @param geometry the geometry
+         */
+        private void addGeometry(Geometry geometry) {
+            batch.add(geometry);
+            if (batch.size() < BATCH_SIZE)
+                return;
+            Geometries full = new Geometries(batch.toArray(new Intersectable[0]));
+            batch = new ArrayList<>(BATCH_SIZE);
+            if (executor == null)
+                builtHierarchies.add(full.buildBVH());
+            else
+                hierarchies.add(executor.submit(full::buildBVH));
+        }
+
+        /**
+         * Joins the hierarchies of the batches (waiting for those still being built) and the last batch
+         * into the hierarchy of the scene.
+         *
+         * @return the geometries of the scene
+         */
+        private Geometries join() {
+            Geometries geometries = new Geometries(batch.toArray(new Intersectable[0])).buildBVH();
+            try {
+                for (Future<Geometries> hierarchy : hierarchies)
+                    builtHierarchies.add(hierarchy.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Reading was interrupted", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException)
+                    throw runtimeException;
+                throw new IllegalStateException("Building the hierarchy failed", e.getCause());
+            }
+            geometries.add(builtHierarchies.toArray(new Intersectable[0]));
+            return geometries.joinBVH();
+        }
+
+        /**
+         * Parses a geometry element.
+         *
+         * @param name the name of the element
+         * @return the geometry
+         * @throws IOException if the model file of a mesh can't be read
+         */
+        private Geometry parseGeometry(String name) throws IOException {
+            Geometry geometry = switch (name) {
+                case "sphere" -> new Sphere(Double.parseDouble(required("radius").trim()),
+                        parsePoint(required("center")));
+                case "triangle" -> new Triangle(parsePoint(required("p0")), parsePoint(required("p1")),
+                        parsePoint(required("p2")));
+                case "polygon" -> {
+                    List<Point> points = new ArrayList<>();
+                    String point;
+                    while ((point = attribute("p" + points.size())) != null)
+                        points.add(parsePoint(point));
+                    yield new Polygon(points);
+                }
+                case "plane" -> new Plane(parsePoint(required("point")), parseVector(required("normal")));
+                case "mesh" -> new MeshLoader().load(directory.resolve(required("file")));
+                default -> throw new IllegalArgumentException("Unknown geometry type: " + name);
+            };
+            String emission = attribute("emission");
+            if (emission != null)
+                geometry.setEmission(parseColor(emission));
+            String material = attribute("material");
+            if (material != null) {
+                Material found = materials.get(material);
+                if (found == null)
+                    throw new IllegalArgumentException("Unknown material: " + material);
+                geometry.setMaterial(found);
+            }
+            return geometry;
+        }
+
+        /**
+         * Parses a material element.
+         *
+         * @return the material
+         */
+        private Material parseMaterial() {
+            Material material = new Material();
+            String value;
+            if ((value = attribute("kd")) != null) material.setKD(parseFactor(value));
+            if ((value = attribute("ks")) != null) material.setKS(parseFactor(value));
+            if ((value = attribute("kt")) != null) material.setKT(parseFactor(value));
+            if ((value = attribute("kr")) != null) material.setKR(parseFactor(value));
+            if ((value = attribute("shininess")) != null) material.setNShininess(Integer.parseInt(value.trim()));
+            return material;
+        }
+
+        /**
+         * Sets the attenuation factors and the radius of a point light (or a spotlight) by its element.
+         *
+         * @param light the light
+         * @return the light
+         */
+        private PointLight parsePointLight(PointLight light) {
+            String value;
+            if ((value = attribute("kc")) != null) light.setKC(Double.parseDouble(value.trim()));
+            if ((value = attribute("kl")) != null) light.setKL(Double.parseDouble(value.trim()));
+            if ((value = attribute("kq")) != null) light.setKQ(Double.parseDouble(value.trim()));
+            if ((value = attribute("radius")) != null) light.setRadius(Double.parseDouble(value.trim()));
+            return light;
+        }
+
+        /**
+         * Sets the camera builder by the camera element, if there is a builder.
+         */
+        private void parseCamera() {
+            if (camera == null)
+                return;
+            String value;
+            if ((value = attribute("location")) != null)
+                camera.setLocation(parsePoint(value));
+            String to = attribute("to"), up = attribute("up");
+            if (to != null || up != null) {
+                if (to == null || up == null)
+                    throw new IllegalArgumentException("the camera direction needs both to and up vectors");
+                camera.setDirection(parseVector(to), parseVector(up));
+            }
+            if ((value = attribute("vp-size")) != null) {
+                double[] size = parseNumbers(value, 2);
+                camera.setVpSize(size[0], size[1]);
+            }
+            if ((value = attribute("vp-distance")) != null)
+                camera.setVpDistance(Double.parseDouble(value.trim()));
+        }
+
+        /**
+         * Gets an attribute of the current element.
+         *
+         * @param name the name of the attribute
+         * @return the value of the attribute, or null if the element doesn't have it
+         */
+        private String attribute(String name) {
+            return reader.getAttributeValue(null, name);
+        }
+
+        /**
+         * Gets a required attribute of the current element.
+         *
+         * @param name the name of the attribute
+         * @return the value of the attribute
+         * @throws IllegalArgumentException if the element doesn't have the attribute
+         */
+        private String required(String name) throws IllegalArgumentException {
+            String value = attribute(name);
+            if (value == null)
+                throw new IllegalArgumentException("the " + reader.getLocalName() + " element at line "
+                        + reader.getLocation().getLineNumber() + " has no " + name + " attribute");
+            return value;
+        }
+    }
+
+    /**
+     * Parses numbers separated by white spaces.
+     *
+     * @param value the numbers
+     * @param count the expected amount of numbers
+     * @return the numbers
+     * @throws IllegalArgumentException if the amount of numbers is wrong or a number is malformed
+     */
+    private static double[] parseNumbers(String value, int count) throws IllegalArgumentException {
+        String[] parts = value.trim().split("\\s+");
+        if (parts.length != count)
+            throw new IllegalArgumentException("expected " + count + " numbers: " + value);
+        double[] numbers = new double[count];
+        for (int i = 0; i < count; ++i)
+            numbers[i] = Double.parseDouble(parts[i]);
+        return numbers;
+    }
+
+    /**
+     * Parses a color string in the format "R G B".
+     *
+     * @param value the color string
+     * @return the color
+     */
+    private static Color parseColor(String value) {
+        double[] rgb = parseNumbers(value, 3);
+        return new Color(rgb[0], rgb[1], rgb[2]);
+    }
+
+    /**
+     * Parses a point string in the format "X Y Z".
+     *
+     * @param value the point string
+     * @return the point
+     */
+    private static Point parsePoint(String value) {
+        double[] xyz = parseNumbers(value, 3);
+        return new Point(xyz[0], xyz[1], xyz[2]);
+    }
+
+    /**
+     * Parses a vector string in the format "X Y Z".
+     *
+     * @param value the vector string
+     * @return the vector
+     */
+    private static Vector parseVector(String value) {
+        double[] xyz = parseNumbers(value, 3);
+        return new Vector(xyz[0], xyz[1], xyz[2]);
+    }
+
+    /**
+     * Parses a factor string - a single number for all the color components, or three numbers.
+     *
+     * @param value the factor string
+     * @return the factor
+     */
+    private static Double3 parseFactor(String value) {
+        double[] k = parseNumbers(value, value.trim().split("\\s+").length == 1 ? 1 : 3);
+        return k.length == 1 ? new Double3(k[0]) : new Double3(k[0], k[1], k[2]);
+    }
+}
@@ -0,0 +1,82 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for geometries.BoundingBox class
+ *
+ * @author Emanuel and Shneor
+ */
+class BoundingBoxTest {
+
+    /**
+     * Test method for {@link geometries.BoundingBox#BoundingBox(double, double, double, double, double, double)}.
+     */
+    @Test
+    void testConstructor() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: correct box
+        assertDoesNotThrow(() -> new BoundingBox(0, 0, 0, 1, 1, 1), "ERROR: The Ctor doesn't work (TC01)");
+        //TC02: the lower corner is above the upper corner
+        assertThrows(IllegalArgumentException.class, () -> new BoundingBox(0, 2, 0, 1, 1, 1),
+                "ERROR: The Ctor accepts an inverted box (TC02)");
+
+        // =============== Boundary Values Tests ==================
+        //TC03: flat box
+        assertDoesNotThrow(() -> new BoundingBox(0, 0, 0, 1, 1, 0), "ERROR: The Ctor doesn't accept a flat box (TC03)");
+    }
+
+    /**
+     * Test method for {@link geometries.BoundingBox#intersects(Ray, double)}.
+     */
+    @Test
+    void testIntersects() {
+        BoundingBox box = new BoundingBox(-1, -1, -1, 1, 1, 1);
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the ray passes through the box
+        assertTrue(box.intersects(new Ray(new Point(-5, 0.5, 0.5), new Vector(1, 0.1, 0)), Double.POSITIVE_INFINITY),
+                "ERROR: ray through the box (TC01)");
+        //TC02: the ray passes beside the box
+        assertFalse(box.intersects(new Ray(new Point(-5, 3, 0), new Vector(1, 0.1, 0)), Double.POSITIVE_INFINITY),
+                "ERROR: ray beside the box (TC02)");
+        //TC03: the box is behind the ray
+        assertFalse(box.intersects(new Ray(new Point(-5, 0, 0), new Vector(-1, 0, 0)), Double.POSITIVE_INFINITY),
+                "ERROR: box behind the ray (TC03)");
+        //TC04: the ray starts inside the box
+        assertTrue(box.intersects(new Ray(new Point(0, 0, 0), new Vector(1, 2, 3)), Double.POSITIVE_INFINITY),
+                "ERROR: ray from inside the box (TC04)");
+        //TC05: the box is farther than the maximal distance
+        assertFalse(box.intersects(new Ray(new Point(-5, 0, 0), new Vector(1, 0, 0)), 3),
+                "ERROR: box beyond the distance (TC05)");
+
+        // =============== Boundary Values Tests ==================
+        //TC06: the ray is parallel to an axis and outside the slab
+        assertFalse(box.intersects(new Ray(new Point(-5, 0, 2), new Vector(1, 0, 0)), Double.POSITIVE_INFINITY),
+                "ERROR: axis parallel ray outside the box (TC06)");
+        //TC07: flat box crossed by a ray
+        assertTrue(BoundingBox.of(new Point(0, 0, 0), new Point(1, 1, 0))
+                        .intersects(new Ray(new Point(0.5, 0.5, 1), new Vector(0, 0, -1)), Double.POSITIVE_INFINITY),
+                "ERROR: ray through a flat box (TC07)");
+    }
+
+    /**
+     * Test method for {@link geometries.BoundingBox#union(BoundingBox)}.
+     */
+    @Test
+    void testUnion() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: union of two separated boxes
+        BoundingBox box = new BoundingBox(0, 0, 0, 1, 1, 1).union(new BoundingBox(2, -1, 0, 3, 0, 4));
+        assertEquals(0, box.getMin(0), "ERROR: wrong union (TC01)");
+        assertEquals(-1, box.getMin(1), "ERROR: wrong union (TC01)");
+        assertEquals(3, box.getMax(0), "ERROR: wrong union (TC01)");
+        assertEquals(4, box.getMax(2), "ERROR: wrong union (TC01)");
+        assertEquals(2 * (3 * 2 + 2 * 4 + 4 * 3), box.surfaceArea(), 1e-10, "ERROR: wrong surface area (TC01)");
+    }
+}
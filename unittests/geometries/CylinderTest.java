@@ -5,6 +5,8 @@ import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -52,4 +54,80 @@ class CylinderTest {
                 "ERROR: the getNormal with the point on the center of the base  of the cylinder");
 
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link geometries.Cylinder#getBoundingBox()}.
+     */
+    @Test
+    void testGetBoundingBox() {
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: a cylinder with an oblique axis is bounded by its two base discs
+        BoundingBox box = new Cylinder(1, new Ray(new Point(0, 0, 0), new Vector(1, 1, 0)), Math.sqrt(2) * 2)
+                .getBoundingBox();
+        double e = 1 / Math.sqrt(2);
+        assertEquals(-e, box.getMin(0), 1e-10, "ERROR: wrong lower x of the cylinder box (TC01)");
+        assertEquals(2 + e, box.getMax(1), 1e-10, "ERROR: wrong upper y of the cylinder box (TC01)");
+        assertEquals(-1, box.getMin(2), 1e-10, "ERROR: wrong lower z of the cylinder box (TC01)");
+
+        // =============== Boundary Values Tests ==================
+        //TC02: a cylinder along an axis direction
+        box = new Cylinder(2, new Ray(new Point(1, 1, 1), new Vector(0, 0, 1)), 5).getBoundingBox();
+        assertEquals(-1, box.getMin(0), 1e-10, "ERROR: wrong lower x of the cylinder box (TC02)");
+        assertEquals(6, box.getMax(2), 1e-10, "ERROR: wrong upper z of the cylinder box (TC02)");
+    }
+
+    /**
+     * Test method for {@link geometries.Cylinder#findIntersections(Ray, double)}.
+     */
+    @Test
+    void testFindIntersections() {
+        Cylinder cylinder = new Cylinder(1, new Ray(Point.ZERO, new Vector(0, 0, 1)), 2);
+        Vector xAxis = new Vector(1, 0, 0), zAxis = new Vector(0, 0, 1);
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the ray crosses the side twice
+        assertEquals(List.of(new Point(-1, 0, 1), new Point(1, 0, 1)),
+                cylinder.findIntersections(new Ray(new Point(-2, 0, 1), xAxis)),
+                "ERROR: the ray should cross the side (TC01)");
+        //TC02: the ray crosses both bases
+        assertEquals(List.of(new Point(0.5, 0, 0), new Point(0.5, 0, 2)),
+                cylinder.findIntersections(new Ray(new Point(0.5, 0, -1), zAxis)),
+                "ERROR: the ray should cross both bases (TC02)");
+        //TC03: the ray crosses the side and a base
+        assertEquals(List.of(new Point(-1, 0, 1.5), new Point(0, 0, 2)),
+                cylinder.findIntersections(new Ray(new Point(-2, 0, 1), new Vector(2, 0, 1))),
+                "ERROR: the ray should cross the side and the base (TC03)");
+        //TC04: the ray passes above the cylinder
+        assertNull(cylinder.findIntersections(new Ray(new Point(-2, 0, 3), xAxis)),
+                "ERROR: the ray should pass above the cylinder (TC04)");
+        //TC05: the ray starts inside the cylinder
+        assertEquals(List.of(new Point(1, 0, 1)), cylinder.findIntersections(new Ray(new Point(0, 0, 1), xAxis)),
+                "ERROR: the ray should leave the cylinder (TC05)");
+
+        // =============== Boundary Values Tests ==================
+        //TC11: the ray is parallel to the axis outside the cylinder
+        assertNull(cylinder.findIntersections(new Ray(new Point(2, 0, -1), zAxis)),
+                "ERROR: the ray should pass beside the cylinder (TC11)");
+        //TC12: the second intersection is beyond the maximal distance
+        assertEquals(List.of(new Point(0.5, 0, 0)), cylinder.findIntersections(new Ray(new Point(0.5, 0, -1), zAxis), 1.5),
+                "ERROR: only the first intersection is in the distance (TC12)");
+    }
+
+    /**
+     * Test method for {@link geometries.Intersectable#findClosestGeoIntersection(Ray)}.
+     */
+    @Test
+    void testFindClosestGeoIntersection() {
+        Cylinder cylinder = new Cylinder(1, new Ray(Point.ZERO, new Vector(0, 0, 1)), 2);
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the closest intersection is on a base
+        Intersectable.GeoPoint geoPoint = cylinder.findClosestGeoIntersection(
+                new Ray(new Point(0.5, 0, 4), new Vector(0, 0, -1)));
+        assertEquals(new Point(0.5, 0, 2), geoPoint.point, "ERROR: wrong closest intersection (TC01)");
+        assertEquals(2, geoPoint.t, 1e-10, "ERROR: wrong ray parameter (TC01)");
+        assertEquals(new Vector(0, 0, 1), geoPoint.getNormal(), "ERROR: wrong normal (TC01)");
+        //TC02: the closest intersection is on the side
+        geoPoint = cylinder.findClosestGeoIntersection(new Ray(new Point(3, 0, 1), new Vector(-1, 0, 0)));
+        assertEquals(new Point(1, 0, 1), geoPoint.point, "ERROR: wrong closest intersection (TC02)");
+        assertEquals(new Vector(1, 0, 0), geoPoint.getNormal(), "ERROR: wrong normal (TC02)");
+    }
+}
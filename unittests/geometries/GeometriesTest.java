@@ -1,6 +1,8 @@
 package geometries;
 
 import org.junit.jupiter.api.Test;
+import primitives.Double3;
+import primitives.Material;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
@@ -78,4 +80,184 @@ class GeometriesTest {
     }
 
 
-}
\ No newline at end of file
+    /**
+     * Test method for {@link geometries.Geometries#buildBVH()}
+     */
+    @Test
+    void testBuildBVH() {
+        Geometries flat = new Geometries(new Plane(new Point(0, 0, -50), new Vector(0, 0, 1)));
+        Geometries bvh = new Geometries(new Plane(new Point(0, 0, -50), new Vector(0, 0, 1)));
+        for (int i = 0; i < 10; ++i)
+            for (int j = 0; j < 10; ++j) {
+                Intersectable sphere = new Sphere(1, new Point(i * 3, j * 3, 0));
+                Intersectable triangle = new Triangle(new Point(i * 3, j * 3, 5), new Point(i * 3 + 2, j * 3, 5),
+                        new Point(i * 3, j * 3 + 2, 5));
+                flat.add(sphere, triangle);
+                bvh.add(new Geometries(sphere, triangle));
+            }
+        bvh.buildBVH();
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the hierarchy finds the same intersections as the flat collection for many rays
+        for (int i = 0; i < 30; ++i)
+            for (int j = 0; j < 30; ++j) {
+                Ray ray = new Ray(new Point(i, j, 20), new Vector(0.1 * (i % 3), 0.1 * (j % 5) - 0.2, -1));
+                List<Point> expected = flat.findIntersections(ray);
+                List<Point> result = bvh.findIntersections(ray);
+                assertEquals(expected.size(), result.size(), "Wrong amount of BVH intersections (TC01)");
+                assertTrue(result.containsAll(expected), "Wrong BVH intersections (TC01)");
+                assertEquals(ray.findClosestPoint(expected), bvh.findClosestGeoIntersection(ray).point,
+                        "Wrong BVH closest intersection (TC01)");
+            }
+
+        //TC02: a ray missing the bounded shapes only hits the plane
+        assertEquals(1, bvh.findIntersections(new Ray(new Point(-10, -10, 20), new Vector(0, 0, -1))).size(),
+                "Expected only the plane intersection (TC02)");
+
+        // =============== Boundary Values Tests ==================
+        //TC03: building a hierarchy of an empty collection
+        assertNull(new Geometries().buildBVH().findIntersections(new Ray(Point.ZERO, new Vector(0, 0, 1))),
+                "Expected no intersection points (TC03)");
+        //TC04: a hierarchy of a single shape
+        assertEquals(2, new Geometries(new Sphere(1, Point.ZERO)).buildBVH()
+                        .findIntersections(new Ray(new Point(0, 0, -5), new Vector(0, 0, 1))).size(),
+                "Expected two intersection points (TC04)");
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#joinBVH()}
+     */
+    @Test
+    void testJoinBVH() {
+        Geometries flat = new Geometries(new Plane(new Point(0, 0, -50), new Vector(0, 0, 1)));
+        Geometries joined = new Geometries(new Plane(new Point(0, 0, -50), new Vector(0, 0, 1)));
+        for (int i = 0; i < 10; ++i) {
+            Geometries row = new Geometries();
+            for (int j = 0; j < 10; ++j) {
+                Intersectable sphere = new Sphere(1, new Point(i * 3, j * 3, 0));
+                flat.add(sphere);
+                row.add(sphere);
+            }
+            joined.add(row.buildBVH());
+        }
+        joined.joinBVH();
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the hierarchy over the hierarchies finds the same intersections as the flat collection
+        for (int i = 0; i < 30; ++i)
+            for (int j = 0; j < 30; ++j) {
+                Ray ray = new Ray(new Point(i, j, 20), new Vector(0.1 * (i % 3), 0.1 * (j % 5) - 0.2, -1));
+                List<Point> expected = flat.findIntersections(ray);
+                List<Point> result = joined.findIntersections(ray);
+                assertEquals(expected.size(), result.size(), "Wrong amount of joined BVH intersections (TC01)");
+                assertTrue(result.containsAll(expected), "Wrong joined BVH intersections (TC01)");
+                assertEquals(ray.findClosestPoint(expected), joined.findClosestGeoIntersection(ray).point,
+                        "Wrong joined BVH closest intersection (TC01)");
+            }
+
+        // =============== Boundary Values Tests ==================
+        //TC02: the unbounded plane stays at the top level next to the root
+        assertEquals(2, joined.getIntersectables().size(), "Expected the plane and the root (TC02)");
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#node(BoundingBox, List)}
+     */
+    @Test
+    void testNode() {
+        Geometries built = new Geometries();
+        for (int i = 0; i < 8; ++i)
+            built.add(new Sphere(1, new Point(i * 3, 0, 0)));
+        built.buildBVH();
+        Geometries root = (Geometries) built.getIntersectables().get(0);
+        Geometries restored = Geometries.node(root.getBoundingBox(), root.getIntersectables());
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: a node restored from the box and the shapes of a node is a node finding the same intersections
+        assertTrue(root.isNode(), "A built root is not a node (TC01)");
+        assertFalse(built.isNode(), "A general collection is a node (TC01)");
+        assertTrue(restored.isNode(), "A restored node is not a node (TC01)");
+        for (int i = 0; i < 24; ++i) {
+            Ray ray = new Ray(new Point(i + 0.5, 0.2, 10), new Vector(0, 0, -1));
+            assertEquals(root.findIntersections(ray), restored.findIntersections(ray),
+                    "Wrong restored node intersections (TC01)");
+        }
+
+        // =============== Boundary Values Tests ==================
+        //TC02: a node without shapes, or with an unbounded shape, is rejected
+        assertThrows(IllegalArgumentException.class, () -> Geometries.node(root.getBoundingBox(), List.of()),
+                "An empty node was accepted (TC02)");
+        assertThrows(IllegalArgumentException.class, () -> Geometries.node(root.getBoundingBox(),
+                        List.of(new Plane(Point.ZERO, new Vector(0, 0, 1)))),
+                "A node of an unbounded shape was accepted (TC02)");
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#findClosestGeoIntersection(Ray, double)}
+     */
+    @Test
+    void testFindClosestGeoIntersection() {
+        Geometries geometries = new Geometries(
+                new Plane(new Point(0, 0, 2), new Vector(0, 0, 1)),
+                new Triangle(new Point(0, 0, 1), new Point(1, 0, 1), new Point(1, 1, 1)),
+                new Sphere(0.5, new Point(0.25, 0.25, -1)),
+                new Polygon(new Point(0, 0, 0), new Point(1, 0, 0), new Point(1, 1, 0), new Point(0, 1, 0))
+        );
+        Ray ray = new Ray(new Point(0.5, 0.25, -3), new Vector(0, 0, 1));
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the closest of all the intersections, with its distance
+        Intersectable.GeoPoint closest = geometries.findClosestGeoIntersection(ray);
+        assertEquals(ray.findClosestPoint(geometries.findIntersections(ray)), closest.point,
+                "Wrong closest intersection (TC01)");
+        assertEquals(closest.point.distance(ray.getHead()), closest.t, 1e-10, "Wrong closest distance (TC01)");
+
+        //TC02: the intersections closer than the maximal distance are all behind the first shapes
+        closest = geometries.findClosestGeoIntersection(new Ray(new Point(0.5, 0.25, 0.5), new Vector(0, 0, 1)), 1);
+        assertEquals(new Point(0.5, 0.25, 1), closest.point, "Wrong closest intersection (TC02)");
+
+        //TC03: no intersection before the maximal distance
+        assertNull(geometries.findClosestGeoIntersection(new Ray(new Point(0.5, 0.25, 0.5), new Vector(0, 0, 1)), 0.4),
+                "Expected no intersection (TC03)");
+
+        //TC04: the hierarchy finds the same closest intersection
+        geometries.buildBVH();
+        assertEquals(closest.point,
+                geometries.findClosestGeoIntersection(new Ray(new Point(0.5, 0.25, 0.5), new Vector(0, 0, 1)), 1).point,
+                "Wrong closest intersection in the hierarchy (TC04)");
+
+        // =============== Boundary Values Tests ==================
+        //TC05: an empty collection
+        assertNull(new Geometries().findClosestGeoIntersection(ray), "Expected no intersection (TC05)");
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#findTransmittance(Ray, double, double)}
+     */
+    @Test
+    void testFindTransmittance() {
+        Geometry glass1 = new Polygon(new Point(0, 0, 1), new Point(1, 0, 1), new Point(1, 1, 1), new Point(0, 1, 1))
+                .setMaterial(new Material().setKT(0.5));
+        Geometry glass2 = new Sphere(0.2, new Point(0.5, 0.5, 3)).setMaterial(new Material().setKT(0.8));
+        Geometry wall = new Plane(new Point(0, 0, 5), new Vector(0, 0, 1));
+        Geometries geometries = new Geometries(glass1, glass2, wall);
+        Ray ray = new Ray(new Point(0.5, 0.5, 0), new Vector(0, 0, 1));
+
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the light passes through transparent shapes only
+        assertEquals(new Double3(0.5 * 0.8 * 0.8), geometries.findTransmittance(ray, 4, 0.001),
+                "Wrong transmittance through transparent shapes (TC01)");
+        //TC02: an opaque shape blocks the light
+        assertEquals(Double3.ZERO, geometries.findTransmittance(ray, 10, 0.001), "Expected blocked light (TC02)");
+        //TC03: nothing between the head of the ray and the maximal distance
+        assertEquals(Double3.ONE, geometries.findTransmittance(ray, 0.5, 0.001), "Expected unblocked light (TC03)");
+
+        // =============== Boundary Values Tests ==================
+        //TC04: the transmittance drops below the minimal value
+        assertEquals(Double3.ZERO, geometries.findTransmittance(ray, 4, 0.4), "Expected blocked light (TC04)");
+        //TC05: the same transmittance through a hierarchy
+        assertEquals(new Double3(0.5 * 0.8 * 0.8), geometries.buildBVH().findTransmittance(ray, 4, 0.001),
+                "Wrong transmittance through the hierarchy (TC05)");
+    }
+
+}
@@ -106,6 +106,28 @@ class PolygonTest {
         // TC02: Expected result is null (no intersection within the distance)
         assertNull(result, "ERROR: Ray should not intersect the polygon within the distance (TC02)");
     }
-}
-
 
+    /**
+     * Test method for {@link geometries.Polygon#findIntersections(Ray)} with a polygon
+     * facing the x axis (projected onto the yz plane).
+     */
+    @Test
+    void testFindIntersectionsFacingX() {
+        Polygon polygon = new Polygon(new Point(1, 0, 0), new Point(1, 2, 0), new Point(1, 2, 2), new Point(1, 0, 2));
+        Point head = new Point(3, 1, 1);
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Ray intersects the polygon inside
+        assertEquals(List.of(new Point(1, 1, 1)), polygon.findIntersections(new Ray(head, new Vector(-1, 0, 0))),
+                "ERROR: Ray should intersect the polygon inside (TC01)");
+        // TC02: Ray passes outside the polygon
+        assertNull(polygon.findIntersections(new Ray(head, new Vector(-2, 2, 0))),
+                "ERROR: Ray should not intersect the polygon outside (TC02)");
+        // =============== Boundary Values Tests ==================
+        // TC11: Ray passes through an edge of the polygon
+        assertNull(polygon.findIntersections(new Ray(head, new Vector(-2, 1, 0))),
+                "ERROR: Ray should not intersect the polygon on its edge (TC11)");
+        // TC12: Ray passes through a vertex of the polygon
+        assertNull(polygon.findIntersections(new Ray(head, new Vector(-2, 1, 1))),
+                "ERROR: Ray should not intersect the polygon on its vertex (TC12)");
+    }
+}
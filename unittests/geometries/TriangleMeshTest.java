@@ -0,0 +1,223 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.Double3;
+import primitives.Material;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for geometries.TriangleMesh class
+ *
+ * @author Emanuel and Shneor
+ */
+class TriangleMeshTest {
+    /**
+     * The vertices of a square of side 4 in the xy plane, split into two triangles along its diagonal
+     */
+    private static final double[] SQUARE_POSITIONS = {0, 0, 0, 4, 0, 0, 4, 4, 0, 0, 4, 0};
+    /**
+     * The triangles of the square
+     */
+    private static final int[] SQUARE_INDICES = {0, 1, 2, 0, 2, 3};
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#TriangleMesh(double[], double[], int[])}.
+     */
+    @Test
+    void testConstructor() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a correct mesh
+        TriangleMesh mesh = assertDoesNotThrow(() -> new TriangleMesh(SQUARE_POSITIONS, SQUARE_INDICES),
+                "ERROR: The Ctor doesn't work (TC01)");
+        assertEquals(4, mesh.getVerticesCount(), "ERROR: wrong amount of vertices (TC01)");
+        assertEquals(2, mesh.getTrianglesCount(), "ERROR: wrong amount of triangles (TC01)");
+
+        // TC02: the positions are not triples
+        assertThrows(IllegalArgumentException.class, () -> new TriangleMesh(new double[]{0, 0, 0, 1}, new int[]{0, 0, 0}),
+                "ERROR: the Ctor accepts positions which are not triples (TC02)");
+
+        // TC03: an index out of the vertices
+        assertThrows(IllegalArgumentException.class, () -> new TriangleMesh(SQUARE_POSITIONS, new int[]{0, 1, 4}),
+                "ERROR: the Ctor accepts an index out of the vertices (TC03)");
+
+        // TC04: normals not matching the vertices
+        assertThrows(IllegalArgumentException.class,
+                () -> new TriangleMesh(SQUARE_POSITIONS, new double[]{0, 0, 1}, SQUARE_INDICES),
+                "ERROR: the Ctor accepts normals not matching the vertices (TC04)");
+
+        // =============== Boundary Values Tests ==================
+        // TC05: degenerate triangles are dropped
+        mesh = new TriangleMesh(new double[]{0, 0, 0, 1, 0, 0, 2, 0, 0, 0, 1, 0}, new int[]{0, 1, 2, 0, 1, 3});
+        assertEquals(1, mesh.getTrianglesCount(), "ERROR: degenerate triangle wasn't dropped (TC05)");
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#TriangleMesh(TriangleMesh.Data)}.
+     */
+    @Test
+    void testDataConstructor() {
+        TriangleMesh mesh = new TriangleMesh(SQUARE_POSITIONS, SQUARE_INDICES);
+        TriangleMesh.Data data = mesh.getData();
+        Ray ray = new Ray(new Point(1, 3, 2), new Vector(0, 0, -1));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a mesh constructed from the data of another mesh is the same mesh
+        TriangleMesh copy = new TriangleMesh(data);
+        assertEquals(2, copy.getTrianglesCount(), "ERROR: wrong amount of triangles (TC01)");
+        assertEquals(mesh.findGeoIntersections(ray).get(0).point, copy.findGeoIntersections(ray).get(0).point,
+                "ERROR: wrong intersection point (TC01)");
+
+        // TC02: a hierarchy node referring to triangles out of the mesh
+        int[] nodeCount = data.nodeCount.clone();
+        nodeCount[nodeCount.length - 1] = 3;
+        assertThrows(IllegalArgumentException.class, () -> new TriangleMesh(new TriangleMesh.Data(data.positions,
+                        null, data.indices, data.nodeBounds, data.nodeStart, nodeCount)),
+                "ERROR: the Ctor accepts a node out of the triangles (TC02)");
+
+        // =============== Boundary Values Tests ==================
+        // TC03: triangles without a hierarchy
+        assertThrows(IllegalArgumentException.class, () -> new TriangleMesh(new TriangleMesh.Data(data.positions,
+                        null, data.indices, new double[0], new int[0], new int[0])),
+                "ERROR: the Ctor accepts triangles without a hierarchy (TC03)");
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#findIntersections(Ray)}.
+     */
+    @Test
+    void testFindIntersections() {
+        TriangleMesh mesh = new TriangleMesh(SQUARE_POSITIONS, SQUARE_INDICES);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the ray hits the first triangle
+        assertEquals(List.of(new Point(3, 1, 0)),
+                mesh.findIntersections(new Ray(new Point(3, 1, 2), new Vector(0, 0, -1))),
+                "ERROR: Expected intersection in the first triangle (TC01)");
+
+        // TC02: the ray hits the second triangle
+        assertEquals(List.of(new Point(1, 3, 0)),
+                mesh.findIntersections(new Ray(new Point(1, 3, -2), new Vector(0, 0, 1))),
+                "ERROR: Expected intersection in the second triangle (TC02)");
+
+        // TC03: the ray misses the mesh
+        assertNull(mesh.findIntersections(new Ray(new Point(5, 1, 2), new Vector(0, 0, -1))),
+                "ERROR: Expected no intersection outside the mesh (TC03)");
+
+        // TC04: the mesh is farther than the maximal distance
+        assertNull(mesh.findIntersections(new Ray(new Point(3, 1, 2), new Vector(0, 0, -1)), 1),
+                "ERROR: Expected no intersection beyond the maximal distance (TC04)");
+
+        // =============== Boundary Values Tests ==================
+        // TC05: the ray hits the edge shared by the two triangles - the mesh has no gap there
+        List<Point> result = mesh.findIntersections(new Ray(new Point(2, 2, 2), new Vector(0, 0, -1)));
+        assertNotNull(result, "ERROR: Expected intersection on the shared edge (TC05)");
+        assertEquals(List.of(new Point(2, 2, 0)), result, "ERROR: wrong intersection on the shared edge (TC05)");
+
+        // TC06: the ray hits the vertex shared by the two triangles - the point is reported once
+        assertEquals(List.of(new Point(0, 0, 0)),
+                mesh.findIntersections(new Ray(new Point(0, 0, 2), new Vector(0, 0, -1))),
+                "ERROR: wrong intersection on the shared vertex (TC06)");
+
+        // TC07: the ray is parallel to the mesh
+        assertNull(mesh.findIntersections(new Ray(new Point(-1, 1, 0), new Vector(1, 0, 0))),
+                "ERROR: Expected no intersection for a ray in the plane of the mesh (TC07)");
+    }
+
+    /**
+     * Test method for {@link geometries.Intersectable#findTransmittance(Ray, double, double)}.
+     */
+    @Test
+    void testFindTransmittance() {
+        TriangleMesh mesh = new TriangleMesh(SQUARE_POSITIONS, SQUARE_INDICES);
+        mesh.setMaterial(new Material().setKT(0.5));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the light passes through a single triangle once
+        assertEquals(new Double3(0.5), mesh.findTransmittance(new Ray(new Point(3, 1, 2), new Vector(0, 0, -1)),
+                10, 0.001), "ERROR: wrong transmittance through a triangle (TC01)");
+
+        // =============== Boundary Values Tests ==================
+        // TC02: the light passes through the edge shared by the two triangles once
+        assertEquals(new Double3(0.5), mesh.findTransmittance(new Ray(new Point(2, 2, 2), new Vector(0, 0, -1)),
+                10, 0.001), "ERROR: wrong transmittance through the shared edge (TC02)");
+    }
+
+    /**
+     * Test method for {@link geometries.Intersectable#findClosestGeoIntersection(Ray)}.
+     */
+    @Test
+    void testFindClosestGeoIntersection() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the hit record holds the ray parameter, the barycentric coordinates and the normal of a Triangle
+        TriangleMesh mesh = new TriangleMesh(SQUARE_POSITIONS, SQUARE_INDICES);
+        Triangle triangle = new Triangle(Point.ZERO, new Point(4, 0, 0), new Point(4, 4, 0));
+        Intersectable.GeoPoint geoPoint = mesh.findClosestGeoIntersection(
+                new Ray(new Point(3, 1, 5), new Vector(0, 0, -1)));
+        assertNotNull(geoPoint, "ERROR: Ray should intersect the mesh (TC01)");
+        assertEquals(new Point(3, 1, 0), geoPoint.point, "ERROR: wrong intersection point (TC01)");
+        assertEquals(5, geoPoint.t, 1e-10, "ERROR: wrong ray parameter (TC01)");
+        assertEquals(0.5, geoPoint.u, 1e-10, "ERROR: wrong weight of the second vertex (TC01)");
+        assertEquals(0.25, geoPoint.v, 1e-10, "ERROR: wrong weight of the third vertex (TC01)");
+        assertEquals(triangle.getNormal(geoPoint.point), geoPoint.getNormal(), "ERROR: wrong normal (TC01)");
+        assertEquals(geoPoint.getNormal(), mesh.getNormal(geoPoint.point), "ERROR: wrong normal of a point (TC01)");
+
+        // TC02: the normal is interpolated from the normals of the vertices
+        double[] normals = {0, 0, 1, 1, 0, 0, 1, 0, 0, 0, 0, 1};
+        mesh = new TriangleMesh(SQUARE_POSITIONS, normals, SQUARE_INDICES);
+        geoPoint = mesh.findClosestGeoIntersection(new Ray(new Point(2, 0, 5), new Vector(0, 0, -1)), 10);
+        assertNotNull(geoPoint, "ERROR: Ray should intersect the mesh (TC02)");
+        assertEquals(new Vector(1, 0, 1).normalize(), geoPoint.getNormal(), "ERROR: wrong interpolated normal (TC02)");
+
+        // TC03: a random mesh returns the same closest intersections as separate triangles
+        Random random = new Random(17);
+        int verticesCount = 300, trianglesCount = 400;
+        double[] positions = new double[3 * verticesCount];
+        for (int i = 0; i < positions.length; ++i)
+            positions[i] = random.nextDouble() * 20 - 10;
+        int[] indices = new int[3 * trianglesCount];
+        for (int i = 0; i < indices.length; i += 3) {
+            indices[i] = random.nextInt(verticesCount);
+            indices[i + 1] = (indices[i] + 1 + random.nextInt(verticesCount - 1)) % verticesCount;
+            do indices[i + 2] = random.nextInt(verticesCount);
+            while (indices[i + 2] == indices[i] || indices[i + 2] == indices[i + 1]);
+        }
+        mesh = new TriangleMesh(positions, indices);
+        Geometries triangles = new Geometries();
+        for (int i = 0; i < trianglesCount; ++i) {
+            int a = 3 * indices[3 * i], b = 3 * indices[3 * i + 1], c = 3 * indices[3 * i + 2];
+            triangles.add(new Triangle(new Point(positions[a], positions[a + 1], positions[a + 2]),
+                    new Point(positions[b], positions[b + 1], positions[b + 2]),
+                    new Point(positions[c], positions[c + 1], positions[c + 2])));
+        }
+        for (int i = 0; i < 200; ++i) {
+            Ray ray = new Ray(new Point(random.nextDouble() * 40 - 20, random.nextDouble() * 40 - 20, 30),
+                    new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -1));
+            Intersectable.GeoPoint expected = triangles.findClosestGeoIntersection(ray);
+            Intersectable.GeoPoint actual = mesh.findClosestGeoIntersection(ray);
+            if (expected == null)
+                assertNull(actual, "ERROR: the mesh found an intersection missed by the triangles (TC03)");
+            else {
+                assertNotNull(actual, "ERROR: the mesh missed an intersection (TC03)");
+                assertEquals(expected.t, actual.t, 1e-9, "ERROR: the mesh found a different intersection (TC03)");
+                assertEquals(expected.getNormal(), actual.getNormal(), "ERROR: wrong normal (TC03)");
+            }
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC04: the triangle of a point is found by the planes of the triangles, even if the normal of their
+        // first vertex lies in their plane
+        mesh = new TriangleMesh(SQUARE_POSITIONS, new double[]{1, 0, 0, 0, 0, 1, 0, 0, 1, 0, 0, 1}, SQUARE_INDICES);
+        geoPoint = mesh.findClosestGeoIntersection(new Ray(new Point(3, 1, 5), new Vector(0, 0, -1)));
+        assertNotNull(geoPoint, "ERROR: Ray should intersect the mesh (TC04)");
+        assertEquals(new Vector(0.25, 0, 0.75).normalize(), geoPoint.getNormal(),
+                "ERROR: wrong interpolated normal (TC04)");
+        assertEquals(geoPoint.getNormal(), mesh.getNormal(geoPoint.point), "ERROR: wrong normal of a point (TC04)");
+    }
+}
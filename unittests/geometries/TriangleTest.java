@@ -92,4 +92,23 @@ class TriangleTest {
         // TC02: Expected result is null (no intersection within the distance)
         assertNull(result, "ERROR: Ray should not intersect the polygon within the distance (TC01)");
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link geometries.Intersectable#findClosestGeoIntersection(Ray)}.
+     */
+    @Test
+    void testFindClosestGeoIntersection() {
+        Triangle triangle = new Triangle(Point.ZERO, new Point(4, 0, 0), new Point(0, 4, 0));
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the hit record holds the ray parameter, the barycentric coordinates and the normal
+        Intersectable.GeoPoint geoPoint = triangle.findClosestGeoIntersection(
+                new Ray(new Point(1, 2, 5), new Vector(0, 0, -1)));
+        assertNotNull(geoPoint, "ERROR: Ray should intersect the triangle (TC01)");
+        assertEquals(new Point(1, 2, 0), geoPoint.point, "ERROR: wrong intersection point (TC01)");
+        assertEquals(5, geoPoint.t, 1e-10, "ERROR: wrong ray parameter (TC01)");
+        assertEquals(0.25, geoPoint.u, 1e-10, "ERROR: wrong weight of the second vertex (TC01)");
+        assertEquals(0.5, geoPoint.v, 1e-10, "ERROR: wrong weight of the third vertex (TC01)");
+        assertEquals(triangle.getNormal(geoPoint.point), geoPoint.getNormal(), "ERROR: wrong normal (TC01)");
+        assertSame(geoPoint.getNormal(), geoPoint.getNormal(), "ERROR: the normal is not cached (TC01)");
+    }
+}
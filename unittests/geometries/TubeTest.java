@@ -1,11 +1,12 @@
 package geometries;
 
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import primitives.Point;
 import primitives.Ray;
 import primitives.Vector;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 
@@ -38,4 +39,59 @@ class TubeTest {
 
     }
 
-}
\ No newline at end of file
+    /**
+     * Test method for {@link geometries.Tube#findIntersections(Ray, double)}.
+     */
+    @Test
+    void testFindIntersections() {
+        Tube tube = new Tube(1, new Ray(Point.ZERO, new Vector(0, 0, 1)));
+        Vector xAxis = new Vector(1, 0, 0);
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the ray crosses the tube
+        assertEquals(List.of(new Point(-1, 0, 0.5), new Point(1, 0, 0.5)),
+                tube.findIntersections(new Ray(new Point(-2, 0, 0.5), xAxis)),
+                "ERROR: the ray should cross the tube (TC01)");
+        //TC02: the ray passes outside the tube
+        assertNull(tube.findIntersections(new Ray(new Point(-2, 2, 0), xAxis)),
+                "ERROR: the ray should pass outside the tube (TC02)");
+        //TC03: the ray starts inside the tube
+        assertEquals(List.of(new Point(1, 0, 3)), tube.findIntersections(new Ray(new Point(0.5, 0, 3), xAxis)),
+                "ERROR: the ray should leave the tube (TC03)");
+        //TC04: the ray starts after the tube
+        assertNull(tube.findIntersections(new Ray(new Point(2, 0, 0), xAxis)),
+                "ERROR: the ray should start after the tube (TC04)");
+        //TC05: an oblique ray crossing the tube
+        assertEquals(List.of(new Point(-1, 0, 1), new Point(1, 0, 3)),
+                tube.findIntersections(new Ray(new Point(-2, 0, 0), new Vector(1, 0, 1))),
+                "ERROR: the oblique ray should cross the tube (TC05)");
+
+        // =============== Boundary Values Tests ==================
+        //TC11: the ray is parallel to the axis
+        assertNull(tube.findIntersections(new Ray(new Point(0.5, 0, 0), new Vector(0, 0, 1))),
+                "ERROR: a ray parallel to the axis should not cross the tube (TC11)");
+        //TC12: the ray is tangent to the tube
+        assertNull(tube.findIntersections(new Ray(new Point(-2, 1, 0), xAxis)),
+                "ERROR: a tangent ray should not cross the tube (TC12)");
+        //TC13: the ray starts on the tube and goes inside
+        assertEquals(List.of(new Point(1, 0, 0)), tube.findIntersections(new Ray(new Point(-1, 0, 0), xAxis)),
+                "ERROR: the ray should leave the tube (TC13)");
+        //TC14: the second intersection is beyond the maximal distance
+        assertEquals(List.of(new Point(-1, 0, 0)), tube.findIntersections(new Ray(new Point(-2, 0, 0), xAxis), 2),
+                "ERROR: only the first intersection is in the distance (TC14)");
+    }
+
+    /**
+     * Test method for {@link geometries.Intersectable#findClosestGeoIntersection(Ray)}.
+     */
+    @Test
+    void testFindClosestGeoIntersection() {
+        Tube tube = new Tube(1, new Ray(Point.ZERO, new Vector(0, 0, 1)));
+        // ============ Equivalence Partitions Tests ==============
+        //TC01: the closest of the two intersections
+        Intersectable.GeoPoint geoPoint = tube.findClosestGeoIntersection(
+                new Ray(new Point(-2, 0, 0.5), new Vector(1, 0, 0)));
+        assertEquals(new Point(-1, 0, 0.5), geoPoint.point, "ERROR: wrong closest intersection (TC01)");
+        assertEquals(1, geoPoint.t, 1e-10, "ERROR: wrong ray parameter (TC01)");
+        assertEquals(new Vector(-1, 0, 0), geoPoint.getNormal(), "ERROR: wrong normal (TC01)");
+    }
+}
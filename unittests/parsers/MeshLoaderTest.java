@@ -0,0 +1,256 @@
+package parsers;
+
+import geometries.Intersectable;
+import geometries.TriangleMesh;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+import scene.Scene;
+import scene.SceneBuilder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for parsers.MeshLoader class
+ *
+ * @author Emanuel and Shneor
+ */
+class MeshLoaderTest {
+    /**
+     * The directory of the model files of the tests
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Writes a text file.
+     *
+     * @param name    the name of the file
+     * @param content the content of the file
+     * @return the path of the file
+     * @throws IOException if the file can't be written
+     */
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(directory.resolve(name), content);
+    }
+
+    /**
+     * Writes a binary PLY file of the square [0,4]x[0,4] in the plane z = 0, whose vertices have normals.
+     *
+     * @param name  the name of the file
+     * @param order the byte order of the file
+     * @param quad  true for a single quad face, false for two triangle faces
+     * @return the path of the file
+     * @throws IOException if the file can't be written
+     */
+    private Path writePly(String name, ByteOrder order, boolean quad) throws IOException {
+        String header = "ply\nformat binary_" + (order == ByteOrder.LITTLE_ENDIAN ? "little" : "big")
+                + "_endian 1.0\ncomment a square\nelement vertex 4\nproperty float x\nproperty float y\n"
+                + "property float z\nproperty uchar red\nproperty float nx\nproperty float ny\nproperty float nz\n"
+                + "element face " + (quad ? 1 : 2) + "\nproperty uchar flags\nproperty list uchar int vertex_indices\n"
+                + "end_header\n";
+        ByteBuffer data = ByteBuffer.allocate(200).order(order);
+        float[][] vertices = {{0, 0, 0}, {4, 0, 0}, {4, 4, 0}, {0, 4, 0}};
+        for (float[] vertex : vertices) {
+            data.putFloat(vertex[0]).putFloat(vertex[1]).putFloat(vertex[2]).put((byte) 255);
+            data.putFloat(0).putFloat(0).putFloat(1);
+        }
+        if (quad)
+            data.put((byte) 0).put((byte) 4).putInt(0).putInt(1).putInt(2).putInt(3);
+        else {
+            data.put((byte) 0).put((byte) 3).putInt(0).putInt(1).putInt(2);
+            data.put((byte) 0).put((byte) 3).putInt(0).putInt(2).putInt(3);
+        }
+        byte[] bytes = new byte[header.length() + data.position()];
+        System.arraycopy(header.getBytes(StandardCharsets.US_ASCII), 0, bytes, 0, header.length());
+        System.arraycopy(data.array(), 0, bytes, header.length(), data.position());
+        return Files.write(directory.resolve(name), bytes);
+    }
+
+    /**
+     * Writes a little endian binary PLY file of quads followed by triangles, whose vertex indices are
+     * unsigned integers. Every triangle has the corners 3, 200 and 201.
+     *
+     * @param name      the name of the file
+     * @param quads     the amount of quad faces
+     * @param triangles the amount of triangle faces
+     * @return the path of the file
+     * @throws IOException if the file can't be written
+     */
+    private Path writeMixedPly(String name, int quads, int triangles) throws IOException {
+        int vertices = 256;
+        String header = "ply\nformat binary_little_endian 1.0\nelement vertex " + vertices
+                + "\nproperty float x\nproperty float y\nproperty float z\nelement face " + (quads + triangles)
+                + "\nproperty list uchar uint vertex_indices\nend_header\n";
+        ByteBuffer data = ByteBuffer.allocate(12 * vertices + 17 * quads + 13 * triangles)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < vertices; ++i)
+            data.putFloat(i).putFloat(i * i % 17).putFloat(i % 5);
+        for (int i = 0; i < quads; ++i)
+            data.put((byte) 4).putInt(0).putInt(1).putInt(2).putInt(3);
+        for (int i = 0; i < triangles; ++i)
+            data.put((byte) 3).putInt(3).putInt(200).putInt(201);
+        byte[] bytes = new byte[header.length() + data.position()];
+        System.arraycopy(header.getBytes(StandardCharsets.US_ASCII), 0, bytes, 0, header.length());
+        System.arraycopy(data.array(), 0, bytes, header.length(), data.position());
+        return Files.write(directory.resolve(name), bytes);
+    }
+
+    /**
+     * Test method for {@link parsers.MeshLoader#load(Path)} with OBJ files.
+     *
+     * @throws IOException if a model file can't be written
+     */
+    @Test
+    void testLoadObj() throws IOException {
+        Ray ray = new Ray(new Point(3, 1, 5), new Vector(0, 0, -1));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a quad face with texture coordinates, comments and relative indices is split into two triangles
+        Path file = write("quad.obj", """
+                # a square
+                o square
+                v 0 0 0
+                v 4.0 0 0
+                v 4 4e0 0
+                v 0.0 4 -0.0
+                vt 0 0
+                vn 0 0 1
+                f -4/1/1 -3/1/1 3/1/-1 4/1/1
+                """);
+        TriangleMesh mesh = new MeshLoader().load(file);
+        assertEquals(2, mesh.getTrianglesCount(), "ERROR: wrong amount of triangles (TC01)");
+        assertEquals(4, mesh.getVerticesCount(), "ERROR: wrong amount of vertices (TC01)");
+        Intersectable.GeoPoint geoPoint = mesh.findClosestGeoIntersection(ray);
+        assertNotNull(geoPoint, "ERROR: Ray should intersect the mesh (TC01)");
+        assertEquals(new Point(3, 1, 0), geoPoint.point, "ERROR: wrong intersection point (TC01)");
+        assertEquals(new Vector(0, 0, 1), geoPoint.getNormal(), "ERROR: wrong normal of the file (TC01)");
+
+        // TC02: vertices repeated in the file are welded
+        file = write("triangles.obj", """
+                v 0 0 0
+                v 4 0 0
+                v 4 4 0
+                v 0 0 0
+                v 4 4 0
+                v 0 4 0
+                f 1 2 3
+                f 4 5 6
+                """);
+        assertEquals(4, new MeshLoader().load(file).getVerticesCount(), "ERROR: vertices weren't welded (TC02)");
+        assertEquals(6, new MeshLoader().setWelding(false).load(file).getVerticesCount(),
+                "ERROR: vertices were welded although welding is off (TC02)");
+
+        // TC03: a large file parsed concurrently in chunks gives the same mesh as parsing it in a single thread
+        int n = 300;
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i <= n; ++i)
+            for (int j = 0; j <= n; ++j)
+                content.append("v ").append(i * 0.1).append(' ').append(j * 0.1).append(' ')
+                        .append(Math.sin(i * 0.05) * Math.cos(j * 0.05)).append('\n');
+        for (int i = 0; i < n; ++i)
+            for (int j = 0; j < n; ++j) {
+                int v = i * (n + 1) + j + 1;
+                content.append("f ").append(v).append(' ').append(v + n + 1).append(' ').append(v + n + 2)
+                        .append(' ').append(v + 1).append('\n');
+            }
+        file = write("grid.obj", content.toString());
+        assertTrue(Files.size(file) > 2 << 20, "ERROR: the file is too small to be split (TC03)");
+        TriangleMesh concurrent = new MeshLoader().setMultithreading(4).load(file);
+        TriangleMesh sequential = new MeshLoader().setMultithreading(0).load(file);
+        assertEquals(2 * n * n, concurrent.getTrianglesCount(), "ERROR: wrong amount of triangles (TC03)");
+        assertEquals((n + 1) * (n + 1), concurrent.getVerticesCount(), "ERROR: wrong amount of vertices (TC03)");
+        for (int i = 0; i < 50; ++i) {
+            Ray gridRay = new Ray(new Point(0.3 + i * 0.5, 29.7 - i * 0.4, 10), new Vector(0.01 * i, 0.02, -1));
+            assertEquals(sequential.findClosestGeoIntersection(gridRay).point,
+                    concurrent.findClosestGeoIntersection(gridRay).point,
+                    "ERROR: the concurrently parsed mesh is different (TC03)");
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC04: a face refers to a missing vertex
+        Path missing = write("missing.obj", "v 0 0 0\nv 1 0 0\nv 0 1 0\nf 1 2 4\n");
+        assertThrows(IllegalArgumentException.class, () -> new MeshLoader().load(missing),
+                "ERROR: a face referring to a missing vertex was accepted (TC04)");
+
+        // TC05: a face with less than 3 vertices
+        Path line = write("line.obj", "v 0 0 0\nv 1 0 0\nf 1 2\n");
+        assertThrows(IllegalArgumentException.class, () -> new MeshLoader().load(line),
+                "ERROR: a face of 2 vertices was accepted (TC05)");
+
+        // TC06: a file of an unsupported format
+        Path stl = write("model.stl", "solid model\nendsolid model\n");
+        assertThrows(IllegalArgumentException.class, () -> new MeshLoader().load(stl),
+                "ERROR: an unsupported format was accepted (TC06)");
+    }
+
+    /**
+     * Test method for {@link parsers.MeshLoader#load(Path)} with PLY files.
+     *
+     * @throws IOException if a model file can't be written
+     */
+    @Test
+    void testLoadPly() throws IOException {
+        Ray ray = new Ray(new Point(1, 3, 5), new Vector(0, 0, -1));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a little endian file of triangles, with vertex normals and extra properties
+        TriangleMesh mesh = new MeshLoader().load(writePly("triangles.ply", ByteOrder.LITTLE_ENDIAN, false));
+        assertEquals(2, mesh.getTrianglesCount(), "ERROR: wrong amount of triangles (TC01)");
+        assertEquals(4, mesh.getVerticesCount(), "ERROR: wrong amount of vertices (TC01)");
+        assertEquals(new Point(1, 3, 0), mesh.findClosestGeoIntersection(ray).point,
+                "ERROR: wrong intersection point (TC01)");
+
+        // TC02: a big endian file with a quad face
+        mesh = new MeshLoader().load(writePly("quad.ply", ByteOrder.BIG_ENDIAN, true));
+        assertEquals(2, mesh.getTrianglesCount(), "ERROR: the quad wasn't split into triangles (TC02)");
+        Intersectable.GeoPoint geoPoint = mesh.findClosestGeoIntersection(ray);
+        assertEquals(new Point(1, 3, 0), geoPoint.point, "ERROR: wrong intersection point (TC02)");
+        assertEquals(new Vector(0, 0, 1), geoPoint.getNormal(), "ERROR: wrong normal of the file (TC02)");
+
+        // TC03: quads before many triangles, with unsigned indices which (read misaligned as triangles)
+        // decode beyond the range of int
+        Path mixed = writeMixedPly("mixed.ply", 3, 140000);
+        mesh = new MeshLoader().load(mixed);
+        assertEquals(3 * 2 + 140000, mesh.getTrianglesCount(), "ERROR: wrong amount of mixed triangles (TC03)");
+
+        // =============== Boundary Values Tests ==================
+        // TC04: an ASCII file is not supported
+        Path ascii = write("ascii.ply", "ply\nformat ascii 1.0\nelement vertex 0\nend_header\n");
+        assertThrows(IllegalArgumentException.class, () -> new MeshLoader().load(ascii),
+                "ERROR: an ASCII PLY file was accepted (TC04)");
+    }
+
+    /**
+     * Test method for {@link scene.SceneBuilder#buildSceneFromXml(String)} with a mesh element.
+     *
+     * @throws IOException if a file can't be written
+     */
+    @Test
+    void testMeshElement() throws IOException {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a mesh element refers to a model file relative to the XML file
+        write("square.obj", "v 0 0 0\nv 4 0 0\nv 4 4 0\nv 0 4 0\nf 1 2 3 4\n");
+        Path xml = write("scene.xml", """
+                <scene name="mesh" background-color="0 0 0">
+                    <geometries>
+                        <mesh file="square.obj"/>
+                    </geometries>
+                </scene>
+                """);
+        Scene scene = SceneBuilder.buildSceneFromXml(xml.toString());
+        assertEquals(List.of(new Point(2, 1, 0)),
+                scene.geometries.findIntersections(new Ray(new Point(2, 1, 3), new Vector(0, 0, -1))),
+                "ERROR: the mesh of the scene wasn't loaded (TC01)");
+    }
+}
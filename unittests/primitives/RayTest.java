@@ -82,4 +82,54 @@ class RayTest {
         assertEquals(new Point(0, 0, 1), ray.getPoint(0), "Test when the scalar is zero (TC03)");
 
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link primitives.Ray#Ray(Point, double, double, double)}
+     */
+    @Test
+    void testConstructorCoordinates() {
+        Point head = new Point(1, 2, 3);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the direction is normalized exactly as a direction vector is
+        Vector expected = new Ray(head, new Vector(0.3, -7, 2.5)).getDirection();
+        Vector result = new Ray(head, 0.3, -7, 2.5).getDirection();
+        assertEquals(expected.getX(), result.getX(), 0, "Wrong normalized x coordinate (TC01)");
+        assertEquals(expected.getY(), result.getY(), 0, "Wrong normalized y coordinate (TC01)");
+        assertEquals(expected.getZ(), result.getZ(), 0, "Wrong normalized z coordinate (TC01)");
+        assertEquals(head, new Ray(head, 0.3, -7, 2.5).getHead(), "Wrong head (TC01)");
+
+        // =============== Boundary Values Tests ==================
+        // TC02: a unit direction is kept as it is
+        assertEquals(new Vector(0, 0, -1), new Ray(head, 0, 0, -1).getDirection(), "Wrong unit direction (TC02)");
+
+        // TC03: the zero direction is rejected
+        assertThrows(IllegalArgumentException.class, () -> new Ray(head, 0, 0, 0), "Zero direction accepted (TC03)");
+    }
+
+    /**
+     * Test method for {@link primitives.Ray#Ray(Point, double, double, double, Vector)}
+     */
+    @Test
+    void testConstructorOffsetCoordinates() {
+        Point head = new Point(1, 2, 3);
+        Vector n = new Vector(0, 0, 1);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a direction leaving the front side is offset to the front side, as with a direction vector
+        Ray expected = new Ray(head, new Vector(0.3, -7, 2.5), n);
+        Ray result = new Ray(head, 0.3, -7, 2.5, n);
+        assertEquals(expected.getHead(), result.getHead(), "Wrong head (TC01)");
+        assertEquals(expected.getDirection().getX(), result.getDirection().getX(), 0, "Wrong x coordinate (TC01)");
+        assertEquals(expected.getDirection().getY(), result.getDirection().getY(), 0, "Wrong y coordinate (TC01)");
+        assertEquals(expected.getDirection().getZ(), result.getDirection().getZ(), 0, "Wrong z coordinate (TC01)");
+
+        // TC02: a direction leaving the back side is offset to the back side
+        assertEquals(new Ray(head, new Vector(1, 1, -1), n).getHead(), new Ray(head, 1, 1, -1, n).getHead(),
+                "Wrong head (TC02)");
+
+        // =============== Boundary Values Tests ==================
+        // TC03: the zero direction is rejected
+        assertThrows(IllegalArgumentException.class, () -> new Ray(head, 0, 0, 0, n), "Zero direction accepted (TC03)");
+    }
+}
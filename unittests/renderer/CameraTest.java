@@ -1,9 +1,18 @@
 package renderer;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import org.junit.jupiter.api.Test;
 
+import geometries.Sphere;
+import geometries.Triangle;
+import lighting.PointLight;
 import primitives.*;
 import renderer.*;
 import scene.Scene;
@@ -68,4 +77,229 @@ class CameraTest {
 
     }
 
+    /**
+     * Test method for {@link renderer.RayGenerator#constructRay(double, double)}.
+     */
+    @Test
+    void testRayGenerator() throws CloneNotSupportedException {
+        RayGenerator generator = cameraBuilder.setVpSize(8, 8).build().getRayGenerator(4, 4);
+
+        // ============ Equivalence Partitions Tests ==============
+        // EP01: a point inside the view plane, between pixel centers
+        assertEquals(new Ray(Point.ZERO, new Vector(2, -2, -10)), generator.constructRay(0.5, 0.5), "Bad ray");
+
+        // =============== Boundary Values Tests ==================
+        // BV01: the upper left corner of the view plane
+        assertEquals(new Ray(Point.ZERO, new Vector(4, -4, -10)), generator.constructRay(-0.5, -0.5), "Bad ray");
+        // BV02: a pixel center constructs the same ray as the pixel
+        assertEquals(generator.constructRay(1, 2), generator.constructRay(1.0, 2.0), "Bad ray");
+    }
+
+    /**
+     * Test method for {@link renderer.Camera#getRayGenerator(int, int)}.
+     */
+    @Test
+    void testGetRayGenerator() throws CloneNotSupportedException {
+        Camera camera = cameraBuilder.setVpSize(8, 8).build();
+        RayGenerator small = camera.getRayGenerator(4, 4), large = camera.getRayGenerator(8, 6);
+
+        // ============ Equivalence Partitions Tests ==============
+        // EP01: alternating resolutions reuse the generator of every resolution
+        assertSame(small, camera.getRayGenerator(4, 4), "The generator was calculated again");
+        assertSame(large, camera.getRayGenerator(8, 6), "The generator was calculated again");
+        assertEquals(8, large.getNx(), "Wrong generator resolution");
+        assertEquals(6, large.getNy(), "Wrong generator resolution");
+
+        // =============== Boundary Values Tests ==================
+        // BV01: a camera built again (possibly changed) doesn't share the generators
+        assertNotSame(small, cameraBuilder.build().getRayGenerator(4, 4), "The generator was shared");
+    }
+
+    /**
+     * Image writer that keeps the written pixels for comparison
+     */
+    private static class RecordingImageWriter extends ImageWriter {
+        /**
+         * The written pixels by row
+         */
+        private final int[] pixels;
+
+        /**
+         * Constructs a recording image writer
+         *
+         * @param nX amount of pixels by width
+         * @param nY amount of pixels by height
+         */
+        RecordingImageWriter(int nX, int nY) {
+            super("recording", nX, nY);
+            pixels = new int[nX * nY];
+        }
+
+        @Override
+        public void writePixel(int xIndex, int yIndex, Color color) {
+            super.writePixel(xIndex, yIndex, color);
+            pixels[yIndex * getNx() + xIndex] = color.getColor().getRGB();
+        }
+    }
+
+    /**
+     * Renders a deterministic scene with the given amount of threads
+     *
+     * @param threads the amount of rendering threads
+     * @return the rendered pixels
+     */
+    private int[] renderWithThreads(int threads) throws CloneNotSupportedException {
+        return renderWithThreads(threads, Camera.Scheduling.PLATFORM);
+    }
+
+    /**
+     * Renders a deterministic scene with the given amount of threads and scheduling of the tiles
+     *
+     * @param threads    the amount of rendering threads
+     * @param scheduling the scheduling of the tiles
+     * @return the rendered pixels
+     */
+    private int[] renderWithThreads(int threads, Camera.Scheduling scheduling) throws CloneNotSupportedException {
+        Scene scene = new Scene("Threads test");
+        scene.geometries.add(
+                new Sphere(30, new Point(0, 0, -100)).setEmission(new Color(20, 40, 60))
+                        .setMaterial(new Material().setKD(0.5).setKS(0.5).setNShininess(20).setKR(0.3)),
+                new Triangle(new Point(-100, -40, -150), new Point(100, -40, -150), new Point(0, -40, 50))
+                        .setEmission(new Color(30, 30, 30)).setMaterial(new Material().setKD(0.4).setKT(0.3)));
+        scene.lights.add(new PointLight(new Color(500, 300, 300), new Point(50, 50, 0)).setKL(0.0001));
+        RecordingImageWriter imageWriter = new RecordingImageWriter(57, 43);
+        Camera camera = Camera.getBuilder()
+                .setRayTracer(new SimpleRayTracer(scene))
+                .setImageWriter(imageWriter)
+                .setLocation(Point.ZERO)
+                .setDirection(new Vector(0, 0, -1), Vector.Y)
+                .setVpDistance(100).setVpSize(150, 120)
+                .setMultithreading(threads).setScheduling(scheduling).setTileSize(8)
+                .build();
+        camera.renderImage();
+        return imageWriter.pixels;
+    }
+
+    /**
+     * Test method for {@link renderer.Camera#renderImage()} with multithreading.
+     */
+    @Test
+    void testRenderImageMultithreading() throws CloneNotSupportedException {
+        int[] serial = renderWithThreads(0);
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Several threads produce exactly the image of the single thread
+        assertArrayEquals(serial, renderWithThreads(4), "Multithreaded rendering differs from serial rendering");
+
+        // =============== Boundary Values Tests ==================
+        // TC02: A single rendering thread
+        assertArrayEquals(serial, renderWithThreads(1), "Single thread rendering differs from serial rendering");
+    }
+
+    /**
+     * Test method for {@link renderer.Camera.Builder#setScheduling(Camera.Scheduling)}.
+     */
+    @Test
+    void testScheduling() throws CloneNotSupportedException {
+        int[] serial = renderWithThreads(0);
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: Fork join scheduling produces exactly the image of the single thread
+        assertArrayEquals(serial, renderWithThreads(3, Camera.Scheduling.FORK_JOIN),
+                "ERROR: fork join rendering differs from serial rendering (TC01)");
+
+        // TC02: Virtual threads produce exactly the image of the single thread
+        assertArrayEquals(serial, renderWithThreads(3, Camera.Scheduling.VIRTUAL),
+                "ERROR: virtual threads rendering differs from serial rendering (TC02)");
+
+        // =============== Boundary Values Tests ==================
+        // TC03: A single tile rendered at once by virtual threads
+        assertArrayEquals(serial, renderWithThreads(1, Camera.Scheduling.VIRTUAL),
+                "ERROR: single virtual thread rendering differs from serial rendering (TC03)");
+
+        // TC04: No scheduling
+        assertThrows(IllegalArgumentException.class, () -> Camera.getBuilder().setScheduling(null),
+                "ERROR: a null scheduling was accepted (TC04)");
+    }
+
+    /**
+     * Ray tracer which sees a vertical edge between two colors and counts the traced rays
+     */
+    private static class EdgeRayTracer extends RayTracerBase {
+        /**
+         * The amount of traced rays
+         */
+        private int rays = 0;
+
+        /**
+         * Constructs the edge ray tracer
+         */
+        EdgeRayTracer() {
+            super(new Scene("Edge"));
+        }
+
+        @Override
+        public Color traceRay(Ray ray, int numberOfSamples) {
+            ++rays;
+            return ray.getDirection().getX() < 0.001 ? new Color(0, 0, 0) : new Color(200, 200, 200);
+        }
+    }
+
+    /**
+     * Test method for {@link renderer.Camera.Builder#setAdaptiveSuperSampling(int, double)}.
+     */
+    @Test
+    void testAdaptiveSuperSampling() throws CloneNotSupportedException {
+        EdgeRayTracer tracer = new EdgeRayTracer();
+        RecordingImageWriter imageWriter = new RecordingImageWriter(10, 10);
+        Camera camera = Camera.getBuilder()
+                .setRayTracer(tracer)
+                .setImageWriter(imageWriter)
+                .setLocation(Point.ZERO)
+                .setDirection(new Vector(0, 0, -1), Vector.Y)
+                .setVpDistance(100).setVpSize(10, 10)
+                .setTileSize(10).setAdaptiveSuperSampling(3, 1)
+                .build();
+        camera.renderImage();
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: flat pixels cost about one ray each, only the pixels on the edge are subdivided
+        assertTrue(tracer.rays > 11 * 11, "Edge pixels were not subdivided");
+        assertTrue(tracer.rays < 11 * 11 + 10 * 9 * 9, "Flat pixels were subdivided");
+        // TC02: pixels far from the edge keep their colors, the edge pixels get mixed colors
+        assertEquals(new Color(0, 0, 0).getColor().getRGB(), imageWriter.pixels[0], "Wrong flat pixel");
+        assertEquals(new Color(200, 200, 200).getColor().getRGB(), imageWriter.pixels[9], "Wrong flat pixel");
+        int edge = imageWriter.pixels[5];
+        assertNotEquals(imageWriter.pixels[0], edge, "Edge pixel is not mixed");
+        assertNotEquals(imageWriter.pixels[9], edge, "Edge pixel is not mixed");
+
+        // TC03: pixels with similar corners cost only their shared corners
+        EdgeRayTracer flatTracer = new EdgeRayTracer();
+        Camera.getBuilder()
+                .setRayTracer(flatTracer)
+                .setImageWriter(new RecordingImageWriter(10, 10))
+                .setLocation(Point.ZERO)
+                .setDirection(new Vector(0, 0, -1), Vector.Y)
+                .setVpDistance(100).setVpSize(10, 10)
+                .setTileSize(10).setAdaptiveSuperSampling(3, 1000)
+                .build().renderImage();
+        assertEquals(11 * 11, flatTracer.rays, "Similar pixels were subdivided");
+
+        // =============== Boundary Values Tests ==================
+        // TC04: a negative level is illegal
+        assertThrows(IllegalArgumentException.class, () -> Camera.getBuilder().setAdaptiveSuperSampling(-1, 1),
+                "Negative super sampling level accepted");
+
+        // TC05: pixel rows of a tile share their grid rows, several tiles render the same edge
+        EdgeRayTracer tilesTracer = new EdgeRayTracer();
+        RecordingImageWriter tilesWriter = new RecordingImageWriter(10, 10);
+        Camera.getBuilder()
+                .setRayTracer(tilesTracer)
+                .setImageWriter(tilesWriter)
+                .setLocation(Point.ZERO)
+                .setDirection(new Vector(0, 0, -1), Vector.Y)
+                .setVpDistance(100).setVpSize(10, 10)
+                .setTileSize(3).setAdaptiveSuperSampling(3, 1)
+                .build().renderImage();
+        assertArrayEquals(imageWriter.pixels, tilesWriter.pixels, "Tiled adaptive rendering differs");
+    }
+
 }
@@ -3,6 +3,18 @@ package renderer;
 import org.junit.jupiter.api.Test;
 import primitives.Color;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
 public class ImageWriterTest {
 
     /**
@@ -26,4 +38,256 @@ public class ImageWriterTest {
 
         imageWriter.writeToImage();
     }
+
+    /**
+     * Test method for {@link renderer.ImageWriter#writePixel(int, int, Color)} and
+     * {@link renderer.ImageWriter#addPixel(int, int, Color)}
+     */
+    @Test
+    void testFrameBuffer() {
+        ImageWriter imageWriter = new ImageWriter("frameBuffer", 64, 48);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the colors are kept beyond 255, and accumulated
+        imageWriter.writePixel(3, 2, new Color(300, 12.5, 0.75));
+        imageWriter.addPixel(3, 2, new Color(100, 0.25, 0.5));
+        assertEquals(0, new Color(400, 12.75, 1.25).difference(imageWriter.getPixel(3, 2)),
+                "ERROR: wrong high dynamic range color (TC01)");
+
+        // TC02: the image is quantized like Color.getColor
+        double[] components = {0, 0.999, 1, 127.5, 254.999, 255, 255.5, 256, 1e9};
+        for (int i = 0; i < components.length; ++i)
+            imageWriter.writePixel(i, 0, new Color(components[i], components[components.length - 1 - i], 3.5));
+        BufferedImage image = readImage(imageWriter, "frameBuffer");
+        for (int i = 0; i < components.length; ++i)
+            assertEquals(new Color(components[i], components[components.length - 1 - i], 3.5).getColor().getRGB(),
+                    image.getRGB(i, 0), "ERROR: wrong quantization (TC02)");
+
+        // TC03: threads writing different rows concurrently
+        IntStream.range(0, imageWriter.getNy()).parallel().forEach(row -> {
+            for (int column = 0; column < imageWriter.getNx(); ++column)
+                imageWriter.writePixel(column, row, new Color(column, row, column + row));
+        });
+        image = readImage(imageWriter, "frameBuffer");
+        for (int row = 0; row < imageWriter.getNy(); ++row)
+            for (int column = 0; column < imageWriter.getNx(); ++column)
+                assertEquals(new Color(column, row, column + row).getColor().getRGB(), image.getRGB(column, row),
+                        "ERROR: wrong concurrently written pixel (TC03)");
+
+        // =============== Boundary Values Tests ==================
+        // TC04: negative components are limited to 0
+        assertEquals(0, ImageWriter.quantize(-3), "ERROR: a negative component wasn't limited (TC04)");
+
+        // TC05: an image with more components than an array can hold can't be kept in memory
+        assertThrows(IllegalArgumentException.class, () -> new ImageWriter("huge", 50000, 50000, false),
+                "ERROR: an image too large for memory was accepted (TC05)");
+    }
+
+    /**
+     * Writes an image as PNG and reads it back.
+     *
+     * @param imageWriter the image writer
+     * @param name        the name of the image
+     * @return the image read from the written file
+     */
+    private static BufferedImage readImage(ImageWriter imageWriter, String name) {
+        imageWriter.writeToImage();
+        try {
+            return ImageIO.read(Path.of(System.getProperty("user.dir"), "images", name + ".png").toFile());
+        } catch (IOException e) {
+            throw new IllegalStateException("Can't read the image " + name, e);
+        }
+    }
+
+    /**
+     * Writes a small image of a given format, with a bright pixel beyond 255 at its top left corner.
+     *
+     * @param name   the name of the image
+     * @param format the format
+     * @return the content of the image file
+     * @throws IOException if the file can't be read
+     */
+    private static ByteBuffer writeFormat(String name, ImageWriter.Format format) throws IOException {
+        ImageWriter imageWriter = new ImageWriter(name, 5, 3).setFormat(format);
+        for (int i = 0; i < 5; ++i)
+            for (int j = 0; j < 3; ++j)
+                imageWriter.writePixel(i, j, new Color(10 * i, 20 * j, 51));
+        imageWriter.writePixel(0, 0, new Color(510, 127.5, 0));
+        imageWriter.writeToImage();
+        Path file = Path.of(System.getProperty("user.dir"), "images", name + "." + format.getExtension());
+        return ByteBuffer.wrap(Files.readAllBytes(file));
+    }
+
+    /**
+     * Reads an ASCII header of a PPM or PFM file - its first three lines.
+     *
+     * @param content the content of the file, positioned after the header when returning
+     * @return the header
+     */
+    private static String header(ByteBuffer content) {
+        StringBuilder header = new StringBuilder();
+        for (int lines = 0; lines < 3; ) {
+            char c = (char) content.get();
+            header.append(c);
+            if (c == '\n')
+                ++lines;
+        }
+        return header.toString();
+    }
+
+    /**
+     * Test method for {@link renderer.ImageWriter#setCompressionLevel(int)}
+     *
+     * @throws IOException if a file can't be read
+     */
+    @Test
+    void testCompressionLevel() throws IOException {
+        ImageWriter imageWriter = new ImageWriter("compressed", 64, 48).setMultithreading(2);
+        for (int y = 0; y < 48; ++y)
+            for (int x = 0; x < 64; ++x)
+                imageWriter.writePixel(x, y, new Color(x * 4, y * 5, 100));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the image is written at every compression level
+        for (int level = -1; level <= 9; ++level) {
+            imageWriter.setCompressionLevel(level).writeToImage();
+            BufferedImage image = ImageIO.read(Path.of(System.getProperty("user.dir"), "images",
+                    "compressed.png").toFile());
+            assertEquals(new Color(63 * 4, 47 * 5, 100).getColor().getRGB(), image.getRGB(63, 47),
+                    "ERROR: wrong pixel at compression level " + level + " (TC01)");
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC02: levels out of range are rejected
+        assertThrows(IllegalArgumentException.class, () -> imageWriter.setCompressionLevel(-2),
+                "ERROR: a compression level of -2 was accepted (TC02)");
+        assertThrows(IllegalArgumentException.class, () -> imageWriter.setCompressionLevel(10),
+                "ERROR: a compression level of 10 was accepted (TC02)");
+    }
+
+    /**
+     * Test method for {@link renderer.ImageWriter#writeToImage()} with the raw formats
+     *
+     * @throws IOException if a file can't be read
+     */
+    @Test
+    void testFormats() throws IOException {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: PPM is quantized like PNG
+        ByteBuffer ppm = writeFormat("formatPpm", ImageWriter.Format.PPM);
+        assertEquals("P6\n5 3\n255\n", header(ppm), "ERROR: wrong PPM header (TC01)");
+        assertEquals(255, ppm.get() & 0xFF, "ERROR: wrong PPM component (TC01)");
+        assertEquals(127, ppm.get() & 0xFF, "ERROR: wrong PPM component (TC01)");
+        assertEquals(0, ppm.get() & 0xFF, "ERROR: wrong PPM component (TC01)");
+        ppm.position(ppm.position() + 3 * (3 * 5 - 2));
+        assertEquals(40, ppm.get() & 0xFF, "ERROR: wrong PPM last pixel (TC01)");
+        assertEquals(40, ppm.get() & 0xFF, "ERROR: wrong PPM last pixel (TC01)");
+        assertEquals(51, ppm.get() & 0xFF, "ERROR: wrong PPM last pixel (TC01)");
+        assertFalse(ppm.hasRemaining(), "ERROR: wrong PPM size (TC01)");
+
+        // TC02: PFM keeps the linear colors beyond 1.0, from the bottom row up
+        ByteBuffer pfm = writeFormat("formatPfm", ImageWriter.Format.PFM);
+        assertEquals("PF\n5 3\n-1.0\n", header(pfm), "ERROR: wrong PFM header (TC02)");
+        pfm.order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(0, pfm.getFloat(), "ERROR: wrong PFM bottom row (TC02)");
+        assertEquals(40 / 255f, pfm.getFloat(), 1e-6, "ERROR: wrong PFM bottom row (TC02)");
+        pfm.position(pfm.position() + 4 * (3 * 5 * 2 - 2));
+        assertEquals(2, pfm.getFloat(), 1e-6, "ERROR: wrong PFM top left pixel (TC02)");
+        assertEquals(0.5, pfm.getFloat(), 1e-6, "ERROR: wrong PFM top left pixel (TC02)");
+        assertEquals(0, pfm.getFloat(), "ERROR: wrong PFM top left pixel (TC02)");
+
+        // TC03: EXR keeps the linear colors as halves, in B, G, R channels of every scan line
+        ByteBuffer exr = writeFormat("formatExr", ImageWriter.Format.EXR).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(20000630, exr.getInt(), "ERROR: wrong EXR magic number (TC03)");
+        assertEquals(2, exr.getInt(), "ERROR: wrong EXR version (TC03)");
+        StringBuilder attributes = new StringBuilder();
+        while (true) {
+            String name = exrString(exr);
+            if (name.isEmpty())
+                break;
+            attributes.append(name).append(':').append(exrString(exr)).append(' ');
+            int size = exr.getInt();
+            exr.position(exr.position() + size);
+        }
+        assertEquals("channels:chlist compression:compression dataWindow:box2i displayWindow:box2i "
+                        + "lineOrder:lineOrder pixelAspectRatio:float screenWindowCenter:v2f screenWindowWidth:float ",
+                attributes.toString(), "ERROR: wrong EXR attributes (TC03)");
+        long[] offsets = new long[3];
+        for (int y = 0; y < 3; ++y)
+            offsets[y] = exr.getLong();
+        assertEquals(exr.position(), offsets[0], "ERROR: wrong EXR first offset (TC03)");
+        assertEquals(exr.capacity(), offsets[2] + 8 + 6 * 5, "ERROR: wrong EXR size (TC03)");
+        exr.position((int) offsets[0]);
+        assertEquals(0, exr.getInt(), "ERROR: wrong EXR scan line (TC03)");
+        assertEquals(6 * 5, exr.getInt(), "ERROR: wrong EXR scan line size (TC03)");
+        assertEquals(0, Float.float16ToFloat(exr.getShort(exr.position())), "ERROR: wrong EXR blue (TC03)");
+        assertEquals(0.5f, Float.float16ToFloat(exr.getShort(exr.position() + 10)), "ERROR: wrong EXR green (TC03)");
+        assertEquals(2f, Float.float16ToFloat(exr.getShort(exr.position() + 20)), "ERROR: wrong EXR red (TC03)");
+        exr.position((int) offsets[2]);
+        assertEquals(2, exr.getInt(), "ERROR: wrong EXR last scan line (TC03)");
+    }
+
+    /**
+     * Test method for {@link renderer.ImageWriter#ImageWriter(String, int, int, boolean)}
+     *
+     * @throws IOException if a file can't be read
+     */
+    @Test
+    void testOutOfCore() throws IOException {
+        int nX = 301, nY = 123;
+        ImageWriter inMemory = new ImageWriter("inMemory", nX, nY, false);
+        ImageWriter outOfCore = new ImageWriter("outOfCore", nX, nY, true);
+        IntStream.range(0, nY).parallel().forEach(y -> {
+            for (int x = 0; x < nX; ++x) {
+                Color color = new Color(Math.abs(Math.sin(x * 0.05 + y * 0.02)) * 300, (x * y) % 256, y * 0.5);
+                inMemory.writePixel(x, y, color);
+                outOfCore.writePixel(x, y, color);
+                outOfCore.addPixel(x, y, new Color(0.25, 0, 0));
+                inMemory.addPixel(x, y, new Color(0.25, 0, 0));
+            }
+        });
+        Path images = Path.of(System.getProperty("user.dir"), "images");
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the raw files of an out of core frame buffer are the same as of a frame buffer in memory
+        for (ImageWriter.Format format : new ImageWriter.Format[]{
+                ImageWriter.Format.PPM, ImageWriter.Format.PFM, ImageWriter.Format.EXR}) {
+            inMemory.setFormat(format).writeToImage();
+            outOfCore.setFormat(format).writeToImage();
+            assertArrayEquals(Files.readAllBytes(images.resolve("inMemory." + format.getExtension())),
+                    Files.readAllBytes(images.resolve("outOfCore." + format.getExtension())),
+                    "ERROR: wrong out of core " + format + " file (TC01)");
+        }
+
+        // TC02: the streamed PNG file of an out of core frame buffer has the same pixels
+        outOfCore.setFormat(ImageWriter.Format.PNG).writeToImage();
+        BufferedImage expected = readImage(inMemory.setFormat(ImageWriter.Format.PNG), "inMemory");
+        BufferedImage result = ImageIO.read(images.resolve("outOfCore.png").toFile());
+        assertEquals(nX, result.getWidth(), "ERROR: wrong out of core PNG width (TC02)");
+        assertEquals(nY, result.getHeight(), "ERROR: wrong out of core PNG height (TC02)");
+        for (int y = 0; y < nY; ++y)
+            for (int x = 0; x < nX; ++x)
+                assertEquals(expected.getRGB(x, y), result.getRGB(x, y), "ERROR: wrong out of core PNG pixel (TC02)");
+
+        // =============== Boundary Values Tests ==================
+        // TC03: a single pixel image
+        ImageWriter single = new ImageWriter("single", 1, 1, true);
+        single.writePixel(0, 0, new Color(1000, 7, 0));
+        single.writeToImage();
+        assertEquals(new Color(255, 7, 0).getColor().getRGB(),
+                ImageIO.read(images.resolve("single.png").toFile()).getRGB(0, 0),
+                "ERROR: wrong single pixel PNG (TC03)");
+    }
+
+    /**
+     * Reads a null terminated string of an OpenEXR header.
+     *
+     * @param content the content of the file
+     * @return the string
+     */
+    private static String exrString(ByteBuffer content) {
+        int start = content.position();
+        while (content.get() != 0) ;
+        return new String(content.array(), start, content.position() - 1 - start, StandardCharsets.US_ASCII);
+    }
 }
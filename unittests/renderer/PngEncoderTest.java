@@ -0,0 +1,141 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.function.ObjIntConsumer;
+import java.util.zip.Adler32;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for renderer.PngEncoder class
+ *
+ * @author Emanuel and Shneor
+ */
+class PngEncoderTest {
+    /**
+     * The directory of the files of the tests
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * The horizontal resolution of the image of the tests
+     */
+    private static final int NX = 200;
+    /**
+     * The vertical resolution of the image of the tests - enough rows for several bands
+     */
+    private static final int NY = 2000;
+
+    /**
+     * Gets the color of a pixel of the image of the tests - gradients with some noise,
+     * so every filter type is chosen for some rows.
+     *
+     * @param x the column of the pixel
+     * @param y the row of the pixel
+     * @return the RGB value of the pixel
+     */
+    private static int pixel(int x, int y) {
+        int noise = (x * 31 + y * 17) % 7 * ((y / 100) % 3);
+        return (x + noise & 0xFF) << 16 | (y / 8 & 0xFF) << 8 | (x * y / 64 + noise & 0xFF);
+    }
+
+    /**
+     * The rows of the image of the tests
+     */
+    private static final ObjIntConsumer<byte[]> ROWS = (bytes, y) -> {
+        for (int x = 0; x < NX; ++x) {
+            int rgb = pixel(x, y);
+            bytes[3 * x] = (byte) (rgb >> 16);
+            bytes[3 * x + 1] = (byte) (rgb >> 8);
+            bytes[3 * x + 2] = (byte) rgb;
+        }
+    };
+
+    /**
+     * Test method for {@link renderer.PngEncoder#write(Path, int, int, int, int, ObjIntConsumer)}.
+     *
+     * @throws IOException if a file can't be written or read
+     */
+    @Test
+    void testWrite() throws IOException {
+        Path single = directory.resolve("single.png"), parallel = directory.resolve("parallel.png");
+        PngEncoder.write(single, NX, NY, Deflater.DEFAULT_COMPRESSION, 0, ROWS);
+        PngEncoder.write(parallel, NX, NY, Deflater.DEFAULT_COMPRESSION, 3, ROWS);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the bands of the image are stitched into a PNG file readable by ImageIO
+        BufferedImage image = ImageIO.read(parallel.toFile());
+        assertEquals(NX, image.getWidth(), "ERROR: wrong width (TC01)");
+        assertEquals(NY, image.getHeight(), "ERROR: wrong height (TC01)");
+        for (int y = 0; y < NY; ++y)
+            for (int x = 0; x < NX; ++x)
+                assertEquals(pixel(x, y), image.getRGB(x, y) & 0xFFFFFF, "ERROR: wrong pixel (TC01)");
+
+        // TC02: the file doesn't depend on the amount of threads
+        assertArrayEquals(Files.readAllBytes(single), Files.readAllBytes(parallel),
+                "ERROR: the file depends on the amount of threads (TC02)");
+
+        // TC03: the compression level is applied
+        Path stored = directory.resolve("stored.png"), best = directory.resolve("best.png");
+        PngEncoder.write(stored, NX, NY, Deflater.NO_COMPRESSION, 2, ROWS);
+        PngEncoder.write(best, NX, NY, Deflater.BEST_COMPRESSION, 2, ROWS);
+        assertTrue(Files.size(stored) > 3L * NX * NY, "ERROR: the stored file is compressed (TC03)");
+        assertTrue(Files.size(best) <= Files.size(parallel), "ERROR: the best compression is worse (TC03)");
+        for (Path file : new Path[]{stored, best}) {
+            image = ImageIO.read(file.toFile());
+            for (int y = 0; y < NY; y += 7)
+                for (int x = 0; x < NX; x += 3)
+                    assertEquals(pixel(x, y), image.getRGB(x, y) & 0xFFFFFF, "ERROR: wrong pixel (TC03)");
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC04: a single pixel image
+        Path pixel = directory.resolve("pixel.png");
+        PngEncoder.write(pixel, 1, 1, Deflater.DEFAULT_COMPRESSION, 2,
+                (bytes, y) -> {
+                    bytes[0] = 1;
+                    bytes[1] = 2;
+                    bytes[2] = 3;
+                });
+        assertEquals(0x010203, ImageIO.read(pixel.toFile()).getRGB(0, 0) & 0xFFFFFF,
+                "ERROR: wrong single pixel (TC04)");
+    }
+
+    /**
+     * Test method for {@link renderer.PngEncoder#combine(long, long, long)}.
+     */
+    @Test
+    void testCombine() {
+        byte[] bytes = new byte[100000];
+        new Random(7).nextBytes(bytes);
+        Adler32 whole = new Adler32();
+        whole.update(bytes);
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the checksums of two parts combine into the checksum of the whole
+        for (int split : new int[]{1, 777, 65521, 99999}) {
+            Adler32 first = new Adler32(), second = new Adler32();
+            first.update(bytes, 0, split);
+            second.update(bytes, split, bytes.length - split);
+            assertEquals(whole.getValue(), PngEncoder.combine(first.getValue(), second.getValue(),
+                    bytes.length - split), "ERROR: wrong combined checksum (TC01)");
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC02: combining with an empty sequence
+        assertEquals(whole.getValue(), PngEncoder.combine(1, whole.getValue(), bytes.length),
+                "ERROR: wrong checksum combined after an empty sequence (TC02)");
+        assertEquals(whole.getValue(), PngEncoder.combine(whole.getValue(), 1, 0),
+                "ERROR: wrong checksum combined with an empty sequence (TC02)");
+    }
+}
@@ -0,0 +1,107 @@
+package renderer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import primitives.Point;
+import primitives.Vector;
+
+/**
+ * Testing the samplers and their use by Board
+ *
+ * @author Emanuel and Shneor
+ */
+class SamplerTest {
+    /**
+     * All the samplers
+     */
+    private final Sampler[] samplers = {new StratifiedSampler(), new HaltonSampler(), new SobolSampler()};
+
+    /**
+     * Test method for {@link renderer.Sampler#generate(int, long)}.
+     */
+    @Test
+    void testGenerate() {
+        for (Sampler sampler : samplers) {
+            String name = sampler.getClass().getSimpleName();
+            double[] samples = sampler.generate(16, 42);
+            // ============ Equivalence Partitions Tests ==============
+            // TC01: all the points are in the unit square
+            assertEquals(32, samples.length, name + ": wrong amount of coordinates");
+            for (double sample : samples)
+                assertTrue(sample >= 0 && sample < 1, name + ": sample out of the unit square");
+            // TC02: the same seed generates the same points
+            assertArrayEquals(samples, sampler.generate(16, 42), name + ": samples are not reproducible");
+            // TC03: different seeds generate different points
+            assertFalse(Arrays.equals(samples, sampler.generate(16, 43)), name + ": seed is ignored");
+            // TC04: the points are stratified - a single point in every cell of a 4x4 grid
+            boolean[] cells = new boolean[16];
+            for (int i = 0; i < samples.length; i += 2)
+                cells[(int) (samples[i + 1] * 4) * 4 + (int) (samples[i] * 4)] = true;
+            if (!(sampler instanceof HaltonSampler)) // Halton is stratified only along its base-2 axis
+                for (boolean cell : cells)
+                    assertTrue(cell, name + ": an empty cell");
+
+            // =============== Boundary Values Tests ==================
+            // TC11: no points
+            assertEquals(0, sampler.generate(0, 42).length, name + ": points generated for nothing");
+        }
+
+        // TC05: the Halton points are stratified along the x axis
+        double[] samples = new HaltonSampler().generate(16, 42);
+        boolean[] columns = new boolean[16];
+        for (int i = 0; i < samples.length; i += 2)
+            columns[(int) (samples[i] * 16)] = true;
+        for (boolean column : columns)
+            assertTrue(column, "HaltonSampler: an empty column");
+    }
+
+    /**
+     * Test method for {@link renderer.Sampler#toConcentricDisc(double[])}.
+     */
+    @Test
+    void testToConcentricDisc() {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: all the points are mapped into the unit disc
+        double[] disc = Sampler.toConcentricDisc(new SobolSampler().generate(64, 7));
+        for (int i = 0; i < disc.length; i += 2)
+            assertTrue(disc[i] * disc[i] + disc[i + 1] * disc[i + 1] <= 1 + 1e-12, "point out of the disc");
+
+        // =============== Boundary Values Tests ==================
+        // TC11: the square center is mapped to the disc center
+        assertArrayEquals(new double[]{0, 0}, Sampler.toConcentricDisc(new double[]{0.5, 0.5}), 1e-12,
+                "wrong mapping of the center");
+        // TC12: the middle of the square edge is mapped to the disc edge
+        assertArrayEquals(new double[]{1, 0}, Sampler.toConcentricDisc(new double[]{1, 0.5}), 1e-12,
+                "wrong mapping of the edge");
+    }
+
+    /**
+     * Test method for {@link renderer.Board#getPoints(int)}.
+     */
+    @Test
+    void testBoardPoints() {
+        Point center = new Point(1, 2, 3);
+        Board board = new Board(center, new Vector(0, 1, 0), new Vector(1, 0, 0), 2).setCircle(true).setSeed(5);
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a circle board keeps all the samples, inside the circle
+        List<Point> points = board.getPoints(4);
+        assertEquals(16, points.size(), "wrong amount of points");
+        for (Point point : points)
+            assertTrue(point.distance(center) <= 1 + 1e-12, "point out of the circle");
+        // TC02: the same seed gives the same points
+        assertEquals(points, board.getPoints(4), "points are not reproducible");
+        // TC03: a square board keeps its points inside the square
+        for (Point point : board.setCircle(false).setSampler(new HaltonSampler()).getPoints(3)) {
+            Vector v = point.subtract(center);
+            assertTrue(Math.abs(v.getX()) <= 1 && Math.abs(v.getY()) <= 1 && v.getZ() == 0, "point out of the square");
+        }
+    }
+}
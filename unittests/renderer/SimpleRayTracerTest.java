@@ -0,0 +1,87 @@
+package renderer;
+
+import org.junit.jupiter.api.Test;
+import scene.Scene;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testing the soft shadow sampling of the SimpleRayTracer class
+ *
+ * @author Emanuel and Shneor
+ */
+class SimpleRayTracerTest {
+    /**
+     * Test method for {@link renderer.SimpleRayTracer#discPattern(int, long)}.
+     */
+    @Test
+    void testDiscPattern() {
+        SimpleRayTracer tracer = new SimpleRayTracer(new Scene("Disc"));
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a pattern has a sample for every cell of its grid, all of them inside the unit disc
+        double[] pattern = tracer.discPattern(9, 5);
+        assertEquals(2 * 9 * 9, pattern.length, "ERROR: wrong amount of samples (TC01)");
+        for (int i = 0; i < pattern.length; i += 2)
+            assertTrue(pattern[i] * pattern[i] + pattern[i + 1] * pattern[i + 1] <= 1 + 1e-12,
+                    "ERROR: a sample out of the unit disc (TC01)");
+
+        // TC02: the variants of a sample count are cached and reused
+        assertSame(pattern, tracer.discPattern(9, 5), "ERROR: the pattern was not cached (TC02)");
+        assertSame(pattern, tracer.discPattern(9, 5 + 16), "ERROR: the variants are not reused (TC02)");
+
+        // TC03: different seeds choose different variants
+        assertNotSame(pattern, tracer.discPattern(9, 6), "ERROR: a single variant for all the seeds (TC03)");
+
+        // TC04: the sampler generating the patterns is replaced, and the cache is cleared
+        tracer.setSampler(new HaltonSampler());
+        assertNotSame(pattern, tracer.discPattern(9, 5), "ERROR: the cache was not cleared (TC04)");
+
+        // =============== Boundary Values Tests ==================
+        // TC05: a pattern of a different sample count is a different pattern
+        assertEquals(2 * 4 * 4, tracer.discPattern(4, 5).length, "ERROR: wrong amount of samples (TC05)");
+    }
+
+    /**
+     * Test method for
+     * {@link renderer.SimpleRayTracer#lightDiscPoints(double[], double, double, double, double, double, double, double, double[])}.
+     */
+    @Test
+    void testLightDiscPoints() {
+        double[] pattern = new SimpleRayTracer(new Scene("Disc")).discPattern(9, 5);
+        double[] points = new double[pattern.length / 2 * 3];
+        double radius = 3;
+        double lx = 2 / 7d, ly = -3 / 7d, lz = 6 / 7d;
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the samples lie on the disc of the light - perpendicular to its direction, inside its radius,
+        // and spanning the whole radius
+        SimpleRayTracer.lightDiscPoints(pattern, radius, lx, ly, lz, 0, 0, 0, points);
+        double maxDistance = 0;
+        for (int i = 0; i < points.length; i += 3) {
+            double x = points[i], y = points[i + 1], z = points[i + 2];
+            assertEquals(0, x * lx + y * ly + z * lz, 1e-12, "ERROR: a sample off the light disc (TC01)");
+            double distance = Math.sqrt(x * x + y * y + z * z);
+            assertTrue(distance <= radius + 1e-12, "ERROR: a sample out of the light radius (TC01)");
+            maxDistance = Math.max(maxDistance, distance);
+        }
+        assertTrue(maxDistance > 0.9 * radius, "ERROR: the samples don't span the light radius (TC01)");
+
+        // TC02: the samples are scaled to the radius - the samples on the unit circle are on the edge of the light
+        SimpleRayTracer.lightDiscPoints(new double[]{1, 0, 0, 1, -0.6, 0.8}, radius, lx, ly, lz, 1, 2, 3, points);
+        for (int i = 0; i < 9; i += 3) {
+            double x = points[i] - 1, y = points[i + 1] - 2, z = points[i + 2] - 3;
+            assertEquals(radius, Math.sqrt(x * x + y * y + z * z), 1e-12,
+                    "ERROR: a sample on the unit circle is not on the edge of the light (TC02)");
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC03: a light along the x axis, whose basis can't be built from its y and z coordinates
+        SimpleRayTracer.lightDiscPoints(new double[]{1, 0, 0, 1}, radius, 1, 0, 0, 0, 0, 0, points);
+        for (int i = 0; i < 6; i += 3) {
+            assertEquals(0, points[i], 1e-12, "ERROR: a sample off the light disc (TC03)");
+            assertEquals(radius, Math.sqrt(points[i + 1] * points[i + 1] + points[i + 2] * points[i + 2]), 1e-12,
+                    "ERROR: a sample is not on the edge of the light (TC03)");
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package scene;
+
+import geometries.Geometries;
+import geometries.Intersectable;
+import geometries.Plane;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for scene.SceneCache class
+ *
+ * @author Emanuel and Shneor
+ */
+class SceneCacheTest {
+    /**
+     * The directory of the scene files of the tests
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * The XML file of the scene of the tests - lights, a sphere, a triangle, a polygon, a mesh and a plane
+     */
+    private static final String SCENE = """
+            <scene name="cached" background-color="10 20 30">
+                <ambient-light color="5 6 7"/>
+                <materials>
+                    <material name="shiny" kd="0.5" ks="0.1 0.2 0.3" kt="0.25" shininess="30"/>
+                </materials>
+                <lights>
+                    <directional-light intensity="100 100 100" direction="0 0 -1"/>
+                    <spot-light intensity="70 70 70" position="0 -10 10" direction="0 1 -1" kq="0.01" narrow-beam="5"/>
+                </lights>
+                <geometries>
+                    <sphere center="0 0 -10" radius="2" material="shiny" emission="40 0 0"/>
+                    <triangle p0="-10 -10 -20" p1="10 -10 -20" p2="0 10 -20"/>
+                    <polygon p0="20 0 -5" p1="24 0 -5" p2="24 4 -5" p3="20 4 -5"/>
+                    <mesh file="square.obj"/>
+                    <plane point="0 0 -100" normal="0 0 1" emission="1 2 3"/>
+                </geometries>
+            </scene>
+            """;
+
+    /**
+     * Rays hitting all the geometries of the scene of the tests
+     */
+    private static final List<Ray> RAYS = List.of(
+            new Ray(new Point(0.5, 0.5, 0), new Vector(0, 0, -1)),
+            new Ray(new Point(5, -5, 0), new Vector(0, 0, -1)),
+            new Ray(new Point(21, 1, 0), new Vector(0.01, 0.02, -1)),
+            new Ray(new Point(-5, -8, 0), new Vector(0, 0, -1)),
+            new Ray(new Point(31, 3, 5), new Vector(0, 0, -1)),
+            new Ray(new Point(50, 50, 0), new Vector(0, 0, -1)));
+
+    /**
+     * Gets the cache files in the cache directory.
+     *
+     * @param cache the cache directory
+     * @return the cache files
+     * @throws IOException if the directory can't be listed
+     */
+    private static List<Path> cacheFiles(Path cache) throws IOException {
+        try (Stream<Path> files = Files.list(cache)) {
+            return files.filter(file -> file.toString().endsWith(".scene")).toList();
+        }
+    }
+
+    /**
+     * Checks that the geometries of a scene are organized as a bounding volume hierarchy - the unbounded
+     * plane next to the root node of the hierarchy of all the bounded geometries.
+     *
+     * @param scene   the scene
+     * @param message the message of a failure
+     */
+    private static void assertHierarchy(Scene scene, String message) {
+        List<Intersectable> top = scene.geometries.getIntersectables();
+        assertEquals(2, top.size(), message);
+        assertInstanceOf(Plane.class, top.get(0), message);
+        Geometries root = assertInstanceOf(Geometries.class, top.get(1), message);
+        assertTrue(root.isNode(), message);
+        assertEquals(2, root.getIntersectables().size(), message);
+    }
+
+    /**
+     * Checks that two scenes are equal - by their settings and by the intersections of rays with them.
+     *
+     * @param expected the expected scene
+     * @param actual   the actual scene
+     * @param message  the message of a failure
+     */
+    private static void assertSameScene(Scene expected, Scene actual, String message) {
+        assertEquals(expected.name, actual.name, message);
+        assertEquals(0, expected.background.difference(actual.background), message);
+        assertEquals(0, expected.ambientLight.getIntensity().difference(actual.ambientLight.getIntensity()),
+                message);
+        for (Ray ray : RAYS) {
+            var expectedPoint = expected.geometries.findClosestGeoIntersection(ray);
+            var actualPoint = actual.geometries.findClosestGeoIntersection(ray);
+            assertNotNull(actualPoint, message);
+            assertEquals(expectedPoint.point, actualPoint.point, message);
+            assertEquals(expectedPoint.geometry.getClass(), actualPoint.geometry.getClass(), message);
+            assertEquals(expectedPoint.getNormal(), actualPoint.getNormal(), message);
+            assertEquals(expectedPoint.geometry.getMaterial().kS, actualPoint.geometry.getMaterial().kS, message);
+            assertEquals(expectedPoint.geometry.getMaterial().kT, actualPoint.geometry.getMaterial().kT, message);
+            assertEquals(0, expectedPoint.geometry.getEmission().difference(actualPoint.geometry.getEmission()),
+                    message);
+        }
+        assertEquals(expected.lights.size(), actual.lights.size(), message);
+        Point point = new Point(1, 2, 3);
+        for (int i = 0; i < expected.lights.size(); ++i) {
+            assertEquals(expected.lights.get(i).getClass(), actual.lights.get(i).getClass(), message);
+            assertEquals(0, expected.lights.get(i).getIntensity(point)
+                    .difference(actual.lights.get(i).getIntensity(point)), message);
+            assertEquals(expected.lights.get(i).getL(point), actual.lights.get(i).getL(point), message);
+        }
+    }
+
+    /**
+     * Test method for {@link scene.SceneCache#load(String)}.
+     *
+     * @throws IOException if a file can't be written
+     */
+    @Test
+    void testLoad() throws IOException {
+        Files.writeString(directory.resolve("square.obj"),
+                "v 30 0 0\nv 34 0 0\nv 34 4 0\nv 30 4 0\nvn 0 0 1\nf 1//1 2//1 3//1 4//1\n");
+        Path xml = Files.writeString(directory.resolve("scene.xml"), SCENE);
+        Path cache = directory.resolve("cache");
+        Scene original = SceneBuilder.buildSceneFromXml(xml.toString());
+
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: the first load builds the scene from the XML file and caches it
+        Scene built = new SceneCache(cache).load(xml.toString());
+        assertSameScene(original, built, "ERROR: wrong scene built on the first load (TC01)");
+        assertEquals(1, cacheFiles(cache).size(), "ERROR: the scene wasn't cached (TC01)");
+
+        // TC02: the next load reads the cached scene
+        Scene cached = new SceneCache(cache).load(xml.toString());
+        assertSameScene(original, cached, "ERROR: wrong scene read from the cache (TC02)");
+        assertHierarchy(original, "ERROR: the built scene has no hierarchy (TC02)");
+        assertHierarchy(cached, "ERROR: the hierarchy of the scene wasn't cached (TC02)");
+        assertEquals(1, cacheFiles(cache).size(), "ERROR: the scene was cached again (TC02)");
+
+        // TC03: a scene whose cache file exists is read from the cache file rather than built again
+        Path other = Files.writeString(directory.resolve("other.xml"), SCENE.replace("cached", "other"));
+        Files.copy(cacheFiles(cache).get(0), cache.resolve(SceneCache.key(other) + ".scene"));
+        assertEquals("cached", new SceneCache(cache).load(other.toString()).name,
+                "ERROR: the scene wasn't read from its cache file (TC03)");
+
+        // TC04: changing the XML file or a model file it refers to changes the key of the scene
+        String key = SceneCache.key(xml);
+        Files.writeString(xml, SCENE.replace("10 20 30", "10 20 31"));
+        assertNotEquals(key, SceneCache.key(xml), "ERROR: the key ignores the content of the XML file (TC04)");
+        Files.writeString(xml, SCENE);
+        assertEquals(key, SceneCache.key(xml), "ERROR: the key is not stable (TC04)");
+        Path model = directory.resolve("square.obj");
+        Files.setLastModifiedTime(model, FileTime.fromMillis(Files.getLastModifiedTime(model).toMillis() + 5000));
+        assertNotEquals(key, SceneCache.key(xml), "ERROR: the key ignores the model files (TC04)");
+
+        // =============== Boundary Values Tests ==================
+        // TC05: a broken cache file is replaced by the scene built again
+        Path broken = cache.resolve(SceneCache.key(xml) + ".scene");
+        Files.write(broken, new byte[]{'R', 'T', 'S', 'C', 1, 0, 0, 0, 5});
+        assertSameScene(original, new SceneCache(cache).load(xml.toString()),
+                "ERROR: wrong scene built instead of a broken cache file (TC05)");
+        assertSameScene(original, SceneCache.read(broken), "ERROR: the broken cache file wasn't replaced (TC05)");
+
+        // TC06: a truncated cache file is rejected
+        Path truncated = directory.resolve("truncated.scene");
+        Files.write(truncated, Arrays.copyOf(Files.readAllBytes(broken), (int) Files.size(broken) - 3));
+        assertThrows(IllegalArgumentException.class, () -> SceneCache.read(truncated),
+                "ERROR: a truncated cache file was accepted (TC06)");
+    }
+}
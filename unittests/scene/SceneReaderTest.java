@@ -0,0 +1,152 @@
+package scene;
+
+import geometries.Intersectable;
+import lighting.DirectionalLight;
+import lighting.PointLight;
+import lighting.SpotLight;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import primitives.Color;
+import primitives.Double3;
+import primitives.Point;
+import primitives.Ray;
+import primitives.Vector;
+import renderer.Camera;
+import renderer.ImageWriter;
+import renderer.SimpleRayTracer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit test for scene.SceneReader class
+ *
+ * @author Emanuel and Shneor
+ */
+class SceneReaderTest {
+    /**
+     * The directory of the scene files of the tests
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * Writes a scene file.
+     *
+     * @param name    the name of the file
+     * @param content the content of the file
+     * @return the path of the file
+     * @throws IOException if the file can't be written
+     */
+    private Path write(String name, String content) throws IOException {
+        return Files.writeString(directory.resolve(name), content);
+    }
+
+    /**
+     * Test method for {@link scene.SceneReader#read(Path, Camera.Builder)}.
+     *
+     * @throws Exception if a file can't be written or the camera can't be built
+     */
+    @Test
+    void testRead() throws Exception {
+        // ============ Equivalence Partitions Tests ==============
+        // TC01: a scene with a camera, materials, lights and geometries
+        Path file = write("scene.xml", """
+                <?xml version="1.0"?>
+                <scene name="full" background-color="1 2 3">
+                    <!-- a comment -->
+                    <ambient-light color="10 20 30" ka="0.5"/>
+                    <camera location="0 0 100" to="0 0 -1" up="0 1 0" vp-size="20 10" vp-distance="50"/>
+                    <materials>
+                        <material name="shiny" kd="0.5" ks="0.1 0.2 0.3" shininess="30"/>
+                    </materials>
+                    <lights>
+                        <directional-light intensity="100 100 100" direction="0 0 -1"/>
+                        <point-light intensity="50 50 50" position="0 10 10" kl="0.01" radius="2"/>
+                        <spot-light intensity="70 70 70" position="0 -10 10" direction="0 1 -1" narrow-beam="5"/>
+                    </lights>
+                    <geometries>
+                        <sphere center="0 0 -10" radius="2" material="shiny" emission="40 0 0"/>
+                        <polygon p0="20 0 -5" p1="24 0 -5" p2="24 4 -5" p3="20 4 -5"/>
+                        <plane point="0 0 -100" normal="0 0 1"/>
+                    </geometries>
+                </scene>
+                """);
+        Camera.Builder builder = Camera.getBuilder();
+        Scene scene = new SceneReader().read(file, builder);
+        assertEquals("full", scene.name, "ERROR: wrong name (TC01)");
+        assertEquals(0, new Color(1, 2, 3).difference(scene.background), "ERROR: wrong background (TC01)");
+        assertEquals(0, new Color(5, 10, 15).difference(scene.ambientLight.getIntensity()),
+                "ERROR: wrong ambient light (TC01)");
+        assertEquals(3, scene.lights.size(), "ERROR: wrong amount of lights (TC01)");
+        assertInstanceOf(DirectionalLight.class, scene.lights.get(0), "ERROR: wrong light type (TC01)");
+        assertEquals(2, ((PointLight) scene.lights.get(1)).getRadius(), "ERROR: wrong light radius (TC01)");
+        assertEquals(5, ((SpotLight) scene.lights.get(2)).getNarrowBeam(), "ERROR: wrong narrow beam (TC01)");
+
+        Intersectable.GeoPoint sphere = scene.geometries.findClosestGeoIntersection(
+                new Ray(new Point(0, 0, 0), new Vector(0, 0, -1)));
+        assertEquals(new Point(0, 0, -8), sphere.point, "ERROR: wrong sphere (TC01)");
+        assertEquals(new Double3(0.5), sphere.geometry.getMaterial().kD, "ERROR: wrong material (TC01)");
+        assertEquals(new Double3(0.1, 0.2, 0.3), sphere.geometry.getMaterial().kS, "ERROR: wrong material (TC01)");
+        assertEquals(30, sphere.geometry.getMaterial().nShininess, "ERROR: wrong material (TC01)");
+        assertEquals(0, new Color(40, 0, 0).difference(sphere.geometry.getEmission()),
+                "ERROR: wrong emission (TC01)");
+        assertEquals(new Point(21, 1, -5), scene.geometries.findClosestGeoIntersection(
+                new Ray(new Point(21, 1, 0), new Vector(0, 0, -1))).point, "ERROR: wrong polygon (TC01)");
+        assertEquals(new Point(50, 50, -100), scene.geometries.findClosestGeoIntersection(
+                new Ray(new Point(50, 50, 0), new Vector(0, 0, -1))).point, "ERROR: wrong plane (TC01)");
+
+        Camera camera = builder.setRayTracer(new SimpleRayTracer(scene))
+                .setImageWriter(new ImageWriter("readerTest", 10, 10)).build();
+        assertEquals(new Point(0, 0, 100), camera.getLocation(), "ERROR: wrong camera location (TC01)");
+        assertEquals(new Vector(0, 0, -1), camera.getVTo(), "ERROR: wrong camera direction (TC01)");
+        assertEquals(20, camera.getWidth(), "ERROR: wrong view plane width (TC01)");
+        assertEquals(50, camera.getDistance(), "ERROR: wrong view plane distance (TC01)");
+
+        // TC02: a scene of many batches gives the same intersections built concurrently and sequentially
+        StringBuilder content = new StringBuilder("<scene name=\"many\"><geometries>\n");
+        for (int i = 0; i < 100; ++i)
+            for (int j = 0; j < 100; ++j)
+                content.append("<sphere center=\"").append(i * 3).append(' ').append(j * 3)
+                        .append(" 0\" radius=\"1\"/>\n");
+        content.append("</geometries></scene>\n");
+        Path many = write("many.xml", content.toString());
+        Scene concurrent = new SceneReader().setMultithreading(3).read(many);
+        Scene sequential = new SceneReader().setMultithreading(0).read(many);
+        for (int i = 0; i < 60; ++i) {
+            Ray ray = new Ray(new Point(i * 5 + 0.5, 290 - i * 4, 10), new Vector(0.05, -0.1, -1));
+            Intersectable.GeoPoint expected = sequential.geometries.findClosestGeoIntersection(ray);
+            Intersectable.GeoPoint result = concurrent.geometries.findClosestGeoIntersection(ray);
+            assertEquals(expected == null, result == null, "ERROR: wrong concurrently built scene (TC02)");
+            if (expected != null)
+                assertEquals(expected.point, result.point, "ERROR: wrong concurrently built scene (TC02)");
+        }
+
+        // =============== Boundary Values Tests ==================
+        // TC03: an unknown geometry
+        Path unknown = write("unknown.xml", "<scene><geometries><cube/></geometries></scene>");
+        assertThrows(IllegalArgumentException.class, () -> new SceneReader().read(unknown),
+                "ERROR: an unknown geometry was accepted (TC03)");
+
+        // TC04: a material used before it's defined
+        Path material = write("material.xml", """
+                <scene><geometries><sphere center="0 0 0" radius="1" material="later"/></geometries>
+                <materials><material name="later"/></materials></scene>
+                """);
+        assertThrows(IllegalArgumentException.class, () -> new SceneReader().read(material),
+                "ERROR: an undefined material was accepted (TC04)");
+
+        // TC05: a missing attribute
+        Path missing = write("missing.xml", "<scene><geometries><sphere radius=\"1\"/></geometries></scene>");
+        assertThrows(IllegalArgumentException.class, () -> new SceneReader().read(missing),
+                "ERROR: a sphere without a center was accepted (TC05)");
+
+        // TC06: a malformed file
+        Path malformed = write("malformed.xml", "<scene><geometries><sphere center=\"0 0 0\" radius=\"1\">");
+        assertThrows(IllegalArgumentException.class, () -> new SceneReader().read(malformed),
+                "ERROR: a malformed file was accepted (TC06)");
+    }
+}